@@ -25,13 +25,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.datamodel.interfaces.Claim;
 import org.wikidata.wdtk.datamodel.interfaces.DataObjectFactory;
 import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
 import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
@@ -71,6 +75,12 @@ import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
  * immutable and do not need to be copied. The use of this class is to convert
  * data objects to a specific implementation, as might be needed for some
  * specialized purpose (e.g., for JSON export).
+ * <p>
+ * By default, all objects are copied. When converting data that mostly
+ * consists of objects of the target implementation already, this can be
+ * avoided with {@link #setReuseTargetObjects(boolean)}. Lists of documents can
+ * be converted in parallel with {@link #copyEntityDocumentsInParallel(List)},
+ * provided that the factory is thread-safe.
  *
  * @author Markus Kroetzsch
  *
@@ -86,6 +96,18 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 */
 	private final DataObjectFactory dataObjectFactory;
 
+	/**
+	 * Whether objects of the classes created by the factory are returned
+	 * instead of being copied.
+	 */
+	private boolean reuseTargetObjects = false;
+
+	/**
+	 * The classes of the objects that the factory created so far, indexed by
+	 * the interface that they were created for.
+	 */
+	private final Map<Class<?>, Class<?>> targetClasses = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructor.
 	 *
@@ -96,6 +118,22 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 		this.dataObjectFactory = dataObjectFactory;
 	}
 
+	/**
+	 * Enables or disables the reuse of objects that already belong to the
+	 * target implementation. If enabled, an object is returned as it is
+	 * instead of being copied if it has the class of the objects that the
+	 * factory creates for it, and if all objects that it is made of can be
+	 * reused as well. Otherwise only the parts that differ are copied, so
+	 * that converting a document shares all statements, snaks and values that
+	 * are already in the target implementation. This is disabled by default.
+	 *
+	 * @param reuseTargetObjects
+	 *            if true, objects of the target implementation are not copied
+	 */
+	public void setReuseTargetObjects(boolean reuseTargetObjects) {
+		this.reuseTargetObjects = reuseTargetObjects;
+	}
+
 	/**
 	 * Copies an {@link ItemIdValue}.
 	 *
@@ -104,7 +142,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public ItemIdValue copy(ItemIdValue object) {
-		return dataObjectFactory.getItemIdValue(object.getId(), object.getSiteIri());
+		return reuseOrCreate(ItemIdValue.class, object,
+				() -> dataObjectFactory.getItemIdValue(object.getId(), object.getSiteIri()));
 	}
 
 	/**
@@ -115,7 +154,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public PropertyIdValue copy(PropertyIdValue object) {
-		return dataObjectFactory.getPropertyIdValue(object.getId(), object.getSiteIri());
+		return reuseOrCreate(PropertyIdValue.class, object,
+				() -> dataObjectFactory.getPropertyIdValue(object.getId(), object.getSiteIri()));
 	}
 
 	/**
@@ -126,7 +166,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public LexemeIdValue copy(LexemeIdValue object) {
-		return dataObjectFactory.getLexemeIdValue(object.getId(), object.getSiteIri());
+		return reuseOrCreate(LexemeIdValue.class, object,
+				() -> dataObjectFactory.getLexemeIdValue(object.getId(), object.getSiteIri()));
 	}
 	
 	/**
@@ -137,7 +178,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public FormIdValue copy(FormIdValue object) {
-        return dataObjectFactory.getFormIdValue(object.getId(), object.getSiteIri());
+        return reuseOrCreate(FormIdValue.class, object,
+                () -> dataObjectFactory.getFormIdValue(object.getId(), object.getSiteIri()));
     }
     
     /**
@@ -148,7 +190,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public SenseIdValue copy(SenseIdValue object) {
-        return dataObjectFactory.getSenseIdValue(object.getId(), object.getSiteIri());
+        return reuseOrCreate(SenseIdValue.class, object,
+                () -> dataObjectFactory.getSenseIdValue(object.getId(), object.getSiteIri()));
     }
     
     /**
@@ -159,7 +202,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public MediaInfoIdValue copy(MediaInfoIdValue object) {
-        return dataObjectFactory.getMediaInfoIdValue(object.getId(), object.getSiteIri());
+        return reuseOrCreate(MediaInfoIdValue.class, object,
+                () -> dataObjectFactory.getMediaInfoIdValue(object.getId(), object.getSiteIri()));
     }
 
 	/**
@@ -170,7 +214,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public DatatypeIdValue copy(DatatypeIdValue object) {
-		return dataObjectFactory.getDatatypeIdValue(object.getIri());
+		return reuseOrCreate(DatatypeIdValue.class, object,
+				() -> dataObjectFactory.getDatatypeIdValue(object.getIri()));
 	}
 
 	/**
@@ -181,11 +226,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public TimeValue copy(TimeValue object) {
-		return dataObjectFactory.getTimeValue(object.getYear(),
-				object.getMonth(), object.getDay(), object.getHour(),
-				object.getMinute(), object.getSecond(), object.getPrecision(),
-				object.getBeforeTolerance(), object.getAfterTolerance(),
-				object.getTimezoneOffset(), object.getPreferredCalendarModel());
+		return reuseOrCreate(TimeValue.class, object,
+				() -> dataObjectFactory.getTimeValue(object.getYear(),
+						object.getMonth(), object.getDay(), object.getHour(),
+						object.getMinute(), object.getSecond(), object.getPrecision(),
+						object.getBeforeTolerance(), object.getAfterTolerance(),
+						object.getTimezoneOffset(), object.getPreferredCalendarModel()));
 	}
 
 	/**
@@ -196,9 +242,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public GlobeCoordinatesValue copy(GlobeCoordinatesValue object) {
-		return dataObjectFactory.getGlobeCoordinatesValue(
-				object.getLatitude(), object.getLongitude(),
-				object.getPrecision(), object.getGlobe());
+		return reuseOrCreate(GlobeCoordinatesValue.class, object,
+				() -> dataObjectFactory.getGlobeCoordinatesValue(
+						object.getLatitude(), object.getLongitude(),
+						object.getPrecision(), object.getGlobe()));
 	}
 
 	/**
@@ -209,7 +256,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public StringValue copy(StringValue object) {
-		return dataObjectFactory.getStringValue(object.getString());
+		return reuseOrCreate(StringValue.class, object,
+				() -> dataObjectFactory.getStringValue(object.getString()));
 	}
 
 	/**
@@ -219,7 +267,8 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public MonolingualTextValue copy(MonolingualTextValue object) {
-		return dataObjectFactory.getMonolingualTextValue(object.getText(), object.getLanguageCode());
+		return reuseOrCreate(MonolingualTextValue.class, object,
+				() -> dataObjectFactory.getMonolingualTextValue(object.getText(), object.getLanguageCode()));
 	}
 
 	/**
@@ -230,9 +279,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public QuantityValue copy(QuantityValue object) {
-		return dataObjectFactory.getQuantityValue(
-				object.getNumericValue(), object.getLowerBound(),
-				object.getUpperBound(), object.getUnitItemId());
+		return reuseOrCreate(QuantityValue.class, object,
+				() -> dataObjectFactory.getQuantityValue(
+						object.getNumericValue(), object.getLowerBound(),
+						object.getUpperBound(), object.getUnitItemId()));
 	}
 	
 	/**
@@ -275,7 +325,11 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public ValueSnak copy(ValueSnak object) {
-		return dataObjectFactory.getValueSnak(copy(object.getPropertyId()), copyValue(object.getValue()));
+		PropertyIdValue propertyId = copy(object.getPropertyId());
+		Value value = copyValue(object.getValue());
+		return reuseOrCreate(ValueSnak.class, object,
+				propertyId == object.getPropertyId() && value == object.getValue(),
+				() -> dataObjectFactory.getValueSnak(propertyId, value));
 	}
 
 	/**
@@ -286,7 +340,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public SomeValueSnak copy(SomeValueSnak object) {
-		return dataObjectFactory.getSomeValueSnak(copy(object.getPropertyId()));
+		PropertyIdValue propertyId = copy(object.getPropertyId());
+		return reuseOrCreate(SomeValueSnak.class, object,
+				propertyId == object.getPropertyId(),
+				() -> dataObjectFactory.getSomeValueSnak(propertyId));
 	}
 
 	/**
@@ -297,7 +354,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public NoValueSnak copy(NoValueSnak object) {
-		return dataObjectFactory.getNoValueSnak(copy(object.getPropertyId()));
+		PropertyIdValue propertyId = copy(object.getPropertyId());
+		return reuseOrCreate(NoValueSnak.class, object,
+				propertyId == object.getPropertyId(),
+				() -> dataObjectFactory.getNoValueSnak(propertyId));
 	}
 
 	/**
@@ -309,10 +369,14 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 */
 	public SnakGroup copy(SnakGroup object) {
 		List<Snak> snaks = new ArrayList<>(object.size());
+		boolean reused = true;
 		for (Snak snak : object) {
-			snaks.add(copy(snak));
+			Snak copy = copy(snak);
+			reused &= copy == snak;
+			snaks.add(copy);
 		}
-		return dataObjectFactory.getSnakGroup(snaks);
+		return reuseOrCreate(SnakGroup.class, object, reused,
+				() -> dataObjectFactory.getSnakGroup(snaks));
 	}
 
 	/**
@@ -337,7 +401,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public Reference copy(Reference object) {
-		return dataObjectFactory.getReference(copy(object.getSnakGroups()));
+		List<SnakGroup> snakGroups = copy(object.getSnakGroups());
+		return reuseOrCreate(Reference.class, object,
+				isSame(snakGroups, object.getSnakGroups()),
+				() -> dataObjectFactory.getReference(snakGroups));
 	}
 
 	/**
@@ -348,12 +415,16 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public Statement copy(Statement object) {
-		return dataObjectFactory.getStatement(
-				(EntityIdValue) visit(object.getSubject()),
-				copy(object.getMainSnak()),
-				copy(object.getQualifiers()),
-				copyReferences(object.getReferences()),
-				object.getRank(), object.getStatementId());
+		EntityIdValue subject = (EntityIdValue) visit(object.getSubject());
+		Snak mainSnak = copy(object.getMainSnak());
+		List<SnakGroup> qualifiers = copy(object.getQualifiers());
+		List<Reference> references = copyReferences(object.getReferences());
+		return reuseOrCreate(Statement.class, object,
+				subject == object.getSubject() && mainSnak == object.getMainSnak()
+						&& isSame(qualifiers, object.getQualifiers())
+						&& isSame(references, object.getReferences()),
+				() -> dataObjectFactory.getStatement(subject, mainSnak, qualifiers,
+						references, object.getRank(), object.getStatementId()));
 	}
 
 	/**
@@ -367,7 +438,9 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 		for (Statement statement : object.getStatements()) {
 			statements.add(copy(statement));
 		}
-		return dataObjectFactory.getStatementGroup(statements);
+		return reuseOrCreate(StatementGroup.class, object,
+				isSame(statements, object.getStatements()),
+				() -> dataObjectFactory.getStatementGroup(statements));
 	}
 
 	/**
@@ -378,8 +451,9 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public SiteLink copy(SiteLink object) {
-		return dataObjectFactory.getSiteLink(object.getPageTitle(),
-				object.getSiteKey(), object.getBadges());
+		return reuseOrCreate(SiteLink.class, object,
+				() -> dataObjectFactory.getSiteLink(object.getPageTitle(),
+						object.getSiteKey(), object.getBadges()));
 	}
 
 	/**
@@ -486,6 +560,61 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
     
     
 
+	/**
+	 * Copies an {@link EntityDocument} of any of the supported types.
+	 *
+	 * @param object
+	 *            object to copy
+	 * @return copied object
+	 */
+	public EntityDocument copyEntityDocument(EntityDocument object) {
+		if (object instanceof ItemDocument) {
+			return copy((ItemDocument) object);
+		} else if (object instanceof PropertyDocument) {
+			return copy((PropertyDocument) object);
+		} else if (object instanceof LexemeDocument) {
+			return copy((LexemeDocument) object);
+		} else if (object instanceof MediaInfoDocument) {
+			return copy((MediaInfoDocument) object);
+		} else if (object instanceof FormDocument) {
+			return copy((FormDocument) object);
+		} else if (object instanceof SenseDocument) {
+			return copy((SenseDocument) object);
+		} else {
+			throw new IllegalArgumentException(
+					"I don't know how to copy documents of type " + object.getClass());
+		}
+	}
+
+	/**
+	 * Copies a list of {@link EntityDocument} objects.
+	 *
+	 * @param objects
+	 *            objects to copy
+	 * @return the copied objects, in the same order
+	 */
+	public List<EntityDocument> copyEntityDocuments(List<? extends EntityDocument> objects) {
+		return copyEntityDocuments(objects.stream());
+	}
+
+	/**
+	 * Copies a list of {@link EntityDocument} objects, using several threads
+	 * for large lists. This must only be used if the factory of this converter
+	 * is thread-safe, which is the case for the factories of this library.
+	 *
+	 * @param objects
+	 *            objects to copy
+	 * @return the copied objects, in the same order
+	 */
+	public List<EntityDocument> copyEntityDocumentsInParallel(List<? extends EntityDocument> objects) {
+		return copyEntityDocuments(objects.parallelStream());
+	}
+
+	private List<EntityDocument> copyEntityDocuments(Stream<? extends EntityDocument> objects) {
+		return objects.map(this::copyEntityDocument)
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Copies a {@link Snak}.
 	 *
@@ -620,8 +749,7 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	private List<Reference> copyReferences(List<Reference> references) {
 		List<Reference> result = new ArrayList<>(references.size());
 		for (Reference reference : references) {
-			result.add(dataObjectFactory
-					.getReference(copy(reference.getSnakGroups())));
+			result.add(copy(reference));
 		}
 		return result;
 	}
@@ -707,5 +835,66 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
                 .collect(Collectors.toList());
     }
 
+	/**
+	 * Returns the given object if it can be reused, and otherwise creates a
+	 * copy of it.
+	 *
+	 * @param type
+	 *            the interface that the object is used for
+	 * @param object
+	 *            the object to copy
+	 * @param copier
+	 *            creates the copy with the factory
+	 * @return the given object or its copy
+	 */
+	private <T> T reuseOrCreate(Class<T> type, T object, Supplier<T> copier) {
+		return reuseOrCreate(type, object, true, copier);
+	}
 
+	/**
+	 * Returns the given object if it can be reused, and otherwise creates a
+	 * copy of it. Objects are reused if this is enabled, if the parts of the
+	 * object were all reused and if the factory created objects of the same
+	 * class for the given interface before.
+	 *
+	 * @param type
+	 *            the interface that the object is used for
+	 * @param object
+	 *            the object to copy
+	 * @param partsReused
+	 *            whether the copies of all parts of the object are the
+	 *            original parts
+	 * @param copier
+	 *            creates the copy with the factory, from the copied parts
+	 * @return the given object or its copy
+	 */
+	private <T> T reuseOrCreate(Class<T> type, T object, boolean partsReused, Supplier<T> copier) {
+		if (reuseTargetObjects && partsReused
+				&& targetClasses.get(type) == object.getClass()) {
+			return object;
+		}
+		T result = copier.get();
+		if (reuseTargetObjects && result != null) {
+			targetClasses.putIfAbsent(type, result.getClass());
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the copies in a list are the original objects.
+	 *
+	 * @param copies
+	 *            the copied objects
+	 * @param originals
+	 *            the objects that were copied
+	 * @return true if both lists contain the same objects
+	 */
+	private static boolean isSame(List<?> copies, List<?> originals) {
+		for (int i = 0; i < copies.size(); i++) {
+			if (copies.get(i) != originals.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
@@ -19,6 +19,9 @@
  */
 package org.wikidata.wdtk.datamodel.helpers;
 
+import org.wikidata.wdtk.datamodel.implementation.StreamingDeserializerModule;
+import org.wikidata.wdtk.datamodel.implementation.ValuePool;
+
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -38,12 +41,31 @@ public class DatamodelMapper extends ObjectMapper {
 	/**
 	 * Constructs a mapper with the given siteIri. This IRI
 	 * will be used to fill all the siteIris of the entity ids
-	 * contained in the payloads.
+	 * contained in the payloads. Recurring parts of the
+	 * deserialized values are shared using a new {@link ValuePool}.
+	 * Snaks, statements, references and terms are read with the
+	 * deserializers of {@link StreamingDeserializerModule}.
 	 * 
 	 * @param siteIri
 	 * 		the ambient IRI of the Wikibase site
 	 */
 	public DatamodelMapper(String siteIri) {
+		this(siteIri, new ValuePool());
+	}
+
+	/**
+	 * Constructs a mapper with the given siteIri and the given
+	 * pool for recurring parts of deserialized values, such as
+	 * calendar model IRIs, units and small quantities. A pool
+	 * can be shared by several mappers.
+	 * 
+	 * @param siteIri
+	 * 		the ambient IRI of the Wikibase site
+	 * @param valuePool
+	 * 		the pool to use, or null if values should not share
+	 * 		any of their parts
+	 */
+	public DatamodelMapper(String siteIri, ValuePool valuePool) {
 		super();
 		InjectableValues injection = new InjectableValues.Std()
 				.addValue("siteIri", siteIri);
@@ -52,5 +74,13 @@ public class DatamodelMapper extends ObjectMapper {
 		 * Support for Optional properties.
 		 */
 		registerModule(new Jdk8Module());
+		/*
+		 * Faster deserialization of the most frequent objects.
+		 */
+		registerModule(new StreamingDeserializerModule());
+		if (valuePool != null) {
+			setConfig(getDeserializationConfig()
+					.withAttribute(ValuePool.class, valuePool));
+		}
 	}
 }
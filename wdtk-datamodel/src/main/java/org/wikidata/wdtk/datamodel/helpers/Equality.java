@@ -393,12 +393,14 @@ public class Equality {
 			return false;
 		}
 		Statement other = (Statement) o2;
-		return o1.getSubject().equals(other.getSubject())
+		// compare the cheap fields first; qualifiers and references are
+		// the deepest part of a statement
+		return o1.getRank() == other.getRank()
+				&& o1.getStatementId().equals(other.getStatementId())
+				&& o1.getSubject().equals(other.getSubject())
 				&& o1.getMainSnak().equals(other.getMainSnak())
 				&& o1.getQualifiers().equals(other.getQualifiers())
-				&& o1.getReferences().equals(other.getReferences())
-				&& o1.getRank() == other.getRank()
-				&& o1.getStatementId().equals(other.getStatementId());
+				&& o1.getReferences().equals(other.getReferences());
 	}
 
 	/**
@@ -20,6 +20,9 @@
 
 package org.wikidata.wdtk.datamodel.helpers;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
 import org.wikidata.wdtk.datamodel.implementation.EntityRedirectDocumentImpl;
 import org.wikidata.wdtk.datamodel.implementation.ItemDocumentImpl;
@@ -33,6 +36,7 @@ import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectReader;
@@ -44,17 +48,23 @@ import com.fasterxml.jackson.databind.ObjectReader;
  * We accept empty arrays as empty maps since there has
  * been a confusion in the past between the two:
  * https://phabricator.wikimedia.org/T138104
+ * <p>
+ * Instances are thread-safe and can be shared by any number of threads,
+ * which is better than creating one deserializer per thread or document.
+ * Jackson recycles its parsing buffers per thread. Documents can be read
+ * from strings, and also from UTF-8 bytes and streams, which avoids
+ * decoding the data into a string first.
  * 
  * @author Antonin Delpeuch
  */
 public class JsonDeserializer {
 
-	private ObjectReader entityDocumentReader;
-	private ObjectReader itemReader;
-	private ObjectReader propertyReader;
-	private ObjectReader lexemeReader;
-	private ObjectReader mediaInfoReader;
-	private ObjectReader entityRedirectReader;
+	private final ObjectReader entityDocumentReader;
+	private final ObjectReader itemReader;
+	private final ObjectReader propertyReader;
+	private final ObjectReader lexemeReader;
+	private final ObjectReader mediaInfoReader;
+	private final ObjectReader entityRedirectReader;
 	
 	/**
 	 * Constructs a new JSON deserializer for the 
@@ -66,17 +76,23 @@ public class JsonDeserializer {
 	public JsonDeserializer(String siteIri) {
 		DatamodelMapper mapper = new DatamodelMapper(siteIri);
 		entityDocumentReader = mapper.readerFor(EntityDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		itemReader = mapper.readerFor(ItemDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		propertyReader = mapper.readerFor(PropertyDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		lexemeReader = mapper.readerFor(LexemeDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		mediaInfoReader = mapper.readerFor(MediaInfoDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		entityRedirectReader = mapper.readerFor(EntityRedirectDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 	}
 	
 	/**
@@ -87,6 +103,35 @@ public class JsonDeserializer {
 	public ItemDocument deserializeItemDocument(String json) throws JsonProcessingException {
 		return itemReader.readValue(json);
 	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON into an {@link ItemDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public ItemDocument deserializeItemDocument(byte[] json) throws IOException {
+		return itemReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into an
+	 * {@link ItemDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public ItemDocument deserializeItemDocument(byte[] json, int offset, int length) throws IOException {
+		return itemReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into an {@link ItemDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public ItemDocument deserializeItemDocument(InputStream json) throws IOException {
+		return itemReader.readValue(json);
+	}
 	
 	/**
 	 * Deserializes a JSON string into a {@link PropertyDocument}.
@@ -97,6 +142,35 @@ public class JsonDeserializer {
 		return propertyReader.readValue(json);
 	}
 
+	/**
+	 * Deserializes UTF-8 encoded JSON into a {@link PropertyDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public PropertyDocument deserializePropertyDocument(byte[] json) throws IOException {
+		return propertyReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into a
+	 * {@link PropertyDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public PropertyDocument deserializePropertyDocument(byte[] json, int offset, int length) throws IOException {
+		return propertyReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into a {@link PropertyDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public PropertyDocument deserializePropertyDocument(InputStream json) throws IOException {
+		return propertyReader.readValue(json);
+	}
+
 	/**
 	 * Deserializes a JSON string into a {@link LexemeDocument}.
 	 * @throws JsonProcessingException 
@@ -105,6 +179,35 @@ public class JsonDeserializer {
 	public LexemeDocument deserializeLexemeDocument(String json) throws JsonProcessingException {
 		return lexemeReader.readValue(json);
 	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON into a {@link LexemeDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public LexemeDocument deserializeLexemeDocument(byte[] json) throws IOException {
+		return lexemeReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into a
+	 * {@link LexemeDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public LexemeDocument deserializeLexemeDocument(byte[] json, int offset, int length) throws IOException {
+		return lexemeReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into a {@link LexemeDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public LexemeDocument deserializeLexemeDocument(InputStream json) throws IOException {
+		return lexemeReader.readValue(json);
+	}
 	
 	/**
 	 * Deserializes a JSON string into a {@link MediaInfoDocument}.
@@ -114,6 +217,35 @@ public class JsonDeserializer {
 	public MediaInfoDocument deserializeMediaInfoDocument(String json) throws JsonProcessingException {
 		return mediaInfoReader.readValue(json);
 	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON into a {@link MediaInfoDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public MediaInfoDocument deserializeMediaInfoDocument(byte[] json) throws IOException {
+		return mediaInfoReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into a
+	 * {@link MediaInfoDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public MediaInfoDocument deserializeMediaInfoDocument(byte[] json, int offset, int length) throws IOException {
+		return mediaInfoReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into a {@link MediaInfoDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public MediaInfoDocument deserializeMediaInfoDocument(InputStream json) throws IOException {
+		return mediaInfoReader.readValue(json);
+	}
 	
 	/**
 	 * Deserializes a JSON string into a {@link EntityDocument}.
@@ -124,6 +256,35 @@ public class JsonDeserializer {
 		return entityDocumentReader.readValue(json);
 	}
 
+	/**
+	 * Deserializes UTF-8 encoded JSON into a {@link EntityDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public EntityDocument deserializeEntityDocument(byte[] json) throws IOException {
+		return entityDocumentReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into a
+	 * {@link EntityDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public EntityDocument deserializeEntityDocument(byte[] json, int offset, int length) throws IOException {
+		return entityDocumentReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into a {@link EntityDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public EntityDocument deserializeEntityDocument(InputStream json) throws IOException {
+		return entityDocumentReader.readValue(json);
+	}
+
 	/**
 	 * Deserializes a JSON string into a {@link EntityRedirectDocument}.
 	 * @throws JsonProcessingException
@@ -132,4 +293,33 @@ public class JsonDeserializer {
 	public EntityRedirectDocument deserializeEntityRedirectDocument(String json) throws JsonProcessingException {
 		return entityRedirectReader.readValue(json);
 	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON into a {@link EntityRedirectDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public EntityRedirectDocument deserializeEntityRedirectDocument(byte[] json) throws IOException {
+		return entityRedirectReader.readValue(json);
+	}
+
+	/**
+	 * Deserializes UTF-8 encoded JSON from a part of an array into a
+	 * {@link EntityRedirectDocument}.
+	 * @throws IOException
+			if the JSON payload is invalid
+	 */
+	public EntityRedirectDocument deserializeEntityRedirectDocument(byte[] json, int offset, int length) throws IOException {
+		return entityRedirectReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Deserializes JSON from a stream into a {@link EntityRedirectDocument}. The stream is
+	 * not closed.
+	 * @throws IOException
+			if the JSON payload is invalid or the stream cannot be read
+	 */
+	public EntityRedirectDocument deserializeEntityRedirectDocument(InputStream json) throws IOException {
+		return entityRedirectReader.readValue(json);
+	}
 }
@@ -0,0 +1,486 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.util.CompressionType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Serializer for {@link EntityDocument} objects in JSON that uses several
+ * threads. It writes the same JSON array as {@link JsonSerializer}, but the
+ * documents are serialized by a pool of worker threads, in batches of
+ * {@link #BATCH_SIZE} documents. Each worker keeps one JSON generator and one
+ * output buffer that it reuses for all of its batches.
+ * <p>
+ * By default, documents are written in the order in which they are
+ * processed. If the order does not matter, {@link #setPreserveOrder(boolean)}
+ * can be used to let workers write their batches as soon as they are done.
+ * The output can also be compressed by the workers, see
+ * {@link #setCompressionType(CompressionType)}. Compressed output consists of
+ * one gzip member per batch, which is a valid gzip file that common tools and
+ * {@link java.util.zip.GZIPInputStream} read as a whole.
+ * <p>
+ * Documents must not be modified after they have been passed to this
+ * serializer. Like for {@link JsonSerializer}, {@link #open()} must be called
+ * before the first document is processed, and {@link #close()} must be called
+ * to finish the output. Options can only be changed before calling
+ * {@link #open()}.
+ */
+public class ParallelJsonSerializer implements EntityDocumentDumpProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelJsonSerializer.class);
+
+	/**
+	 * The number of documents that are serialized together by one worker.
+	 */
+	public static final int BATCH_SIZE = 128;
+
+	private static final byte[] JSON_START_LIST = "[\n".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] JSON_SEP = ",\n".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] JSON_END_LIST = "\n]".getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+			0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	/**
+	 * The stream that the resulting JSON is written to.
+	 */
+	private final OutputStream outputStream;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private final int threadCount;
+
+	private boolean preserveOrder = true;
+
+	private CompressionType compressionType = CompressionType.NONE;
+
+	/**
+	 * The separator between batches, compressed if needed.
+	 */
+	private byte[] separator;
+
+	/**
+	 * The end of the JSON array, compressed if needed.
+	 */
+	private byte[] endOfList;
+
+	private ExecutorService executor;
+
+	/**
+	 * The output buffers and generators of the workers.
+	 */
+	private ThreadLocal<WorkerBuffer> workerBuffers;
+
+	/**
+	 * Batches that are being serialized, in the order in which they were
+	 * submitted. In ordered mode, their results are written by the thread
+	 * that processes the documents.
+	 */
+	private final Queue<Future<byte[]>> pendingBatches = new ArrayDeque<>();
+
+	private List<EntityDocument> currentBatch;
+
+	/**
+	 * Whether a batch has been written to the output already. Guarded by the
+	 * output stream.
+	 */
+	private boolean batchWritten;
+
+	/**
+	 * Counter for the number of documents processed so far.
+	 */
+	private int entityDocumentCount;
+
+	/**
+	 * Creates a new JSON serializer that writes its output to the given
+	 * stream, using one worker thread for each available processor. The output
+	 * stream will be closed when {@link #close()} is called.
+	 *
+	 * @param outputStream
+	 *            the output stream to write to
+	 */
+	public ParallelJsonSerializer(OutputStream outputStream) {
+		this(outputStream, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new JSON serializer that writes its output to the given
+	 * stream. The output stream will be closed when {@link #close()} is
+	 * called.
+	 *
+	 * @param outputStream
+	 *            the output stream to write to
+	 * @param threadCount
+	 *            the number of worker threads to use for serialization
+	 */
+	public ParallelJsonSerializer(OutputStream outputStream, int threadCount) {
+		Validate.notNull(outputStream, "Output stream cannot be null");
+		Validate.isTrue(threadCount > 0, "Number of threads must be positive");
+		this.outputStream = outputStream;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets whether documents are written in the order in which they are
+	 * processed. This is the default. Otherwise, each batch of documents is
+	 * written as soon as it has been serialized, which avoids waiting for
+	 * slow batches.
+	 *
+	 * @param preserveOrder
+	 *            if true, the order of documents is preserved
+	 */
+	public void setPreserveOrder(boolean preserveOrder) {
+		this.preserveOrder = preserveOrder;
+	}
+
+	/**
+	 * Sets the compression of the output. Only {@link CompressionType#NONE},
+	 * the default, and {@link CompressionType#GZIP} are supported.
+	 *
+	 * @param compressionType
+	 *            the compression to use
+	 */
+	public void setCompressionType(CompressionType compressionType) {
+		if (compressionType != CompressionType.NONE
+				&& compressionType != CompressionType.GZIP) {
+			throw new IllegalArgumentException(
+					"Unsupported compression type: " + compressionType);
+		}
+		this.compressionType = compressionType;
+	}
+
+	@Override
+	public void open() {
+		this.entityDocumentCount = 0;
+		this.batchWritten = false;
+		this.currentBatch = new ArrayList<>(BATCH_SIZE);
+		this.workerBuffers = ThreadLocal.withInitial(WorkerBuffer::new);
+		this.executor = Executors.newFixedThreadPool(this.threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "ParallelJsonSerializer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		WorkerBuffer buffer = new WorkerBuffer();
+		this.separator = buffer.encode(JSON_SEP);
+		this.endOfList = buffer.encode(JSON_END_LIST);
+		try {
+			this.outputStream.write(buffer.encode(JSON_START_LIST));
+		} catch (IOException e) {
+			reportException(e);
+		}
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		serializeEntityDocument(itemDocument);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		serializeEntityDocument(propertyDocument);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		serializeEntityDocument(lexemeDocument);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		serializeEntityDocument(mediaInfoDocument);
+	}
+
+	@Override
+	public void close() {
+		try {
+			if (!this.currentBatch.isEmpty()) {
+				submitBatch();
+			}
+			while (!this.pendingBatches.isEmpty()) {
+				finishBatch();
+			}
+			this.outputStream.write(this.endOfList);
+			this.outputStream.close();
+		} catch (IOException e) {
+			reportException(e);
+		} finally {
+			this.executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the number of entity documents processed so far.
+	 *
+	 * @return number of processed entity documents
+	 */
+	public int getEntityDocumentCount() {
+		return this.entityDocumentCount;
+	}
+
+	/**
+	 * Reports a given exception as a RuntimeException, since the interface does
+	 * not allow us to throw checked exceptions directly.
+	 *
+	 * @param e
+	 *            the exception to report
+	 * @throws RuntimeException
+	 *             in all cases
+	 */
+	private void reportException(Exception e) {
+		logger.error("Failed to write JSON export: " + e.toString());
+		throw new RuntimeException(e.toString(), e);
+	}
+
+	/**
+	 * Adds the given {@link EntityDocument} to the current batch, and hands
+	 * the batch over to the workers if it is full.
+	 *
+	 * @param entityDocument
+	 *            the document to serialize
+	 */
+	private void serializeEntityDocument(EntityDocument entityDocument) {
+		this.currentBatch.add(entityDocument);
+		this.entityDocumentCount++;
+		if (this.currentBatch.size() == BATCH_SIZE) {
+			try {
+				submitBatch();
+			} catch (IOException e) {
+				reportException(e);
+			}
+		}
+	}
+
+	/**
+	 * Hands the current batch over to the workers. Waits for earlier batches
+	 * if too many of them are pending, so that memory use stays bounded.
+	 */
+	private void submitBatch() throws IOException {
+		List<EntityDocument> batch = this.currentBatch;
+		this.currentBatch = new ArrayList<>(BATCH_SIZE);
+		this.pendingBatches.add(this.executor.submit(() -> serializeBatch(batch)));
+
+		while (this.pendingBatches.size() > 2 * this.threadCount
+				|| (!this.pendingBatches.isEmpty() && this.pendingBatches.peek().isDone())) {
+			finishBatch();
+		}
+	}
+
+	/**
+	 * Waits for the oldest pending batch and writes its result in ordered
+	 * mode.
+	 */
+	private void finishBatch() throws IOException {
+		byte[] result;
+		try {
+			result = this.pendingBatches.remove().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e.toString(), e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause.toString(), cause);
+		}
+		if (result != null) {
+			writeBatch(result, result.length);
+		}
+	}
+
+	/**
+	 * Serializes a batch of documents on a worker thread. In ordered mode, the
+	 * result is returned, and otherwise it is written to the output directly.
+	 *
+	 * @param batch
+	 *            the documents to serialize
+	 * @return the serialized batch, or null if it was written already
+	 */
+	private byte[] serializeBatch(List<EntityDocument> batch) throws IOException {
+		WorkerBuffer buffer = this.workerBuffers.get();
+		buffer.serialize(batch);
+		if (this.preserveOrder) {
+			return buffer.getResult();
+		}
+		writeBatch(buffer.getBuffer(), buffer.getResultLength());
+		return null;
+	}
+
+	private void writeBatch(byte[] data, int length) throws IOException {
+		synchronized (this.outputStream) {
+			if (this.batchWritten) {
+				this.outputStream.write(this.separator);
+			}
+			this.outputStream.write(data, 0, length);
+			this.batchWritten = true;
+		}
+	}
+
+	/**
+	 * Reusable state of one worker thread.
+	 */
+	private class WorkerBuffer {
+
+		private final ExposedByteArrayOutputStream jsonBuffer = new ExposedByteArrayOutputStream();
+		private final ExposedByteArrayOutputStream compressedBuffer;
+		private final JsonGenerator generator;
+		private final Deflater deflater;
+		private final CRC32 crc;
+		private final byte[] deflateBuffer;
+
+		WorkerBuffer() {
+			try {
+				this.generator = JsonSerializer.mapper.getFactory()
+						.createGenerator(this.jsonBuffer);
+			} catch (IOException e) {
+				throw new RuntimeException(e.toString(), e);
+			}
+			this.generator.setRootValueSeparator(null);
+			if (compressionType == CompressionType.GZIP) {
+				this.compressedBuffer = new ExposedByteArrayOutputStream();
+				this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+				this.crc = new CRC32();
+				this.deflateBuffer = new byte[8192];
+			} else {
+				this.compressedBuffer = null;
+				this.deflater = null;
+				this.crc = null;
+				this.deflateBuffer = null;
+			}
+		}
+
+		/**
+		 * Serializes the given documents, separated as in a JSON array.
+		 */
+		void serialize(List<EntityDocument> batch) throws IOException {
+			this.jsonBuffer.reset();
+			boolean first = true;
+			for (EntityDocument document : batch) {
+				if (!first) {
+					this.generator.writeRaw(",\n");
+				}
+				this.generator.writeObject(document);
+				first = false;
+			}
+			this.generator.flush();
+			if (this.deflater != null) {
+				compress(this.jsonBuffer.getBuffer(), this.jsonBuffer.size());
+			}
+		}
+
+		/**
+		 * Encodes the given bytes like a serialized batch.
+		 */
+		byte[] encode(byte[] data) {
+			if (this.deflater == null) {
+				return data;
+			}
+			compress(data, data.length);
+			return getResult();
+		}
+
+		byte[] getBuffer() {
+			return resultBuffer().getBuffer();
+		}
+
+		int getResultLength() {
+			return resultBuffer().size();
+		}
+
+		byte[] getResult() {
+			return resultBuffer().toByteArray();
+		}
+
+		private ExposedByteArrayOutputStream resultBuffer() {
+			return this.deflater == null ? this.jsonBuffer : this.compressedBuffer;
+		}
+
+		/**
+		 * Writes the given data as one gzip member to the compressed buffer.
+		 */
+		private void compress(byte[] data, int length) {
+			this.compressedBuffer.reset();
+			this.compressedBuffer.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+			this.deflater.reset();
+			this.deflater.setInput(data, 0, length);
+			this.deflater.finish();
+			while (!this.deflater.finished()) {
+				int count = this.deflater.deflate(this.deflateBuffer);
+				this.compressedBuffer.write(this.deflateBuffer, 0, count);
+			}
+			this.crc.reset();
+			this.crc.update(data, 0, length);
+			writeIntLE((int) this.crc.getValue());
+			writeIntLE(length);
+		}
+
+		private void writeIntLE(int value) {
+			this.compressedBuffer.write(value);
+			this.compressedBuffer.write(value >>> 8);
+			this.compressedBuffer.write(value >>> 16);
+			this.compressedBuffer.write(value >>> 24);
+		}
+	}
+
+	/**
+	 * Byte array output stream that gives access to its buffer, to avoid
+	 * copying it.
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+		ExposedByteArrayOutputStream() {
+			super(8192);
+		}
+
+		byte[] getBuffer() {
+			return this.buf;
+		}
+	}
+}
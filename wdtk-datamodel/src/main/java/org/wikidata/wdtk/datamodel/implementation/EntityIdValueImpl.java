@@ -268,7 +268,7 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 				if(entityType == null || numericId == 0) {
 					this.entityType = guessEntityTypeFromId(id, true);
 					this.numericId = buildNumericId(id);
-				} else if(!id.equals(buildIdFromNumericId(entityType, numericId))) {
+				} else if(!isIdForNumericId(id, entityType, numericId)) {
 					throw new IllegalArgumentException("Numerical id is different from the string id");
 				} else {
 					this.entityType = entityType;
@@ -326,6 +326,49 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 			}
 		}
 
+		/**
+		 * Checks if the given string id is the one that
+		 * {@link #buildIdFromNumericId(String, int)} would build, without
+		 * building it. This check runs for every entity id value in the
+		 * dumps.
+		 */
+		private boolean isIdForNumericId(String id, String entityType, int numericId) {
+			char prefix;
+			switch (entityType) {
+				case JSON_ENTITY_TYPE_ITEM:
+					prefix = 'Q';
+					break;
+				case JSON_ENTITY_TYPE_LEXEME:
+					prefix = 'L';
+					break;
+				case JSON_ENTITY_TYPE_PROPERTY:
+					prefix = 'P';
+					break;
+				case JSON_ENTITY_TYPE_MEDIA_INFO:
+					prefix = 'M';
+					break;
+				default:
+					return id.equals(buildIdFromNumericId(entityType, numericId));
+			}
+			if (numericId < 0) {
+				return id.equals(buildIdFromNumericId(entityType, numericId));
+			}
+			int length = id.length();
+			if (length < 2 || id.charAt(0) != prefix
+					|| (id.charAt(1) == '0' && length > 2)) {
+				return false;
+			}
+			long value = 0;
+			for (int i = 1; i < length; i++) {
+				char c = id.charAt(i);
+				if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+					return false;
+				}
+				value = 10 * value + (c - '0');
+			}
+			return value == numericId;
+		}
+
 		private String buildIdFromNumericId(String entityType, int numericId) {
 			switch (entityType) {
 				case JSON_ENTITY_TYPE_ITEM:
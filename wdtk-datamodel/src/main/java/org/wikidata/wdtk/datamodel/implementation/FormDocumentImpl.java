@@ -195,8 +195,8 @@ public class FormDocumentImpl extends StatementDocumentImpl implements FormDocum
 
 	@Override
 	public FormDocument withRepresentation(MonolingualTextValue representation) {
-		Map<String, MonolingualTextValue> newRepresentations = new HashMap<>(representations);
-		newRepresentations.put(representation.getLanguageCode(), toTerm(representation));
+		Map<String, MonolingualTextValue> newRepresentations = PersistentHashMap.from(representations)
+				.plus(representation.getLanguageCode(), toTerm(representation));
 		return new FormDocumentImpl(getEntityId(), newRepresentations, grammaticalFeatures, claims, revisionId);
 	}
 
@@ -52,6 +52,11 @@ public class GlobeCoordinatesValueImpl extends ValueImpl implements
 	 * structure that is required here.
 	 */
 	private final JacksonInnerGlobeCoordinates value;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
 	
 	/**
 	 * Constructor.
@@ -130,11 +135,22 @@ public class GlobeCoordinatesValueImpl extends ValueImpl implements
 
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof GlobeCoordinatesValueImpl && cachedHashCode != 0) {
+			int otherHashCode = ((GlobeCoordinatesValueImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsGlobeCoordinatesValue(this, obj);
 	}
 
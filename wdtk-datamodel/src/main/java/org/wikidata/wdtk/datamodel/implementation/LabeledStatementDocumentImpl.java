@@ -117,9 +117,7 @@ abstract class LabeledStatementDocumentImpl extends StatementDocumentImpl implem
 
 	protected static Map<String, MonolingualTextValue> withTerm(
 			Map<String, MonolingualTextValue> values, MonolingualTextValue value) {
-		Map<String, MonolingualTextValue> newValues = new HashMap<>(values);
-		newValues.put(value.getLanguageCode(), toTerm(value));
-		return newValues;
+		return PersistentHashMap.from(values).plus(value.getLanguageCode(), toTerm(value));
 	}
 
 	/**
@@ -290,8 +290,8 @@ public class LexemeDocumentImpl extends StatementDocumentImpl implements LexemeD
 
 	@Override
 	public LexemeDocument withLemma(MonolingualTextValue lemma) {
-		Map<String, MonolingualTextValue> newLemmas = new HashMap<>(lemmas);
-		newLemmas.put(lemma.getLanguageCode(), toTerm(lemma));
+		Map<String, MonolingualTextValue> newLemmas = PersistentHashMap.from(lemmas)
+				.plus(lemma.getLanguageCode(), toTerm(lemma));
 		return new LexemeDocumentImpl(getEntityId(), lexicalCategory,
 				language, newLemmas, claims, forms, senses,
 				revisionId, nextFormId, nextSenseId);
@@ -0,0 +1,176 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelConverter;
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Compact, read-only implementation of {@link ItemDocument}. See
+ * {@link PackedTermedStatementDocumentImpl} for how the data is stored. Items
+ * can be packed with {@link #PackedItemDocumentImpl(ItemDocument)} or with a
+ * {@link DatamodelConverter} that uses a {@link PackedDataObjectFactoryImpl}.
+ * They are serialized to JSON like {@link ItemDocumentImpl}.
+ */
+public class PackedItemDocumentImpl extends PackedTermedStatementDocumentImpl implements ItemDocument {
+
+	static final int SECTION_SITE_LINKS = 4;
+
+	private static final ObjectReader siteLinksReader = mapper.readerFor(
+			mapper.getTypeFactory().constructType(
+					new TypeReference<Map<String, SiteLinkImpl>>() {}));
+
+	private final ItemIdValue entityId;
+
+	/**
+	 * Constructor. Packs the data of the given item.
+	 *
+	 * @param document
+	 *            the item to pack
+	 */
+	public PackedItemDocumentImpl(ItemDocument document) {
+		this(document.getEntityId(), document.getRevisionId(), pack(document));
+	}
+
+	private PackedItemDocumentImpl(ItemIdValue entityId, long revisionId, byte[] data) {
+		super(revisionId, data);
+		Validate.notNull(entityId, "Entity id cannot be null");
+		this.entityId = entityId;
+	}
+
+	private static byte[] pack(ItemDocument document) {
+		if (document instanceof PackedItemDocumentImpl) {
+			return ((PackedItemDocumentImpl) document).getData();
+		}
+		ItemDocumentImpl item = document instanceof ItemDocumentImpl
+				? (ItemDocumentImpl) document
+				: (ItemDocumentImpl) new DatamodelConverter(new DataObjectFactoryImpl()).copy(document);
+		return new SectionWriter()
+				.write(item.getLabels())
+				.write(item.getDescriptions())
+				.write(item.getAliases())
+				.write(item.getJsonClaims())
+				.write(item.getSiteLinks())
+				.toByteArray();
+	}
+
+	@Override
+	public ItemIdValue getEntityId() {
+		return entityId;
+	}
+
+	@Override
+	public Map<String, SiteLink> getSiteLinks() {
+		Map<String, SiteLinkImpl> siteLinks = readSection(SECTION_SITE_LINKS, siteLinksReader);
+		return siteLinks == null ? Collections.emptyMap()
+				: Collections.unmodifiableMap(siteLinks);
+	}
+
+	/**
+	 * Decodes all data of this item. The result is a regular document, which
+	 * is better suited for repeated access than this one. This is also the
+	 * object that is serialized to JSON instead of this one.
+	 *
+	 * @return the unpacked item
+	 */
+	@JsonValue
+	public ItemDocumentImpl unpack() {
+		List<MonolingualTextValue> aliases = new ArrayList<>();
+		for (List<MonolingualTextValue> languageAliases : getAliases().values()) {
+			aliases.addAll(languageAliases);
+		}
+		return new ItemDocumentImpl(entityId,
+				new ArrayList<>(getLabels().values()),
+				new ArrayList<>(getDescriptions().values()),
+				aliases,
+				getStatementGroups(),
+				new ArrayList<>(getSiteLinks().values()),
+				getRevisionId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hash.hashCode(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return Equality.equalsItemDocument(this, obj);
+	}
+
+	@Override
+	public String toString() {
+		return ToString.toString(this);
+	}
+
+	@Override
+	public ItemDocument withEntityId(ItemIdValue newEntityId) {
+		return unpack().withEntityId(newEntityId);
+	}
+
+	@Override
+	public ItemDocument withRevisionId(long newRevisionId) {
+		return new PackedItemDocumentImpl(entityId, newRevisionId, getData());
+	}
+
+	@Override
+	public ItemDocument withLabel(MonolingualTextValue newLabel) {
+		return unpack().withLabel(newLabel);
+	}
+
+	@Override
+	public ItemDocument withDescription(MonolingualTextValue newDescription) {
+		return unpack().withDescription(newDescription);
+	}
+
+	@Override
+	public ItemDocument withAliases(String language, List<MonolingualTextValue> aliases) {
+		return unpack().withAliases(language, aliases);
+	}
+
+	@Override
+	public ItemDocument withStatement(Statement statement) {
+		return unpack().withStatement(statement);
+	}
+
+	@Override
+	public ItemDocument withoutStatementIds(Set<String> statementIds) {
+		return unpack().withoutStatementIds(statementIds);
+	}
+}
@@ -0,0 +1,170 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelConverter;
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Compact, read-only implementation of {@link PropertyDocument}. See
+ * {@link PackedTermedStatementDocumentImpl} for how the data is stored.
+ * Properties can be packed with
+ * {@link #PackedPropertyDocumentImpl(PropertyDocument)} or with a
+ * {@link DatamodelConverter} that uses a {@link PackedDataObjectFactoryImpl}.
+ * They are serialized to JSON like {@link PropertyDocumentImpl}.
+ */
+public class PackedPropertyDocumentImpl extends PackedTermedStatementDocumentImpl implements PropertyDocument {
+
+	private final PropertyIdValue entityId;
+
+	private final DatatypeIdValue datatype;
+
+	/**
+	 * Constructor. Packs the data of the given property.
+	 *
+	 * @param document
+	 *            the property to pack
+	 */
+	public PackedPropertyDocumentImpl(PropertyDocument document) {
+		this(document.getEntityId(), document.getDatatype(),
+				document.getRevisionId(), pack(document));
+	}
+
+	private PackedPropertyDocumentImpl(PropertyIdValue entityId,
+			DatatypeIdValue datatype, long revisionId, byte[] data) {
+		super(revisionId, data);
+		Validate.notNull(entityId, "Entity id cannot be null");
+		Validate.notNull(datatype, "Datatype cannot be null");
+		this.entityId = entityId;
+		this.datatype = datatype;
+	}
+
+	private static byte[] pack(PropertyDocument document) {
+		if (document instanceof PackedPropertyDocumentImpl) {
+			return ((PackedPropertyDocumentImpl) document).getData();
+		}
+		PropertyDocumentImpl property = document instanceof PropertyDocumentImpl
+				? (PropertyDocumentImpl) document
+				: (PropertyDocumentImpl) new DatamodelConverter(new DataObjectFactoryImpl()).copy(document);
+		return new SectionWriter()
+				.write(property.getLabels())
+				.write(property.getDescriptions())
+				.write(property.getAliases())
+				.write(property.getJsonClaims())
+				.toByteArray();
+	}
+
+	@Override
+	public PropertyIdValue getEntityId() {
+		return entityId;
+	}
+
+	@Override
+	public DatatypeIdValue getDatatype() {
+		return datatype;
+	}
+
+	/**
+	 * Decodes all data of this property. The result is a regular document,
+	 * which is better suited for repeated access than this one. This is also
+	 * the object that is serialized to JSON instead of this one.
+	 *
+	 * @return the unpacked property
+	 */
+	@JsonValue
+	public PropertyDocumentImpl unpack() {
+		List<MonolingualTextValue> aliases = new ArrayList<>();
+		for (List<MonolingualTextValue> languageAliases : getAliases().values()) {
+			aliases.addAll(languageAliases);
+		}
+		return new PropertyDocumentImpl(entityId,
+				new ArrayList<>(getLabels().values()),
+				new ArrayList<>(getDescriptions().values()),
+				aliases,
+				getStatementGroups(),
+				datatype,
+				getRevisionId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hash.hashCode(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return Equality.equalsPropertyDocument(this, obj);
+	}
+
+	@Override
+	public String toString() {
+		return ToString.toString(this);
+	}
+
+	@Override
+	public PropertyDocument withEntityId(PropertyIdValue newEntityId) {
+		return unpack().withEntityId(newEntityId);
+	}
+
+	@Override
+	public PropertyDocument withRevisionId(long newRevisionId) {
+		return new PackedPropertyDocumentImpl(entityId, datatype, newRevisionId, getData());
+	}
+
+	@Override
+	public PropertyDocument withLabel(MonolingualTextValue newLabel) {
+		return unpack().withLabel(newLabel);
+	}
+
+	@Override
+	public PropertyDocument withDescription(MonolingualTextValue newDescription) {
+		return unpack().withDescription(newDescription);
+	}
+
+	@Override
+	public PropertyDocument withAliases(String language, List<MonolingualTextValue> aliases) {
+		return unpack().withAliases(language, aliases);
+	}
+
+	@Override
+	public PropertyDocument withStatement(Statement statement) {
+		return unpack().withStatement(statement);
+	}
+
+	@Override
+	public PropertyDocument withoutStatementIds(Set<String> statementIds) {
+		return unpack().withoutStatementIds(statementIds);
+	}
+}
@@ -0,0 +1,358 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocument;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Base class for compact, read-only implementations of
+ * {@link TermedStatementDocument}. Apart from the entity id and the revision
+ * id, all data of the document is kept in a single byte array, and it is only
+ * decoded when it is accessed. This needs much less memory than the object
+ * graph of a {@link TermedStatementDocumentImpl}, which makes these documents
+ * suitable for keeping many entities in memory. In return, every access to
+ * terms or statements decodes them again, so code that reads a document
+ * repeatedly should unpack it first.
+ * <p>
+ * The byte array is a sequence of sections (labels, descriptions, aliases,
+ * claims and the sections of subclasses). Each section holds the JSON
+ * serialization of one part of the document, deflated if that makes it
+ * smaller, so that reading the labels does not decode the statements. Each
+ * section starts with a variable-length header that encodes its stored length
+ * and whether it is deflated; deflated sections also store their original
+ * length. Empty parts are stored as empty sections.
+ * <p>
+ * Methods that modify the document return regular, unpacked documents.
+ */
+public abstract class PackedTermedStatementDocumentImpl implements TermedStatementDocument {
+
+	static final int SECTION_LABELS = 0;
+	static final int SECTION_DESCRIPTIONS = 1;
+	static final int SECTION_ALIASES = 2;
+	static final int SECTION_CLAIMS = 3;
+
+	/**
+	 * Sections that are shorter than this are never deflated.
+	 */
+	static final int MIN_DEFLATED_LENGTH = 64;
+
+	/**
+	 * Mapper for the JSON of the sections. The site IRI is injected for each
+	 * document when reading.
+	 */
+	static final ObjectMapper mapper = new DatamodelMapper(null);
+
+	private static final ObjectReader termsReader = reader(
+			new TypeReference<Map<String, TermImpl>>() {});
+	private static final ObjectReader aliasesReader = reader(
+			new TypeReference<Map<String, List<TermImpl>>>() {});
+	private static final ObjectReader claimsReader = reader(
+			new TypeReference<Map<String, List<StatementImpl.PreStatement>>>() {});
+
+	private static final ThreadLocal<Deflater> deflater = ThreadLocal
+			.withInitial(Deflater::new);
+	private static final ThreadLocal<Inflater> inflater = ThreadLocal
+			.withInitial(Inflater::new);
+
+	private final long revisionId;
+
+	/**
+	 * The encoded sections of this document.
+	 */
+	private final byte[] data;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param revisionId
+	 *            the id of the last revision of this document
+	 * @param data
+	 *            the encoded sections, as written by a {@link SectionWriter}
+	 */
+	PackedTermedStatementDocumentImpl(long revisionId, byte[] data) {
+		Validate.notNull(data, "Packed document data cannot be null");
+		this.revisionId = revisionId;
+		this.data = data;
+	}
+
+	@Override
+	public long getRevisionId() {
+		return revisionId;
+	}
+
+	/**
+	 * Returns the encoded sections of this document.
+	 *
+	 * @return the packed data, which must not be modified
+	 */
+	byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Returns the number of bytes used to store the terms and statements of
+	 * this document.
+	 *
+	 * @return the length of the packed data
+	 */
+	public int getPackedSize() {
+		return data.length;
+	}
+
+	@Override
+	public Map<String, MonolingualTextValue> getLabels() {
+		return readTerms(SECTION_LABELS);
+	}
+
+	@Override
+	public Map<String, MonolingualTextValue> getDescriptions() {
+		return readTerms(SECTION_DESCRIPTIONS);
+	}
+
+	@Override
+	public Map<String, List<MonolingualTextValue>> getAliases() {
+		Map<String, List<TermImpl>> aliases = readSection(SECTION_ALIASES, aliasesReader);
+		if (aliases == null) {
+			return Collections.emptyMap();
+		}
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Map<String, List<MonolingualTextValue>> result = (Map) aliases;
+		for (Map.Entry<String, List<MonolingualTextValue>> entry : result.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	@Override
+	public List<StatementGroup> getStatementGroups() {
+		Map<String, List<StatementImpl.PreStatement>> claims = readSection(
+				SECTION_CLAIMS, claimsReader);
+		if (claims == null) {
+			return Collections.emptyList();
+		}
+		EntityIdValue subject = getEntityId();
+		List<StatementGroup> groups = new ArrayList<>(claims.size());
+		for (List<StatementImpl.PreStatement> preStatements : claims.values()) {
+			if (preStatements.isEmpty()) {
+				continue;
+			}
+			List<Statement> statements = new ArrayList<>(preStatements.size());
+			for (StatementImpl.PreStatement preStatement : preStatements) {
+				statements.add(preStatement.withSubject(subject));
+			}
+			groups.add(new StatementGroupImpl(statements, false));
+		}
+		return Collections.unmodifiableList(groups);
+	}
+
+	private Map<String, MonolingualTextValue> readTerms(int section) {
+		Map<String, TermImpl> terms = readSection(section, termsReader);
+		return terms == null ? Collections.emptyMap()
+				: Collections.unmodifiableMap(terms);
+	}
+
+	/**
+	 * Decodes the given section of this document.
+	 *
+	 * @param section
+	 *            the index of the section
+	 * @param reader
+	 *            the reader for the type of the section
+	 * @return the decoded object, or null if the section is empty
+	 */
+	<T> T readSection(int section, ObjectReader reader) {
+		int position = 0;
+		for (int i = 0;; i++) {
+			int header = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[position++];
+				header |= (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+
+			int length = header >>> 1;
+			if (i < section) {
+				position += length;
+				continue;
+			}
+			if (length == 0) {
+				return null;
+			}
+
+			byte[] json = data;
+			int offset = position;
+			if ((header & 1) != 0) {
+				int rawLength = 0;
+				shift = 0;
+				do {
+					b = data[position++];
+					rawLength |= (b & 0x7f) << shift;
+					shift += 7;
+				} while (b < 0);
+				json = inflate(position, length - (position - offset), rawLength);
+				offset = 0;
+				length = rawLength;
+			}
+			try {
+				return reader.with(new InjectableValues.Std()
+						.addValue("siteIri", getEntityId().getSiteIri()))
+						.readValue(json, offset, length);
+			} catch (IOException e) {
+				throw new RuntimeException(e.toString(), e);
+			}
+		}
+	}
+
+	private byte[] inflate(int offset, int length, int rawLength) {
+		Inflater inflater = PackedTermedStatementDocumentImpl.inflater.get();
+		inflater.reset();
+		inflater.setInput(data, offset, length);
+		byte[] result = new byte[rawLength];
+		try {
+			int position = 0;
+			while (position < rawLength && !inflater.finished()) {
+				position += inflater.inflate(result, position, rawLength - position);
+			}
+		} catch (DataFormatException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+		return result;
+	}
+
+	private static ObjectReader reader(TypeReference<?> type) {
+		JavaType javaType = mapper.getTypeFactory().constructType(type);
+		return mapper.readerFor(javaType);
+	}
+
+	/**
+	 * Writes the sections of the packed data of a document, in the order of
+	 * their indices.
+	 */
+	static class SectionWriter {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+		/**
+		 * Writes the JSON serialization of the given object as the next
+		 * section.
+		 *
+		 * @param value
+		 *            the object to write, or null or an empty map to write an
+		 *            empty section
+		 * @return this writer
+		 */
+		SectionWriter write(Object value) {
+			if (value == null || (value instanceof Map && ((Map<?, ?>) value).isEmpty())) {
+				writeVarInt(0);
+				return this;
+			}
+			byte[] json;
+			try {
+				json = mapper.writeValueAsBytes(value);
+			} catch (IOException e) {
+				throw new RuntimeException(e.toString(), e);
+			}
+
+			byte[] deflated = json.length >= MIN_DEFLATED_LENGTH ? deflate(json) : null;
+			if (deflated != null) {
+				ByteArrayOutputStream rawLength = new ByteArrayOutputStream(5);
+				writeVarInt(rawLength, json.length);
+				writeVarInt(((rawLength.size() + deflated.length) << 1) | 1);
+				out.write(rawLength.toByteArray(), 0, rawLength.size());
+				out.write(deflated, 0, deflated.length);
+			} else {
+				writeVarInt(json.length << 1);
+				out.write(json, 0, json.length);
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the packed data.
+		 *
+		 * @return the sections written so far
+		 */
+		byte[] toByteArray() {
+			return out.toByteArray();
+		}
+
+		/**
+		 * Deflates the given data.
+		 *
+		 * @return the deflated data, or null if it is not shorter than the
+		 *         original
+		 */
+		private static byte[] deflate(byte[] json) {
+			Deflater deflater = PackedTermedStatementDocumentImpl.deflater.get();
+			deflater.reset();
+			deflater.setInput(json);
+			deflater.finish();
+			// keep some room for the length of the inflated data
+			byte[] buffer = new byte[json.length - 6];
+			int length = 0;
+			while (!deflater.finished() && length < buffer.length) {
+				length += deflater.deflate(buffer, length, buffer.length - length);
+			}
+			if (!deflater.finished()) {
+				return null;
+			}
+			byte[] result = new byte[length];
+			System.arraycopy(buffer, 0, result, 0, length);
+			return result;
+		}
+
+		private void writeVarInt(int value) {
+			writeVarInt(out, value);
+		}
+
+		private static void writeVarInt(ByteArrayOutputStream out, int value) {
+			while ((value & ~0x7f) != 0) {
+				out.write((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			out.write(value);
+		}
+	}
+}
@@ -0,0 +1,465 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable hash map with structural sharing, implemented as a hash array
+ * mapped trie. Modified copies are created with {@link #plus(Object, Object)}
+ * and {@link #minus(Object)} in time logarithmic in the size of the map,
+ * sharing all unchanged parts with the original. This allows documents to be
+ * modified many times without copying all their data on every modification.
+ * <p>
+ * The map does not support null keys. The mutating methods of {@link Map}
+ * throw {@link UnsupportedOperationException}.
+ *
+ * @param <K>
+ *            type of keys
+ * @param <V>
+ *            type of values
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	static final int BITS = 5;
+	static final int MASK = (1 << BITS) - 1;
+
+	private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+	/**
+	 * Mapping of a key, also used as map entry.
+	 */
+	static final class Leaf<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		final int hash;
+
+		Leaf(int hash, K key, V value) {
+			super(key, value);
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Inner node of the trie. Its slots contain {@link Leaf} objects or
+	 * further nodes.
+	 */
+	static abstract class Node {
+
+		final Object[] slots;
+
+		Node(Object[] slots) {
+			this.slots = slots;
+		}
+
+		abstract Leaf<?, ?> find(int hash, Object key, int shift);
+
+		/**
+		 * Returns a node that also contains the given leaf, replacing the
+		 * leaf with the same key, or this node if the leaf is already
+		 * contained.
+		 */
+		abstract Node put(Leaf<?, ?> leaf, int shift);
+
+		/**
+		 * Returns a node without the given key, this node if the key is not
+		 * contained, or null if the resulting node would be empty.
+		 */
+		abstract Node remove(int hash, Object key, int shift);
+
+		/**
+		 * Returns the only leaf of this node if it has no other slots, so
+		 * that the node can be replaced by the leaf.
+		 */
+		Leaf<?, ?> getOnlyLeaf() {
+			if (this.slots.length == 1 && this.slots[0] instanceof Leaf) {
+				return (Leaf<?, ?>) this.slots[0];
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Node that has a slot for each hash fragment that occurs in it, as
+	 * marked in a bitmap.
+	 */
+	static final class BitmapNode extends Node {
+
+		final int bitmap;
+
+		BitmapNode(int bitmap, Object[] slots) {
+			super(slots);
+			this.bitmap = bitmap;
+		}
+
+		@Override
+		Leaf<?, ?> find(int hash, Object key, int shift) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+			Object slot = this.slots[Integer.bitCount(this.bitmap & (bit - 1))];
+			if (slot instanceof Leaf) {
+				Leaf<?, ?> leaf = (Leaf<?, ?>) slot;
+				return leaf.hash == hash && leaf.getKey().equals(key) ? leaf : null;
+			}
+			return ((Node) slot).find(hash, key, shift + BITS);
+		}
+
+		@Override
+		Node put(Leaf<?, ?> leaf, int shift) {
+			int bit = 1 << ((leaf.hash >>> shift) & MASK);
+			int index = Integer.bitCount(this.bitmap & (bit - 1));
+			if ((this.bitmap & bit) == 0) {
+				Object[] newSlots = new Object[this.slots.length + 1];
+				System.arraycopy(this.slots, 0, newSlots, 0, index);
+				newSlots[index] = leaf;
+				System.arraycopy(this.slots, index, newSlots, index + 1,
+						this.slots.length - index);
+				return new BitmapNode(this.bitmap | bit, newSlots);
+			}
+			Object slot = this.slots[index];
+			Object newSlot;
+			if (slot instanceof Leaf) {
+				Leaf<?, ?> existing = (Leaf<?, ?>) slot;
+				if (existing.hash == leaf.hash && existing.getKey().equals(leaf.getKey())) {
+					if (existing.getValue() == leaf.getValue()) {
+						return this;
+					}
+					newSlot = leaf;
+				} else {
+					newSlot = merge(existing, leaf, shift + BITS);
+				}
+			} else {
+				newSlot = ((Node) slot).put(leaf, shift + BITS);
+				if (newSlot == slot) {
+					return this;
+				}
+			}
+			Object[] newSlots = this.slots.clone();
+			newSlots[index] = newSlot;
+			return new BitmapNode(this.bitmap, newSlots);
+		}
+
+		@Override
+		Node remove(int hash, Object key, int shift) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((this.bitmap & bit) == 0) {
+				return this;
+			}
+			int index = Integer.bitCount(this.bitmap & (bit - 1));
+			Object slot = this.slots[index];
+			Object newSlot;
+			if (slot instanceof Leaf) {
+				Leaf<?, ?> leaf = (Leaf<?, ?>) slot;
+				if (leaf.hash != hash || !leaf.getKey().equals(key)) {
+					return this;
+				}
+				newSlot = null;
+			} else {
+				Node newNode = ((Node) slot).remove(hash, key, shift + BITS);
+				if (newNode == slot) {
+					return this;
+				}
+				Leaf<?, ?> onlyLeaf = newNode != null ? newNode.getOnlyLeaf() : null;
+				newSlot = onlyLeaf != null ? onlyLeaf : newNode;
+			}
+			if (newSlot != null) {
+				Object[] newSlots = this.slots.clone();
+				newSlots[index] = newSlot;
+				return new BitmapNode(this.bitmap, newSlots);
+			}
+			if (this.slots.length == 1) {
+				return null;
+			}
+			Object[] newSlots = new Object[this.slots.length - 1];
+			System.arraycopy(this.slots, 0, newSlots, 0, index);
+			System.arraycopy(this.slots, index + 1, newSlots, index,
+					newSlots.length - index);
+			return new BitmapNode(this.bitmap & ~bit, newSlots);
+		}
+
+		/**
+		 * Creates a node for two leaves with different keys that share the
+		 * hash fragments before the given shift.
+		 */
+		static Node merge(Leaf<?, ?> leaf1, Leaf<?, ?> leaf2, int shift) {
+			if (leaf1.hash == leaf2.hash) {
+				return new CollisionNode(leaf1.hash, new Object[] { leaf1, leaf2 });
+			}
+			int fragment1 = (leaf1.hash >>> shift) & MASK;
+			int fragment2 = (leaf2.hash >>> shift) & MASK;
+			if (fragment1 == fragment2) {
+				return new BitmapNode(1 << fragment1,
+						new Object[] { merge(leaf1, leaf2, shift + BITS) });
+			}
+			Object[] slots = fragment1 < fragment2 ? new Object[] { leaf1, leaf2 }
+					: new Object[] { leaf2, leaf1 };
+			return new BitmapNode((1 << fragment1) | (1 << fragment2), slots);
+		}
+	}
+
+	/**
+	 * Node for leaves whose keys have the same hash.
+	 */
+	static final class CollisionNode extends Node {
+
+		final int hash;
+
+		CollisionNode(int hash, Object[] leaves) {
+			super(leaves);
+			this.hash = hash;
+		}
+
+		int indexOf(Object key) {
+			for (int i = 0; i < this.slots.length; i++) {
+				if (((Leaf<?, ?>) this.slots[i]).getKey().equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		Leaf<?, ?> find(int hash, Object key, int shift) {
+			int index = hash == this.hash ? indexOf(key) : -1;
+			return index >= 0 ? (Leaf<?, ?>) this.slots[index] : null;
+		}
+
+		@Override
+		Node put(Leaf<?, ?> leaf, int shift) {
+			if (leaf.hash != this.hash) {
+				// the collision node moves one level down
+				return new BitmapNode(1 << ((this.hash >>> shift) & MASK),
+						new Object[] { this }).put(leaf, shift);
+			}
+			int index = indexOf(leaf.getKey());
+			Object[] newSlots;
+			if (index >= 0) {
+				if (((Leaf<?, ?>) this.slots[index]).getValue() == leaf.getValue()) {
+					return this;
+				}
+				newSlots = this.slots.clone();
+				newSlots[index] = leaf;
+			} else {
+				newSlots = Arrays.copyOf(this.slots, this.slots.length + 1);
+				newSlots[this.slots.length] = leaf;
+			}
+			return new CollisionNode(this.hash, newSlots);
+		}
+
+		@Override
+		Node remove(int hash, Object key, int shift) {
+			int index = hash == this.hash ? indexOf(key) : -1;
+			if (index < 0) {
+				return this;
+			}
+			if (this.slots.length == 1) {
+				return null;
+			}
+			Object[] newSlots = new Object[this.slots.length - 1];
+			System.arraycopy(this.slots, 0, newSlots, 0, index);
+			System.arraycopy(this.slots, index + 1, newSlots, index,
+					newSlots.length - index);
+			return new CollisionNode(this.hash, newSlots);
+		}
+	}
+
+	/**
+	 * Root of the trie, or null if the map is empty.
+	 */
+	final Node root;
+
+	final int size;
+
+	private Set<Entry<K, V>> entrySet = null;
+
+	private PersistentHashMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentHashMap<K, V> empty() {
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Returns a persistent map with the contents of the given map. Persistent
+	 * maps are returned as they are, other maps are copied.
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentHashMap<K, V> from(Map<? extends K, ? extends V> map) {
+		if (map instanceof PersistentHashMap) {
+			return (PersistentHashMap<K, V>) map;
+		}
+		PersistentHashMap<K, V> result = empty();
+		for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+			result = result.plus(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns a map that maps the given key to the given value, and all other
+	 * keys as this map does.
+	 */
+	PersistentHashMap<K, V> plus(K key, V value) {
+		Leaf<K, V> leaf = new Leaf<>(hash(key), key, value);
+		if (this.root == null) {
+			return new PersistentHashMap<>(new BitmapNode(1 << (leaf.hash & MASK),
+					new Object[] { leaf }), 1);
+		}
+		Node newRoot = this.root.put(leaf, 0);
+		if (newRoot == this.root) {
+			return this;
+		}
+		int newSize = this.root.find(leaf.hash, key, 0) == null ? this.size + 1 : this.size;
+		return new PersistentHashMap<>(newRoot, newSize);
+	}
+
+	/**
+	 * Returns a map without the given key, and all other keys mapped as in
+	 * this map.
+	 */
+	PersistentHashMap<K, V> minus(Object key) {
+		if (this.root == null) {
+			return this;
+		}
+		Node newRoot = this.root.remove(hash(key), key, 0);
+		if (newRoot == this.root) {
+			return this;
+		}
+		return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, this.size - 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if (this.root == null || key == null) {
+			return null;
+		}
+		Leaf<?, ?> leaf = this.root.find(hash(key), key, 0);
+		return leaf != null ? (V) leaf.getValue() : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.root != null && key != null
+				&& this.root.find(hash(key), key, 0) != null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (this.entrySet == null) {
+			this.entrySet = new AbstractSet<Entry<K, V>>() {
+
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new LeafIterator<>(root);
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return this.entrySet;
+	}
+
+	/**
+	 * Iterator over the leaves of a trie, in depth-first order.
+	 */
+	static final class LeafIterator<K, V> implements Iterator<Entry<K, V>> {
+
+		/**
+		 * Slots of the nodes on the path to the current leaf; the trie has
+		 * at most seven levels of bitmap nodes and one of collision nodes.
+		 */
+		final Object[][] slots = new Object[8][];
+		final int[] positions = new int[8];
+		int depth;
+		Leaf<K, V> next = null;
+
+		LeafIterator(Node root) {
+			this.depth = root != null ? 0 : -1;
+			if (root != null) {
+				this.slots[0] = root.slots;
+			}
+			advance();
+		}
+
+		@SuppressWarnings("unchecked")
+		void advance() {
+			this.next = null;
+			while (this.depth >= 0) {
+				if (this.positions[this.depth] == this.slots[this.depth].length) {
+					this.positions[this.depth] = 0;
+					this.depth--;
+					continue;
+				}
+				Object slot = this.slots[this.depth][this.positions[this.depth]++];
+				if (slot instanceof Leaf) {
+					this.next = (Leaf<K, V>) slot;
+					return;
+				}
+				this.depth++;
+				this.slots[this.depth] = ((Node) slot).slots;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (this.next == null) {
+				throw new NoSuchElementException();
+			}
+			Entry<K, V> result = this.next;
+			advance();
+			return result;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list with structural sharing, implemented as a trie of arrays
+ * with 32 elements each. Modified copies are created with
+ * {@link #plus(Object)} and {@link #with(int, Object)} in time logarithmic in
+ * the size of the list (appending takes constant time in most cases), sharing
+ * all unchanged parts with the original.
+ * <p>
+ * The mutating methods of {@link java.util.List} throw
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E>
+ *            type of elements
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+	static final int BITS = 5;
+	static final int WIDTH = 1 << BITS;
+	static final int MASK = WIDTH - 1;
+
+	private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS,
+			new Object[WIDTH], new Object[0]);
+
+	final int size;
+
+	/**
+	 * Number of bits to shift an index by to get the slot in the root.
+	 */
+	final int shift;
+
+	/**
+	 * Root of the trie, which holds all elements but those in the tail.
+	 */
+	final Object[] root;
+
+	/**
+	 * The last elements, between 1 and 32 unless the list is empty, kept
+	 * outside of the trie so that they can be appended to cheaply.
+	 */
+	final Object[] tail;
+
+	private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * Returns the empty list.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> PersistentVector<E> empty() {
+		return (PersistentVector<E>) EMPTY;
+	}
+
+	/**
+	 * Returns a persistent list with the given elements. Persistent lists are
+	 * returned as they are, other collections are copied.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> PersistentVector<E> from(Collection<? extends E> elements) {
+		if (elements instanceof PersistentVector) {
+			return (PersistentVector<E>) elements;
+		}
+		PersistentVector<E> result = empty();
+		for (E element : elements) {
+			result = result.plus(element);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a list with the given element.
+	 */
+	static <E> PersistentVector<E> of(E element) {
+		return PersistentVector.<E> empty().plus(element);
+	}
+
+	int getTailOffset() {
+		return this.size < WIDTH ? 0 : ((this.size - 1) >>> BITS) << BITS;
+	}
+
+	/**
+	 * Returns the array that holds the element at the given index.
+	 */
+	Object[] getArrayFor(int index) {
+		if (index >= getTailOffset()) {
+			return this.tail;
+		}
+		Object[] node = this.root;
+		for (int level = this.shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return (E) getArrayFor(index)[index & MASK];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns a list with the given element appended to the elements of this
+	 * list.
+	 */
+	PersistentVector<E> plus(E element) {
+		if (this.size - getTailOffset() < WIDTH) {
+			Object[] newTail = Arrays.copyOf(this.tail, this.tail.length + 1);
+			newTail[this.tail.length] = element;
+			return new PersistentVector<>(this.size + 1, this.shift, this.root, newTail);
+		}
+		// the tail is full and moves into the trie
+		Object[] newRoot;
+		int newShift = this.shift;
+		if ((this.size >>> BITS) > (1 << this.shift)) {
+			newRoot = new Object[WIDTH];
+			newRoot[0] = this.root;
+			newRoot[1] = newPath(this.shift, this.tail);
+			newShift += BITS;
+		} else {
+			newRoot = pushTail(this.shift, this.root, this.tail);
+		}
+		return new PersistentVector<>(this.size + 1, newShift, newRoot,
+				new Object[] { element });
+	}
+
+	/**
+	 * Returns a list where the element at the given index is replaced by the
+	 * given element.
+	 */
+	PersistentVector<E> with(int index, E element) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		if (index >= getTailOffset()) {
+			Object[] newTail = this.tail.clone();
+			newTail[index & MASK] = element;
+			return new PersistentVector<>(this.size, this.shift, this.root, newTail);
+		}
+		return new PersistentVector<>(this.size, this.shift,
+				replace(this.shift, this.root, index, element), this.tail);
+	}
+
+	private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+		int index = ((this.size - 1) >>> level) & MASK;
+		Object[] result = parent.clone();
+		if (level == BITS) {
+			result[index] = tailNode;
+		} else {
+			Object[] child = (Object[]) parent[index];
+			result[index] = child != null ? pushTail(level - BITS, child, tailNode)
+					: newPath(level - BITS, tailNode);
+		}
+		return result;
+	}
+
+	private static Object[] newPath(int level, Object[] node) {
+		if (level == 0) {
+			return node;
+		}
+		Object[] result = new Object[WIDTH];
+		result[0] = newPath(level - BITS, node);
+		return result;
+	}
+
+	private static Object[] replace(int level, Object[] node, int index, Object element) {
+		Object[] result = node.clone();
+		if (level == 0) {
+			result[index & MASK] = element;
+		} else {
+			int slot = (index >>> level) & MASK;
+			result[slot] = replace(level - BITS, (Object[]) node[slot], index, element);
+		}
+		return result;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			int index = 0;
+			Object[] array = size > 0 ? getArrayFor(0) : null;
+
+			@Override
+			public boolean hasNext() {
+				return this.index < size;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public E next() {
+				if (this.index >= size) {
+					throw new NoSuchElementException();
+				}
+				if (this.index > 0 && (this.index & MASK) == 0) {
+					this.array = getArrayFor(this.index);
+				}
+				return (E) this.array[this.index++ & MASK];
+			}
+		};
+	}
+}
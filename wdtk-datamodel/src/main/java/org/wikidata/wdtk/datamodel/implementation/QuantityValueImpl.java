@@ -48,6 +48,11 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 	 * structure that is required here.
 	 */
 	private final JacksonInnerQuantity value;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
 	
 	/**
      * Constructor.
@@ -158,11 +163,22 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof QuantityValueImpl && cachedHashCode != 0) {
+			int otherHashCode = ((QuantityValueImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsQuantityValue(this, obj);
 	}
 
@@ -21,6 +21,9 @@ package org.wikidata.wdtk.datamodel.implementation;
  */
 
 import com.fasterxml.jackson.annotation.*;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import org.wikidata.wdtk.datamodel.helpers.Equality;
 import org.wikidata.wdtk.datamodel.helpers.Hash;
 import org.wikidata.wdtk.datamodel.helpers.ToString;
@@ -29,6 +32,7 @@ import org.wikidata.wdtk.datamodel.interfaces.Snak;
 import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
 import org.wikidata.wdtk.util.NestedIterator;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -59,6 +63,17 @@ public class ReferenceImpl implements Reference {
 	 * The wikidata hash of this reference. null if we don't have knowledge about the hash.
 	 */
 	private final String hash;
+
+	/**
+	 * True if the snaks are known to be grouped by property, so that the snak
+	 * groups can be built without checking them again.
+	 */
+	private final boolean trustedSnaks;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
 	
 	/**
 	 * Constructor.
@@ -73,6 +88,7 @@ public class ReferenceImpl implements Reference {
 		propertyOrder = new ArrayList<>(groups.size());
 		snaks = new HashMap<>(groups.size());
 		hash = null;
+		trustedSnaks = false;
 
 		for(SnakGroup group : groups) {
 			propertyOrder.add(group.getProperty().getId());
@@ -89,12 +105,13 @@ public class ReferenceImpl implements Reference {
 			@JsonProperty("snaks-order") List<String> propertyOrder,
 			@JsonProperty("hash") String hash) {
 
-		this.snaks = new HashMap<>(snaks.size());
-		for(Map.Entry<String, List<SnakImpl>> entry : snaks.entrySet()) {
-			this.snaks.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-		}
+		// The lists are only read, so they do not need to be copied
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Map<String, List<Snak>> jsonSnaks = (Map) snaks;
+		this.snaks = jsonSnaks;
 		this.propertyOrder = propertyOrder;
 		this.hash = hash;
+		this.trustedSnaks = true;
 	}
 
 	@JsonIgnore
@@ -102,7 +119,7 @@ public class ReferenceImpl implements Reference {
 	public List<SnakGroup> getSnakGroups() {
 		if (this.snakGroups == null) {
 			this.snakGroups = SnakGroupImpl.makeSnakGroups(this.snaks,
-					this.propertyOrder);
+					this.propertyOrder, !this.trustedSnaks);
 		}
 		return this.snakGroups;
 	}
@@ -143,11 +160,22 @@ public class ReferenceImpl implements Reference {
 
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof ReferenceImpl && cachedHashCode != 0) {
+			int otherHashCode = ((ReferenceImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsReference(this, obj);
 	}
 
@@ -155,4 +183,44 @@ public class ReferenceImpl implements Reference {
 	public String toString() {
 		return ToString.toString(this);
 	}
+
+	/**
+	 * Custom Jackson deserializer for references, registered by
+	 * {@link StreamingDeserializerModule}.
+	 */
+	static class JacksonDeserializer extends StdDeserializer<ReferenceImpl> {
+
+		private static final long serialVersionUID = -7021938512243619437L;
+
+		private final SnakImpl.JacksonDeserializer snakDeserializer = new SnakImpl.JacksonDeserializer();
+
+		JacksonDeserializer() {
+			super(ReferenceImpl.class);
+		}
+
+		@Override
+		public ReferenceImpl deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+			Map<String, List<SnakImpl>> snaks = null;
+			List<String> propertyOrder = null;
+			String hash = null;
+			for (String field = StreamingDeserializerModule.firstFieldName(parser, ctxt, ReferenceImpl.class);
+					field != null; field = parser.nextFieldName()) {
+				parser.nextToken();
+				switch (field) {
+				case "snaks":
+					snaks = snakDeserializer.deserializeSnakMap(parser, ctxt);
+					break;
+				case "snaks-order":
+					propertyOrder = StreamingDeserializerModule.readStringList(parser, ctxt);
+					break;
+				case "hash":
+					hash = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			return new ReferenceImpl(snaks, propertyOrder, hash);
+		}
+	}
 }
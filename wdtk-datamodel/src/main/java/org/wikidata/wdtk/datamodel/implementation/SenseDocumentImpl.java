@@ -157,8 +157,8 @@ public class SenseDocumentImpl extends StatementDocumentImpl implements SenseDoc
 
 	@Override
 	public SenseDocument withGloss(MonolingualTextValue gloss) {
-		Map<String, MonolingualTextValue> newGlosses = new HashMap<>(glosses);
-		newGlosses.put(gloss.getLanguageCode(), toTerm(gloss));
+		Map<String, MonolingualTextValue> newGlosses = PersistentHashMap.from(glosses)
+				.plus(gloss.getLanguageCode(), toTerm(gloss));
 		return new SenseDocumentImpl(getEntityId(), newGlosses, claims, revisionId);
 	}
 
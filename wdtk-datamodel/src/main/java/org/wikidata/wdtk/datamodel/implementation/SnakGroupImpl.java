@@ -48,9 +48,26 @@ public class SnakGroupImpl extends AbstractList<Snak> implements SnakGroup {
 	 *            a non-empty list of snaks that use the same property
 	 */
 	public SnakGroupImpl(List<Snak> snaks) {
+		this(snaks, true);
+	}
+
+	/**
+	 * Constructor that can skip the checks of the snaks. This is used for
+	 * deserialized snaks, which are grouped by property in JSON already.
+	 *
+	 * @param snaks
+	 *            a non-empty list of snaks that use the same property
+	 * @param validate
+	 *            false if the snaks are known to form a valid group
+	 */
+	SnakGroupImpl(List<Snak> snaks, boolean validate) {
 		if (snaks == null || snaks.isEmpty()) {
 			throw new IllegalArgumentException("A non-empty list of Snaks must be provided to create a SnakGroup");
 		}
+		this.snaks = Collections.unmodifiableList(snaks);
+		if (!validate) {
+			return;
+		}
 		PropertyIdValue property = snaks.get(0).getPropertyId();
 
 		for (Snak s : snaks) {
@@ -59,7 +76,6 @@ public class SnakGroupImpl extends AbstractList<Snak> implements SnakGroup {
 						"All snaks in a snak group must use the same property");
 			}
 		}
-		this.snaks = Collections. unmodifiableList(snaks);
 	}
 
 	@Override
@@ -102,11 +118,27 @@ public class SnakGroupImpl extends AbstractList<Snak> implements SnakGroup {
 	 */
 	public static List<SnakGroup> makeSnakGroups(
 			Map<String, List<Snak>> snaks, List<String> propertyOrder) {
+		return makeSnakGroups(snaks, propertyOrder, true);
+	}
+
+	/**
+	 * Construct a list of {@link SnakGroup} objects from a map from property
+	 * ids to snak lists as found in JSON, optionally without checking the
+	 * snaks of each group.
+	 *
+	 * @param snaks
+	 *            the map with the data
+	 * @param validate
+	 *            false if the snaks are known to be grouped correctly
+	 * @return the result list
+	 */
+	static List<SnakGroup> makeSnakGroups(
+			Map<String, List<Snak>> snaks, List<String> propertyOrder, boolean validate) {
 
 		List<SnakGroup> result = new ArrayList<>(snaks.size());
 
 		for (String propertyName : propertyOrder) {
-			result.add(new SnakGroupImpl(snaks.get(propertyName)));
+			result.add(new SnakGroupImpl(snaks.get(propertyName), validate));
 		}
 
 		return result;
@@ -22,8 +22,15 @@ import org.apache.commons.lang3.Validate;
  * #L%
  */
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -31,6 +38,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
 
 /**
  * Abstract Jackson implementation of {@link Snak}.
@@ -107,4 +121,123 @@ public abstract class SnakImpl implements Snak {
 	
 	@JsonProperty("snaktype")
 	public abstract String getSnakType();
+
+	/**
+	 * Custom Jackson deserializer for snaks, registered by
+	 * {@link StreamingDeserializerModule}. Jackson resolves the type of snaks
+	 * by buffering all fields that come before "snaktype". Here, the fields
+	 * are read in any order and the snak is built once the whole object has
+	 * been read.
+	 */
+	static class JacksonDeserializer extends StdDeserializer<SnakImpl> {
+
+		private static final long serialVersionUID = -2361958463016093716L;
+
+		private final ValueImpl.JacksonDeserializer valueDeserializer = new ValueImpl.JacksonDeserializer();
+
+		JacksonDeserializer() {
+			super(SnakImpl.class);
+		}
+
+		@Override
+		public SnakImpl deserialize(JsonParser parser, DeserializationContext ctxt)
+				throws IOException {
+			String snakType = null;
+			String property = null;
+			String datatype = null;
+			Value datavalue = null;
+			for (String field = StreamingDeserializerModule.firstFieldName(parser, ctxt, SnakImpl.class);
+					field != null; field = parser.nextFieldName()) {
+				JsonToken token = parser.nextToken();
+				switch (field) {
+				case "snaktype":
+					snakType = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				case "property":
+					property = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				case "datatype":
+					datatype = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				case "datavalue":
+					datavalue = token == JsonToken.VALUE_NULL ? null : valueDeserializer.deserialize(parser, ctxt);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+
+			if (snakType == null) {
+				throw ctxt.missingTypeIdException(ctxt.constructType(SnakImpl.class), "missing type id property 'snaktype'");
+			}
+			Class<? extends SnakImpl> snakClass;
+			switch (snakType) {
+			case JSON_SNAK_TYPE_VALUE:
+				snakClass = ValueSnakImpl.class;
+				break;
+			case JSON_SNAK_TYPE_SOMEVALUE:
+				snakClass = SomeValueSnakImpl.class;
+				break;
+			case JSON_SNAK_TYPE_NOVALUE:
+				snakClass = NoValueSnakImpl.class;
+				break;
+			default:
+				if (!ctxt.isEnabled(DeserializationFeature.FAIL_ON_INVALID_SUBTYPE)) {
+					return null;
+				}
+				throw ctxt.invalidTypeIdException(ctxt.constructType(SnakImpl.class), snakType, "known type ids = ["
+						+ JSON_SNAK_TYPE_NOVALUE + ", " + JSON_SNAK_TYPE_SOMEVALUE + ", " + JSON_SNAK_TYPE_VALUE + "]");
+			}
+
+			String siteIri = (String) ctxt.findInjectableValue("siteIri", null, null);
+			try {
+				if (snakClass == ValueSnakImpl.class) {
+					return new ValueSnakImpl(property, datatype, datavalue, siteIri);
+				} else if (snakClass == SomeValueSnakImpl.class) {
+					return new SomeValueSnakImpl(property, siteIri);
+				} else {
+					return new NoValueSnakImpl(property, siteIri);
+				}
+			} catch (RuntimeException e) {
+				return (SnakImpl) ctxt.handleInstantiationProblem(snakClass, null, e);
+			}
+		}
+
+		@Override
+		public Object deserializeWithType(JsonParser parser, DeserializationContext ctxt,
+				TypeDeserializer typeDeserializer) throws IOException {
+			// the type is found while reading the snak
+			return deserialize(parser, ctxt);
+		}
+
+		/**
+		 * Reads a map from property ids to lists of snaks, as used for the
+		 * qualifiers of statements and for the snaks of references.
+		 */
+		Map<String, List<SnakImpl>> deserializeSnakMap(JsonParser parser, DeserializationContext ctxt)
+				throws IOException {
+			if (parser.currentToken() == JsonToken.VALUE_NULL) {
+				return null;
+			}
+			JavaType listType = ctxt.getTypeFactory().constructCollectionType(List.class, SnakImpl.class);
+			if (!parser.isExpectedStartObjectToken()) {
+				// such as empty arrays used for empty maps
+				return ctxt.readValue(parser, ctxt.getTypeFactory().constructMapType(
+						LinkedHashMap.class, ctxt.constructType(String.class), listType));
+			}
+			Map<String, List<SnakImpl>> snaks = new LinkedHashMap<>();
+			for (String property = parser.nextFieldName(); property != null; property = parser.nextFieldName()) {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					snaks.put(property, ctxt.readValue(parser, listType));
+					continue;
+				}
+				List<SnakImpl> snakList = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					snakList.add(parser.currentToken() == JsonToken.VALUE_NULL ? null : deserialize(parser, ctxt));
+				}
+				snaks.put(property, snakList);
+			}
+			return snaks;
+		}
+	}
 }
@@ -25,9 +25,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.lang3.Validate;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
 import org.wikidata.wdtk.util.NestedIterator;
 
 import java.util.*;
@@ -51,10 +53,45 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 	protected final Map<String, List<Statement>> claims;
 
 	/**
-	 * Statement groups. This member is initialized when statements are
-	 * accessed.
+	 * Statement groups, in order and by property id. This member is
+	 * initialized when statement groups are accessed.
 	 */
-	private List<StatementGroup> statementGroups;
+	private StatementGroupIndex statementGroupIndex;
+
+	/**
+	 * True if the statements of each claim list are known to share the
+	 * subject of this document and the property of the list, as they do after
+	 * JSON deserialization. The statement groups are then not checked again.
+	 */
+	private final boolean trustedClaims;
+
+	/**
+	 * Statement groups of a document, each created and validated once. The
+	 * fields are final so that the index can be shared between threads
+	 * without synchronization.
+	 */
+	private static final class StatementGroupIndex {
+
+		final List<StatementGroup> groups;
+		final Map<String, StatementGroup> groupsByProperty;
+
+		StatementGroupIndex(Map<String, List<Statement>> claims, boolean validate) {
+			List<StatementGroup> groups = new ArrayList<>(claims.size());
+			Map<String, StatementGroup> groupsByProperty = new HashMap<>(
+					claims.size() * 4 / 3 + 1);
+			for (Entry<String, List<Statement>> entry : claims.entrySet()) {
+				if (entry.getValue().isEmpty()) {
+					// "claims":{"P31":[]} is accepted, but has no group
+					continue;
+				}
+				StatementGroup group = new StatementGroupImpl(entry.getValue(), validate);
+				groups.add(group);
+				groupsByProperty.put(entry.getKey(), group);
+			}
+			this.groups = groups;
+			this.groupsByProperty = groupsByProperty;
+		}
+	}
 
 	/**
 	 * Constructor.
@@ -72,6 +109,7 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 			long revisionId) {
 		super(id, revisionId);
 		this.claims = new HashMap<>();
+		this.trustedClaims = false;
 		if(claims != null) {
 			for(StatementGroup group : claims) {
 				EntityIdValue otherId = group.getSubject();
@@ -95,6 +133,7 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 			long revisionId) {
 		super(id, revisionId);
 		this.claims = claims;
+		this.trustedClaims = false;
 	}
 
 	/**
@@ -120,31 +159,122 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 		} else {
 			this.claims = Collections.emptyMap();
 		}
+		this.trustedClaims = true;
 	}
 
 	@JsonIgnore
 	@Override
 	public List<StatementGroup> getStatementGroups() {
-		if (this.statementGroups == null) {
-			this.statementGroups = new ArrayList<>(this.claims.size());
-			for (List<Statement> statements : this.claims.values()) {
-				this.statementGroups
-						.add(new StatementGroupImpl(statements));
+		return getStatementGroupIndex().groups;
+	}
+
+	private StatementGroupIndex getStatementGroupIndex() {
+		StatementGroupIndex index = this.statementGroupIndex;
+		if (index == null) {
+			index = new StatementGroupIndex(this.claims, !this.trustedClaims);
+			this.statementGroupIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the statements for the given property, or null if there are
+	 * none. The site IRI of the property is checked.
+	 */
+	private List<Statement> getStatements(PropertyIdValue propertyIdValue) {
+		List<Statement> statements = this.claims.get(propertyIdValue.getId());
+		if (statements == null || statements.isEmpty() || !propertyIdValue
+				.equals(statements.get(0).getMainSnak().getPropertyId())) {
+			return null;
+		}
+		return statements;
+	}
+
+	private static boolean containsValue(List<Statement> statements, Value value) {
+		if (statements != null) {
+			for (int i = 0; i < statements.size(); i++) {
+				if (Objects.equals(value, statements.get(i).getValue())) {
+					return true;
+				}
 			}
 		}
-		return this.statementGroups;
+		return false;
 	}
-	
+
+	private static boolean containsValue(List<Statement> statements,
+			Set<? extends Value> values) {
+		if (statements != null) {
+			for (int i = 0; i < statements.size(); i++) {
+				if (values.contains(statements.get(i).getValue())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public StatementGroup findStatementGroup(PropertyIdValue propertyIdValue) {
+		StatementGroup group = findStatementGroup(propertyIdValue.getId());
+		return group != null && propertyIdValue.equals(group.getProperty()) ? group : null;
+	}
+
 	/**
 	 * Find a statement group by its property id, without checking for 
 	 * equality with the site IRI. More efficient implementation than
-	 * the default one.
+	 * the default one: the groups are created once and then looked up by
+	 * property id.
 	 */
+	@Override
 	public StatementGroup findStatementGroup(String propertyIdValue) {
-		if (this.claims.containsKey(propertyIdValue)) {
-			return new StatementGroupImpl(this.claims.get(propertyIdValue));
+		if (this.claims.isEmpty()) {
+			return null;
 		}
-		return null;
+		return getStatementGroupIndex().groupsByProperty.get(propertyIdValue);
+	}
+
+	@Override
+	public boolean hasStatement(PropertyIdValue propertyIdValue) {
+		return getStatements(propertyIdValue) != null;
+	}
+
+	@Override
+	public boolean hasStatement(String propertyId) {
+		List<Statement> statements = this.claims.get(propertyId);
+		return statements != null && !statements.isEmpty();
+	}
+
+	@Override
+	public boolean hasStatementValue(PropertyIdValue propertyIdValue, Value value) {
+		return containsValue(getStatements(propertyIdValue), value);
+	}
+
+	@Override
+	public boolean hasStatementValue(String propertyId, Value value) {
+		return containsValue(this.claims.get(propertyId), value);
+	}
+
+	@Override
+	public boolean hasStatementValue(PropertyIdValue propertyIdValue,
+			Set<? extends Value> values) {
+		return containsValue(getStatements(propertyIdValue), values);
+	}
+
+	@Override
+	public boolean hasStatementValue(String propertyId, Set<? extends Value> values) {
+		return containsValue(this.claims.get(propertyId), values);
+	}
+
+	@Override
+	public Statement findStatement(PropertyIdValue propertyIdValue) {
+		List<Statement> statements = getStatements(propertyIdValue);
+		return statements != null && statements.size() == 1 ? statements.get(0) : null;
+	}
+
+	@Override
+	public Statement findStatement(String propertyId) {
+		List<Statement> statements = this.claims.get(propertyId);
+		return statements != null && statements.size() == 1 ? statements.get(0) : null;
 	}
 
 	/**
@@ -171,54 +301,66 @@ abstract class StatementDocumentImpl extends EntityDocumentImpl implements State
 	 * Adds a Statement to a given collection of statement groups.
 	 * If the statement id is not null and matches that of an existing statement,
 	 * this statement will be replaced.
+	 * <p>
+	 * The result is a {@link PersistentHashMap} of {@link PersistentVector}s
+	 * that shares all other groups with the given map, so that repeated
+	 * additions take logarithmic rather than linear time.
 	 * 
 	 * @param statement
 	 * @param claims
 	 * @return
 	 */
 	protected static Map<String, List<Statement>> addStatementToGroups(Statement statement, Map<String, List<Statement>> claims) {
-		Map<String, List<Statement>> newGroups = new HashMap<>(claims);
+		PersistentHashMap<String, List<Statement>> groups = PersistentHashMap.from(claims);
 		String pid = statement.getMainSnak().getPropertyId().getId();
-		if(newGroups.containsKey(pid)) {
-			List<Statement> newGroup = new ArrayList<>(newGroups.get(pid).size());
-			boolean statementReplaced = false;
-			for(Statement existingStatement : newGroups.get(pid)) {
-				if(existingStatement.getStatementId().equals(statement.getStatementId()) &&
-						!existingStatement.getStatementId().isEmpty()) {
-					statementReplaced = true;
-					newGroup.add(statement);
-				} else {
-					newGroup.add(existingStatement);
+		List<Statement> group = groups.get(pid);
+		if(group == null) {
+			return groups.plus(pid, PersistentVector.of(statement));
+		}
+		PersistentVector<Statement> newGroup = PersistentVector.from(group);
+		String statementId = statement.getStatementId();
+		if(!statementId.isEmpty()) {
+			for(int i = 0; i < newGroup.size(); i++) {
+				if(statementId.equals(newGroup.get(i).getStatementId())) {
+					return groups.plus(pid, newGroup.with(i, statement));
 				}
 			}
-			if(!statementReplaced) {
-				newGroup.add(statement);
-			}
-			newGroups.put(pid, newGroup);
-		} else {
-			newGroups.put(pid, Collections.singletonList(statement));
 		}
-		return newGroups;
+		return groups.plus(pid, newGroup.plus(statement));
 	}
 	
 	/**
 	 * Removes statement ids from a collection of statement groups.
+	 * Groups without any of the statements are shared with the given map.
 	 * @param statementIds
 	 * @param claims
 	 * @return
 	 */
 	protected static Map<String, List<Statement>> removeStatements(Set<String> statementIds, Map<String, List<Statement>> claims) {
-		Map<String, List<Statement>> newClaims = new HashMap<>(claims.size());
+		PersistentHashMap<String, List<Statement>> newClaims = PersistentHashMap.from(claims);
+		if(statementIds.isEmpty()) {
+			return newClaims;
+		}
 		for(Entry<String, List<Statement>> entry : claims.entrySet()) {
-			List<Statement> filteredStatements = new ArrayList<>();
+			List<Statement> filteredStatements = null;
+			int index = 0;
 			for(Statement s : entry.getValue()) {
-				if(!statementIds.contains(s.getStatementId())) {
+				if(statementIds.contains(s.getStatementId())) {
+					if(filteredStatements == null) {
+						filteredStatements = new ArrayList<>(entry.getValue().subList(0, index));
+					}
+				} else if(filteredStatements != null) {
 					filteredStatements.add(s);
 				}
+				index++;
+			}
+			if(filteredStatements == null) {
+				continue;
 			}
-			if(!filteredStatements.isEmpty()) {
-				newClaims.put(entry.getKey(),
-					filteredStatements);
+			if(filteredStatements.isEmpty()) {
+				newClaims = newClaims.minus(entry.getKey());
+			} else {
+				newClaims = newClaims.plus(entry.getKey(), PersistentVector.from(filteredStatements));
 			}
 		}
 		return newClaims;
@@ -46,10 +46,29 @@ public class StatementGroupImpl extends AbstractList<Statement> implements State
 	 *            main-snak property in their claim
 	 */
 	public StatementGroupImpl(List<Statement> statements) {
+		this(statements, true);
+	}
+
+	/**
+	 * Constructor that can skip the checks of the statements. This is used
+	 * for the statements of deserialized documents, which share the subject
+	 * of the document and are grouped by property in JSON already.
+	 *
+	 * @param statements
+	 *            a non-empty list of statements that use the same subject and
+	 *            main-snak property in their claim
+	 * @param validate
+	 *            false if the statements are known to form a valid group
+	 */
+	StatementGroupImpl(List<Statement> statements, boolean validate) {
 		Validate.notNull(statements,
 				"A non-null list of statements must be provided to create a statement group.");
 		Validate.isTrue(!statements.isEmpty(),
 				"A non-empty list of statements must be provided to create a statement group.");
+		this.statements = statements;
+		if (!validate) {
+			return;
+		}
 		EntityIdValue subject = statements.get(0).getSubject();
 		PropertyIdValue property = statements.get(0).getMainSnak().getPropertyId();
 		for(Statement statement : statements) {
@@ -58,7 +77,6 @@ public class StatementGroupImpl extends AbstractList<Statement> implements State
 			Validate.isTrue(statement.getMainSnak().getPropertyId().equals(property),
 			"All statements of a statement group must have the same subject.");
 		}
-		this.statements = statements;
 	}
 
 	@Override
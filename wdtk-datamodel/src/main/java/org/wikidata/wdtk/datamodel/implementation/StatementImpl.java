@@ -23,12 +23,15 @@ package org.wikidata.wdtk.datamodel.implementation;
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import org.apache.commons.lang3.Validate;
 import org.wikidata.wdtk.datamodel.helpers.Equality;
 import org.wikidata.wdtk.datamodel.helpers.Hash;
@@ -74,6 +77,17 @@ public class StatementImpl implements Statement {
 
 	private List<SnakGroup> qualifiersGroups;
 
+	/**
+	 * True if the qualifier snaks are known to be grouped by property, so that
+	 * the snak groups can be built without checking them again.
+	 */
+	private final boolean trustedQualifiers;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
+
 	/**
 	 * Constructor.
 	 * <p>
@@ -120,6 +134,7 @@ public class StatementImpl implements Statement {
 		Validate.notNull(subjectId);
 
 		this.subjectId = subjectId;
+		this.trustedQualifiers = false;
 	}
 
 	public StatementImpl(
@@ -130,6 +145,22 @@ public class StatementImpl implements Statement {
 			List<String> qualifiersOrder,
 			List<Reference> references,
 			EntityIdValue subjectId) {
+		this(statementId, rank, mainSnak, qualifiers, qualifiersOrder, references, subjectId, false);
+	}
+
+	/**
+	 * Constructor for statements of deserialized documents, whose qualifiers
+	 * are grouped by property in JSON already.
+	 */
+	StatementImpl(
+			String statementId,
+			StatementRank rank,
+			Snak mainSnak,
+			Map<String,List<Snak>> qualifiers,
+			List<String> qualifiersOrder,
+			List<Reference> references,
+			EntityIdValue subjectId,
+			boolean trustedQualifiers) {
 		this.statementId = (statementId == null) ? "" : statementId;
 		Validate.notNull(rank, "No rank provided to create a statement.");
 		this.rank = rank;
@@ -140,6 +171,7 @@ public class StatementImpl implements Statement {
 		this.references = (references == null) ? Collections.emptyList() : references;
 		Validate.notNull(subjectId);
 		this.subjectId = subjectId;
+		this.trustedQualifiers = trustedQualifiers;
 	}
 
 	/**
@@ -183,7 +215,7 @@ public class StatementImpl implements Statement {
 	@JsonIgnore
 	public List<SnakGroup> getQualifiers() {
 		if (qualifiersGroups == null) {
-			qualifiersGroups = SnakGroupImpl.makeSnakGroups(qualifiers, qualifiersOrder);
+			qualifiersGroups = SnakGroupImpl.makeSnakGroups(qualifiers, qualifiersOrder, !trustedQualifiers);
 		}
 		return qualifiersGroups;
 	}
@@ -254,11 +286,22 @@ public class StatementImpl implements Statement {
 	
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof StatementImpl && cachedHashCode != 0) {
+			int otherHashCode = ((StatementImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsStatement(this, obj);
 	}
 
@@ -316,16 +359,14 @@ public class StatementImpl implements Statement {
 			if(qualifiers == null) {
 				qualifiers = Collections.emptyMap();
 			}
-			Map<String, List<Snak>> newQualifiers = new HashMap<>(qualifiers.size());
-			for(Map.Entry<String,List<SnakImpl>> entry : qualifiers.entrySet()) {
-				List<Snak> snaks = new ArrayList<>(entry.getValue());
-				newQualifiers.put(entry.getKey(), snaks);
-			}
+			// The lists are only read, so they do not need to be copied
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			Map<String, List<Snak>> newQualifiers = (Map) qualifiers;
 			return new PreStatement(id, rank, mainsnak, newQualifiers, qualifiersOrder, references);
 		}
 
 		public StatementImpl withSubject(EntityIdValue subjectId) {
-			return new StatementImpl(statementId, rank, mainSnak, qualifiers, qualifiersOrder, references, subjectId);
+			return new StatementImpl(statementId, rank, mainSnak, qualifiers, qualifiersOrder, references, subjectId, true);
 		}
 	}
 
@@ -356,4 +397,84 @@ public class StatementImpl implements Statement {
 			return StatementRank.valueOf(jp.getText().toUpperCase());
 		}
 	}
+
+	/**
+	 * Custom Jackson deserializer for statements, registered by
+	 * {@link StreamingDeserializerModule}. It reads the same fields as the
+	 * JSON creator of {@link PreStatement}, using the custom deserializers
+	 * for the snaks and references.
+	 */
+	static class PreStatementDeserializer extends StdDeserializer<PreStatement> {
+
+		private static final long serialVersionUID = 2846523104329137085L;
+
+		private final StatementRankDeserializer rankDeserializer = new StatementRankDeserializer();
+
+		private final SnakImpl.JacksonDeserializer snakDeserializer = new SnakImpl.JacksonDeserializer();
+
+		private final ReferenceImpl.JacksonDeserializer referenceDeserializer = new ReferenceImpl.JacksonDeserializer();
+
+		PreStatementDeserializer() {
+			super(PreStatement.class);
+		}
+
+		@Override
+		public PreStatement deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+			String id = null;
+			StatementRank rank = null;
+			SnakImpl mainsnak = null;
+			Map<String, List<SnakImpl>> qualifiers = null;
+			List<String> qualifiersOrder = null;
+			List<Reference> references = null;
+			for (String field = StreamingDeserializerModule.firstFieldName(parser, ctxt, PreStatement.class);
+					field != null; field = parser.nextFieldName()) {
+				JsonToken token = parser.nextToken();
+				switch (field) {
+				case "id":
+					id = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				case "rank":
+					try {
+						rank = token == JsonToken.VALUE_NULL ? null : rankDeserializer.deserialize(parser, ctxt);
+					} catch (IllegalArgumentException e) {
+						throw JsonMappingException.wrapWithPath(e, PreStatement.class, field);
+					}
+					break;
+				case "mainsnak":
+					mainsnak = token == JsonToken.VALUE_NULL ? null : snakDeserializer.deserialize(parser, ctxt);
+					break;
+				case "qualifiers":
+					qualifiers = snakDeserializer.deserializeSnakMap(parser, ctxt);
+					break;
+				case "qualifiers-order":
+					qualifiersOrder = StreamingDeserializerModule.readStringList(parser, ctxt);
+					break;
+				case "references":
+					references = deserializeReferences(parser, ctxt);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			return PreStatement.fromJson(id, rank, mainsnak, qualifiers, qualifiersOrder, references);
+		}
+
+		private List<Reference> deserializeReferences(JsonParser parser, DeserializationContext ctxt)
+				throws IOException {
+			switch (parser.currentToken()) {
+			case START_ARRAY:
+				List<Reference> references = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					references.add(parser.currentToken() == JsonToken.VALUE_NULL
+							? null : referenceDeserializer.deserialize(parser, ctxt));
+				}
+				return references;
+			case VALUE_NULL:
+				return null;
+			default:
+				return ctxt.readValue(parser,
+						ctxt.getTypeFactory().constructCollectionType(List.class, ReferenceImpl.class));
+			}
+		}
+	}
 }
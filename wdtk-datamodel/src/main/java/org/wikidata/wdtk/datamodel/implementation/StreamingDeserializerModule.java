@@ -0,0 +1,123 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Jackson module with hand-written deserializers for the objects that occur
+ * most often in Wikibase JSON: snaks, statements, references and terms. The
+ * deserializers read the JSON as a stream of tokens, without resolving the
+ * polymorphic type of snaks through a buffer and without going through the
+ * generic creator mechanism of Jackson, which makes reading dumps
+ * considerably faster.
+ * <p>
+ * The resulting objects are the same as the ones built by Jackson from the
+ * annotations of the implementation classes, which remain in place for
+ * mappers that do not use this module. The module is registered by
+ * {@link DatamodelMapper}.
+ */
+public class StreamingDeserializerModule extends SimpleModule {
+
+	private static final long serialVersionUID = 5179302540315342671L;
+
+	/**
+	 * Constructor.
+	 */
+	public StreamingDeserializerModule() {
+		super(StreamingDeserializerModule.class.getSimpleName());
+		addDeserializer(SnakImpl.class, new SnakImpl.JacksonDeserializer());
+		addDeserializer(StatementImpl.PreStatement.class, new StatementImpl.PreStatementDeserializer());
+		addDeserializer(ReferenceImpl.class, new ReferenceImpl.JacksonDeserializer());
+		addDeserializer(TermImpl.class, new TermImpl.JacksonDeserializer());
+	}
+
+	/**
+	 * Returns the name of the first field of the object that the parser is
+	 * at, moving the parser to that field. The parser may also already be at
+	 * the first field, or at the end of the object if Jackson has read its
+	 * fields while looking for a type id.
+	 *
+	 * @param type
+	 *            the type of the object, used for reporting other tokens
+	 * @return the name of the field, or null if the object is empty
+	 */
+	static String firstFieldName(JsonParser parser, DeserializationContext ctxt, Class<?> type)
+			throws IOException {
+		switch (parser.currentToken()) {
+		case START_OBJECT:
+			return parser.nextFieldName();
+		case FIELD_NAME:
+			return parser.currentName();
+		case END_OBJECT:
+			return null;
+		default:
+			ctxt.handleUnexpectedToken(type, parser);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the string at the current token of the parser. Tokens other than
+	 * strings are left to Jackson, which converts or rejects them as it does
+	 * for string properties.
+	 */
+	static String readString(JsonParser parser, DeserializationContext ctxt) throws IOException {
+		switch (parser.currentToken()) {
+		case VALUE_STRING:
+			return parser.getText();
+		case VALUE_NULL:
+			return null;
+		default:
+			return ctxt.readValue(parser, String.class);
+		}
+	}
+
+	/**
+	 * Reads the list of strings at the current token of the parser, as used
+	 * for the order of properties in statements and references.
+	 */
+	static List<String> readStringList(JsonParser parser, DeserializationContext ctxt) throws IOException {
+		switch (parser.currentToken()) {
+		case START_ARRAY:
+			List<String> strings = new ArrayList<>();
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				strings.add(readString(parser, ctxt));
+			}
+			return strings;
+		case VALUE_NULL:
+			return null;
+		default:
+			JavaType listType = ctxt.getTypeFactory().constructCollectionType(List.class, String.class);
+			return ctxt.readValue(parser, listType);
+		}
+	}
+}
@@ -20,6 +20,8 @@ package org.wikidata.wdtk.datamodel.implementation;
  * #L%
  */
 
+import java.io.IOException;
+
 import org.apache.commons.lang3.Validate;
 import org.wikidata.wdtk.datamodel.helpers.Equality;
 import org.wikidata.wdtk.datamodel.helpers.Hash;
@@ -30,6 +32,9 @@ import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 /**
  * Jackson representation of {@link MonolingualTextValue} data used in labels,
@@ -113,4 +118,42 @@ public class TermImpl implements MonolingualTextValue {
 	public String toString() {
 		return ToString.toString(this);
 	}
+
+	/**
+	 * Custom Jackson deserializer for terms, registered by
+	 * {@link StreamingDeserializerModule}.
+	 */
+	static class JacksonDeserializer extends StdDeserializer<TermImpl> {
+
+		private static final long serialVersionUID = 3961874582042317785L;
+
+		JacksonDeserializer() {
+			super(TermImpl.class);
+		}
+
+		@Override
+		public TermImpl deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+			String languageCode = null;
+			String text = null;
+			for (String field = StreamingDeserializerModule.firstFieldName(parser, ctxt, TermImpl.class);
+					field != null; field = parser.nextFieldName()) {
+				parser.nextToken();
+				switch (field) {
+				case "language":
+					languageCode = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				case "value":
+					text = StreamingDeserializerModule.readString(parser, ctxt);
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+			try {
+				return new TermImpl(languageCode, text);
+			} catch (RuntimeException e) {
+				return (TermImpl) ctxt.handleInstantiationProblem(TermImpl.class, null, e);
+			}
+		}
+	}
 }
@@ -23,12 +23,13 @@ package org.wikidata.wdtk.datamodel.implementation;
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -187,19 +188,14 @@ public abstract class TermedStatementDocumentImpl extends LabeledStatementDocume
 
 	protected static Map<String, List<MonolingualTextValue>> withAliases(
 			Map<String, List<MonolingualTextValue>> values, String language, List<MonolingualTextValue> aliases) {
-		Map<String, List<MonolingualTextValue>> newValues = new HashMap<>(values);
-		if(!newValues.containsKey(language)) {
-			newValues.put(language, new ArrayList<>());
-		}
-		List<MonolingualTextValue> l = newValues.get(language);
-		l.clear();
+		List<MonolingualTextValue> l = new ArrayList<>(aliases.size());
 		for(MonolingualTextValue term : aliases) {
 			if(!term.getLanguageCode().equals(language)) {
 				throw new IllegalArgumentException("The alias " + term + " does not have the same language as its group " + language);
 			}
 			l.add(toTerm(term));
 		}
-		return newValues;
+		return PersistentHashMap.from(values).plus(language, l);
 	}
 
 	/**
@@ -215,8 +211,8 @@ public abstract class TermedStatementDocumentImpl extends LabeledStatementDocume
 	 * <p>
 	 * It implements a workaround to cope with empty aliases being represented as
 	 * <code>"aliases":[]</code> despite its declaration as map and not as list or
-	 * array. This is neither nice nor fast, and should be obsolete as soon as
-	 * possible.
+	 * array. The aliases are read as a stream of tokens, without building a
+	 * tree first.
 	 *
 	 */
 	static class AliasesDeserializer extends JsonDeserializer<Map<String, List<MonolingualTextValue>>> {
@@ -228,21 +224,22 @@ public abstract class TermedStatementDocumentImpl extends LabeledStatementDocume
 			Map<String, List<MonolingualTextValue>> contents = new HashMap<>();
 
 			try {
-				JsonNode node = jp.getCodec().readTree(jp);
-				if (!node.isArray()) {
-					Iterator<Entry<String, JsonNode>> nodeIterator = node.fields();
-					while (nodeIterator.hasNext()) {
-						List<MonolingualTextValue> mltvList = new ArrayList<>();
-						Entry<String, JsonNode> currentNode = nodeIterator.next();
-						// get the list of MLTVs
-						for (JsonNode mltvEntry : currentNode.getValue()) {
-							String language = mltvEntry.get("language").asText();
-							String value = mltvEntry.get("value").asText();
-							mltvList.add(new TermImpl(language,value));
+				if (!jp.isExpectedStartObjectToken()) {
+					jp.skipChildren();
+					return contents;
+				}
+				for (String key = jp.nextFieldName(); key != null; key = jp.nextFieldName()) {
+					List<MonolingualTextValue> mltvList = new ArrayList<>();
+					JsonToken token = jp.nextToken();
+					if (token.isStructStart()) {
+						// get the list of MLTVs, also accepting them as members of an object
+						for (token = jp.nextToken(); !token.isStructEnd(); token = jp.nextToken()) {
+							if (token != JsonToken.FIELD_NAME) {
+								mltvList.add(readTerm(jp));
+							}
 						}
-
-						contents.put(currentNode.getKey(), mltvList);
 					}
+					contents.put(key, mltvList);
 				}
 			} catch (Exception e) {
 				throw new JsonMappingException(jp, "Unexpected alias list serialization", e);
@@ -251,5 +248,27 @@ public abstract class TermedStatementDocumentImpl extends LabeledStatementDocume
 			return contents;
 
 		}
+
+		private static TermImpl readTerm(JsonParser jp) throws IOException {
+			if (!jp.isExpectedStartObjectToken()) {
+				throw new IllegalArgumentException("Alias is not an object");
+			}
+			String language = null;
+			String value = null;
+			for (String field = jp.nextFieldName(); field != null; field = jp.nextFieldName()) {
+				JsonToken token = jp.nextToken();
+				String text = token.isScalarValue() ? jp.getText() : "";
+				jp.skipChildren();
+				if ("language".equals(field)) {
+					language = text;
+				} else if ("value".equals(field)) {
+					value = text;
+				}
+			}
+			if (language == null || value == null) {
+				throw new IllegalArgumentException("Alias without language or value");
+			}
+			return new TermImpl(language, value);
+		}
 	}
 }
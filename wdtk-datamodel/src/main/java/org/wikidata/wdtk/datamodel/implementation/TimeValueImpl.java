@@ -22,6 +22,7 @@ package org.wikidata.wdtk.datamodel.implementation;
 
 import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.Validate;
 import org.threeten.extra.chrono.JulianDate;
@@ -55,6 +56,11 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 	 * structure that is required here.
 	 */
 	private final JacksonInnerTime value;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
 	
 	/**
 	 * Constructor.
@@ -197,11 +203,22 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof TimeValueImpl && cachedHashCode != 0) {
+			int otherHashCode = ((TimeValueImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsTimeValue(this, obj);
 	}
 
@@ -245,6 +262,12 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 	 */
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	static class JacksonInnerTime {
+		/**
+		 * Separators between the components of time strings, except for the
+		 * sign of the year.
+		 */
+		private static final Pattern TIME_SEPARATORS = Pattern.compile("(?<!\\A)[\\-:TZ]");
+
 		private final String time;
 		private final int timezone;
 		private final int before;
@@ -354,7 +377,7 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 		 */
 		private void decomposeTimeString() {
 			// decompose the time string into its parts
-			String[] substrings = time.split("(?<!\\A)[\\-:TZ]");
+			String[] substrings = TIME_SEPARATORS.split(time);
 
 			// get the components of the date
 			this.year = Long.parseLong(substrings[0]);
@@ -1,11 +1,14 @@
 package org.wikidata.wdtk.datamodel.implementation;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /*
  * #%L
@@ -33,6 +36,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Abstract Jackson implementation of {@link Value}.
@@ -101,6 +107,12 @@ public abstract class ValueImpl implements Value {
 	 * value of the "type" field, but for entities one has to look deeper into the
 	 * structure to get the "entity-type" field as well. This is not possible using
 	 * simpler mechanisms.
+	 * <p>
+	 * Since the "type" usually comes after the "value", the fields are first
+	 * read without knowing the type. The values that are common in dumps are
+	 * then built directly from these fields. Anything else is turned into a
+	 * JSON tree and deserialized by Jackson from the annotations of the value
+	 * class.
 	 *
 	 */
 	static class JacksonDeserializer extends StdDeserializer<ValueImpl> {
@@ -115,11 +127,163 @@ public abstract class ValueImpl implements Value {
 		public ValueImpl deserialize(JsonParser jsonParser,
 				DeserializationContext ctxt) throws IOException {
 
-			ObjectCodec mapper = jsonParser.getCodec();
-			JsonNode root = mapper.readTree(jsonParser);
+			if (!jsonParser.isExpectedStartObjectToken()
+					&& jsonParser.currentToken() != JsonToken.FIELD_NAME) {
+				return deserializeTree(ctxt.readTree(jsonParser), jsonParser, ctxt);
+			}
+
+			// the "type" is a string or a tree, the "value" a string, fields or a tree
+			Object type = null;
+			Object value = null;
+			ObjectNode otherFields = null;
+			for (String field = StreamingDeserializerModule.firstFieldName(jsonParser, ctxt, ValueImpl.class);
+					field != null; field = jsonParser.nextFieldName()) {
+				JsonToken token = jsonParser.nextToken();
+				if ("type".equals(field)) {
+					type = token == JsonToken.VALUE_STRING ? jsonParser.getText() : ctxt.readTree(jsonParser);
+				} else if ("value".equals(field)) {
+					if (token == JsonToken.VALUE_STRING) {
+						value = jsonParser.getText();
+					} else if (token == JsonToken.START_OBJECT) {
+						value = JsonFields.read(jsonParser, ctxt);
+					} else {
+						value = ctxt.readTree(jsonParser);
+					}
+				} else {
+					if (otherFields == null) {
+						otherFields = ctxt.getNodeFactory().objectNode();
+					}
+					otherFields.set(field, ctxt.readTree(jsonParser));
+				}
+			}
+
+			if (type instanceof String && otherFields == null) {
+				ValueImpl result = deserializeFields((String) type, value, ctxt);
+				if (result != null) {
+					return result;
+				}
+			}
+
+			JsonNodeFactory nodeFactory = ctxt.getNodeFactory();
+			ObjectNode root = otherFields == null ? nodeFactory.objectNode() : otherFields;
+			if (value != null) {
+				root.set("value", value instanceof String ? nodeFactory.textNode((String) value)
+						: value instanceof JsonFields ? ((JsonFields) value).toTree(nodeFactory)
+						: (JsonNode) value);
+			}
+			if (type != null) {
+				root.set("type", type instanceof String ? nodeFactory.textNode((String) type) : (JsonNode) type);
+			}
+			return deserializeTree(root, jsonParser, ctxt);
+		}
+
+		/**
+		 * Deserializes the value from its JSON tree, letting Jackson use the
+		 * annotations of the value class.
+		 */
+		private ValueImpl deserializeTree(JsonNode root, JsonParser jsonParser,
+				DeserializationContext ctxt) throws IOException {
 			Class<? extends ValueImpl> valueClass = getValueClass(root, jsonParser);
 
-			return mapper.treeToValue(root, valueClass);
+			ValuePool valuePool = (ValuePool) ctxt.getAttribute(ValuePool.class);
+			if (valuePool != null) {
+				ValueImpl value = valuePool.fromJson(root, valueClass);
+				if (value != null) {
+					return value;
+				}
+			}
+			// read through the context to keep the injected values of the reader
+			return ctxt.readTreeAsValue(root, valueClass);
+		}
+
+		/**
+		 * Builds the value from the fields of its JSON if they have the usual
+		 * format, in the same way as Jackson would do.
+		 *
+		 * @return the value, or null if it should be deserialized by Jackson
+		 */
+		private ValueImpl deserializeFields(String type, Object value, DeserializationContext ctxt)
+				throws IOException {
+			if (JSON_VALUE_TYPE_STRING.equals(type)) {
+				return value instanceof String ? new StringValueImpl((String) value) : null;
+			}
+			if (!(value instanceof JsonFields)) {
+				return null;
+			}
+			JsonFields fields = (JsonFields) value;
+			ValuePool valuePool = (ValuePool) ctxt.getAttribute(ValuePool.class);
+			try {
+				switch (type) {
+				case JSON_VALUE_TYPE_ENTITY_ID:
+					return deserializeEntityId(fields, ctxt);
+				case JSON_VALUE_TYPE_TIME:
+					String calendarModel = fields.getText("calendarmodel");
+					return new TimeValueImpl(new TimeValueImpl.JacksonInnerTime(
+							fields.getText("time"),
+							fields.getInt("timezone", ctxt),
+							fields.getInt("before", ctxt),
+							fields.getInt("after", ctxt),
+							fields.getInt("precision", ctxt),
+							valuePool == null || calendarModel == null ? calendarModel : valuePool.internIri(calendarModel)));
+				case JSON_VALUE_TYPE_GLOBE_COORDINATES:
+					String globe = fields.getText("globe");
+					return new GlobeCoordinatesValueImpl(new GlobeCoordinatesValueImpl.JacksonInnerGlobeCoordinates(
+							fields.getDouble("latitude", ctxt),
+							fields.getDouble("longitude", ctxt),
+							fields.getDouble("precision", ctxt),
+							valuePool == null || globe == null ? globe : valuePool.internIri(globe)));
+				case JSON_VALUE_TYPE_QUANTITY:
+					String amount = fields.getText("amount");
+					String lowerBound = fields.getText("lowerBound");
+					String upperBound = fields.getText("upperBound");
+					String unit = fields.getText("unit");
+					if (valuePool != null) {
+						return valuePool.getQuantity(amount, lowerBound, upperBound, unit);
+					}
+					return new QuantityValueImpl(new QuantityValueImpl.JacksonInnerQuantity(
+							amount == null ? null : new BigDecimal(amount),
+							lowerBound == null ? null : new BigDecimal(lowerBound),
+							upperBound == null ? null : new BigDecimal(upperBound),
+							unit));
+				case JSON_VALUE_TYPE_MONOLINGUAL_TEXT:
+					return new MonolingualTextValueImpl(new MonolingualTextValueImpl.JacksonInnerMonolingualText(
+							fields.getText("language"),
+							fields.getText("text")));
+				default:
+					return null;
+				}
+			} catch (RuntimeException e) {
+				// fall back to Jackson, which reports the problem
+				return null;
+			}
+		}
+
+		private ValueImpl deserializeEntityId(JsonFields fields, DeserializationContext ctxt)
+				throws IOException {
+			String entityType = fields.getText("entity-type");
+			String id = fields.getText("id");
+			Class<? extends ValueImpl> valueClass;
+			if (entityType != null) {
+				valueClass = getValueClassFromEntityType(entityType);
+			} else if (id != null) {
+				valueClass = getValueClassFromEntityType(EntityIdValueImpl.guessEntityTypeFromId(id, true));
+			} else {
+				return null;
+			}
+
+			EntityIdValueImpl.JacksonInnerEntityId inner = new EntityIdValueImpl.JacksonInnerEntityId(
+					id, fields.getInt("numeric-id", ctxt), entityType);
+			String siteIri = (String) ctxt.findInjectableValue("siteIri", null, null);
+			if (valueClass == ItemIdValueImpl.class) {
+				return new ItemIdValueImpl(inner, siteIri);
+			} else if (valueClass == PropertyIdValueImpl.class) {
+				return new PropertyIdValueImpl(inner, siteIri);
+			} else if (valueClass == LexemeIdValueImpl.class) {
+				return new LexemeIdValueImpl(inner, siteIri);
+			} else if (valueClass == MediaInfoIdValueImpl.class) {
+				return new MediaInfoIdValueImpl(inner, siteIri);
+			}
+			return null;
 		}
 
 		/**
@@ -192,5 +356,134 @@ public abstract class ValueImpl implements Value {
 					throw new IllegalArgumentException("Entities of type \"" + entityType + "\" are not supported.");
 			}
 		}
+
+		/**
+		 * Fields of a JSON object, as found in the "value" of most values,
+		 * read without building a tree. Nested objects and arrays are kept as
+		 * trees.
+		 */
+		private static class JsonFields {
+
+			private String[] names = new String[8];
+
+			private Object[] values = new Object[8];
+
+			private int size = 0;
+
+			static JsonFields read(JsonParser jsonParser, DeserializationContext ctxt) throws IOException {
+				JsonFields fields = new JsonFields();
+				for (String name = jsonParser.nextFieldName(); name != null; name = jsonParser.nextFieldName()) {
+					switch (jsonParser.nextToken()) {
+					case VALUE_STRING:
+						fields.add(name, jsonParser.getText());
+						break;
+					case VALUE_NUMBER_INT:
+					case VALUE_NUMBER_FLOAT:
+						fields.add(name, jsonParser.getNumberValue());
+						break;
+					default:
+						fields.add(name, ctxt.readTree(jsonParser));
+					}
+				}
+				return fields;
+			}
+
+			private void add(String name, Object value) {
+				if (size == names.length) {
+					names = Arrays.copyOf(names, 2 * size);
+					values = Arrays.copyOf(values, 2 * size);
+				}
+				names[size] = name;
+				values[size] = value;
+				size++;
+			}
+
+			/**
+			 * Returns the value of the last field with the given name, like
+			 * Jackson does for repeated fields.
+			 */
+			private Object get(String name) {
+				for (int i = size - 1; i >= 0; i--) {
+					if (names[i].equals(name)) {
+						return values[i];
+					}
+				}
+				return null;
+			}
+
+			/**
+			 * @throws IllegalArgumentException
+			 *             if the field is not a string
+			 */
+			String getText(String name) {
+				Object value = get(name);
+				if (value == null || value instanceof String) {
+					return (String) value;
+				}
+				throw new IllegalArgumentException("Unexpected JSON for field " + name);
+			}
+
+			/**
+			 * Returns the integer in the given field, or 0 if it is missing
+			 * or null, as Jackson does for primitive properties.
+			 *
+			 * @throws IllegalArgumentException
+			 *             if the field is not an integer
+			 */
+			int getInt(String name, DeserializationContext ctxt) {
+				Object value = get(name);
+				if (value instanceof Integer) {
+					return (Integer) value;
+				}
+				checkMissing(name, value, ctxt);
+				return 0;
+			}
+
+			/**
+			 * Returns the number in the given field, or 0 if it is missing or
+			 * null, as Jackson does for primitive properties.
+			 *
+			 * @throws IllegalArgumentException
+			 *             if the field is not a number
+			 */
+			double getDouble(String name, DeserializationContext ctxt) {
+				Object value = get(name);
+				if (value instanceof Number) {
+					return ((Number) value).doubleValue();
+				}
+				checkMissing(name, value, ctxt);
+				return 0.0;
+			}
+
+			private void checkMissing(String name, Object value, DeserializationContext ctxt) {
+				if (value != null && !(value instanceof JsonNode && ((JsonNode) value).isNull()
+						&& !ctxt.isEnabled(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES))) {
+					throw new IllegalArgumentException("Unexpected JSON for field " + name);
+				}
+			}
+
+			ObjectNode toTree(JsonNodeFactory nodeFactory) {
+				ObjectNode node = nodeFactory.objectNode();
+				for (int i = 0; i < size; i++) {
+					Object value = values[i];
+					if (value instanceof String) {
+						node.set(names[i], nodeFactory.textNode((String) value));
+					} else if (value instanceof Integer) {
+						node.set(names[i], nodeFactory.numberNode((Integer) value));
+					} else if (value instanceof Long) {
+						node.set(names[i], nodeFactory.numberNode((Long) value));
+					} else if (value instanceof BigInteger) {
+						node.set(names[i], nodeFactory.numberNode((BigInteger) value));
+					} else if (value instanceof BigDecimal) {
+						node.set(names[i], nodeFactory.numberNode((BigDecimal) value));
+					} else if (value instanceof Number) {
+						node.set(names[i], nodeFactory.numberNode(((Number) value).doubleValue()));
+					} else {
+						node.set(names[i], (JsonNode) value);
+					}
+				}
+				return node;
+			}
+		}
 	}
 }
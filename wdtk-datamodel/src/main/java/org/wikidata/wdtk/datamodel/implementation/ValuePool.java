@@ -0,0 +1,285 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Pool of recurring parts of deserialized values. Calendar model and globe
+ * IRIs, quantity units and small unit-less integer quantities occur millions
+ * of times in the dumps, but only take a few distinct values. Values
+ * deserialized with the same pool share these objects instead of holding
+ * their own copies, which reduces the memory needed to keep many documents.
+ * <p>
+ * The pool is used by {@link DatamodelMapper}, which stores it as an
+ * attribute of its deserialization configuration. The number of pooled IRIs
+ * and units is bounded, so that unusual data cannot make the pool grow
+ * without limit. Pools are thread-safe and can be shared between mappers.
+ */
+public class ValuePool {
+
+	/**
+	 * Maximal number of IRIs and of units kept in a pool.
+	 */
+	static final int MAX_POOLED_IRIS = 4096;
+
+	/**
+	 * Unit-less integer quantities from 0 to this value (exclusive) are
+	 * pooled.
+	 */
+	static final int SMALL_QUANTITY_LIMIT = 1024;
+
+	private final ConcurrentHashMap<String, String> iris = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, ItemIdValue> units = new ConcurrentHashMap<>();
+
+	/**
+	 * Small quantities without bounds, indexed by their amount.
+	 */
+	private final AtomicReferenceArray<QuantityValueImpl> quantities = new AtomicReferenceArray<>(
+			SMALL_QUANTITY_LIMIT);
+
+	/**
+	 * Small quantities with both bounds equal to their amount, indexed by
+	 * their amount.
+	 */
+	private final AtomicReferenceArray<QuantityValueImpl> exactQuantities = new AtomicReferenceArray<>(
+			SMALL_QUANTITY_LIMIT);
+
+	/**
+	 * Constructor. The pool initially contains the calendar models and globes
+	 * that are defined as constants in the data model.
+	 */
+	public ValuePool() {
+		for (String iri : new String[] { TimeValue.CM_GREGORIAN_PRO,
+				TimeValue.CM_JULIAN_PRO, GlobeCoordinatesValue.GLOBE_EARTH,
+				GlobeCoordinatesValue.GLOBE_MOON }) {
+			iris.put(iri, iri);
+		}
+	}
+
+	/**
+	 * Returns the pooled instance of the given IRI. If the IRI is not pooled
+	 * yet, it is added to the pool unless the pool is full.
+	 *
+	 * @param iri
+	 *            the IRI string
+	 * @return a string equal to the given IRI
+	 */
+	public String internIri(String iri) {
+		String pooled = iris.get(iri);
+		if (pooled != null) {
+			return pooled;
+		}
+		if (iris.size() >= MAX_POOLED_IRIS) {
+			return iri;
+		}
+		pooled = iris.putIfAbsent(iri, iri);
+		return pooled == null ? iri : pooled;
+	}
+
+	/**
+	 * Returns the pooled item id for the given unit IRI.
+	 *
+	 * @param iri
+	 *            the IRI of the unit item
+	 * @return the item id value of the unit
+	 * @throws IllegalArgumentException
+	 *             if the IRI is not an item IRI
+	 */
+	ItemIdValue getUnit(String iri) {
+		ItemIdValue unit = units.get(iri);
+		if (unit != null) {
+			return unit;
+		}
+		unit = ItemIdValueImpl.fromIri(iri);
+		if (units.size() >= MAX_POOLED_IRIS) {
+			return unit;
+		}
+		ItemIdValue pooled = units.putIfAbsent(iri, unit);
+		return pooled == null ? unit : pooled;
+	}
+
+	/**
+	 * Creates the value for the given JSON if it is of a type with pooled
+	 * parts. Only values in the usual JSON format are handled here; null is
+	 * returned for other types and for anything unusual, so that Jackson can
+	 * deserialize them and report problems as usual.
+	 *
+	 * @param root
+	 *            the JSON of the value
+	 * @param valueClass
+	 *            the class of the value, as found from its "type"
+	 * @return the value, or null if it should be deserialized by Jackson
+	 */
+	ValueImpl fromJson(JsonNode root, Class<? extends ValueImpl> valueClass) {
+		JsonNode value = root.get("value");
+		if (value == null || !value.isObject()) {
+			return null;
+		}
+		try {
+			if (valueClass == QuantityValueImpl.class) {
+				return quantityFromJson(value);
+			} else if (valueClass == TimeValueImpl.class) {
+				return timeFromJson(value);
+			} else if (valueClass == GlobeCoordinatesValueImpl.class) {
+				return globeCoordinatesFromJson(value);
+			}
+		} catch (RuntimeException e) {
+			// fall back to Jackson, which reports the problem
+		}
+		return null;
+	}
+
+	private QuantityValueImpl quantityFromJson(JsonNode value) {
+		return getQuantity(getText(value, "amount", true),
+				getText(value, "lowerBound", false),
+				getText(value, "upperBound", false),
+				getText(value, "unit", true));
+	}
+
+	/**
+	 * Creates a quantity from the strings found in its JSON, sharing its unit
+	 * or the whole quantity with other values where possible.
+	 *
+	 * @throws RuntimeException
+	 *             if the strings do not describe a valid quantity
+	 */
+	QuantityValueImpl getQuantity(String amount, String lowerBound, String upperBound, String unit) {
+		if ("1".equals(unit)) {
+			int count = parseSmallCount(amount);
+			if (count >= 0) {
+				if (lowerBound == null && upperBound == null) {
+					return getSmallQuantity(quantities, count, false);
+				} else if (amount.equals(lowerBound) && amount.equals(upperBound)) {
+					return getSmallQuantity(exactQuantities, count, true);
+				}
+			}
+		}
+
+		return new QuantityValueImpl(new QuantityValueImpl.JacksonInnerQuantity(
+				new BigDecimal(amount),
+				lowerBound == null ? null : new BigDecimal(lowerBound),
+				upperBound == null ? null : new BigDecimal(upperBound),
+				"1".equals(unit) ? null : getUnit(unit)));
+	}
+
+	private QuantityValueImpl getSmallQuantity(
+			AtomicReferenceArray<QuantityValueImpl> pool, int count, boolean exact) {
+		QuantityValueImpl quantity = pool.get(count);
+		if (quantity == null) {
+			BigDecimal amount = BigDecimal.valueOf(count);
+			quantity = new QuantityValueImpl(new QuantityValueImpl.JacksonInnerQuantity(
+					amount, exact ? amount : null, exact ? amount : null, (ItemIdValue) null));
+			if (!pool.compareAndSet(count, null, quantity)) {
+				quantity = pool.get(count);
+			}
+		}
+		return quantity;
+	}
+
+	private TimeValueImpl timeFromJson(JsonNode value) {
+		return new TimeValueImpl(new TimeValueImpl.JacksonInnerTime(
+				getText(value, "time", true),
+				getInt(value, "timezone"),
+				getInt(value, "before"),
+				getInt(value, "after"),
+				getInt(value, "precision"),
+				internIri(getText(value, "calendarmodel", true))));
+	}
+
+	private GlobeCoordinatesValueImpl globeCoordinatesFromJson(JsonNode value) {
+		return new GlobeCoordinatesValueImpl(
+				new GlobeCoordinatesValueImpl.JacksonInnerGlobeCoordinates(
+						getDouble(value, "latitude"),
+						getDouble(value, "longitude"),
+						getDouble(value, "precision"),
+						internIri(getText(value, "globe", true))));
+	}
+
+	/**
+	 * Parses strings like "+42" as used for amounts of quantities.
+	 *
+	 * @return the amount, or -1 if it is not an integer below
+	 *         {@link #SMALL_QUANTITY_LIMIT}
+	 */
+	static int parseSmallCount(String amount) {
+		int start = amount.startsWith("+") ? 1 : 0;
+		int length = amount.length() - start;
+		if (length < 1 || length > 4) {
+			return -1;
+		}
+		int count = 0;
+		for (int i = start; i < amount.length(); i++) {
+			char c = amount.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			count = 10 * count + (c - '0');
+		}
+		return count < SMALL_QUANTITY_LIMIT ? count : -1;
+	}
+
+	private static String getText(JsonNode node, String field, boolean required) {
+		JsonNode child = node.get(field);
+		if (child == null || child.isNull()) {
+			if (required) {
+				throw new IllegalArgumentException("Missing field " + field);
+			}
+			return null;
+		}
+		if (!child.isTextual()) {
+			throw new IllegalArgumentException("Unexpected JSON for field " + field);
+		}
+		return child.textValue();
+	}
+
+	private static int getInt(JsonNode node, String field) {
+		JsonNode child = node.get(field);
+		if (child == null || child.isNull()) {
+			return 0;
+		}
+		if (!child.isInt()) {
+			throw new IllegalArgumentException("Unexpected JSON for field " + field);
+		}
+		return child.intValue();
+	}
+
+	private static double getDouble(JsonNode node, String field) {
+		JsonNode child = node.get(field);
+		if (child == null || child.isNull()) {
+			return 0.0;
+		}
+		if (!child.isNumber()) {
+			throw new IllegalArgumentException("Unexpected JSON for field " + field);
+		}
+		return child.doubleValue();
+	}
+}
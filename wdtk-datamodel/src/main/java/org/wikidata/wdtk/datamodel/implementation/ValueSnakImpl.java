@@ -65,6 +65,11 @@ public class ValueSnakImpl extends SnakImpl implements ValueSnak {
 	 * of string datavalues.
 	 */
 	private final String datatype;
+
+	/**
+	 * Cached hash code, or 0 if it has not been computed yet.
+	 */
+	private int cachedHashCode;
 	
 
 	/**
@@ -141,11 +146,22 @@ public class ValueSnakImpl extends SnakImpl implements ValueSnak {
 
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Hash.hashCode(this);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof ValueSnakImpl && cachedHashCode != 0) {
+			int otherHashCode = ((ValueSnakImpl) obj).cachedHashCode;
+			if (otherHashCode != 0 && otherHashCode != cachedHashCode) {
+				return false;
+			}
+		}
 		return Equality.equalsValueSnak(this, obj);
 	}
 
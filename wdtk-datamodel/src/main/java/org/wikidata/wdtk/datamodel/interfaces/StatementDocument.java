@@ -22,9 +22,9 @@ package org.wikidata.wdtk.datamodel.interfaces;
 
 import org.wikidata.wdtk.util.NestedIterator;
 
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -134,7 +134,16 @@ public interface StatementDocument extends EntityDocument {
 	 * @return true if a statement for this property and value exists
 	 */
 	default boolean hasStatementValue(PropertyIdValue propertyIdValue, Value value) {
-		return hasStatementValue(propertyIdValue, Collections.singleton(value));
+		StatementGroup statementGroup = findStatementGroup(propertyIdValue);
+		if(statementGroup == null) {
+			return false;
+		}
+		for (Statement statement : statementGroup) {
+			if (Objects.equals(value, statement.getValue())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -152,7 +161,16 @@ public interface StatementDocument extends EntityDocument {
 	 * @return true if a statement for this property and value exists
 	 */
 	default boolean hasStatementValue(String propertyId, Value value) {
-		return hasStatementValue(propertyId, Collections.singleton(value));
+		StatementGroup statementGroup = findStatementGroup(propertyId);
+		if(statementGroup == null) {
+			return false;
+		}
+		for (Statement statement : statementGroup) {
+			if (Objects.equals(value, statement.getValue())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -21,6 +21,9 @@
 package org.wikidata.wdtk.datamodel.helpers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -40,6 +43,8 @@ import org.wikidata.wdtk.datamodel.implementation.StatementImpl;
 import org.wikidata.wdtk.datamodel.implementation.StringValueImpl;
 import org.wikidata.wdtk.datamodel.implementation.TimeValueImpl;
 import org.wikidata.wdtk.datamodel.implementation.ValueSnakImpl;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
 import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
@@ -109,6 +114,30 @@ public class DatamodelConverterTest {
 
 	}
 
+	static class OtherStringValue implements StringValue {
+
+		@Override
+		public String getString() {
+			return "foo";
+		}
+
+		@Override
+		public <T> T accept(ValueVisitor<T> valueVisitor) {
+			return valueVisitor.visit(this);
+		}
+
+		@Override
+		public int hashCode() {
+			return Hash.hashCode(this);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return Equality.equalsStringValue(this, obj);
+		}
+
+	}
+
 	private Statement getBrokenStatement() {
 		Snak brokenSnak = Datamodel.makeValueSnak(
 				getTestPropertyIdValue(5),
@@ -297,6 +326,64 @@ public class DatamodelConverterTest {
         assertEquals(document, converter.copy(document));
     }
 	
+	@Test
+	public void testReuseTargetObjects() {
+		ItemDocument item = getTestItemDocument(2);
+		Statement statement = item.getStatementGroups().get(0).getStatements().get(0);
+		DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl());
+		converter.setReuseTargetObjects(true);
+
+		ItemDocument copy = converter.copy(item);
+		copy = converter.copy(item);
+		assertEquals(item, copy);
+		assertSame(statement, copy.getStatementGroups().get(0).getStatements().get(0));
+	}
+
+	@Test
+	public void testNoReuseByDefault() {
+		ItemDocument item = getTestItemDocument(2);
+		Statement statement = item.getStatementGroups().get(0).getStatements().get(0);
+		DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl());
+
+		ItemDocument copy = converter.copy(item);
+		copy = converter.copy(item);
+		assertEquals(item, copy);
+		assertNotSame(statement, copy.getStatementGroups().get(0).getStatements().get(0));
+	}
+
+	@Test
+	public void testReuseCopiesOtherParts() {
+		ValueSnak snak = Datamodel.makeValueSnak(getTestPropertyIdValue(5), new OtherStringValue());
+		Statement statement = Datamodel.makeStatement(getTestItemIdValue(2), snak,
+				Collections.emptyList(), Collections.emptyList(),
+				StatementRank.NORMAL, "id");
+		DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl());
+		converter.setReuseTargetObjects(true);
+		converter.copy(getTestStatement(2, 5, 1, EntityIdValue.ET_ITEM));
+
+		Statement copy = converter.copy(statement);
+		assertEquals(statement, copy);
+		assertNotSame(statement, copy);
+		assertTrue(copy.getValue() instanceof StringValueImpl);
+		assertSame(statement.getSubject(), copy.getSubject());
+		assertSame(snak.getPropertyId(), copy.getMainSnak().getPropertyId());
+	}
+
+	@Test
+	public void testCopyEntityDocumentsInParallel() {
+		List<EntityDocument> documents = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			documents.add(getTestItemDocument(i));
+		}
+		documents.add(Datamodel.makePropertyDocument(getTestPropertyIdValue(1),
+				Datamodel.makeDatatypeIdValue(DatatypeIdValue.DT_STRING)));
+		DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl());
+		converter.setReuseTargetObjects(true);
+
+		assertEquals(documents, converter.copyEntityDocuments(documents));
+		assertEquals(documents, converter.copyEntityDocumentsInParallel(documents));
+	}
+
 	public enum ValueType {
 		STRING, ITEM, GLOBE_COORDINATES, TIME, QUANTITY, MONOLINGUAL_TEXT;
 
@@ -443,6 +530,16 @@ public class DatamodelConverterTest {
 				getTestEntityIdValue(subjectSeed, entityType));
 	}
 
+	private ItemDocument getTestItemDocument(int seed) {
+		return Datamodel.makeItemDocument(
+				getTestItemIdValue(seed),
+				Collections.emptyList(),
+				Collections.emptyList(),
+				Collections.emptyList(),
+				Collections.singletonList(getTestStatementGroup(seed, 5, 3, EntityIdValue.ET_ITEM)),
+				Collections.emptyMap());
+	}
+
 	private StatementGroup getTestStatementGroup(int subjectSeed, int seed, int size, String entityType) {
 		List<Statement> statements = new ArrayList<>(size);
 		for (int i = 0; i < size; i++) {
@@ -21,15 +21,25 @@
 package org.wikidata.wdtk.datamodel.helpers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityRedirectDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
@@ -77,4 +87,64 @@ public class JsonDeserializerTest {
 		EntityDocument doc = SUT.deserializeEntityDocument(loadJson("property.json"));
 		assertEquals(doc.getEntityId(), Datamodel.makeWikidataPropertyIdValue("P3467"));
 	}
+
+	@Test
+	public void testDeserializeFromBytes() throws IOException {
+		String json = loadJson("item.json");
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		byte[] padded = new byte[bytes.length + 4];
+		System.arraycopy(bytes, 0, padded, 2, bytes.length);
+
+		ItemDocument expected = SUT.deserializeItemDocument(json);
+		assertEquals(expected, SUT.deserializeItemDocument(bytes));
+		assertEquals(expected, SUT.deserializeItemDocument(padded, 2, bytes.length));
+		assertEquals(expected, SUT.deserializeEntityDocument(bytes));
+	}
+
+	@Test
+	public void testDeserializeFromStream() throws IOException {
+		String json = loadJson("property.json");
+		boolean[] closed = { false };
+		InputStream stream = new FilterInputStream(
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))) {
+			@Override
+			public void close() throws IOException {
+				closed[0] = true;
+				super.close();
+			}
+		};
+
+		assertEquals(SUT.deserializePropertyDocument(json), SUT.deserializePropertyDocument(stream));
+		assertFalse(closed[0]);
+	}
+
+	@Test
+	public void testDeserializeRedirectFromBytes() throws IOException {
+		byte[] json = "{\"entity\":\"Q1\",\"redirect\":\"Q2\"}".getBytes(StandardCharsets.UTF_8);
+		EntityRedirectDocument doc = SUT.deserializeEntityRedirectDocument(json);
+		assertEquals(Datamodel.makeWikidataItemIdValue("Q2"), doc.getTargetId());
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		byte[] item = loadJson("item.json").getBytes(StandardCharsets.UTF_8);
+		byte[] lexeme = loadJson("lexeme.json").getBytes(StandardCharsets.UTF_8);
+		ItemDocument expectedItem = SUT.deserializeItemDocument(item);
+		LexemeDocument expectedLexeme = SUT.deserializeLexemeDocument(lexeme);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				results.add(executor.submit(() ->
+						expectedItem.equals(SUT.deserializeItemDocument(item))
+						&& expectedLexeme.equals(SUT.deserializeLexemeDocument(lexeme))));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.util.CompressionType;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+public class ParallelJsonSerializerTest {
+
+	private final List<ItemDocument> documents = new ArrayList<>();
+
+	public ParallelJsonSerializerTest() {
+		for (int i = 1; i <= 2 * ParallelJsonSerializer.BATCH_SIZE + 10; i++) {
+			ItemIdValue id = Datamodel.makeWikidataItemIdValue("Q" + i);
+			documents.add(Datamodel.makeItemDocument(id,
+					Collections.singletonList(Datamodel.makeMonolingualTextValue("Label " + i, "en")),
+					Collections.emptyList(), Collections.emptyList(),
+					Collections.singletonList(Datamodel.makeStatementGroup(Collections.singletonList(
+							Datamodel.makeStatement(id,
+									Datamodel.makeNoValueSnak(Datamodel.makeWikidataPropertyIdValue("P42")),
+									Collections.emptyList(), Collections.emptyList(),
+									StatementRank.NORMAL, "Q" + i + "$id")))),
+					Collections.emptyMap(), i));
+		}
+	}
+
+	@Test
+	public void testOrderedOutputMatchesJsonSerializer() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelJsonSerializer serializer = new ParallelJsonSerializer(out, 3);
+		serialize(serializer, documents);
+
+		assertEquals(documents.size(), serializer.getEntityDocumentCount());
+		assertArrayEquals(serializeSequentially(documents), out.toByteArray());
+	}
+
+	@Test
+	public void testUnorderedOutput() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelJsonSerializer serializer = new ParallelJsonSerializer(out, 3);
+		serializer.setPreserveOrder(false);
+		serialize(serializer, documents);
+
+		List<EntityDocument> result = readDocuments(out.toByteArray());
+		assertEquals(documents.size(), result.size());
+		assertEquals(new HashSet<>(documents), new HashSet<>(result));
+	}
+
+	@Test
+	public void testCompressedOutput() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ParallelJsonSerializer serializer = new ParallelJsonSerializer(out, 2);
+		serializer.setCompressionType(CompressionType.GZIP);
+		serialize(serializer, documents);
+
+		byte[] json = IOUtils.toByteArray(new GZIPInputStream(
+				new ByteArrayInputStream(out.toByteArray())));
+		assertArrayEquals(serializeSequentially(documents), json);
+	}
+
+	@Test
+	public void testEmptyOutput() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serialize(new ParallelJsonSerializer(out, 2), Collections.emptyList());
+
+		assertArrayEquals(serializeSequentially(Collections.emptyList()), out.toByteArray());
+	}
+
+	@Test
+	public void testUnsupportedCompression() {
+		ParallelJsonSerializer serializer = new ParallelJsonSerializer(new ByteArrayOutputStream());
+		assertThrows(IllegalArgumentException.class,
+				() -> serializer.setCompressionType(CompressionType.BZ2));
+	}
+
+	private static void serialize(EntityDocumentDumpProcessor serializer, List<ItemDocument> documents) {
+		serializer.open();
+		for (ItemDocument document : documents) {
+			serializer.processItemDocument(document);
+		}
+		serializer.close();
+	}
+
+	private static byte[] serializeSequentially(List<ItemDocument> documents) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serialize(new JsonSerializer(out), documents);
+		return out.toByteArray();
+	}
+
+	private static List<EntityDocument> readDocuments(byte[] json) throws IOException {
+		ObjectReader documentReader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(EntityDocumentImpl.class);
+		List<EntityDocument> result = new ArrayList<>();
+		try (MappingIterator<EntityDocument> iterator = documentReader.readValues(json)) {
+			while (iterator.hasNextValue()) {
+				result.add(iterator.nextValue());
+			}
+		}
+		return result;
+	}
+}
@@ -42,6 +42,7 @@ import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
@@ -313,6 +314,24 @@ public class ItemDocumentImplTest {
 				claim.getValue()));
 	}
 	
+	@Test
+	public void testModificationsDoNotChangeOriginal() {
+		ItemDocument modified = ir1;
+		for (int i = 0; i < 100; i++) {
+			modified = modified.withStatement(new StatementImpl("", StatementRank.NORMAL,
+					new SomeValueSnakImpl(new PropertyIdValueImpl("P" + (i % 7), "http://example.com/entity/")),
+					Collections.emptyList(), Collections.emptyList(), iid));
+		}
+		modified = modified.withStatement(s.withStatementId("MyId"))
+				.withAliases("de", Collections.singletonList(new MonolingualTextValueImpl("other", "de")));
+		assertEquals(101, modified.getStatementGroups().stream().mapToInt(g -> g.size()).sum());
+		assertEquals(ir2, ir1);
+		assertEquals(aliasList, ir1.getAliases().get("de"));
+		ItemDocument removed = modified.withoutStatementIds(Collections.singleton("MyId"));
+		assertEquals(100, removed.getStatementGroups().stream().mapToInt(g -> g.size()).sum());
+		assertEquals(101, modified.getStatementGroups().stream().mapToInt(g -> g.size()).sum());
+	}
+
 	@Test
 	public void testDeleteStatements() {
 		Statement toRemove = statementGroups.get(0).getStatements().get(0);
@@ -400,6 +419,32 @@ public class ItemDocumentImplTest {
 		assertEquals(document, mapper.readValue(JSON_ITEM_SITELINKS, ItemDocumentImpl.class));
 	}
 
+	@Test
+	public void testStatementGroupsOfDeserializedDocument() throws IOException {
+		String json = "{\"type\":\"item\",\"id\":\"Q42\",\"claims\":{\"P42\":[{\"rank\":\"normal\",\"id\":\"MyId\","
+				+ "\"mainsnak\":{\"property\":\"P42\",\"snaktype\":\"somevalue\"},"
+				+ "\"qualifiers\":{\"P1\":[{\"property\":\"P1\",\"snaktype\":\"novalue\"}]},\"qualifiers-order\":[\"P1\"],"
+				+ "\"references\":[{\"snaks\":{\"P2\":[{\"property\":\"P2\",\"snaktype\":\"somevalue\"}]},\"snaks-order\":[\"P2\"]}],"
+				+ "\"type\":\"statement\"}]}}";
+		ItemDocument document = mapper.readValue(json, ItemDocumentImpl.class);
+
+		PropertyIdValue p1 = new PropertyIdValueImpl("P1", "http://example.com/entity/");
+		PropertyIdValue p2 = new PropertyIdValueImpl("P2", "http://example.com/entity/");
+		Statement statement = new StatementImpl("MyId", StatementRank.NORMAL,
+				new SomeValueSnakImpl(new PropertyIdValueImpl("P42", "http://example.com/entity/")),
+				Collections.singletonList(new SnakGroupImpl(Collections.singletonList(new NoValueSnakImpl(p1)))),
+				Collections.singletonList(new ReferenceImpl(Collections.singletonList(
+						new SnakGroupImpl(Collections.singletonList(new SomeValueSnakImpl(p2)))))),
+				iid);
+
+		assertEquals(Collections.singletonList(new StatementGroupImpl(Collections.singletonList(statement))),
+				document.getStatementGroups());
+		Statement deserialized = document.getStatementGroups().get(0).getStatements().get(0);
+		assertEquals(statement.getQualifiers(), deserialized.getQualifiers());
+		assertEquals(statement.getReferences().get(0).getSnakGroups(),
+				deserialized.getReferences().get(0).getSnakGroups());
+	}
+
 	/**
 	 * Checks support of wrong serialization of empty object as empty array
 	 */
@@ -53,6 +53,9 @@ public class ItemIdValueImplTest {
 	private final String JSON_ITEM_ID_VALUE_WRONG_ID = "{\"type\":\"wikibase-entityid\",\"value\":{\"id\":\"W42\"}}";
 	private final String JSON_ITEM_ID_VALUE_UNSUPPORTED_TYPE = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"foo\",\"numeric-id\":42,\"id\":\"F42\"}}";
 	private final String JSON_ITEM_ID_VALUE_UNSUPPORTED_NO_ID = "{\"type\":\"wikibase-entityid\",\"value\":{}}";
+	private final String JSON_ITEM_ID_VALUE_DIFFERENT_NUMERICAL_ID = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":42,\"id\":\"Q43\"}}";
+	private final String JSON_ITEM_ID_VALUE_LEADING_ZERO = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":42,\"id\":\"Q042\"}}";
+	private final String JSON_ITEM_ID_VALUE_PROPERTY_ID = "{\"type\":\"wikibase-entityid\",\"value\":{\"entity-type\":\"item\",\"numeric-id\":42,\"id\":\"P42\"}}";
 
 	@Test
 	public void entityTypeIsItem() {
@@ -153,6 +156,13 @@ public class ItemIdValueImplTest {
 		assertThrows(JsonMappingException.class, () -> mapper.readValue(JSON_ITEM_ID_VALUE_UNSUPPORTED_NO_ID, ValueImpl.class));
 	}
 
+	@Test
+	public void testToJavaDifferentNumericalId() {
+		assertThrows(JsonMappingException.class, () -> mapper.readValue(JSON_ITEM_ID_VALUE_DIFFERENT_NUMERICAL_ID, ValueImpl.class));
+		assertThrows(JsonMappingException.class, () -> mapper.readValue(JSON_ITEM_ID_VALUE_LEADING_ZERO, ValueImpl.class));
+		assertThrows(JsonMappingException.class, () -> mapper.readValue(JSON_ITEM_ID_VALUE_PROPERTY_ID, ValueImpl.class));
+	}
+
 	@Test
 	public void testIsPlaceholder() {
 		assertFalse(item1.isPlaceholder());
@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelConverter;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PackedItemDocumentImplTest {
+
+	private final String json;
+	private final ItemDocument item;
+	private final PackedItemDocumentImpl packed;
+
+	public PackedItemDocumentImplTest() throws IOException {
+		json = loadJson("item.json");
+		item = new JsonDeserializer(Datamodel.SITE_WIKIDATA).deserializeItemDocument(json);
+		packed = new PackedItemDocumentImpl(item);
+	}
+
+	static String loadJson(String filename) throws IOException {
+		try (InputStream stream = PackedItemDocumentImplTest.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + filename)) {
+			return IOUtils.toString(stream, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testContentIsPreserved() {
+		assertEquals(item.getEntityId(), packed.getEntityId());
+		assertEquals(item.getRevisionId(), packed.getRevisionId());
+		assertEquals(item.getLabels(), packed.getLabels());
+		assertEquals(item.getDescriptions(), packed.getDescriptions());
+		assertEquals(item.getAliases(), packed.getAliases());
+		assertEquals(item.getStatementGroups(), packed.getStatementGroups());
+		assertEquals(item.getSiteLinks(), packed.getSiteLinks());
+		assertEquals(item.findLabel("en"), packed.findLabel("en"));
+		assertEquals(item.findStatementGroup("P31"), packed.findStatementGroup("P31"));
+	}
+
+	@Test
+	public void testEqualityAndHashCode() {
+		assertEquals(item, packed);
+		assertEquals(packed, item);
+		assertEquals(item.hashCode(), packed.hashCode());
+		assertEquals(item, packed.unpack());
+		assertEquals(packed, new PackedItemDocumentImpl(packed));
+		assertNotEquals(packed, packed.withRevisionId(1234));
+	}
+
+	@Test
+	public void testDataIsCompact() {
+		assertTrue(packed.getPackedSize() < json.length() / 3);
+	}
+
+	@Test
+	public void testJsonSerialization() throws IOException {
+		// the order of map keys may differ
+		ObjectMapper mapper = new ObjectMapper();
+		assertEquals(mapper.readTree(JsonSerializer.getJsonString(item)),
+				mapper.readTree(JsonSerializer.getJsonString(packed)));
+	}
+
+	@Test
+	public void testConversion() {
+		ItemDocument converted = new DatamodelConverter(new PackedDataObjectFactoryImpl()).copy(item);
+		assertTrue(converted instanceof PackedItemDocumentImpl);
+		assertEquals(item, converted);
+
+		ItemDocument unpacked = new DatamodelConverter(new DataObjectFactoryImpl()).copy(packed);
+		assertTrue(unpacked instanceof ItemDocumentImpl);
+		assertEquals(item, unpacked);
+	}
+
+	@Test
+	public void testModificationsReturnUnpackedDocuments() {
+		MonolingualTextValue label = Datamodel.makeMonolingualTextValue("new label", "en");
+		ItemDocument modified = packed.withLabel(label);
+		assertTrue(modified instanceof ItemDocumentImpl);
+		assertEquals("new label", modified.findLabel("en"));
+		assertEquals(item.findLabel("en"), packed.findLabel("en"));
+		assertEquals(item.withLabel(label), modified);
+
+		ItemDocument withRevision = packed.withRevisionId(1234);
+		assertTrue(withRevision instanceof PackedItemDocumentImpl);
+		assertEquals(item.withRevisionId(1234), withRevision);
+	}
+
+	@Test
+	public void testEmptyDocument() {
+		ItemIdValue id = Datamodel.makeWikidataItemIdValue("Q42");
+		ItemDocument empty = new ItemDocumentImpl(id, Collections.emptyList(),
+				Collections.emptyList(), Collections.emptyList(),
+				Collections.emptyList(), Collections.emptyList(), 0);
+		PackedItemDocumentImpl packedEmpty = new PackedItemDocumentImpl(empty);
+		assertEquals(5, packedEmpty.getPackedSize());
+		assertEquals(empty, packedEmpty);
+		assertNull(packedEmpty.findLabel("en"));
+		assertEquals(Collections.emptyList(), packedEmpty.getStatementGroups());
+	}
+}
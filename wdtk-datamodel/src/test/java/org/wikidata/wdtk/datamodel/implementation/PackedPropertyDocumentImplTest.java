@@ -0,0 +1,74 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelConverter;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PackedPropertyDocumentImplTest {
+
+	private final PropertyDocument property;
+	private final PackedPropertyDocumentImpl packed;
+
+	public PackedPropertyDocumentImplTest() throws IOException {
+		property = new JsonDeserializer(Datamodel.SITE_WIKIDATA)
+				.deserializePropertyDocument(PackedItemDocumentImplTest.loadJson("property.json"));
+		packed = new PackedPropertyDocumentImpl(property);
+	}
+
+	@Test
+	public void testContentIsPreserved() {
+		assertEquals(property.getEntityId(), packed.getEntityId());
+		assertEquals(property.getDatatype(), packed.getDatatype());
+		assertEquals(property.getLabels(), packed.getLabels());
+		assertEquals(property.getAliases(), packed.getAliases());
+		assertEquals(property.getStatementGroups(), packed.getStatementGroups());
+		assertEquals(property, packed);
+		assertEquals(property.hashCode(), packed.hashCode());
+		assertEquals(property, packed.unpack());
+	}
+
+	@Test
+	public void testJsonSerialization() throws IOException {
+		// the order of map keys may differ
+		ObjectMapper mapper = new ObjectMapper();
+		assertEquals(mapper.readTree(JsonSerializer.getJsonString(property)),
+				mapper.readTree(JsonSerializer.getJsonString(packed)));
+	}
+
+	@Test
+	public void testConversion() {
+		PropertyDocument converted = new DatamodelConverter(new PackedDataObjectFactoryImpl()).copy(property);
+		assertTrue(converted instanceof PackedPropertyDocumentImpl);
+		assertEquals(property, converted);
+		assertEquals(property.withRevisionId(42), packed.withRevisionId(42));
+	}
+}
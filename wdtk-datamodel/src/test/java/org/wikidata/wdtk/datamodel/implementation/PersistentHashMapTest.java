@@ -0,0 +1,119 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentHashMapTest {
+
+	/**
+	 * Key with a configurable hash code, to produce collisions.
+	 */
+	static class Key {
+		final int hash;
+		final String name;
+
+		Key(int hash, String name) {
+			this.hash = hash;
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).name.equals(name);
+		}
+	}
+
+	@Test
+	public void behavesLikeHashMap() {
+		Random random = new Random(42);
+		Map<Integer, Integer> expected = new HashMap<>();
+		PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 20000; i++) {
+			Integer key = random.nextInt(5000) * (random.nextBoolean() ? 1 : 65536);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				map = map.minus(key);
+			} else {
+				expected.put(key, i);
+				map = map.plus(key, i);
+			}
+		}
+		assertEquals(expected, map);
+		assertEquals(expected.hashCode(), map.hashCode());
+		assertEquals(expected.size(), map.entrySet().stream().count());
+		for (Integer key : expected.keySet()) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+	}
+
+	@Test
+	public void modificationsDoNotChangeOriginal() {
+		PersistentHashMap<String, String> map = PersistentHashMap.from(
+				Collections.singletonMap("P31", "a"));
+		PersistentHashMap<String, String> modified = map.plus("P31", "b").plus("P279", "c");
+		assertEquals("a", map.get("P31"));
+		assertEquals(1, map.size());
+		assertEquals("b", modified.get("P31"));
+		assertEquals(1, modified.minus("P31").size());
+		assertEquals(1, modified.minus("P31").minus("P31").size());
+		assertSame(modified, modified.minus("P1"));
+		assertSame(modified, modified.plus("P279", modified.get("P279")));
+		assertSame(modified, PersistentHashMap.from(modified));
+	}
+
+	@Test
+	public void handlesCollisions() {
+		Key a = new Key(7, "a"), b = new Key(7, "b"), c = new Key(7, "c"), d = new Key(39, "d");
+		PersistentHashMap<Key, Integer> map = PersistentHashMap.<Key, Integer> empty()
+				.plus(a, 1).plus(b, 2).plus(c, 3).plus(d, 4);
+		assertEquals(4, map.size());
+		assertEquals(Integer.valueOf(2), map.get(b));
+		assertEquals(Integer.valueOf(4), map.get(d));
+		map = map.minus(b).minus(a).plus(c, 5);
+		assertEquals(2, map.size());
+		assertNull(map.get(a));
+		assertEquals(Integer.valueOf(5), map.get(c));
+		assertEquals(0, map.minus(c).minus(d).size());
+	}
+
+	@Test
+	public void isImmutable() {
+		PersistentHashMap<String, String> map = PersistentHashMap.<String, String> empty().plus("a", "b");
+		assertThrows(UnsupportedOperationException.class, () -> map.put("c", "d"));
+		assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("e"));
+	}
+}
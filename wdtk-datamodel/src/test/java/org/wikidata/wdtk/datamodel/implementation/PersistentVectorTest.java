@@ -0,0 +1,72 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentVectorTest {
+
+	@Test
+	public void behavesLikeArrayList() {
+		List<Integer> expected = new ArrayList<>();
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		// enough elements for a trie of three levels
+		for (int i = 0; i < 40000; i++) {
+			expected.add(i);
+			vector = vector.plus(i);
+		}
+		for (int i = 0; i < 40000; i += 97) {
+			expected.set(i, -i);
+			vector = vector.with(i, -i);
+		}
+		assertEquals(expected, vector);
+		assertEquals(expected.hashCode(), vector.hashCode());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i), vector.get(i));
+		}
+	}
+
+	@Test
+	public void modificationsDoNotChangeOriginal() {
+		PersistentVector<String> vector = PersistentVector.from(Arrays.asList("a", "b"));
+		PersistentVector<String> modified = vector.plus("c").with(0, "d");
+		assertEquals(Arrays.asList("a", "b"), vector);
+		assertEquals(Arrays.asList("d", "b", "c"), modified);
+		assertSame(modified, PersistentVector.from(modified));
+	}
+
+	@Test
+	public void isImmutable() {
+		PersistentVector<String> vector = PersistentVector.of("a");
+		assertThrows(UnsupportedOperationException.class, () -> vector.add("b"));
+		assertThrows(UnsupportedOperationException.class, () -> vector.set(0, "b"));
+		assertThrows(IndexOutOfBoundsException.class, () -> vector.get(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> vector.with(-1, "b"));
+	}
+}
@@ -23,6 +23,7 @@ package org.wikidata.wdtk.datamodel.implementation;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,7 @@ import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.StringValue;
 import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
 
 /**
  * Test general statement access methods as implemented in
@@ -253,4 +255,29 @@ public class StatementDocumentAccessTest {
 		assertEquals(v, id.findStatementStringValue("P1"));
 	}
 
+	@Test
+	public void testIndexedStatementGroups() {
+		Statement s1 = StatementBuilder.forSubjectAndProperty(q1, p1)
+				.withValue(q1).build();
+		Statement s2 = StatementBuilder.forSubjectAndProperty(q1, p2)
+				.withSomeValue().build();
+		ItemDocument id = ItemDocumentBuilder.forItemId(q1).withStatement(s1)
+				.withStatement(s2).build();
+
+		// groups are created once and shared with getStatementGroups()
+		assertSame(id.findStatementGroup("P1"), id.findStatementGroup(p1));
+		assertTrue(id.getStatementGroups().contains(id.findStatementGroup("P2")));
+		assertNull(id.findStatementGroup("P3"));
+
+		// the site IRI of the property is checked
+		PropertyIdValue otherP1 = Datamodel.makePropertyIdValue("P1", "http://example.org/entity/");
+		assertNull(id.findStatementGroup(otherP1));
+		assertFalse(id.hasStatement(otherP1));
+		assertFalse(id.hasStatementValue(otherP1, q1));
+		assertNull(id.findStatement(otherP1));
+
+		// statements without value match null
+		assertTrue(id.hasStatementValue(p2, (Value) null));
+		assertFalse(id.hasStatementValue("P1", (Value) null));
+	}
 }
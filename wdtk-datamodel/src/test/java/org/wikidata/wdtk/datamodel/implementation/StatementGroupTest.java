@@ -187,4 +187,19 @@ public class StatementGroupTest {
 		
 		assertEquals(new StatementGroupImpl(Arrays.asList(statementEmptyId, statementEmptyId)), added);
 	}
+
+	@Test
+	public void unvalidatedGroupEqualsValidatedGroup() {
+		List<Statement> statements = Arrays.asList(statement1, statementDeprecrated);
+		assertEquals(new StatementGroupImpl(statements),
+				new StatementGroupImpl(statements, false));
+	}
+
+	@Test
+	public void unvalidatedGroupRequiresStatements() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new StatementGroupImpl(Collections.emptyList(), false));
+		assertThrows(NullPointerException.class,
+				() -> new StatementGroupImpl(null, false));
+	}
 }
@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
 import org.wikidata.wdtk.datamodel.interfaces.Claim;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
@@ -114,6 +115,19 @@ public class StatementImplTest {
 		assertEquals(s1.hashCode(), s2.hashCode());
 	}
 
+	@Test
+	public void cachedHashDoesNotChangeEquality() {
+		Statement sOtherRank = new StatementImpl("MyId", StatementRank.NORMAL, mainSnak,
+				qualifiers, references, subjet);
+		assertEquals(Hash.hashCode(s1), s1.hashCode());
+		assertEquals(s1.hashCode(), s1.hashCode());
+		sOtherRank.hashCode();
+		assertEquals(s1, s2);
+		assertEquals(s2, s1);
+		assertNotEquals(s1, sOtherRank);
+		assertEquals(s1, mapper.convertValue(s1, StatementImpl.PreStatement.class).withSubject(subjet));
+	}
+
 	@Test
 	public void equalityBasedOnContent() {
 		Statement sDiffClaim = new StatementImpl("MyId", StatementRank.NORMAL, mainSnak,
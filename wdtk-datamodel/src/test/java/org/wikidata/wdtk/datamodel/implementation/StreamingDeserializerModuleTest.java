@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+public class StreamingDeserializerModuleTest {
+
+	private static final String SITE_IRI = "http://example.com/entity/";
+
+	/**
+	 * Reads JSON with the custom deserializers.
+	 */
+	private final ObjectMapper mapper = new DatamodelMapper(SITE_IRI)
+			.enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+
+	/**
+	 * Reads JSON only from the annotations of the implementation classes.
+	 */
+	private final ObjectMapper annotationMapper = new ObjectMapper()
+			.setInjectableValues(new InjectableValues.Std().addValue("siteIri", SITE_IRI))
+			.enable(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+
+	private static final String SNAK_FIELDS = "\"property\":\"P42\",\"hash\":\"8f2b2bfd\",\"datatype\":\"string\","
+			+ "\"datavalue\":{\"value\":\"foo\",\"type\":\"string\"}";
+
+	private static final String STATEMENT = "{\"id\":\"Q42$1\",\"type\":\"statement\",\"rank\":\"preferred\","
+			+ "\"mainsnak\":{\"snaktype\":\"novalue\",\"property\":\"P1\"},"
+			+ "\"qualifiers\":{\"P2\":[{\"snaktype\":\"somevalue\",\"property\":\"P2\"},"
+			+ "{\"property\":\"P2\",\"snaktype\":\"value\",\"datavalue\":{\"value\":\"bar\",\"type\":\"string\"}}],"
+			+ "\"P3\":[{\"snaktype\":\"novalue\",\"property\":\"P3\"}]},"
+			+ "\"qualifiers-order\":[\"P3\",\"P2\"],"
+			+ "\"references\":[{\"hash\":\"abc\",\"snaks\":{\"P4\":[{\"snaktype\":\"value\",\"property\":\"P4\","
+			+ "\"datavalue\":{\"value\":{\"entity-type\":\"item\",\"numeric-id\":5,\"id\":\"Q5\"},\"type\":\"wikibase-entityid\"}}]},"
+			+ "\"snaks-order\":[\"P4\"]}]}";
+
+	@Test
+	public void testDocumentsAreEquivalent() throws IOException {
+		ObjectReader reader = mapper.readerFor(EntityDocumentImpl.class);
+		ObjectReader annotationReader = annotationMapper.readerFor(EntityDocumentImpl.class);
+		for (String filename : new String[] { "item.json", "property.json", "lexeme.json", "mediainfo.json" }) {
+			try (InputStream stream = getClass().getClassLoader().getResourceAsStream("JsonDeserializer/" + filename)) {
+				byte[] json = IOUtils.toByteArray(stream);
+				EntityDocument document = reader.readValue(json);
+				assertEquals(annotationReader.readValue(json), document);
+			}
+		}
+	}
+
+	@Test
+	public void testSnaksAreEquivalent() throws IOException {
+		assertEquivalent("{\"snaktype\":\"value\"," + SNAK_FIELDS + "}", SnakImpl.class);
+		assertEquivalent("{" + SNAK_FIELDS + ",\"snaktype\":\"value\"}", SnakImpl.class);
+		assertEquivalent("{\"property\":\"P42\",\"snaktype\":\"somevalue\",\"unknown\":[{}]}", SnakImpl.class);
+		assertEquivalent("{\"snaktype\":\"novalue\",\"property\":\"P42\"}", SnakImpl.class);
+	}
+
+	@Test
+	public void testStatementsAndReferencesAreEquivalent() throws IOException {
+		assertStatementEquivalent(STATEMENT);
+		assertStatementEquivalent("{\"rank\":\"normal\",\"mainsnak\":{\"snaktype\":\"novalue\",\"property\":\"P1\"},"
+				+ "\"qualifiers\":[],\"references\":[]}");
+		assertEquivalent("{\"snaks\":{\"P4\":[{\"snaktype\":\"novalue\",\"property\":\"P4\"}]},"
+				+ "\"snaks-order\":[\"P4\"],\"hash\":\"abc\"}", ReferenceImpl.class);
+	}
+
+	@Test
+	public void testTermsAreEquivalent() throws IOException {
+		assertEquivalent("{\"language\":\"en\",\"value\":\"foo\"}", TermImpl.class);
+		assertEquivalent("{\"value\":\"foo\",\"for-language\":\"de\",\"language\":\"en\"}", TermImpl.class);
+	}
+
+	@Test
+	public void testValuesAreEquivalent() throws IOException {
+		String time = "{\"time\":\"+2001-12-31T00:00:00Z\",\"timezone\":0,\"before\":0,\"after\":0,"
+				+ "\"precision\":11,\"calendarmodel\":\"http://www.wikidata.org/entity/Q1985727\"}";
+		assertValueEquivalent("{\"value\":\"foo\",\"type\":\"string\"}", StringValueImpl.class);
+		assertValueEquivalent("{\"type\":\"string\",\"value\":\"foo\",\"other\":[1]}", StringValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"entity-type\":\"item\",\"numeric-id\":5,\"id\":\"Q5\"},"
+				+ "\"type\":\"wikibase-entityid\"}", ItemIdValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"entity-type\":\"item\",\"numeric-id\":5},"
+				+ "\"type\":\"wikibase-entityid\"}", ItemIdValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"id\":\"P5\"},\"type\":\"wikibase-entityid\"}", PropertyIdValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"id\":\"L5\"},\"type\":\"wikibase-entityid\"}", LexemeIdValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"id\":\"L5-F2\"},\"type\":\"wikibase-entityid\"}", FormIdValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"id\":\"M5\"},\"type\":\"wikibase-entityid\"}", MediaInfoIdValueImpl.class);
+		assertValueEquivalent("{\"value\":" + time + ",\"type\":\"time\"}", TimeValueImpl.class);
+		assertValueEquivalent("{\"type\":\"time\",\"value\":" + time + "}", TimeValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"latitude\":52.5,\"longitude\":13,\"altitude\":null,\"precision\":null,"
+				+ "\"globe\":\"http://www.wikidata.org/entity/Q2\"},\"type\":\"globecoordinate\"}",
+				GlobeCoordinatesValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"amount\":\"+12.5\",\"lowerBound\":\"+12\",\"upperBound\":\"+13\","
+				+ "\"unit\":\"http://www.wikidata.org/entity/Q11573\"},\"type\":\"quantity\"}", QuantityValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"amount\":\"+3\",\"unit\":\"1\"},\"type\":\"quantity\"}",
+				QuantityValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"text\":\"foo\",\"language\":\"en\"},\"type\":\"monolingualtext\"}",
+				MonolingualTextValueImpl.class);
+		assertValueEquivalent("{\"value\":{\"foo\":[1, 2]},\"type\":\"funky\"}", UnsupportedValueImpl.class);
+	}
+
+	@Test
+	public void testErrorsAreEquivalent() {
+		assertSameFailure("{\"snaktype\":\"funky\",\"property\":\"P42\"}", SnakImpl.class);
+		assertSameFailure("{\"property\":\"P42\"}", SnakImpl.class);
+		assertSameFailure("{\"snaktype\":\"novalue\"}", SnakImpl.class);
+		assertSameFailure("{\"snaktype\":\"value\",\"property\":\"P42\"}", SnakImpl.class);
+		assertSameFailure("{\"rank\":\"funky\"}", StatementImpl.PreStatement.class);
+		assertSameFailure("{\"value\":\"foo\"}", TermImpl.class);
+		assertSameFailure("{\"value\":{\"amount\":\"many\",\"unit\":\"1\"},\"type\":\"quantity\"}", ValueImpl.class);
+		assertSameFailure("{\"value\":{\"precision\":11},\"type\":\"time\"}", ValueImpl.class);
+	}
+
+	private void assertEquivalent(String json, Class<?> type) throws IOException {
+		assertEquals(annotationMapper.readValue(json, type), mapper.readValue(json, type));
+	}
+
+	private void assertStatementEquivalent(String json) throws IOException {
+		ItemIdValueImpl subject = new ItemIdValueImpl("Q42", SITE_IRI);
+		assertEquals(annotationMapper.readValue(json, StatementImpl.PreStatement.class).withSubject(subject),
+				mapper.readValue(json, StatementImpl.PreStatement.class).withSubject(subject));
+	}
+
+	private void assertValueEquivalent(String json, Class<? extends ValueImpl> valueClass) throws IOException {
+		Value expected = annotationMapper.readValue(json, valueClass);
+		assertEquals(expected, mapper.readValue(json, ValueImpl.class));
+		assertEquals(expected, new DatamodelMapper(SITE_IRI, null).readValue(json, ValueImpl.class));
+	}
+
+	private void assertSameFailure(String json, Class<?> type) {
+		Exception expected = assertThrows(IOException.class, () -> annotationMapper.readValue(json, type));
+		Exception actual = assertThrows(IOException.class, () -> mapper.readValue(json, type));
+		assertEquals(expected.getClass(), actual.getClass());
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wikidata.wdtk.datamodel.implementation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ValuePoolTest {
+
+	private final ObjectMapper mapper = new DatamodelMapper("http://example.com/entity/");
+	private final ObjectMapper unpooledMapper = new DatamodelMapper("http://example.com/entity/", null);
+
+	private static final String JSON_COUNT = "{\"value\":{\"amount\":\"+42\",\"unit\":\"1\"},\"type\":\"quantity\"}";
+	private static final String JSON_EXACT_COUNT = "{\"value\":{\"amount\":\"+42\",\"lowerBound\":\"+42\",\"upperBound\":\"+42\",\"unit\":\"1\"},\"type\":\"quantity\"}";
+	private static final String JSON_LARGE_COUNT = "{\"value\":{\"amount\":\"+4200\",\"unit\":\"1\"},\"type\":\"quantity\"}";
+	private static final String JSON_LENGTH = "{\"value\":{\"amount\":\"+1.5\",\"lowerBound\":\"+1.4\",\"upperBound\":\"+1.6\",\"unit\":\"http://www.wikidata.org/entity/Q11573\"},\"type\":\"quantity\"}";
+	private static final String JSON_INVALID_BOUNDS = "{\"value\":{\"amount\":\"+42\",\"lowerBound\":\"+43\",\"upperBound\":\"+44\",\"unit\":\"1\"},\"type\":\"quantity\"}";
+	private static final String JSON_TIME = "{\"value\":{\"time\":\"+2007-05-12T00:00:00Z\",\"timezone\":0,\"before\":0,\"after\":0,\"precision\":11,\"calendarmodel\":\"http://www.wikidata.org/entity/Q1985727\"},\"type\":\"time\"}";
+	private static final String JSON_COORDINATES = "{\"value\":{\"latitude\":51.033333333333,\"longitude\":13.733333333333,\"precision\":null,\"globe\":\"http://www.wikidata.org/entity/Q2\"},\"type\":\"globecoordinate\"}";
+
+	@Test
+	public void testSmallQuantitiesAreShared() throws IOException {
+		Value count = mapper.readValue(JSON_COUNT, ValueImpl.class);
+		assertSame(count, mapper.readValue(JSON_COUNT, ValueImpl.class));
+		assertEquals(unpooledMapper.readValue(JSON_COUNT, ValueImpl.class), count);
+
+		Value exactCount = mapper.readValue(JSON_EXACT_COUNT, ValueImpl.class);
+		assertSame(exactCount, mapper.readValue(JSON_EXACT_COUNT, ValueImpl.class));
+		assertEquals(unpooledMapper.readValue(JSON_EXACT_COUNT, ValueImpl.class), exactCount);
+
+		Value largeCount = mapper.readValue(JSON_LARGE_COUNT, ValueImpl.class);
+		assertNotSame(largeCount, mapper.readValue(JSON_LARGE_COUNT, ValueImpl.class));
+		assertEquals(unpooledMapper.readValue(JSON_LARGE_COUNT, ValueImpl.class), largeCount);
+	}
+
+	@Test
+	public void testUnitsAreShared() throws IOException {
+		QuantityValue length1 = (QuantityValue) mapper.readValue(JSON_LENGTH, ValueImpl.class);
+		QuantityValue length2 = (QuantityValue) mapper.readValue(JSON_LENGTH, ValueImpl.class);
+		assertNotSame(length1, length2);
+		assertSame(length1.getUnitItemId(), length2.getUnitItemId());
+		assertEquals(new BigDecimal("1.4"), length1.getLowerBound());
+		assertEquals(unpooledMapper.readValue(JSON_LENGTH, ValueImpl.class), length1);
+	}
+
+	@Test
+	public void testIrisAreShared() throws IOException {
+		TimeValue time = (TimeValue) mapper.readValue(JSON_TIME, ValueImpl.class);
+		assertSame(TimeValue.CM_GREGORIAN_PRO, time.getPreferredCalendarModel());
+		assertEquals(unpooledMapper.readValue(JSON_TIME, ValueImpl.class), time);
+
+		GlobeCoordinatesValue coordinates = (GlobeCoordinatesValue) mapper.readValue(JSON_COORDINATES, ValueImpl.class);
+		assertSame(GlobeCoordinatesValue.GLOBE_EARTH, coordinates.getGlobe());
+		assertEquals(GlobeCoordinatesValue.PREC_ARCSECOND, coordinates.getPrecision());
+		assertEquals(unpooledMapper.readValue(JSON_COORDINATES, ValueImpl.class), coordinates);
+	}
+
+	@Test
+	public void testInvalidValuesAreReported() {
+		assertThrows(JsonMappingException.class, () -> mapper.readValue(JSON_INVALID_BOUNDS, ValueImpl.class));
+	}
+
+	@Test
+	public void testInternIri() {
+		ValuePool pool = new ValuePool();
+		String iri = new String("http://www.wikidata.org/entity/Q11573");
+		assertSame(iri, pool.internIri(iri));
+		assertSame(iri, pool.internIri(new String(iri)));
+		assertSame(TimeValue.CM_JULIAN_PRO, pool.internIri(new String(TimeValue.CM_JULIAN_PRO)));
+	}
+
+	@Test
+	public void testParseSmallCount() {
+		assertEquals(42, ValuePool.parseSmallCount("+42"));
+		assertEquals(0, ValuePool.parseSmallCount("0"));
+		assertEquals(-1, ValuePool.parseSmallCount("+1024"));
+		assertEquals(-1, ValuePool.parseSmallCount("-1"));
+		assertEquals(-1, ValuePool.parseSmallCount("+1.0"));
+		assertEquals(-1, ValuePool.parseSmallCount("+"));
+	}
+}
@@ -55,7 +55,10 @@ abstract public class AbstractRdfConverter {
 	public enum TermKind {
 		LABEL,
 		DESCRIPTION,
-		ALIAS
+		ALIAS,
+		LEMMA,
+		REPRESENTATION,
+		GLOSS
 	}
 
 	public AbstractRdfConverter(RdfWriter rdfWriter, Sites sites,
@@ -107,6 +110,9 @@ abstract public class AbstractRdfConverter {
 				.writeNamespaceDeclaration("skos", Vocabulary.PREFIX_SKOS);
 		this.rdfWriter
 				.writeNamespaceDeclaration("prov", Vocabulary.PREFIX_PROV);
+		this.rdfWriter.writeNamespaceDeclaration("ontolex",
+				Vocabulary.PREFIX_ONTOLEX);
+		this.rdfWriter.writeNamespaceDeclaration("dct", Vocabulary.PREFIX_DCT);
 	}
 
 	/**
@@ -123,6 +129,7 @@ abstract public class AbstractRdfConverter {
 
 	public void writeOWLDeclarations() {
 		this.owlDeclarationBuffer.writePropertyDeclarations(this.rdfWriter, true, true);
+		this.owlDeclarationBuffer.writeClassDeclarations(this.rdfWriter);
 	}
 
 	/*
@@ -171,6 +178,105 @@ abstract public class AbstractRdfConverter {
 		finishDocument();
 	}
 
+	/**
+	 * Writes a lexeme together with all of its forms and senses. Lemmas and
+	 * form representations are also written as labels, so that lexemes can be
+	 * displayed like other entities.
+	 */
+	public void writeLexemeDocument(LexemeDocument document)
+			throws RDFHandlerException {
+		final Resource subject = this.rdfWriter.getUri(document.getEntityId()
+				.getIri());
+
+		writeDocumentType(subject, RdfWriter.ONTOLEX_LEXICAL_ENTRY);
+		writeTermTriples(subject, TermKind.LEMMA, document.getLemmas()
+				.values());
+		writeTermTriples(subject, TermKind.LABEL, document.getLemmas()
+				.values());
+		writeLexemeLinks(subject, document);
+		writeStatements(document);
+
+		for (FormDocument form : document.getForms()) {
+			this.rdfWriter.writeTripleUriObject(subject,
+					RdfWriter.ONTOLEX_LEXICAL_FORM, form.getEntityId()
+							.getIri());
+			writeFormDocument(form);
+		}
+		for (SenseDocument sense : document.getSenses()) {
+			this.rdfWriter.writeTripleUriObject(subject,
+					RdfWriter.ONTOLEX_SENSE, sense.getEntityId().getIri());
+			writeSenseDocument(sense);
+		}
+
+		finishDocument();
+	}
+
+	/**
+	 * Writes the language and lexical category of a lexeme.
+	 */
+	public void writeLexemeLinks(Resource subject, LexemeDocument document)
+			throws RDFHandlerException {
+		this.rdfWriter.writeTripleUriObject(subject,
+				RdfWriter.WB_LEXICAL_CATEGORY, document.getLexicalCategory()
+						.getIri());
+		this.rdfWriter.writeTripleUriObject(subject, RdfWriter.DCT_LANGUAGE,
+				document.getLanguage().getIri());
+	}
+
+	/**
+	 * Writes the triples of a form. Buffered auxiliary triples are not
+	 * written, since forms are exported as part of their lexeme, which calls
+	 * {@link #finishDocument()}.
+	 */
+	public void writeFormDocument(FormDocument document)
+			throws RDFHandlerException {
+		final Resource subject = this.rdfWriter.getUri(document.getEntityId()
+				.getIri());
+
+		writeDocumentType(subject, RdfWriter.ONTOLEX_FORM);
+		writeTermTriples(subject, TermKind.REPRESENTATION, document
+				.getRepresentations().values());
+		writeTermTriples(subject, TermKind.LABEL, document
+				.getRepresentations().values());
+		for (ItemIdValue grammaticalFeature : document
+				.getGrammaticalFeatures()) {
+			this.rdfWriter.writeTripleUriObject(subject,
+					RdfWriter.WB_GRAMMATICAL_FEATURE,
+					grammaticalFeature.getIri());
+		}
+		writeStatements(document);
+	}
+
+	/**
+	 * Writes the triples of a sense. Buffered auxiliary triples are not
+	 * written, since senses are exported as part of their lexeme, which calls
+	 * {@link #finishDocument()}.
+	 */
+	public void writeSenseDocument(SenseDocument document)
+			throws RDFHandlerException {
+		final Resource subject = this.rdfWriter.getUri(document.getEntityId()
+				.getIri());
+
+		writeDocumentType(subject, RdfWriter.ONTOLEX_LEXICAL_SENSE);
+		writeTermTriples(subject, TermKind.GLOSS, document.getGlosses()
+				.values());
+		writeStatements(document);
+	}
+
+	public void writeMediaInfoDocument(MediaInfoDocument document)
+			throws RDFHandlerException {
+		final Resource subject = this.rdfWriter.getUri(document.getEntityId()
+				.getIri());
+
+		writeDocumentType(subject, RdfWriter.WB_MEDIA_INFO);
+		writeDocumentType(subject, RdfWriter.SCHEMA_MEDIA_OBJECT);
+		writeTermTriples(subject, TermKind.LABEL, document.getLabels()
+				.values());
+		writeStatements(document);
+
+		finishDocument();
+	}
+
 	/**
 	 * Writes triples which connect properties with their corresponding rdf
 	 * properties for statements, simple statements, qualifiers, reference
@@ -249,6 +355,15 @@ abstract public class AbstractRdfConverter {
 			case ALIAS:
 				predicate = RdfWriter.SKOS_ALT_LABEL;
 				break;
+			case LEMMA:
+				predicate = RdfWriter.WB_LEMMA;
+				break;
+			case REPRESENTATION:
+				predicate = RdfWriter.ONTOLEX_REPRESENTATION;
+				break;
+			case GLOSS:
+				predicate = RdfWriter.SKOS_DEFINITION;
+				break;
 			default:
 				throw new IllegalArgumentException();
 		}
@@ -262,14 +377,7 @@ abstract public class AbstractRdfConverter {
 	public void writeStatements(StatementDocument statementDocument)
 			throws RDFHandlerException {
 		for (StatementGroup statementGroup : statementDocument.getStatementGroups()) {
-			// determine the rank of the best statement
-			final StatementGroup bestStatements = statementGroup.getBestStatements();
-			final StatementRank bestRank;
-			if (statementGroup.getBestStatements() != null) {
-				bestRank = bestStatements.iterator().next().getRank();
-			} else {
-				bestRank = null;
-			}
+			final StatementRank bestRank = getBestRank(statementGroup);
 
 			for (Statement statement : statementGroup) {
 				writeStatement(statement, statement.getRank() == bestRank);
@@ -277,6 +385,27 @@ abstract public class AbstractRdfConverter {
 		}
 	}
 
+	/**
+	 * Determines the rank of the best statements in a group, ignoring
+	 * deprecated statements. Unlike {@link StatementGroup#getBestStatements()},
+	 * this does not create any new objects.
+	 *
+	 * @param statementGroup
+	 *            the statements to inspect
+	 * @return the best rank, or null if all statements are deprecated
+	 */
+	static StatementRank getBestRank(StatementGroup statementGroup) {
+		StatementRank bestRank = null;
+		for (Statement statement : statementGroup) {
+			if (statement.getRank() == StatementRank.PREFERRED) {
+				return StatementRank.PREFERRED;
+			} else if (statement.getRank() == StatementRank.NORMAL) {
+				bestRank = StatementRank.NORMAL;
+			}
+		}
+		return bestRank;
+	}
+
 	public void writeStatement(Statement statement, boolean best) throws RDFHandlerException {
 		if (best) {
 			writeSimpleStatement(statement);
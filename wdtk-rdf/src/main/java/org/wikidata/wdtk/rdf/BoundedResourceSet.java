@@ -0,0 +1,90 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.eclipse.rdf4j.model.Resource;
+
+/**
+ * Remembers a bounded number of recently seen RDF resources, for avoiding
+ * duplicate triples about shared nodes such as references and values. Each
+ * resource is stored in a slot determined by its hash code and replaces
+ * whatever resource was there before, so memory use is fixed by the capacity.
+ * <p>
+ * Resources may be forgotten, so {@link #add(Resource)} can return true for a
+ * resource that has been added before, leading to some duplicate triples. It
+ * never returns false for a resource that has not been added, so no triples
+ * are lost.
+ */
+public class BoundedResourceSet {
+
+	/**
+	 * Default number of slots.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 17;
+
+	final Resource[] slots;
+	final int mask;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity
+	 *            the number of resources to remember; will be rounded up to a
+	 *            power of two
+	 */
+	public BoundedResourceSet(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(
+					"Capacity must be positive, but was " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.slots = new Resource[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Constructor using {@link #DEFAULT_CAPACITY}.
+	 */
+	public BoundedResourceSet() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Adds the given resource.
+	 *
+	 * @param resource
+	 *            the resource to add
+	 * @return false if the resource has been seen recently, true otherwise
+	 */
+	public boolean add(Resource resource) {
+		int hash = resource.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & this.mask;
+		if (resource.equals(this.slots[slot])) {
+			return false;
+		}
+		this.slots[slot] = resource;
+		return true;
+	}
+
+}
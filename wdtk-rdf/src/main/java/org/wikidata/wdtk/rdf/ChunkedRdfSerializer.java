@@ -0,0 +1,406 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Sites;
+import org.wikidata.wdtk.util.CompressionType;
+import org.wikidata.wdtk.util.DirectoryManager;
+
+/**
+ * RDF serializer that splits its output into numbered chunk files instead of
+ * writing one monolithic stream. A new chunk is started whenever the current
+ * one has reached a given number of entities or a given (uncompressed) size.
+ * Every chunk is a complete RDF document that repeats the namespace and basic
+ * vocabulary declarations, so that chunks can be loaded independently and in
+ * parallel.
+ * <p>
+ * Each chunk is serialized into memory and then compressed and written to
+ * disk by a pool of background threads, so that the serialization thread is
+ * not slowed down by compression and several cores can be used for it. If
+ * the background threads fall behind, the serialization thread compresses
+ * chunks itself, which bounds the number of chunks held in memory: one
+ * chunk being compressed by each background thread, as many chunks waiting
+ * for them, and one chunk being compressed or filled by the serialization
+ * thread. The peak memory needed for buffering is therefore about
+ * (2 &times; compression threads + 1) &times; the maximal chunk size, that
+ * is, about 1 GB with the default chunk size and 8 threads.
+ */
+public class ChunkedRdfSerializer implements EntityDocumentDumpProcessor {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(ChunkedRdfSerializer.class);
+
+	/**
+	 * Default maximal number of entities per chunk.
+	 */
+	public static final long DEFAULT_MAX_ENTITIES_PER_CHUNK = 1000000;
+
+	/**
+	 * Default maximal uncompressed size of a chunk in bytes. This is small
+	 * enough to keep a chunk for every compression thread in memory, but
+	 * large enough to make compression efficient.
+	 */
+	public static final long DEFAULT_MAX_BYTES_PER_CHUNK = 64L * 1024 * 1024;
+
+	final RDFFormat format;
+	final DirectoryManager directoryManager;
+	final String fileNamePrefix;
+	final CompressionType compressionType;
+	final Sites sites;
+	final PropertyRegister propertyRegister;
+
+	int tasks = RdfSerializer.TASK_ALL_ENTITIES
+			| RdfSerializer.TASK_ALL_EXACT_DATA;
+	long maxEntitiesPerChunk = DEFAULT_MAX_ENTITIES_PER_CHUNK;
+	long maxBytesPerChunk = DEFAULT_MAX_BYTES_PER_CHUNK;
+	int compressionThreads = Runtime.getRuntime().availableProcessors();
+
+	ThreadPoolExecutor compressionExecutor;
+	final List<Future<?>> pendingChunks = new ArrayList<>();
+	final List<String> chunkFileNames = new ArrayList<>();
+
+	ByteArrayOutputStream currentBuffer;
+	RdfSerializer currentSerializer;
+	long currentEntityCount;
+	long tripleCount;
+
+	/**
+	 * Creates a new chunked RDF serializer.
+	 *
+	 * @param format
+	 *            RDF format, such as RDFFormat.NTRIPLES
+	 * @param directoryManager
+	 *            the directory to which chunk files are written
+	 * @param fileNamePrefix
+	 *            string with which the name of each chunk file starts; the
+	 *            chunk number and file extensions are appended to it
+	 * @param compressionType
+	 *            the compression to use for each chunk file
+	 * @param sites
+	 *            information about site links
+	 * @param propertyRegister
+	 *            the property register to use for finding property types
+	 */
+	public ChunkedRdfSerializer(RDFFormat format,
+			DirectoryManager directoryManager, String fileNamePrefix,
+			CompressionType compressionType, Sites sites,
+			PropertyRegister propertyRegister) {
+		this.format = format;
+		this.directoryManager = directoryManager;
+		this.fileNamePrefix = fileNamePrefix;
+		this.compressionType = compressionType;
+		this.sites = sites;
+		this.propertyRegister = propertyRegister;
+	}
+
+	/**
+	 * Sets the tasks that should be performed during export. The value should
+	 * be a combination of flags such as {@link RdfSerializer#TASK_STATEMENTS}.
+	 *
+	 * @param tasks
+	 *            the tasks to be performed
+	 */
+	public void setTasks(int tasks) {
+		this.tasks = tasks;
+	}
+
+	/**
+	 * Returns the tasks that should be performed during export.
+	 *
+	 * @return tasks to be performed
+	 */
+	public int getTasks() {
+		return this.tasks;
+	}
+
+	/**
+	 * Sets the maximal number of entities that are written to one chunk.
+	 *
+	 * @param maxEntitiesPerChunk
+	 *            positive number of entities
+	 */
+	public void setMaxEntitiesPerChunk(long maxEntitiesPerChunk) {
+		if (maxEntitiesPerChunk <= 0) {
+			throw new IllegalArgumentException(
+					"Number of entities per chunk must be positive");
+		}
+		this.maxEntitiesPerChunk = maxEntitiesPerChunk;
+	}
+
+	/**
+	 * Sets the uncompressed size in bytes after which a new chunk is started.
+	 * The check is done after each entity and the RDF writer buffers some of
+	 * its output internally, so chunks can be larger than this. Formats that
+	 * are written line by line, such as N-Triples, give the most accurate
+	 * results. Since chunks are kept in memory until compressed, this also
+	 * determines the memory needed for buffering, which is about
+	 * (2 &times; compression threads + 1) times this size. The default is
+	 * {@link #DEFAULT_MAX_BYTES_PER_CHUNK}.
+	 *
+	 * @param maxBytesPerChunk
+	 *            positive number of bytes
+	 */
+	public void setMaxBytesPerChunk(long maxBytesPerChunk) {
+		if (maxBytesPerChunk <= 0) {
+			throw new IllegalArgumentException(
+					"Number of bytes per chunk must be positive");
+		}
+		this.maxBytesPerChunk = maxBytesPerChunk;
+	}
+
+	/**
+	 * Sets the number of background threads used to compress and write
+	 * chunks. Must be called before {@link #open()}.
+	 *
+	 * @param compressionThreads
+	 *            positive number of threads
+	 */
+	public void setCompressionThreads(int compressionThreads) {
+		if (compressionThreads <= 0) {
+			throw new IllegalArgumentException(
+					"Number of compression threads must be positive");
+		}
+		this.compressionThreads = compressionThreads;
+	}
+
+	/**
+	 * Returns the number of triples that have been written so far. Triples of
+	 * the chunk that is currently being written are included.
+	 *
+	 * @return number of triples
+	 */
+	public long getTripleCount() {
+		if (this.currentSerializer != null) {
+			return this.tripleCount + this.currentSerializer.getTripleCount();
+		} else {
+			return this.tripleCount;
+		}
+	}
+
+	/**
+	 * Returns the names of the chunk files that have been started so far, in
+	 * the order of their creation.
+	 *
+	 * @return list of file names
+	 */
+	public List<String> getChunkFileNames() {
+		return this.chunkFileNames;
+	}
+
+	@Override
+	public void open() {
+		this.compressionExecutor = new ThreadPoolExecutor(
+				this.compressionThreads, this.compressionThreads, 0L,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(
+						this.compressionThreads),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		this.tripleCount = 0;
+		startChunk();
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		getCurrentSerializer().processItemDocument(itemDocument);
+		countEntity();
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		getCurrentSerializer().processPropertyDocument(propertyDocument);
+		countEntity();
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		getCurrentSerializer().processLexemeDocument(lexemeDocument);
+		countEntity();
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		getCurrentSerializer().processMediaInfoDocument(mediaInfoDocument);
+		countEntity();
+	}
+
+	@Override
+	public void close() {
+		if (this.currentSerializer != null) {
+			finishChunk();
+		}
+		this.compressionExecutor.shutdown();
+		try {
+			for (Future<?> future : this.pendingChunks) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e.toString(), e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause().toString(), e.getCause());
+		}
+		this.pendingChunks.clear();
+	}
+
+	/**
+	 * Returns the serializer for the current chunk, starting a new chunk if
+	 * the previous one has been finished.
+	 *
+	 * @return the serializer to write the next entity to
+	 */
+	RdfSerializer getCurrentSerializer() {
+		if (this.currentSerializer == null) {
+			startChunk();
+		}
+		return this.currentSerializer;
+	}
+
+	/**
+	 * Records that an entity was written to the current chunk and finishes
+	 * the chunk if it is full. The next chunk is only started when there is
+	 * another entity to write, so that no empty chunk is left at the end.
+	 */
+	void countEntity() {
+		this.currentEntityCount++;
+		if (this.currentEntityCount >= this.maxEntitiesPerChunk
+				|| this.currentBuffer.size() >= this.maxBytesPerChunk) {
+			finishChunk();
+		}
+	}
+
+	/**
+	 * Starts a new chunk, including all namespace and basic declarations.
+	 */
+	void startChunk() {
+		this.currentBuffer = new ByteArrayOutputStream();
+		this.currentSerializer = new RdfSerializer(this.format,
+				this.currentBuffer, this.sites, this.propertyRegister);
+		this.currentSerializer.setTasks(this.tasks);
+		this.currentSerializer.open();
+		this.currentEntityCount = 0;
+	}
+
+	/**
+	 * Finishes the current chunk and hands it over for compression.
+	 */
+	void finishChunk() {
+		this.currentSerializer.close();
+		this.tripleCount += this.currentSerializer.getTripleCount();
+
+		final ByteArrayOutputStream buffer = this.currentBuffer;
+		final String fileName = getChunkFileName(this.chunkFileNames.size() + 1);
+		this.chunkFileNames.add(fileName);
+		this.currentBuffer = null;
+		this.currentSerializer = null;
+
+		this.pendingChunks.add(this.compressionExecutor
+				.submit(() -> writeChunk(buffer, fileName)));
+	}
+
+	/**
+	 * Compresses the given chunk data and writes it to a file.
+	 *
+	 * @param buffer
+	 *            the uncompressed chunk data
+	 * @param fileName
+	 *            the name of the file to write to
+	 * @return null
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	Void writeChunk(ByteArrayOutputStream buffer, String fileName)
+			throws IOException {
+		logger.debug("Writing RDF chunk " + fileName + " ("
+				+ buffer.size() + " bytes uncompressed)");
+		try (OutputStream outputStream = getCompressorOutputStream(new BufferedOutputStream(
+				this.directoryManager.getOutputStreamForFile(fileName)))) {
+			buffer.writeTo(outputStream);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the file name for the chunk of the given number.
+	 *
+	 * @param chunkNumber
+	 *            number of the chunk, starting at 1
+	 * @return the file name
+	 */
+	String getChunkFileName(int chunkNumber) {
+		String fileName = String.format("%s-%05d.%s", this.fileNamePrefix,
+				chunkNumber, this.format.getDefaultFileExtension());
+		switch (this.compressionType) {
+		case GZIP:
+			return fileName + ".gz";
+		case BZ2:
+			return fileName + ".bz2";
+		default:
+			return fileName;
+		}
+	}
+
+	/**
+	 * Returns an output stream that applies the required compression to the
+	 * given output stream.
+	 *
+	 * @param outputStream
+	 *            the output stream to write compressed data to
+	 * @return an output stream that takes uncompressed data
+	 * @throws IOException
+	 *             if there was a problem creating the compression streams
+	 */
+	OutputStream getCompressorOutputStream(OutputStream outputStream)
+			throws IOException {
+		switch (this.compressionType) {
+		case NONE:
+			return outputStream;
+		case GZIP:
+			return new GZIPOutputStream(outputStream, 64 * 1024);
+		case BZ2:
+			return new BZip2CompressorOutputStream(outputStream);
+		default:
+			throw new IllegalArgumentException(
+					"Unsupported compression type: " + this.compressionType);
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+
+/**
+ * Compact set of entity ids. Ids that consist of a single letter followed by
+ * a number (such as "Q42" or "P31") are stored as bits in one bitset per site
+ * and id prefix, so that memory use does not depend on the number of ids that
+ * are added but only on the largest id number. All other ids are stored by
+ * their IRI.
+ * <p>
+ * This is used to remember which entities have already been declared during
+ * an RDF export, which otherwise requires a lot of heap on large dumps.
+ */
+public class EntityIdSet {
+
+	/**
+	 * Largest number of digits of an id that will be stored in a bitset.
+	 * Anything longer could exceed the range of int.
+	 */
+	static final int MAX_DIGITS = 9;
+
+	final Map<String, BitSet> numericIds = new HashMap<>();
+	final Set<String> otherIris = new HashSet<>();
+
+	/**
+	 * Adds the given entity id to the set.
+	 *
+	 * @param entityIdValue
+	 *            the id to add
+	 * @return true if the id was not contained in the set before
+	 */
+	public boolean add(EntityIdValue entityIdValue) {
+		int number = getIdNumber(entityIdValue.getId());
+		if (number < 0) {
+			return this.otherIris.add(entityIdValue.getIri());
+		}
+		BitSet bitSet = this.numericIds.computeIfAbsent(
+				getBitSetKey(entityIdValue), key -> new BitSet());
+		if (bitSet.get(number)) {
+			return false;
+		}
+		bitSet.set(number);
+		return true;
+	}
+
+	/**
+	 * Checks if the given entity id has been added to the set.
+	 *
+	 * @param entityIdValue
+	 *            the id to check
+	 * @return true if the id is contained in the set
+	 */
+	public boolean contains(EntityIdValue entityIdValue) {
+		int number = getIdNumber(entityIdValue.getId());
+		if (number < 0) {
+			return this.otherIris.contains(entityIdValue.getIri());
+		}
+		BitSet bitSet = this.numericIds.get(getBitSetKey(entityIdValue));
+		return bitSet != null && bitSet.get(number);
+	}
+
+	/**
+	 * Removes all ids from the set.
+	 */
+	public void clear() {
+		this.numericIds.clear();
+		this.otherIris.clear();
+	}
+
+	static String getBitSetKey(EntityIdValue entityIdValue) {
+		return entityIdValue.getSiteIri() + entityIdValue.getId().charAt(0);
+	}
+
+	/**
+	 * Returns the number of an id of the form letter + digits, or -1 if the
+	 * id has any other form.
+	 */
+	static int getIdNumber(String id) {
+		int length = id.length();
+		if (length < 2 || length > MAX_DIGITS + 1
+				|| !Character.isLetter(id.charAt(0))) {
+			return -1;
+		}
+		int number = 0;
+		for (int i = 1; i < length; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			number = number * 10 + (c - '0');
+		}
+		return number;
+	}
+
+}
@@ -37,6 +37,10 @@ import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
  * are ordered by subject, (2) to avoid some duplicate triples for things that
  * are needed in many places. Due to memory constraints, this class does not
  * provide perfect duplicate elimination.
+ * <p>
+ * Queues are emptied whenever declarations are written, and declared entities
+ * are remembered in an {@link EntityIdSet}, so memory use stays small even
+ * for exports of a complete dump.
  *
  * @author Markus Kroetzsch
  *
@@ -47,10 +51,10 @@ public class OwlDeclarationBuffer {
 	final List<PropertyIdValue> datatypePropertyQueue = new ArrayList<>();
 	final List<IRI> objectPropertyUriQueue = new ArrayList<>();
 	final List<IRI> datatypePropertyUriQueue = new ArrayList<>();
-	final Set<PropertyIdValue> declaredProperties = new HashSet<>();
+	final EntityIdSet declaredProperties = new EntityIdSet();
 	final Set<IRI> declaredPropertyUris = new HashSet<>();
 	final List<EntityIdValue> classEntityQueue = new ArrayList<>();
-	final Set<EntityIdValue> declaredClassEntities = new HashSet<>();
+	final EntityIdSet declaredClassEntities = new EntityIdSet();
 
 	/**
 	 * Adds the given property id value to the list of properties that should be
@@ -109,7 +113,7 @@ public class OwlDeclarationBuffer {
 	 * declared as OWL classes.
 	 *
 	 * @param entityIdValue
-	 *            the property to declare
+	 *            the entity to declare
 	 */
 	public void addClass(EntityIdValue entityIdValue) {
 		if (!this.declaredClassEntities.contains(entityIdValue)) {
@@ -239,6 +243,27 @@ public class OwlDeclarationBuffer {
 
 	}
 
+	/**
+	 * Writes OWL declarations for classes that have been added recently.
+	 * Declared classes are stored so that duplicate declarations are avoided.
+	 *
+	 * @param rdfWriter
+	 *            the writer to write the declarations to
+	 * @throws RDFHandlerException
+	 *             if there was a problem writing the declarations
+	 */
+	public void writeClassDeclarations(RdfWriter rdfWriter)
+			throws RDFHandlerException {
+		for (EntityIdValue entityIdValue : this.classEntityQueue) {
+			if (!this.declaredClassEntities.add(entityIdValue)) {
+				continue;
+			}
+			rdfWriter.writeTripleValueObject(entityIdValue.getIri(),
+					RdfWriter.RDF_TYPE, RdfWriter.OWL_CLASS);
+		}
+		this.classEntityQueue.clear();
+	}
+
 	/**
 	 * Writes no-value restriction.
 	 *
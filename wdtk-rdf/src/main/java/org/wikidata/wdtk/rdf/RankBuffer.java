@@ -42,18 +42,29 @@ public class RankBuffer {
 	 */
 	private StatementRank bestRank = StatementRank.NORMAL;
 
+	/**
+	 * Number of statements above which the buffer is not reused after
+	 * clearing, so that a single large document does not keep a large table
+	 * allocated for the rest of the export.
+	 */
+	static final int MAX_RETAINED_SIZE = 1024;
+
 	/**
 	 * Rdf Resources that refer to statements with the highest rank.
 	 */
-	private final Set<Resource> subjects = new HashSet<>();
+	private Set<Resource> subjects = new HashSet<>();
 
 	/**
 	 * Clears the buffer. This function should be called after each export of an
-	 * entity document.
+	 * entity document. The buffer is reused for the next document.
 	 */
 	public void clear() {
 		bestRank = StatementRank.NORMAL;
-		subjects.clear();
+		if (subjects.size() > MAX_RETAINED_SIZE) {
+			subjects = new HashSet<>();
+		} else {
+			subjects.clear();
+		}
 	}
 
 	/**
@@ -24,13 +24,21 @@ import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class RdfConverter extends AbstractRdfConverter {
     int tasks = RdfSerializer.TASK_ALL_ENTITIES
             | RdfSerializer.TASK_ALL_EXACT_DATA;
 
+    /**
+     * Reused buffer for the best statements of one statement group, used when
+     * only simple statements are exported.
+     */
+    final List<Statement> bestStatements = new ArrayList<>();
+
     public RdfConverter(RdfWriter rdfWriter, Sites sites, PropertyRegister propertyRegister) {
         super(rdfWriter, sites, propertyRegister);
     }
@@ -80,6 +88,13 @@ public class RdfConverter extends AbstractRdfConverter {
             case ALIAS:
                 if (!hasTask(RdfSerializer.TASK_ALIASES)) return;
                 break;
+            case LEMMA:
+            case REPRESENTATION:
+                if (!hasTask(RdfSerializer.TASK_LABELS)) return;
+                break;
+            case GLOSS:
+                if (!hasTask(RdfSerializer.TASK_DESCRIPTIONS)) return;
+                break;
         }
         super.writeTermTriples(subject, kind, terms);
     }
@@ -102,6 +117,39 @@ public class RdfConverter extends AbstractRdfConverter {
         super.writeInterPropertyLinks(document);
     }
 
+    /**
+     * Writes the statements of the given document. If only simple statements
+     * are to be exported, the best statements of each group are found in a
+     * single pass and written as direct triples right away, without looking
+     * at full statements, references or statement ranks at all.
+     */
+    @Override
+    public void writeStatements(StatementDocument statementDocument) throws RDFHandlerException {
+        if (hasTask(RdfSerializer.TASK_STATEMENTS)) {
+            super.writeStatements(statementDocument);
+            return;
+        }
+        if (!hasTask(RdfSerializer.TASK_SIMPLE_STATEMENTS)) return;
+
+        for (StatementGroup statementGroup : statementDocument.getStatementGroups()) {
+            StatementRank bestRank = StatementRank.NORMAL;
+            for (Statement statement : statementGroup) {
+                StatementRank rank = statement.getRank();
+                if (rank == StatementRank.PREFERRED && bestRank == StatementRank.NORMAL) {
+                    this.bestStatements.clear();
+                    bestRank = StatementRank.PREFERRED;
+                }
+                if (rank == bestRank) {
+                    this.bestStatements.add(statement);
+                }
+            }
+            for (Statement statement : this.bestStatements) {
+                writeSimpleStatement(statement);
+            }
+            this.bestStatements.clear();
+        }
+    }
+
     @Override
     public void writeSimpleStatement(Statement statement) {
         if (!hasTask(RdfSerializer.TASK_SIMPLE_STATEMENTS)) return;
@@ -128,10 +176,23 @@ public class RdfConverter extends AbstractRdfConverter {
         super.writePropertyDocument(document);
     }
 
+    @Override
+    public void writeLexemeDocument(LexemeDocument document) throws RDFHandlerException {
+        if (!hasTask(RdfSerializer.TASK_LEXEMES)) return;
+        super.writeLexemeDocument(document);
+    }
+
+    @Override
+    public void writeMediaInfoDocument(MediaInfoDocument document) throws RDFHandlerException {
+        if (!hasTask(RdfSerializer.TASK_MEDIA_INFO)) return;
+        super.writeMediaInfoDocument(document);
+    }
+
     @Override
     public void writeOWLDeclarations() {
         this.owlDeclarationBuffer.writePropertyDeclarations(this.rdfWriter,
                 this.hasTask(RdfSerializer.TASK_STATEMENTS),
                 this.hasTask(RdfSerializer.TASK_SIMPLE_STATEMENTS));
+        this.owlDeclarationBuffer.writeClassDeclarations(this.rdfWriter);
     }
 }
@@ -0,0 +1,471 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.NTriplesUtil;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Sites;
+
+/**
+ * Serializer that writes the changes between successive revisions of
+ * entities as RDF deltas, rather than exporting all data again. The output
+ * uses the <a href="https://afs.github.io/rdf-delta/rdf-patch.html">RDF
+ * Patch</a> format: the changes for each entity form one transaction with the
+ * triples to delete ({@code D}) followed by the triples to add ({@code A}).
+ * <p>
+ * The triples of each revision are computed with an {@link RdfConverter}, so
+ * the delta matches exactly what a full export with the same tasks would
+ * contain. OWL declarations are not part of any delta, since they are not
+ * specific to one entity. Triples about references and complex values are
+ * shared by many entities; they are added when needed but never deleted.
+ * <p>
+ * Blank nodes, as used for unknown values, cannot be deleted from a store
+ * by a patch. They are therefore replaced by skolem IRIs in the
+ * {@code /.well-known/genid/} path of the host of the entity's site IRI, as
+ * returned by {@link #getSkolemPrefix(String)}. These IRIs are computed from the triples that
+ * mention the blank node, so that they do not change as long as the
+ * statement that uses them does not change, and a store that is maintained
+ * with the deltas can also have them deleted later on.
+ * <p>
+ * The serializer can be registered as an entity document processor to
+ * process all revisions of a daily dump. Revisions of the same entity are
+ * expected to be processed one after the other, as is the case in MediaWiki
+ * XML dumps; only a single delta is written for them, from the state before
+ * the first revision to the state after the last one. The state before the
+ * first revision is obtained from the function set with
+ * {@link #setPreviousDocumentProvider(Function)}; by default, every entity is
+ * treated as being new, so that the delta only adds triples.
+ */
+public class RdfDeltaSerializer implements EntityDocumentDumpProcessor {
+
+	/**
+	 * Path of the IRIs that replace blank nodes in deltas, relative to the
+	 * host of the site IRI. This is the path that RDF 1.1 suggests for skolem
+	 * IRIs.
+	 */
+	public static final String SKOLEM_PATH = "/.well-known/genid/";
+
+	final Writer output;
+	final Sites sites;
+	final PropertyRegister propertyRegister;
+
+	int tasks = RdfSerializer.TASK_ALL_ENTITIES
+			| RdfSerializer.TASK_ALL_EXACT_DATA;
+
+	Function<EntityIdValue, EntityDocument> previousDocumentProvider = entityIdValue -> null;
+
+	EntityIdValue currentEntityId;
+	EntityDocument currentOldDocument;
+	EntityDocument currentNewDocument;
+
+	long addedTripleCount = 0;
+	long deletedTripleCount = 0;
+
+	final MessageDigest messageDigest;
+
+	/**
+	 * Creates a new delta serializer.
+	 *
+	 * @param output
+	 *            the output stream to write the RDF Patch to
+	 * @param sites
+	 *            information about site links
+	 * @param propertyRegister
+	 *            the property register to use for finding property types
+	 */
+	public RdfDeltaSerializer(OutputStream output, Sites sites,
+			PropertyRegister propertyRegister) {
+		this.output = new BufferedWriter(new OutputStreamWriter(output,
+				StandardCharsets.UTF_8));
+		this.sites = sites;
+		this.propertyRegister = propertyRegister;
+		try {
+			this.messageDigest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	/**
+	 * Sets the tasks that should be performed when computing triples. The
+	 * value should be a combination of flags such as
+	 * {@link RdfSerializer#TASK_STATEMENTS}.
+	 *
+	 * @param tasks
+	 *            the tasks to be performed
+	 */
+	public void setTasks(int tasks) {
+		this.tasks = tasks;
+	}
+
+	/**
+	 * Returns the tasks that should be performed when computing triples.
+	 *
+	 * @return tasks to be performed
+	 */
+	public int getTasks() {
+		return this.tasks;
+	}
+
+	/**
+	 * Sets the function that is used to find the state of an entity before
+	 * the first of its revisions that is processed. The function should
+	 * return null for entities that did not exist before.
+	 *
+	 * @param previousDocumentProvider
+	 *            function from entity ids to entity documents
+	 */
+	public void setPreviousDocumentProvider(
+			Function<EntityIdValue, EntityDocument> previousDocumentProvider) {
+		this.previousDocumentProvider = previousDocumentProvider;
+	}
+
+	/**
+	 * Returns the number of triples that have been added so far.
+	 *
+	 * @return number of added triples
+	 */
+	public long getAddedTripleCount() {
+		return this.addedTripleCount;
+	}
+
+	/**
+	 * Returns the number of triples that have been deleted so far.
+	 *
+	 * @return number of deleted triples
+	 */
+	public long getDeletedTripleCount() {
+		return this.deletedTripleCount;
+	}
+
+	@Override
+	public void open() {
+		this.addedTripleCount = 0;
+		this.deletedTripleCount = 0;
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		processRevision(itemDocument);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		processRevision(propertyDocument);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		processRevision(lexemeDocument);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		processRevision(mediaInfoDocument);
+	}
+
+	@Override
+	public void close() {
+		flushCurrentEntity();
+		try {
+			this.output.close();
+		} catch (IOException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	/**
+	 * Writes the delta between two versions of an entity. Either version can
+	 * be null to denote that the entity does not exist, so that all triples of
+	 * the other version are added or deleted, respectively.
+	 *
+	 * @param oldDocument
+	 *            the old version of the entity, or null
+	 * @param newDocument
+	 *            the new version of the entity, or null
+	 */
+	public void writeDelta(EntityDocument oldDocument,
+			EntityDocument newDocument) {
+		Set<Statement> oldTriples = getTriples(oldDocument);
+		Set<Statement> newTriples = getTriples(newDocument);
+
+		boolean started = false;
+		try {
+			for (Statement triple : oldTriples) {
+				if (!newTriples.contains(triple) && !isShared(triple)) {
+					started = writeTransactionStart(started);
+					writePatchRow("D", triple);
+					this.deletedTripleCount++;
+				}
+			}
+			for (Statement triple : newTriples) {
+				if (!oldTriples.contains(triple)) {
+					started = writeTransactionStart(started);
+					writePatchRow("A", triple);
+					this.addedTripleCount++;
+				}
+			}
+			if (started) {
+				this.output.write("TC .\n");
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	/**
+	 * Records a new revision of an entity. If the revision belongs to a
+	 * different entity than the previous one, the delta for the previous
+	 * entity is written.
+	 *
+	 * @param document
+	 *            the new revision
+	 */
+	void processRevision(EntityDocument document) {
+		if (!document.getEntityId().equals(this.currentEntityId)) {
+			flushCurrentEntity();
+			this.currentEntityId = document.getEntityId();
+			this.currentOldDocument = this.previousDocumentProvider
+					.apply(this.currentEntityId);
+		}
+		this.currentNewDocument = document;
+	}
+
+	/**
+	 * Writes the delta for the entity whose revisions have been recorded last.
+	 */
+	void flushCurrentEntity() {
+		if (this.currentEntityId != null) {
+			writeDelta(this.currentOldDocument, this.currentNewDocument);
+		}
+		this.currentEntityId = null;
+		this.currentOldDocument = null;
+		this.currentNewDocument = null;
+	}
+
+	/**
+	 * Computes the triples that an RDF export would contain for the given
+	 * document, excluding OWL declarations.
+	 *
+	 * @param document
+	 *            the document to convert, or null
+	 * @return the set of triples, empty if the document is null
+	 */
+	Set<Statement> getTriples(EntityDocument document) {
+		Set<Statement> triples = new LinkedHashSet<>();
+		if (document == null) {
+			return triples;
+		}
+
+		RdfWriter rdfWriter = new RdfWriter(new StatementCollector(triples));
+		// A fresh converter is used so that no buffered data is shared
+		// between documents
+		RdfConverter rdfConverter = new RdfConverter(rdfWriter, this.sites,
+				this.propertyRegister) {
+			@Override
+			public void writeOWLDeclarations() {
+				// declarations are not specific to entities
+			}
+		};
+		rdfConverter.setTasks(this.tasks);
+
+		try {
+			rdfWriter.start();
+			if (document instanceof ItemDocument) {
+				rdfConverter.writeItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				rdfConverter.writePropertyDocument((PropertyDocument) document);
+			} else if (document instanceof LexemeDocument) {
+				rdfConverter.writeLexemeDocument((LexemeDocument) document);
+			} else if (document instanceof MediaInfoDocument) {
+				rdfConverter
+						.writeMediaInfoDocument((MediaInfoDocument) document);
+			}
+			rdfWriter.finish();
+		} catch (RDFHandlerException e) { // we cannot recover here
+			throw new RuntimeException(e.toString(), e);
+		}
+		return skolemize(triples,
+				getSkolemPrefix(document.getEntityId().getSiteIri()));
+	}
+
+	/**
+	 * Replaces all blank nodes in the given triples by skolem IRIs. The IRI
+	 * of a blank node is a hash of the triples that it occurs in, where other
+	 * blank nodes are left out. Blank nodes that occur in the same triples
+	 * are numbered in the order of their first occurrence.
+	 *
+	 * @param triples
+	 *            the triples of one entity
+	 * @param skolemPrefix
+	 *            the prefix of the skolem IRIs
+	 * @return the triples without blank nodes
+	 */
+	Set<Statement> skolemize(Set<Statement> triples, String skolemPrefix) {
+		Map<BNode, List<String>> contexts = new LinkedHashMap<>();
+		for (Statement triple : triples) {
+			if (triple.getSubject() instanceof BNode) {
+				contexts.computeIfAbsent((BNode) triple.getSubject(),
+						bnode -> new ArrayList<>()).add(
+						"> " + toContextString(triple.getPredicate()) + " "
+								+ toContextString(triple.getObject()));
+			}
+			if (triple.getObject() instanceof BNode) {
+				contexts.computeIfAbsent((BNode) triple.getObject(),
+						bnode -> new ArrayList<>()).add(
+						"< " + toContextString(triple.getSubject()) + " "
+								+ toContextString(triple.getPredicate()));
+			}
+		}
+		if (contexts.isEmpty()) {
+			return triples;
+		}
+
+		Map<BNode, IRI> skolemIris = new HashMap<>();
+		Map<String, Integer> hashCounts = new HashMap<>();
+		for (Map.Entry<BNode, List<String>> entry : contexts.entrySet()) {
+			List<String> context = entry.getValue();
+			Collections.sort(context);
+			this.messageDigest.reset();
+			for (String part : context) {
+				this.messageDigest.update(part.getBytes(StandardCharsets.UTF_8));
+				this.messageDigest.update((byte) '\n');
+			}
+			String hash = Vocabulary.bytesToHex(this.messageDigest.digest());
+			int count = hashCounts.merge(hash, 1, Integer::sum);
+			if (count > 1) {
+				hash = hash + "-" + count;
+			}
+			skolemIris.put(entry.getKey(),
+					RdfWriter.factory.createIRI(skolemPrefix + hash));
+		}
+
+		Set<Statement> result = new LinkedHashSet<>();
+		for (Statement triple : triples) {
+			Resource subject = triple.getSubject();
+			Value object = triple.getObject();
+			if (subject instanceof BNode || object instanceof BNode) {
+				triple = RdfWriter.factory.createStatement(
+						subject instanceof BNode ? skolemIris.get(subject) : subject,
+						triple.getPredicate(),
+						object instanceof BNode ? skolemIris.get(object) : object);
+			}
+			result.add(triple);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the prefix of the skolem IRIs for entities of the given site,
+	 * so that every site mints them in its own namespace. For
+	 * "http://www.wikidata.org/entity/", this is
+	 * "http://www.wikidata.org/.well-known/genid/".
+	 *
+	 * @param siteIri
+	 *            the IRI of the site of the entities
+	 * @return the prefix of skolem IRIs
+	 */
+	public static String getSkolemPrefix(String siteIri) {
+		return URI.create(siteIri).resolve(SKOLEM_PATH).toString();
+	}
+
+	/**
+	 * Returns the string that represents a value in the context of a blank
+	 * node. Blank nodes are all represented by the same string, since their
+	 * labels are arbitrary.
+	 */
+	String toContextString(Value value) {
+		if (value instanceof BNode) {
+			return "[]";
+		}
+		return NTriplesUtil.toNTriplesString(value);
+	}
+
+	/**
+	 * Checks if the given triple describes a reference or value node, which
+	 * may be used by other entities as well and must therefore not be
+	 * deleted.
+	 *
+	 * @param triple
+	 *            the triple to check
+	 * @return true if the triple is shared with other entities
+	 */
+	boolean isShared(Statement triple) {
+		Resource subject = triple.getSubject();
+		if (!(subject instanceof IRI)) {
+			return false;
+		}
+		String subjectIri = subject.stringValue();
+		return subjectIri.startsWith(Vocabulary.PREFIX_WIKIDATA_REFERENCE)
+				|| subjectIri.startsWith(Vocabulary.PREFIX_WIKIDATA_VALUE);
+	}
+
+	boolean writeTransactionStart(boolean started) throws IOException {
+		if (!started) {
+			this.output.write("TX .\n");
+		}
+		return true;
+	}
+
+	void writePatchRow(String operation, Statement triple) throws IOException {
+		this.output.write(operation);
+		this.output.write(' ');
+		this.output.write(NTriplesUtil.toNTriplesString(triple.getSubject()));
+		this.output.write(' ');
+		this.output.write(NTriplesUtil.toNTriplesString(triple.getPredicate()));
+		this.output.write(' ');
+		this.output.write(NTriplesUtil.toNTriplesString(triple.getObject()));
+		this.output.write(" .\n");
+	}
+
+}
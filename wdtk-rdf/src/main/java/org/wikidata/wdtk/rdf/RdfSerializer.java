@@ -30,6 +30,8 @@ import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 import org.wikidata.wdtk.datamodel.interfaces.Sites;
 
@@ -60,7 +62,10 @@ public class RdfSerializer implements EntityDocumentDumpProcessor {
 
 	public static final int TASK_ITEMS = 0x00000100;
 	public static final int TASK_PROPERTIES = 0x00000200;
-	public static final int TASK_ALL_ENTITIES = TASK_ITEMS | TASK_PROPERTIES;
+	public static final int TASK_LEXEMES = 0x00000400;
+	public static final int TASK_MEDIA_INFO = 0x00000800;
+	public static final int TASK_ALL_ENTITIES = TASK_ITEMS | TASK_PROPERTIES
+			| TASK_LEXEMES | TASK_MEDIA_INFO;
 
 	final OutputStream output;
 	final RdfConverter rdfConverter;
@@ -144,6 +149,24 @@ public class RdfSerializer implements EntityDocumentDumpProcessor {
 		}
 	}
 
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		try {
+			this.rdfConverter.writeLexemeDocument(lexemeDocument);
+		} catch (RDFHandlerException e) { // we cannot recover here
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		try {
+			this.rdfConverter.writeMediaInfoDocument(mediaInfoDocument);
+		} catch (RDFHandlerException e) { // we cannot recover here
+			throw new RuntimeException(e.toString(), e);
+		}
+	}
+
 	@Override
 	public void close() {
 		try {
@@ -30,6 +30,7 @@ import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFWriter;
 import org.eclipse.rdf4j.rio.Rio;
@@ -142,8 +143,33 @@ public class RdfWriter {
 	public static final IRI WB_BEST_RANK = factory
 			.createIRI(Vocabulary.WB_BEST_RANK);
 	public static final IRI WB_BADGE = factory.createIRI(Vocabulary.WB_BADGE);
+	public static final IRI WB_LEMMA = factory.createIRI(Vocabulary.WB_LEMMA);
+	public static final IRI WB_LEXICAL_CATEGORY = factory
+			.createIRI(Vocabulary.WB_LEXICAL_CATEGORY);
+	public static final IRI WB_GRAMMATICAL_FEATURE = factory
+			.createIRI(Vocabulary.WB_GRAMMATICAL_FEATURE);
+	public static final IRI WB_MEDIA_INFO = factory
+			.createIRI(Vocabulary.WB_MEDIA_INFO);
+	public static final IRI ONTOLEX_LEXICAL_ENTRY = factory
+			.createIRI(Vocabulary.ONTOLEX_LEXICAL_ENTRY);
+	public static final IRI ONTOLEX_FORM = factory
+			.createIRI(Vocabulary.ONTOLEX_FORM);
+	public static final IRI ONTOLEX_LEXICAL_SENSE = factory
+			.createIRI(Vocabulary.ONTOLEX_LEXICAL_SENSE);
+	public static final IRI ONTOLEX_LEXICAL_FORM = factory
+			.createIRI(Vocabulary.ONTOLEX_LEXICAL_FORM);
+	public static final IRI ONTOLEX_SENSE = factory
+			.createIRI(Vocabulary.ONTOLEX_SENSE);
+	public static final IRI ONTOLEX_REPRESENTATION = factory
+			.createIRI(Vocabulary.ONTOLEX_REPRESENTATION);
+	public static final IRI SKOS_DEFINITION = factory
+			.createIRI(Vocabulary.SKOS_DEFINITION);
+	public static final IRI DCT_LANGUAGE = factory
+			.createIRI(Vocabulary.DCT_LANGUAGE);
+	public static final IRI SCHEMA_MEDIA_OBJECT = factory
+			.createIRI(Vocabulary.SCHEMA_MEDIA_OBJECT);
 
-	RDFWriter writer;
+	RDFHandler writer;
 
 	long tripleCount = 0;
 
@@ -155,6 +181,18 @@ public class RdfWriter {
 		this.writer = writer;
 	}
 
+	/**
+	 * Creates a writer that passes all triples to the given handler instead
+	 * of serializing them. This can be used to collect the triples of an
+	 * entity in memory.
+	 *
+	 * @param handler
+	 *            the handler that receives all triples
+	 */
+	public RdfWriter(RDFHandler handler) {
+		this.writer = handler;
+	}
+
 	public long getTripleCount() {
 		return this.tripleCount;
 	}
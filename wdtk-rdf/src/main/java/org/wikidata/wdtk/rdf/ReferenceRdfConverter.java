@@ -44,7 +44,7 @@ public class ReferenceRdfConverter {
 
 	final List<Reference> referenceQueue = new ArrayList<>();
 	final List<Resource> referenceSubjectQueue = new ArrayList<>();
-	final Set<Resource> declaredReferences = new HashSet<>();
+	final BoundedResourceSet declaredReferences = new BoundedResourceSet();
 	final String siteUri;
 
 	/**
@@ -81,6 +81,8 @@ public class Vocabulary {
 	public static final String PREFIX_SCHEMA = "http://schema.org/";
 	public static final String PREFIX_SKOS = "http://www.w3.org/2004/02/skos/core#";
 	public static final String PREFIX_PROV = "http://www.w3.org/ns/prov#";
+	public static final String PREFIX_ONTOLEX = "http://www.w3.org/ns/lemon/ontolex#";
+	public static final String PREFIX_DCT = "http://purl.org/dc/terms/";
 
 	// Vocabulary elements that are part of ontology language standards
 	public static final String RDF_TYPE = PREFIX_RDF + "type";
@@ -476,6 +478,119 @@ public class Vocabulary {
 		VOCABULARY_TYPES.put(WB_NO_QUALIFIER_VALUE_PROP, OWL_OBJECT_PROPERTY);
 	}
 
+	// Lexemes and media info
+
+	/**
+	 * Class for lexemes.
+	 */
+	public static final String ONTOLEX_LEXICAL_ENTRY = PREFIX_ONTOLEX
+			+ "LexicalEntry";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_LEXICAL_ENTRY, OWL_CLASS);
+	}
+
+	/**
+	 * Class for forms of lexemes.
+	 */
+	public static final String ONTOLEX_FORM = PREFIX_ONTOLEX + "Form";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_FORM, OWL_CLASS);
+	}
+
+	/**
+	 * Class for senses of lexemes.
+	 */
+	public static final String ONTOLEX_LEXICAL_SENSE = PREFIX_ONTOLEX
+			+ "LexicalSense";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_LEXICAL_SENSE, OWL_CLASS);
+	}
+
+	/**
+	 * Property for connecting a lexeme to one of its forms.
+	 */
+	public static final String ONTOLEX_LEXICAL_FORM = PREFIX_ONTOLEX
+			+ "lexicalForm";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_LEXICAL_FORM, OWL_OBJECT_PROPERTY);
+	}
+
+	/**
+	 * Property for connecting a lexeme to one of its senses.
+	 */
+	public static final String ONTOLEX_SENSE = PREFIX_ONTOLEX + "sense";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_SENSE, OWL_OBJECT_PROPERTY);
+	}
+
+	/**
+	 * Property for the representations of a form.
+	 */
+	public static final String ONTOLEX_REPRESENTATION = PREFIX_ONTOLEX
+			+ "representation";
+	static {
+		VOCABULARY_TYPES.put(ONTOLEX_REPRESENTATION, OWL_DATATYPE_PROPERTY);
+	}
+
+	/**
+	 * Property for the glosses of a sense.
+	 */
+	public static final String SKOS_DEFINITION = PREFIX_SKOS + "definition";
+	static {
+		VOCABULARY_TYPES.put(SKOS_DEFINITION, OWL_DATATYPE_PROPERTY);
+	}
+
+	/**
+	 * Property for the language of a lexeme.
+	 */
+	public static final String DCT_LANGUAGE = PREFIX_DCT + "language";
+	static {
+		VOCABULARY_TYPES.put(DCT_LANGUAGE, OWL_OBJECT_PROPERTY);
+	}
+
+	/**
+	 * Property for the lemmas of a lexeme.
+	 */
+	public static final String WB_LEMMA = PREFIX_WBONTO + "lemma";
+	static {
+		VOCABULARY_TYPES.put(WB_LEMMA, OWL_DATATYPE_PROPERTY);
+	}
+
+	/**
+	 * Property for the lexical category of a lexeme.
+	 */
+	public static final String WB_LEXICAL_CATEGORY = PREFIX_WBONTO
+			+ "lexicalCategory";
+	static {
+		VOCABULARY_TYPES.put(WB_LEXICAL_CATEGORY, OWL_OBJECT_PROPERTY);
+	}
+
+	/**
+	 * Property for the grammatical features of a form.
+	 */
+	public static final String WB_GRAMMATICAL_FEATURE = PREFIX_WBONTO
+			+ "grammaticalFeature";
+	static {
+		VOCABULARY_TYPES.put(WB_GRAMMATICAL_FEATURE, OWL_OBJECT_PROPERTY);
+	}
+
+	/**
+	 * Class for Wikibase media info entities.
+	 */
+	public static final String WB_MEDIA_INFO = PREFIX_WBONTO + "Mediainfo";
+	static {
+		VOCABULARY_TYPES.put(WB_MEDIA_INFO, OWL_CLASS);
+	}
+
+	/**
+	 * Class for media objects of schema.org.
+	 */
+	public static final String SCHEMA_MEDIA_OBJECT = PREFIX_SCHEMA
+			+ "MediaObject";
+	static {
+		VOCABULARY_TYPES.put(SCHEMA_MEDIA_OBJECT, OWL_CLASS);
+	}
+
 	/**
 	 * Returns a map that defines OWL types for all known vocabulary elements.
 	 *
@@ -21,12 +21,12 @@ package org.wikidata.wdtk.rdf.values;
  */
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.wikidata.wdtk.rdf.BoundedResourceSet;
 import org.wikidata.wdtk.rdf.OwlDeclarationBuffer;
 import org.wikidata.wdtk.rdf.PropertyRegister;
 import org.wikidata.wdtk.rdf.RdfWriter;
@@ -36,7 +36,7 @@ public abstract class BufferedValueConverter<V extends org.wikidata.wdtk.datamod
 
 	final List<V> valueQueue = new ArrayList<>();
 	final List<Resource> valueSubjectQueue = new ArrayList<>();
-	final HashSet<Resource> declaredValues = new HashSet<>();
+	final BoundedResourceSet declaredValues = new BoundedResourceSet();
 
 	public BufferedValueConverter(RdfWriter rdfWriter,
 			PropertyRegister propertyRegister,
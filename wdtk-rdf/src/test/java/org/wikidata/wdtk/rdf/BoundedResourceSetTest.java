@@ -0,0 +1,65 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+public class BoundedResourceSetTest {
+
+	final ValueFactory factory = SimpleValueFactory.getInstance();
+
+	@Test
+	public void testAdd() {
+		BoundedResourceSet set = new BoundedResourceSet(16);
+		IRI iri = this.factory.createIRI("http://example.org/a");
+		assertTrue(set.add(iri));
+		assertFalse(set.add(this.factory.createIRI("http://example.org/a")));
+	}
+
+	@Test
+	public void testNeverLosesNewResources() {
+		BoundedResourceSet set = new BoundedResourceSet(4);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(set.add(this.factory.createIRI("http://example.org/" + i)));
+		}
+	}
+
+	@Test
+	public void testCapacityRounding() {
+		assertEquals(8, new BoundedResourceSet(5).slots.length);
+		assertEquals(8, new BoundedResourceSet(8).slots.length);
+	}
+
+	@Test
+	public void testInvalidCapacity() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new BoundedResourceSet(0));
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
+import org.wikidata.wdtk.util.CompressionType;
+import org.wikidata.wdtk.util.DirectoryManager;
+import org.wikidata.wdtk.util.DirectoryManagerImpl;
+
+public class ChunkedRdfSerializerTest {
+
+	final TestObjectFactory objectFactory = new TestObjectFactory();
+
+	@TempDir
+	Path tempDir;
+
+	DirectoryManager directoryManager;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		this.directoryManager = new DirectoryManagerImpl(this.tempDir, false);
+	}
+
+	String readChunk(String fileName, CompressionType compressionType)
+			throws IOException {
+		try (InputStream inputStream = this.directoryManager
+				.getInputStreamForFile(fileName, compressionType)) {
+			return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testRotationByEntityCount() throws IOException {
+		ChunkedRdfSerializer serializer = new ChunkedRdfSerializer(
+				RDFFormat.TURTLE, this.directoryManager, "dump",
+				CompressionType.GZIP, new SitesImpl(),
+				new MockPropertyRegister());
+		serializer.setMaxEntitiesPerChunk(2);
+		serializer.setCompressionThreads(2);
+
+		serializer.open();
+		for (int i = 0; i < 3; i++) {
+			serializer.processItemDocument(this.objectFactory
+					.createItemDocument());
+		}
+		serializer.close();
+
+		assertEquals(Arrays.asList("dump-00001.ttl.gz", "dump-00002.ttl.gz"),
+				serializer.getChunkFileNames());
+		for (String fileName : serializer.getChunkFileNames()) {
+			assertTrue(this.directoryManager.hasFile(fileName));
+			// every chunk must declare its own prefixes
+			assertTrue(readChunk(fileName, CompressionType.GZIP).contains(
+					"@prefix wd:"));
+		}
+		assertTrue(Models.isomorphic(
+				RdfTestHelpers.parseRdf(RdfTestHelpers
+						.getResourceFromFile("completeRDFDocument.rdf")),
+				RdfTestHelpers.parseRdf(readChunk("dump-00002.ttl.gz",
+						CompressionType.GZIP))));
+	}
+
+	@Test
+	public void testRotationByBytes() throws IOException {
+		ChunkedRdfSerializer serializer = new ChunkedRdfSerializer(
+				RDFFormat.NTRIPLES, this.directoryManager, "dump",
+				CompressionType.BZ2, new SitesImpl(),
+				new MockPropertyRegister());
+		serializer.setMaxBytesPerChunk(1);
+
+		// the RDF writer buffers its output, so sizes are only checked
+		// approximately; with enough entities there must be several chunks
+		serializer.open();
+		for (int i = 0; i < 20; i++) {
+			serializer.processItemDocument(this.objectFactory
+					.createItemDocument());
+		}
+		serializer.close();
+
+		assertTrue(serializer.getChunkFileNames().size() > 1);
+		assertEquals("dump-00001.nt.bz2", serializer.getChunkFileNames()
+				.get(0));
+		for (String fileName : serializer.getChunkFileNames()) {
+			assertTrue(RdfTestHelpers.parseRdf(
+					readChunk(fileName, CompressionType.BZ2)).size() > 0);
+		}
+	}
+
+	@Test
+	public void testEmptyExport() throws IOException {
+		ChunkedRdfSerializer serializer = new ChunkedRdfSerializer(
+				RDFFormat.NTRIPLES, this.directoryManager, "empty",
+				CompressionType.NONE, new SitesImpl(),
+				new MockPropertyRegister());
+		serializer.open();
+		serializer.close();
+
+		assertEquals(Arrays.asList("empty-00001.nt"),
+				serializer.getChunkFileNames());
+		assertTrue(this.directoryManager.hasFile("empty-00001.nt"));
+	}
+
+}
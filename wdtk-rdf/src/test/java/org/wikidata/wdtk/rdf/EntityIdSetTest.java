@@ -0,0 +1,69 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+
+public class EntityIdSetTest {
+
+	@Test
+	public void testNumericIds() {
+		EntityIdSet set = new EntityIdSet();
+		EntityIdValue q42 = Datamodel.makeWikidataItemIdValue("Q42");
+		EntityIdValue p42 = Datamodel.makeWikidataPropertyIdValue("P42");
+
+		assertTrue(set.add(q42));
+		assertFalse(set.add(q42));
+		assertTrue(set.contains(q42));
+		assertFalse(set.contains(p42));
+		assertFalse(set.contains(Datamodel.makeItemIdValue("Q42",
+				"http://example.org/entity/")));
+		assertTrue(set.otherIris.isEmpty());
+	}
+
+	@Test
+	public void testOtherIds() {
+		EntityIdSet set = new EntityIdSet();
+		EntityIdValue form = Datamodel.makeWikidataFormIdValue("L42-F1");
+		EntityIdValue large = Datamodel.makeWikidataItemIdValue("Q1234567890");
+
+		assertTrue(set.add(form));
+		assertTrue(set.add(large));
+		assertFalse(set.add(form));
+		assertTrue(set.contains(large));
+		assertFalse(set.contains(Datamodel.makeWikidataLexemeIdValue("L42")));
+	}
+
+	@Test
+	public void testClear() {
+		EntityIdSet set = new EntityIdSet();
+		EntityIdValue q1 = Datamodel.makeWikidataItemIdValue("Q1");
+		set.add(q1);
+		set.clear();
+		assertFalse(set.contains(q1));
+	}
+
+}
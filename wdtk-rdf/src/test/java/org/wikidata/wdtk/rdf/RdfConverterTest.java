@@ -47,11 +47,16 @@ import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
 import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
 import org.wikidata.wdtk.datamodel.interfaces.DataObjectFactory;
 import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
 import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
 import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
@@ -125,6 +130,64 @@ public class RdfConverterTest {
 				.getResourceFromFile("EmptyPropertyDocument.rdf")));
 	}
 
+	@Test
+	public void testWriteLexemeDocument() throws RDFHandlerException,
+			RDFParseException, IOException {
+		LexemeIdValue lexemeId = Datamodel.makeWikidataLexemeIdValue("L42");
+		FormDocument form = Datamodel.makeFormDocument(
+				Datamodel.makeWikidataFormIdValue("L42-F1"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue(
+						"goes", "en")),
+				Collections.singletonList(Datamodel
+						.makeWikidataItemIdValue("Q110786")),
+				Collections.emptyList());
+		SenseDocument sense = Datamodel.makeSenseDocument(
+				Datamodel.makeWikidataSenseIdValue("L42-S1"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue(
+						"to move from one place to another", "en")),
+				Collections.emptyList());
+		LexemeDocument document = Datamodel.makeLexemeDocument(lexemeId,
+				Datamodel.makeWikidataItemIdValue("Q24905"),
+				Datamodel.makeWikidataItemIdValue("Q1860"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue(
+						"go", "en")), Collections.emptyList(),
+				Collections.singletonList(form),
+				Collections.singletonList(sense));
+		this.rdfConverter.writeLexemeDocument(document);
+		this.rdfWriter.finish();
+		Model model = RdfTestHelpers.parseRdf(this.out.toString());
+		assertEquals(RdfTestHelpers.parseRdf(RdfTestHelpers
+				.getResourceFromFile("LexemeDocument.rdf")), model);
+	}
+
+	@Test
+	public void testWriteMediaInfoDocument() throws RDFHandlerException,
+			RDFParseException, IOException {
+		MediaInfoDocument document = Datamodel.makeMediaInfoDocument(
+				Datamodel.makeMediaInfoIdValue("M74698470",
+						"https://commons.wikimedia.org/entity/"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue(
+						"A cat", "en")), Collections.emptyList());
+		this.rdfConverter.writeMediaInfoDocument(document);
+		this.rdfWriter.finish();
+		Model model = RdfTestHelpers.parseRdf(this.out.toString());
+		assertEquals(RdfTestHelpers.parseRdf(RdfTestHelpers
+				.getResourceFromFile("MediaInfoDocument.rdf")), model);
+	}
+
+	@Test
+	public void testLexemeTaskDisabled() throws RDFHandlerException {
+		this.rdfConverter.setTasks(RdfSerializer.TASK_ITEMS
+				| RdfSerializer.TASK_ALL_EXACT_DATA);
+		this.rdfConverter.writeLexemeDocument(Datamodel.makeLexemeDocument(
+				Datamodel.makeWikidataLexemeIdValue("L42"),
+				Datamodel.makeWikidataItemIdValue("Q24905"),
+				Datamodel.makeWikidataItemIdValue("Q1860"),
+				Collections.emptyList()));
+		this.rdfWriter.finish();
+		assertEquals(0, this.rdfWriter.getTripleCount());
+	}
+
 	@Test
 	public void testWriteStatementRankTriple() throws RDFHandlerException,
 			RDFParseException, IOException {
@@ -289,6 +352,44 @@ public class RdfConverterTest {
 				model);
 	}
 
+	@Test
+	public void testWriteSimpleStatementsBestRank() throws RDFHandlerException,
+			RDFParseException, IOException {
+		ItemIdValue subject = Datamodel.makeWikidataItemIdValue("Q100");
+		PropertyIdValue property = Datamodel.makeWikidataPropertyIdValue("P31");
+		List<Statement> statements = new ArrayList<>();
+		statements.add(Datamodel.makeStatement(subject,
+				Datamodel.makeValueSnak(property, Datamodel.makeWikidataItemIdValue("Q1")),
+				Collections.emptyList(), Collections.emptyList(),
+				StatementRank.NORMAL, "Q100$1"));
+		statements.add(Datamodel.makeStatement(subject,
+				Datamodel.makeValueSnak(property, Datamodel.makeWikidataItemIdValue("Q2")),
+				Collections.emptyList(), Collections.emptyList(),
+				StatementRank.PREFERRED, "Q100$2"));
+		statements.add(Datamodel.makeStatement(subject,
+				Datamodel.makeValueSnak(property, Datamodel.makeWikidataItemIdValue("Q3")),
+				Collections.emptyList(), Collections.emptyList(),
+				StatementRank.DEPRECATED, "Q100$3"));
+		statements.add(Datamodel.makeStatement(subject,
+				Datamodel.makeValueSnak(property, Datamodel.makeWikidataItemIdValue("Q4")),
+				Collections.emptyList(), Collections.emptyList(),
+				StatementRank.PREFERRED, "Q100$4"));
+		ItemDocument document = Datamodel.makeItemDocument(subject,
+				Collections.emptyList(), Collections.emptyList(),
+				Collections.emptyList(),
+				Collections.singletonList(Datamodel.makeStatementGroup(statements)),
+				Collections.emptyMap());
+
+		this.rdfConverter.setTasks(RdfSerializer.TASK_SIMPLE_STATEMENTS);
+		this.rdfConverter.writeStatements(document);
+		this.rdfWriter.finish();
+		Model model = RdfTestHelpers.parseRdf(this.out.toString());
+		assertEquals(
+				RdfTestHelpers
+						.parseRdf("\n<http://www.wikidata.org/entity/Q100> <http://www.wikidata.org/prop/direct/P31> <http://www.wikidata.org/entity/Q2> , <http://www.wikidata.org/entity/Q4> .\n"),
+				model);
+	}
+
 	@Test
 	public void testWriteInterPropertyLinks() throws RDFHandlerException,
 			RDFParseException, IOException {
@@ -0,0 +1,174 @@
+package org.wikidata.wdtk.rdf;
+
+/*
+ * #%L
+ * Wikidata Toolkit RDF
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.implementation.SitesImpl;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+
+public class RdfDeltaSerializerTest {
+
+	final TestObjectFactory objectFactory = new TestObjectFactory();
+
+	ByteArrayOutputStream out;
+
+	RdfDeltaSerializer deltaSerializer;
+
+	@BeforeEach
+	public void setUp() {
+		this.out = new ByteArrayOutputStream();
+		this.deltaSerializer = new RdfDeltaSerializer(this.out,
+				new SitesImpl(), new MockPropertyRegister());
+	}
+
+	@Test
+	public void testUnchangedDocument() {
+		ItemDocument document = this.objectFactory.createItemDocument();
+		this.deltaSerializer.open();
+		this.deltaSerializer.writeDelta(document, document);
+		this.deltaSerializer.close();
+
+		assertEquals("", this.out.toString());
+		assertEquals(0, this.deltaSerializer.getAddedTripleCount());
+		assertEquals(0, this.deltaSerializer.getDeletedTripleCount());
+	}
+
+	@Test
+	public void testChangedLabel() {
+		ItemDocument oldDocument = this.objectFactory.createItemDocument();
+		ItemDocument newDocument = oldDocument.withLabel(Datamodel
+				.makeMonolingualTextValue("new label", "lc"));
+
+		this.deltaSerializer.open();
+		this.deltaSerializer.writeDelta(oldDocument, newDocument);
+		this.deltaSerializer.close();
+
+		assertEquals(1, this.deltaSerializer.getAddedTripleCount());
+		assertEquals(1, this.deltaSerializer.getDeletedTripleCount());
+		String[] lines = this.out.toString().split("\n");
+		assertEquals(4, lines.length);
+		assertEquals("TX .", lines[0]);
+		assertEquals("D <http://www.wikidata.org/Q10> <http://www.w3.org/2000/01/rdf-schema#label> \"foo\"@lc .",
+				lines[1]);
+		assertEquals("A <http://www.wikidata.org/Q10> <http://www.w3.org/2000/01/rdf-schema#label> \"new label\"@lc .",
+				lines[2]);
+		assertEquals("TC .", lines[3]);
+	}
+
+	@Test
+	public void testSuccessiveRevisions() {
+		ItemDocument firstRevision = this.objectFactory.createItemDocument();
+		ItemDocument secondRevision = firstRevision.withLabel(Datamodel
+				.makeMonolingualTextValue("intermediate", "lc"));
+		ItemDocument thirdRevision = firstRevision.withLabel(Datamodel
+				.makeMonolingualTextValue("final", "lc"));
+
+		this.deltaSerializer.setPreviousDocumentProvider(entityIdValue -> firstRevision);
+		this.deltaSerializer.open();
+		this.deltaSerializer.processItemDocument(secondRevision);
+		this.deltaSerializer.processItemDocument(thirdRevision);
+		this.deltaSerializer.close();
+
+		// only the net change is written, in one transaction
+		String delta = this.out.toString();
+		assertEquals(1, delta.split("TX \\.", -1).length - 1);
+		assertTrue(delta.contains("\"final\"@lc"));
+		assertTrue(!delta.contains("intermediate"));
+	}
+
+	@Test
+	public void testNewDocument() {
+		ItemDocument document = this.objectFactory.createItemDocument();
+		this.deltaSerializer.open();
+		this.deltaSerializer.processItemDocument(document);
+		this.deltaSerializer.close();
+
+		assertEquals(0, this.deltaSerializer.getDeletedTripleCount());
+		assertTrue(this.deltaSerializer.getAddedTripleCount() > 0);
+		assertTrue(new String(this.out.toByteArray(), StandardCharsets.UTF_8)
+				.startsWith("TX .\nA "));
+	}
+
+	@Test
+	public void testInsertedSomeValueStatement() {
+		ItemDocument document = this.objectFactory.createItemDocument();
+		Statement first = makeSomeValueStatement(document, "P1001", "Q10$first");
+		Statement second = makeSomeValueStatement(document, "P1002", "Q10$second");
+		ItemDocument oldDocument = document.withStatement(second);
+		ItemDocument newDocument = document.withStatement(first).withStatement(second);
+
+		this.deltaSerializer.open();
+		this.deltaSerializer.writeDelta(oldDocument, newDocument);
+		this.deltaSerializer.close();
+
+		// only the triples of the new statement are added
+		String delta = this.out.toString();
+		assertEquals(0, this.deltaSerializer.getDeletedTripleCount());
+		assertTrue(this.deltaSerializer.getAddedTripleCount() > 0);
+		assertFalse(delta.contains("_:"));
+		assertFalse(delta.contains("P1002"));
+		assertTrue(delta.contains("<http://www.wikidata.org/.well-known/genid/"));
+	}
+
+	@Test
+	public void testRemovedSomeValueStatement() {
+		ItemDocument document = this.objectFactory.createItemDocument();
+		Statement statement = makeSomeValueStatement(document, "P1001", "Q10$first");
+
+		this.deltaSerializer.open();
+		this.deltaSerializer.writeDelta(document, document.withStatement(statement));
+		this.deltaSerializer.writeDelta(document.withStatement(statement), document);
+		this.deltaSerializer.close();
+
+		// the deleted triples are exactly the ones that were added before
+		String[] transactions = this.out.toString().split("TC \\.\n");
+		assertEquals(2, transactions.length);
+		assertEquals(transactions[0].replace("\nA ", "\nD "), transactions[1]);
+	}
+
+	@Test
+	public void testSkolemPrefix() {
+		assertEquals("http://www.wikidata.org/.well-known/genid/",
+				RdfDeltaSerializer.getSkolemPrefix(Datamodel.SITE_WIKIDATA));
+		assertEquals("https://wiki.example.org/.well-known/genid/",
+				RdfDeltaSerializer.getSkolemPrefix("https://wiki.example.org/entity/"));
+	}
+
+	Statement makeSomeValueStatement(ItemDocument document,
+			String propertyId, String statementId) {
+		return StatementBuilder
+				.forSubjectAndProperty(document.getEntityId(),
+						Datamodel.makeWikidataPropertyIdValue(propertyId))
+				.withSomeValue().withId(statementId).build();
+	}
+
+}
@@ -0,0 +1,1056 @@
+package org.wikidata.wdtk.testing;
+
+/*
+ * #%L
+ * Wikidata Toolkit utilities for testing
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embeddable HTTP server that stands in for the Web API of a Wikibase site,
+ * so that clients can be tested (and load-tested) without network access.
+ * Entities are kept in memory as JSON, in the format of the JSON dumps, and
+ * can be loaded from a dump sample with {@link #loadDump(InputStream)}.
+ * <p>
+ * The server implements the actions that the Wikidata Toolkit uses:
+ * <ul>
+ * <li>query (tokens only), login and logout;</li>
+ * <li>wbgetentities, by ids or by site and titles, with props, languages
+ * and sitefilter;</li>
+ * <li>wbsearchentities, as a prefix search on labels and aliases;</li>
+ * <li>wbeditentity, wbsetlabel, wbsetdescription, wbsetclaim and
+ * wbremoveclaims.</li>
+ * </ul>
+ * Parameters such as maxlag, assert and baserevid are respected, so that
+ * maxlag errors and edit conflicts happen as on a real site. The behaviour
+ * of the real API is only approximated: for example, edit conflicts are
+ * reported whenever the base revision is not the latest one, and responses of
+ * the smaller editing actions contain the complete entity.
+ * <p>
+ * For load tests, every response can be delayed, a replication lag can be
+ * set, and errors can be injected, either for a number of upcoming requests
+ * or at random. Random decisions use a seeded generator, so that single
+ * threaded runs are reproducible.
+ */
+public class MockWikibaseApiServer implements AutoCloseable {
+
+	/**
+	 * CSRF token issued by the server and expected for all edits.
+	 */
+	public static final String CSRF_TOKEN = "42307b93c79b0cb558d2dfb4c3c92e0955e06041+\\";
+
+	/**
+	 * Login token issued by the server and expected for logging in.
+	 */
+	public static final String LOGIN_TOKEN = "b5780b6e2f27e20b450921d9461010b4";
+
+	/**
+	 * Path of the API on the server.
+	 */
+	public static final String API_PATH = "/w/api.php";
+
+	/**
+	 * Largest number of ids or titles accepted by wbgetentities.
+	 */
+	static final int MAX_ENTITIES_PER_REQUEST = 50;
+
+	/**
+	 * Error of the API, turned into an error response.
+	 */
+	static class ApiError extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		final String code;
+
+		ApiError(String code, String info) {
+			super(info);
+			this.code = code;
+		}
+	}
+
+	final ObjectMapper mapper = new ObjectMapper();
+
+	/**
+	 * IRI prefix of the entities, used for concept URIs in search results.
+	 */
+	final String siteIri;
+
+	/**
+	 * Number of threads that handle requests.
+	 */
+	final int threads;
+
+	/**
+	 * Stored entities by id. Nodes are never modified once stored: edits
+	 * replace them with modified copies, so that they can be read while they
+	 * are being edited.
+	 */
+	final Map<String, ObjectNode> entities = new ConcurrentHashMap<>();
+
+	/**
+	 * Highest numeric id in use for each id prefix (such as "Q").
+	 */
+	final Map<String, Long> lastEntityNumbers = new HashMap<>();
+
+	/**
+	 * Last revision id that was assigned. Guarded by this object, like all
+	 * edits.
+	 */
+	long lastRevisionId = 0;
+
+	final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+	final Random random;
+
+	volatile long latencyMillis = 0;
+	volatile long latencyJitterMillis = 0;
+	volatile double lag = 0;
+	volatile double errorRate = 0;
+	volatile String errorCode = "internal_api_error";
+	final AtomicInteger failingRequests = new AtomicInteger(0);
+
+	/**
+	 * Name of the user that is logged in, or null.
+	 */
+	volatile String loggedInUser = null;
+
+	HttpServer server = null;
+	ExecutorService executor = null;
+
+	/**
+	 * Creates a server for entities of Wikidata, with eight request threads
+	 * and a fixed random seed. The server is started with {@link #start()}.
+	 */
+	public MockWikibaseApiServer() {
+		this("http://www.wikidata.org/entity/", 8, 0);
+	}
+
+	/**
+	 * Creates a server. The server is started with {@link #start()}.
+	 *
+	 * @param siteIri
+	 *            the IRI prefix of the entities, e.g.,
+	 *            "http://www.wikidata.org/entity/"
+	 * @param threads
+	 *            number of requests that are handled at the same time
+	 * @param seed
+	 *            seed for the random decisions of the server
+	 */
+	public MockWikibaseApiServer(String siteIri, int threads, long seed) {
+		this.siteIri = siteIri;
+		this.threads = threads;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Starts the server on a free port of the loopback interface.
+	 *
+	 * @return this server
+	 * @throws IOException
+	 *             if the server could not be started
+	 */
+	public synchronized MockWikibaseApiServer start() throws IOException {
+		if (this.server != null) {
+			throw new IllegalStateException("The server was already started.");
+		}
+		this.server = HttpServer.create(new InetSocketAddress(
+				InetAddress.getLoopbackAddress(), 0), 0);
+		this.server.createContext(API_PATH, this::handle);
+		this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "MockWikibaseApiServer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.server.setExecutor(this.executor);
+		this.server.start();
+		return this;
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.server != null) {
+			this.server.stop(0);
+			this.executor.shutdownNow();
+			this.server = null;
+		}
+	}
+
+	/**
+	 * Returns the URL of the API, to be used as the base URL of API
+	 * connections.
+	 *
+	 * @return the API URL, e.g., "http://127.0.0.1:12345/w/api.php"
+	 */
+	public synchronized String getApiUrl() {
+		if (this.server == null) {
+			throw new IllegalStateException("The server is not running.");
+		}
+		InetSocketAddress address = this.server.getAddress();
+		return "http://" + address.getAddress().getHostAddress() + ":"
+				+ address.getPort() + API_PATH;
+	}
+
+	/**
+	 * Adds the entities of a JSON dump to the store. The input can be a JSON
+	 * array of entities, as in the dumps, or a sequence of entity objects.
+	 *
+	 * @param input
+	 *            the (uncompressed) dump contents
+	 * @return the number of entities read
+	 * @throws IOException
+	 *             if the input could not be read or parsed
+	 */
+	public int loadDump(InputStream input) throws IOException {
+		int count = 0;
+		try (JsonParser parser = this.mapper.getFactory().createParser(input)) {
+			JsonToken token = parser.nextToken();
+			if (token == JsonToken.START_ARRAY) {
+				token = parser.nextToken();
+			}
+			while (token == JsonToken.START_OBJECT) {
+				putEntity((ObjectNode) this.mapper.readTree(parser));
+				count++;
+				token = parser.nextToken();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the given entity to the store, replacing any entity with the same
+	 * id. Entities without revision id get a new one.
+	 *
+	 * @param json
+	 *            the JSON serialization of the entity
+	 * @throws IOException
+	 *             if the JSON could not be parsed
+	 */
+	public void putEntity(String json) throws IOException {
+		putEntity((ObjectNode) this.mapper.readTree(json));
+	}
+
+	synchronized void putEntity(ObjectNode entity) {
+		String id = entity.path("id").asText(null);
+		if (id == null) {
+			throw new IllegalArgumentException("Entity has no id: " + entity);
+		}
+		ObjectNode copy = entity.deepCopy();
+		long revision = copy.path("lastrevid").asLong(0);
+		if (revision <= 0) {
+			revision = ++this.lastRevisionId;
+			copy.put("lastrevid", revision);
+		} else {
+			this.lastRevisionId = Math.max(this.lastRevisionId, revision);
+		}
+		String prefix = id.replaceAll("[0-9].*$", "");
+		String number = id.substring(prefix.length());
+		if (!prefix.isEmpty() && number.matches("[0-9]{1,18}")) {
+			this.lastEntityNumbers.merge(prefix, Long.parseLong(number), Math::max);
+		}
+		this.entities.put(id, copy);
+	}
+
+	/**
+	 * Returns a copy of the stored entity with the given id.
+	 *
+	 * @param id
+	 *            the id of the entity
+	 * @return the entity as JSON, or null if there is no such entity
+	 */
+	public ObjectNode getEntity(String id) {
+		ObjectNode entity = this.entities.get(id);
+		return entity != null ? entity.deepCopy() : null;
+	}
+
+	/**
+	 * Returns the number of stored entities.
+	 *
+	 * @return number of entities
+	 */
+	public int getEntityCount() {
+		return this.entities.size();
+	}
+
+	/**
+	 * Delays every response by the given time plus a random time of up to the
+	 * given jitter.
+	 *
+	 * @param millis
+	 *            fixed delay in milliseconds
+	 * @param jitterMillis
+	 *            maximal additional random delay in milliseconds
+	 */
+	public void setLatency(long millis, long jitterMillis) {
+		this.latencyMillis = millis;
+		this.latencyJitterMillis = jitterMillis;
+	}
+
+	/**
+	 * Sets the simulated replication lag. Requests with a maxlag parameter
+	 * below this lag fail with a maxlag error.
+	 *
+	 * @param seconds
+	 *            the lag in seconds
+	 */
+	public void setLag(double seconds) {
+		this.lag = seconds;
+	}
+
+	/**
+	 * Lets requests fail at random with the given probability and error code.
+	 *
+	 * @param rate
+	 *            probability of an error, between 0 and 1
+	 * @param code
+	 *            the code of the error, e.g., "internal_api_error"
+	 */
+	public void setErrorRate(double rate, String code) {
+		this.errorRate = rate;
+		this.errorCode = code;
+	}
+
+	/**
+	 * Lets the next requests fail with the given error code.
+	 *
+	 * @param count
+	 *            number of requests that should fail
+	 * @param code
+	 *            the code of the error, e.g., "badtoken"
+	 */
+	public void failNextRequests(int count, String code) {
+		this.errorCode = code;
+		this.failingRequests.set(count);
+	}
+
+	/**
+	 * Returns the number of requests received.
+	 *
+	 * @return number of requests
+	 */
+	public long getRequestCount() {
+		return this.requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/**
+	 * Returns the number of requests received for the given action.
+	 *
+	 * @param action
+	 *            the action, e.g., "wbgetentities"
+	 * @return number of requests
+	 */
+	public long getRequestCount(String action) {
+		LongAdder counter = this.requestCounts.get(action);
+		return counter != null ? counter.sum() : 0;
+	}
+
+	void handle(HttpExchange exchange) throws IOException {
+		ObjectNode response;
+		int status = 200;
+		try {
+			Map<String, String> parameters = readParameters(exchange);
+			String action = parameters.getOrDefault("action", "");
+			this.requestCounts.computeIfAbsent(action, a -> new LongAdder()).increment();
+			simulateLatency();
+			try {
+				response = respond(action, parameters);
+			} catch (ApiError e) {
+				response = makeError(e.code, e.getMessage());
+			}
+		} catch (RuntimeException e) {
+			status = 500;
+			response = makeError("internal_api_error", e.toString());
+		}
+		byte[] body = this.mapper.writeValueAsBytes(response);
+		exchange.getResponseHeaders().set("Content-Type",
+				"application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(body);
+		}
+	}
+
+	ObjectNode respond(String action, Map<String, String> parameters)
+			throws ApiError {
+		if (this.failingRequests.getAndUpdate(n -> Math.max(0, n - 1)) > 0
+				|| (this.errorRate > 0 && nextDouble() < this.errorRate)) {
+			throw new ApiError(this.errorCode, "Injected error.");
+		}
+		if (parameters.containsKey("maxlag")) {
+			double lag = this.lag;
+			if (lag > Double.parseDouble(parameters.get("maxlag"))) {
+				ObjectNode error = makeError("maxlag", String.format(Locale.ROOT,
+						"Waiting for all: %.2f seconds lagged.", lag));
+				((ObjectNode) error.get("error")).put("lag", lag);
+				return error;
+			}
+		}
+		if ("user".equals(parameters.get("assert")) && this.loggedInUser == null) {
+			throw new ApiError("assertuserfailed",
+					"You are no longer logged in, so the action could not be completed.");
+		}
+		switch (action) {
+		case "query":
+			return query(parameters);
+		case "login":
+			return login(parameters);
+		case "logout":
+			this.loggedInUser = null;
+			return this.mapper.createObjectNode();
+		case "wbgetentities":
+			return getEntities(parameters);
+		case "wbsearchentities":
+			return searchEntities(parameters);
+		case "wbeditentity":
+		case "wbsetlabel":
+		case "wbsetdescription":
+		case "wbsetclaim":
+		case "wbremoveclaims":
+			if (!CSRF_TOKEN.equals(parameters.get("token"))) {
+				throw new ApiError("badtoken", "Invalid CSRF token.");
+			}
+			return edit(action, parameters);
+		default:
+			throw new ApiError("badvalue", "Unrecognized value for parameter \"action\": "
+					+ action + ".");
+		}
+	}
+
+	ObjectNode query(Map<String, String> parameters) {
+		ObjectNode response = this.mapper.createObjectNode();
+		response.put("batchcomplete", "");
+		if ("tokens".equals(parameters.get("meta"))) {
+			ObjectNode tokens = response.putObject("query").putObject("tokens");
+			for (String type : parameters.getOrDefault("type", "csrf").split("\\|")) {
+				tokens.put(type + "token", "login".equals(type) ? LOGIN_TOKEN : CSRF_TOKEN);
+			}
+		}
+		return response;
+	}
+
+	ObjectNode login(Map<String, String> parameters) {
+		ObjectNode response = this.mapper.createObjectNode();
+		ObjectNode login = response.putObject("login");
+		if (!LOGIN_TOKEN.equals(parameters.get("lgtoken"))) {
+			login.put("result", "WrongToken");
+		} else {
+			this.loggedInUser = parameters.getOrDefault("lgname", "");
+			login.put("result", "Success");
+			login.put("lguserid", 1);
+			login.put("lgusername", this.loggedInUser);
+		}
+		return response;
+	}
+
+	ObjectNode getEntities(Map<String, String> parameters) throws ApiError {
+		ObjectNode response = this.mapper.createObjectNode();
+		ObjectNode result = response.putObject("entities");
+		Set<String> props = splitToSet(parameters.get("props"));
+		Set<String> languages = splitToSet(parameters.get("languages"));
+		Set<String> sites = splitToSet(parameters.get("sitefilter"));
+		if (parameters.containsKey("ids")) {
+			for (String id : splitLimited(parameters.get("ids"), "ids")) {
+				ObjectNode entity = this.entities.get(id);
+				if (entity != null) {
+					result.set(id, filterEntity(entity, props, languages, sites));
+				} else {
+					result.putObject(id).put("id", id).put("missing", "");
+				}
+			}
+		} else if (parameters.containsKey("sites") && parameters.containsKey("titles")) {
+			String site = parameters.get("sites");
+			int missing = 0;
+			for (String title : splitLimited(parameters.get("titles"), "titles")) {
+				ObjectNode entity = findBySiteLink(site, title);
+				if (entity != null) {
+					result.set(entity.get("id").asText(),
+							filterEntity(entity, props, languages, sites));
+				} else {
+					missing--;
+					result.putObject(Integer.toString(missing)).put("site", site)
+							.put("title", title).put("missing", "");
+				}
+			}
+		} else {
+			throw new ApiError("param-missing",
+					"Either provide the item \"ids\" or pairs of \"sites\" and \"titles\" for corresponding pages");
+		}
+		response.put("success", 1);
+		return response;
+	}
+
+	ObjectNode findBySiteLink(String site, String title) {
+		String normalized = title.replace('_', ' ');
+		for (ObjectNode entity : this.entities.values()) {
+			if (normalized.equals(entity.path("sitelinks").path(site).path("title").asText(null))) {
+				return entity;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the entity with only the requested parts. The stored node is
+	 * returned if nothing needs to be removed.
+	 */
+	ObjectNode filterEntity(ObjectNode entity, Set<String> props,
+			Set<String> languages, Set<String> sites) {
+		if (props == null && languages == null && sites == null) {
+			return entity;
+		}
+		ObjectNode copy = entity.deepCopy();
+		if (props != null) {
+			for (String part : Arrays.asList("labels", "descriptions", "aliases", "claims")) {
+				if (!props.contains(part)) {
+					copy.remove(part);
+				}
+			}
+			if (!props.contains("sitelinks") && !props.contains("sitelinks/urls")) {
+				copy.remove("sitelinks");
+			}
+			if (!props.contains("info")) {
+				copy.remove(Arrays.asList("pageid", "ns", "title", "lastrevid", "modified"));
+			}
+			if (!props.contains("datatype")) {
+				copy.remove("datatype");
+			}
+		}
+		if (languages != null) {
+			for (String part : Arrays.asList("labels", "descriptions", "aliases")) {
+				if (copy.get(part) instanceof ObjectNode) {
+					((ObjectNode) copy.get(part)).retain(languages);
+				}
+			}
+		}
+		if (sites != null && copy.get("sitelinks") instanceof ObjectNode) {
+			((ObjectNode) copy.get("sitelinks")).retain(sites);
+		}
+		return copy;
+	}
+
+	ObjectNode searchEntities(Map<String, String> parameters) throws ApiError {
+		String search = parameters.get("search");
+		String language = parameters.get("language");
+		if (search == null || language == null) {
+			throw new ApiError("param-missing", "The \"search\" and \"language\" parameters must be set.");
+		}
+		String type = parameters.getOrDefault("type", "item");
+		int limit = Integer.parseInt(parameters.getOrDefault("limit", "7"));
+		int offset = Integer.parseInt(parameters.getOrDefault("continue", "0"));
+		String prefix = search.toLowerCase(Locale.ROOT);
+
+		List<ObjectNode> matches = new ArrayList<>();
+		for (ObjectNode entity : this.entities.values()) {
+			if (!type.equals(entity.path("type").asText())) {
+				continue;
+			}
+			ObjectNode match = matchEntity(entity, language, prefix);
+			if (match != null) {
+				matches.add(match);
+			}
+		}
+		matches.sort((a, b) -> compareIds(a.get("id").asText(), b.get("id").asText()));
+
+		ObjectNode response = this.mapper.createObjectNode();
+		response.putObject("searchinfo").put("search", search);
+		ArrayNode results = response.putArray("search");
+		for (int i = offset; i < Math.min(offset + limit, matches.size()); i++) {
+			results.add(matches.get(i));
+		}
+		if (offset + limit < matches.size()) {
+			response.put("search-continue", offset + limit);
+		}
+		response.put("success", 1);
+		return response;
+	}
+
+	/**
+	 * Returns the search result for the entity if its label or one of its
+	 * aliases in the given language starts with the given (lower case)
+	 * prefix, or null otherwise.
+	 */
+	ObjectNode matchEntity(ObjectNode entity, String language, String prefix) {
+		String label = entity.path("labels").path(language).path("value").asText(null);
+		String matchType = null;
+		String matchText = null;
+		if (label != null && label.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+			matchType = "label";
+			matchText = label;
+		} else {
+			for (JsonNode alias : entity.path("aliases").path(language)) {
+				String value = alias.path("value").asText();
+				if (value.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+					matchType = "alias";
+					matchText = value;
+					break;
+				}
+			}
+		}
+		if (matchType == null) {
+			return null;
+		}
+		String id = entity.get("id").asText();
+		ObjectNode result = this.mapper.createObjectNode();
+		result.put("id", id);
+		result.put("concepturi", this.siteIri + id);
+		result.put("title", entity.path("title").asText(id));
+		result.put("pageid", entity.path("pageid").asLong(0));
+		if (label != null) {
+			result.put("label", label);
+		}
+		String description = entity.path("descriptions").path(language).path("value").asText(null);
+		if (description != null) {
+			result.put("description", description);
+		}
+		result.putObject("match").put("type", matchType).put("language", language)
+				.put("text", matchText);
+		if ("alias".equals(matchType)) {
+			result.putArray("aliases").add(matchText);
+		}
+		return result;
+	}
+
+	ObjectNode edit(String action, Map<String, String> parameters) throws ApiError {
+		String id = parameters.get("id");
+		ObjectNode data;
+		switch (action) {
+		case "wbeditentity":
+			data = parseJsonObject(parameters.get("data"), "data");
+			break;
+		case "wbsetlabel":
+		case "wbsetdescription":
+			String language = parameters.get("language");
+			ObjectNode term = this.mapper.createObjectNode().put("language", language);
+			if (parameters.containsKey("value") && !parameters.get("value").isEmpty()) {
+				term.put("value", parameters.get("value"));
+			} else {
+				term.put("remove", "");
+			}
+			data = this.mapper.createObjectNode();
+			data.putObject("wbsetlabel".equals(action) ? "labels" : "descriptions")
+					.set(language, term);
+			break;
+		case "wbsetclaim":
+			ObjectNode claim = parseJsonObject(parameters.get("claim"), "claim");
+			id = getSubjectId(claim.path("id").asText(""));
+			data = this.mapper.createObjectNode();
+			data.putArray("claims").add(claim);
+			break;
+		default: // wbremoveclaims
+			data = this.mapper.createObjectNode();
+			ArrayNode claims = data.putArray("claims");
+			for (String statementId : parameters.getOrDefault("claim", "").split("\\|")) {
+				id = getSubjectId(statementId);
+				claims.addObject().put("id", statementId).put("remove", "");
+			}
+		}
+
+		ObjectNode entity = editEntity(id, parameters.get("new"), parameters.get("site"),
+				parameters.get("title"), data, parameters.containsKey("clear"),
+				Long.parseLong(parameters.getOrDefault("baserevid", "0")));
+
+		ObjectNode response = this.mapper.createObjectNode();
+		if ("wbsetclaim".equals(action) || "wbremoveclaims".equals(action)) {
+			response.putObject("pageinfo").put("lastrevid", entity.get("lastrevid").asLong());
+			if ("wbsetclaim".equals(action)) {
+				response.set("claim", findStatement(entity,
+						data.get("claims").get(0).path("id").asText()));
+			} else {
+				ArrayNode removed = response.putArray("claims");
+				data.get("claims").forEach(c -> removed.add(c.get("id").asText()));
+			}
+		} else {
+			response.set("entity", entity);
+		}
+		response.put("success", 1);
+		return response;
+	}
+
+	/**
+	 * Applies the changes in the given data to an entity and stores the result
+	 * as a new revision, unless nothing changed.
+	 *
+	 * @return the edited entity
+	 */
+	synchronized ObjectNode editEntity(String id, String newType, String site,
+			String title, ObjectNode data, boolean clear, long baseRevisionId)
+			throws ApiError {
+		ObjectNode current;
+		if (newType != null) {
+			current = createEntity(newType, data);
+		} else if (id != null) {
+			current = this.entities.get(id);
+		} else if (site != null && title != null) {
+			current = findBySiteLink(site, title);
+		} else {
+			throw new ApiError("no-such-entity", "No entity to edit was given.");
+		}
+		if (current == null) {
+			throw new ApiError("no-such-entity", "Could not find an entity with the ID \""
+					+ id + "\".");
+		}
+		if (baseRevisionId > 0 && baseRevisionId != current.path("lastrevid").asLong()) {
+			throw new ApiError("editconflict", "Edit conflict.");
+		}
+
+		ObjectNode updated = current.deepCopy();
+		if (clear) {
+			for (String part : Arrays.asList("labels", "descriptions", "aliases", "claims", "sitelinks")) {
+				if (updated.has(part)) {
+					updated.putObject(part);
+				}
+			}
+		}
+		applyData(updated, data);
+		if (newType == null && updated.equals(current)) {
+			ObjectNode unchanged = updated.deepCopy();
+			unchanged.put("nochange", "");
+			return unchanged;
+		}
+		updated.put("lastrevid", ++this.lastRevisionId);
+		updated.put("modified", Instant.now().truncatedTo(ChronoUnit.SECONDS).toString());
+		this.entities.put(updated.get("id").asText(), updated);
+		return updated;
+	}
+
+	ObjectNode createEntity(String type, ObjectNode data) throws ApiError {
+		String prefix;
+		switch (type) {
+		case "item":
+			prefix = "Q";
+			break;
+		case "property":
+			prefix = "P";
+			break;
+		default:
+			throw new ApiError("invalid-entity-type", "Cannot create entities of type \""
+					+ type + "\".");
+		}
+		long number = this.lastEntityNumbers.merge(prefix, 1L, Long::sum);
+		String id = prefix + number;
+		ObjectNode entity = this.mapper.createObjectNode();
+		entity.put("pageid", number);
+		entity.put("ns", "item".equals(type) ? 0 : 120);
+		entity.put("title", "item".equals(type) ? id : "Property:" + id);
+		entity.put("type", type);
+		entity.put("id", id);
+		if ("property".equals(type)) {
+			entity.put("datatype", data.path("datatype").asText("string"));
+		}
+		entity.putObject("labels");
+		entity.putObject("descriptions");
+		entity.putObject("aliases");
+		entity.putObject("claims");
+		if ("item".equals(type)) {
+			entity.putObject("sitelinks");
+		}
+		return entity;
+	}
+
+	/**
+	 * Applies the changes of wbeditentity data (as written by the update
+	 * objects of the data model) to the given entity.
+	 */
+	void applyData(ObjectNode entity, ObjectNode data) {
+		for (String part : Arrays.asList("labels", "descriptions")) {
+			for (JsonNode term : data.path(part)) {
+				ObjectNode terms = getOrCreateObject(entity, part);
+				String language = term.path("language").asText();
+				if (term.has("remove")) {
+					terms.remove(language);
+				} else {
+					terms.putObject(language).put("language", language)
+							.put("value", term.path("value").asText());
+				}
+			}
+		}
+
+		JsonNode aliases = data.path("aliases");
+		Map<String, List<JsonNode>> aliasesByLanguage = new LinkedHashMap<>();
+		if (aliases.isObject()) {
+			aliases.fields().forEachRemaining(e -> e.getValue().forEach(
+					a -> aliasesByLanguage.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(a)));
+		} else {
+			aliases.forEach(a -> aliasesByLanguage.computeIfAbsent(
+					a.path("language").asText(), k -> new ArrayList<>()).add(a));
+		}
+		aliasesByLanguage.forEach((language, changes) -> applyAliases(
+				getOrCreateObject(entity, "aliases"), language, changes));
+
+		JsonNode claims = data.path("claims");
+		List<JsonNode> statements = new ArrayList<>();
+		if (claims.isObject()) {
+			claims.forEach(group -> group.forEach(statements::add));
+		} else {
+			claims.forEach(statements::add);
+		}
+		for (JsonNode statement : statements) {
+			applyStatement(entity, (ObjectNode) statement);
+		}
+
+		for (JsonNode siteLink : data.path("sitelinks")) {
+			ObjectNode siteLinks = getOrCreateObject(entity, "sitelinks");
+			String site = siteLink.path("site").asText();
+			if (siteLink.has("remove")) {
+				siteLinks.remove(site);
+			} else {
+				ObjectNode link = siteLinks.putObject(site).put("site", site)
+						.put("title", siteLink.path("title").asText());
+				link.set("badges", siteLink.has("badges") ? siteLink.get("badges")
+						: this.mapper.createArrayNode());
+			}
+		}
+	}
+
+	/**
+	 * Changes the aliases in one language. Aliases without "add" or "remove"
+	 * replace the existing ones, the others are added or removed.
+	 */
+	void applyAliases(ObjectNode aliases, String language, List<JsonNode> changes) {
+		List<String> values = new ArrayList<>();
+		aliases.path(language).forEach(a -> values.add(a.path("value").asText()));
+		List<String> replacement = new ArrayList<>();
+		for (JsonNode change : changes) {
+			if (!change.has("add") && !change.has("remove")) {
+				replacement.add(change.path("value").asText());
+			}
+		}
+		if (!replacement.isEmpty()) {
+			values.clear();
+			values.addAll(replacement);
+		}
+		for (JsonNode change : changes) {
+			String value = change.path("value").asText();
+			if (change.has("remove")) {
+				values.remove(value);
+			} else if (change.has("add") && !values.contains(value)) {
+				values.add(value);
+			}
+		}
+		if (values.isEmpty()) {
+			aliases.remove(language);
+		} else {
+			ArrayNode list = aliases.putArray(language);
+			values.forEach(v -> list.addObject().put("language", language).put("value", v));
+		}
+	}
+
+	void applyStatement(ObjectNode entity, ObjectNode statement) {
+		ObjectNode claims = getOrCreateObject(entity, "claims");
+		String statementId = statement.path("id").asText("");
+		boolean existed = !statementId.isEmpty() && removeStatement(claims, statementId);
+		if (statement.has("remove")) {
+			return;
+		}
+		ObjectNode added = statement.deepCopy();
+		if (!existed && statementId.isEmpty()) {
+			added.put("id", entity.get("id").asText() + "$" + nextGuid());
+		}
+		if (!added.has("type")) {
+			added.put("type", "statement");
+		}
+		if (!added.has("rank")) {
+			added.put("rank", "normal");
+		}
+		String property = added.path("mainsnak").path("property").asText();
+		if (!claims.has(property)) {
+			claims.putArray(property);
+		}
+		((ArrayNode) claims.get(property)).add(added);
+	}
+
+	boolean removeStatement(ObjectNode claims, String statementId) {
+		Iterator<Map.Entry<String, JsonNode>> groups = claims.fields();
+		while (groups.hasNext()) {
+			Map.Entry<String, JsonNode> group = groups.next();
+			Iterator<JsonNode> statements = group.getValue().elements();
+			while (statements.hasNext()) {
+				if (statementId.equals(statements.next().path("id").asText())) {
+					statements.remove();
+					if (group.getValue().size() == 0) {
+						groups.remove();
+					}
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	JsonNode findStatement(ObjectNode entity, String statementId) {
+		for (JsonNode group : entity.path("claims")) {
+			for (JsonNode statement : group) {
+				if (statementId.equals(statement.path("id").asText())) {
+					return statement;
+				}
+			}
+		}
+		return null;
+	}
+
+	static String getSubjectId(String statementId) throws ApiError {
+		int separator = statementId.indexOf('$');
+		if (separator <= 0) {
+			throw new ApiError("invalid-guid", "The given GUID \"" + statementId
+					+ "\" is not valid.");
+		}
+		return statementId.substring(0, separator).toUpperCase(Locale.ROOT);
+	}
+
+	ObjectNode getOrCreateObject(ObjectNode entity, String field) {
+		if (!(entity.get(field) instanceof ObjectNode)) {
+			// empty parts may be serialized as arrays
+			entity.putObject(field);
+		}
+		return (ObjectNode) entity.get(field);
+	}
+
+	ObjectNode parseJsonObject(String json, String parameter) throws ApiError {
+		try {
+			JsonNode node = json != null ? this.mapper.readTree(json) : null;
+			if (node instanceof ObjectNode) {
+				return (ObjectNode) node;
+			}
+		} catch (IOException e) {
+			// reported below
+		}
+		throw new ApiError("invalid-json", "Could not parse the \"" + parameter
+				+ "\" parameter as JSON object.");
+	}
+
+	ObjectNode makeError(String code, String info) {
+		ObjectNode response = this.mapper.createObjectNode();
+		response.putObject("error").put("code", code).put("info", info);
+		return response;
+	}
+
+	static Set<String> splitToSet(String value) {
+		return value != null ? new HashSet<>(Arrays.asList(value.split("\\|"))) : null;
+	}
+
+	static List<String> splitLimited(String value, String parameter) throws ApiError {
+		List<String> values = Arrays.asList(value.split("\\|"));
+		if (values.size() > MAX_ENTITIES_PER_REQUEST) {
+			throw new ApiError("toomanyvalues", "Too many values supplied for parameter \""
+					+ parameter + "\". The limit is " + MAX_ENTITIES_PER_REQUEST + ".");
+		}
+		return values;
+	}
+
+	static int compareIds(String id1, String id2) {
+		if (id1.length() != id2.length()) {
+			return Integer.compare(id1.length(), id2.length());
+		}
+		return id1.compareTo(id2);
+	}
+
+	synchronized double nextDouble() {
+		return this.random.nextDouble();
+	}
+
+	synchronized String nextGuid() {
+		return new UUID(this.random.nextLong(), this.random.nextLong())
+				.toString().toUpperCase(Locale.ROOT);
+	}
+
+	void simulateLatency() {
+		long delay = this.latencyMillis;
+		if (this.latencyJitterMillis > 0) {
+			delay += (long) (nextDouble() * this.latencyJitterMillis);
+		}
+		if (delay > 0) {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	Map<String, String> readParameters(HttpExchange exchange) throws IOException {
+		Map<String, String> parameters = new HashMap<>();
+		parseQueryString(exchange.getRequestURI().getRawQuery(), parameters);
+		if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+			try (InputStream input = exchange.getRequestBody()) {
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = input.read(buffer)) > 0) {
+					body.write(buffer, 0, read);
+				}
+				parseQueryString(new String(body.toByteArray(), StandardCharsets.UTF_8),
+						parameters);
+			}
+		}
+		return parameters;
+	}
+
+	static void parseQueryString(String query, Map<String, String> parameters)
+			throws UnsupportedEncodingException {
+		if (query == null || query.isEmpty()) {
+			return;
+		}
+		for (String pair : query.split("&")) {
+			int separator = pair.indexOf('=');
+			String key = separator >= 0 ? pair.substring(0, separator) : pair;
+			String value = separator >= 0 ? pair.substring(separator + 1) : "";
+			parameters.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+		}
+	}
+}
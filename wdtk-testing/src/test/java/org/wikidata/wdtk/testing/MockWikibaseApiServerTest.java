@@ -0,0 +1,205 @@
+package org.wikidata.wdtk.testing;
+
+/*
+ * #%L
+ * Wikidata Toolkit utilities for testing
+ * %%
+ * Copyright (C) 2014 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class MockWikibaseApiServerTest {
+
+	final ObjectMapper mapper = new ObjectMapper();
+	MockWikibaseApiServer server;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		server = new MockWikibaseApiServer().start();
+		try (InputStream input = getClass().getResourceAsStream("/mock-api-dump.json")) {
+			assertEquals(3, server.loadDump(input));
+		}
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.close();
+	}
+
+	JsonNode post(String... keysAndValues) throws IOException {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			if (body.length() > 0) {
+				body.append('&');
+			}
+			body.append(keysAndValues[i]).append('=')
+					.append(URLEncoder.encode(keysAndValues[i + 1], "UTF-8"));
+		}
+		HttpURLConnection connection = (HttpURLConnection) new URL(server.getApiUrl()).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+		try (OutputStream output = connection.getOutputStream()) {
+			output.write(body.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		try (InputStream input = connection.getInputStream()) {
+			return mapper.readTree(input);
+		}
+	}
+
+	@Test
+	public void testGetEntities() throws IOException {
+		JsonNode response = post("action", "wbgetentities", "format", "json",
+				"ids", "Q42|Q5|Q1000", "props", "labels|info", "languages", "en");
+		assertEquals(1, response.get("success").asInt());
+		JsonNode q42 = response.get("entities").get("Q42");
+		assertEquals("Douglas Adams", q42.get("labels").get("en").get("value").asText());
+		assertNull(q42.get("labels").get("de"));
+		assertNull(q42.get("claims"));
+		assertEquals(1000, q42.get("lastrevid").asLong());
+		assertTrue(response.get("entities").get("Q1000").has("missing"));
+	}
+
+	@Test
+	public void testGetEntitiesByTitle() throws IOException {
+		JsonNode response = post("action", "wbgetentities", "format", "json",
+				"sites", "enwiki", "titles", "Human|Unknown_page");
+		assertEquals("human", response.get("entities").get("Q5").get("labels")
+				.get("en").get("value").asText());
+		assertEquals("Unknown_page", response.get("entities").get("-1").get("title").asText());
+	}
+
+	@Test
+	public void testSearchEntities() throws IOException {
+		JsonNode response = post("action", "wbsearchentities", "format", "json",
+				"search", "d", "language", "en", "limit", "1");
+		assertEquals("Q42", response.get("search").get(0).get("id").asText());
+		assertFalse(response.has("search-continue"));
+
+		response = post("action", "wbsearchentities", "format", "json",
+				"search", "PERS", "language", "en");
+		assertEquals("alias", response.get("search").get(0).get("match").get("type").asText());
+		assertEquals("http://www.wikidata.org/entity/Q5",
+				response.get("search").get(0).get("concepturi").asText());
+	}
+
+	@Test
+	public void testLoginAndEdit() throws IOException {
+		JsonNode tokens = post("action", "query", "meta", "tokens", "type", "login", "format", "json");
+		String loginToken = tokens.get("query").get("tokens").get("logintoken").asText();
+		assertEquals("Success", post("action", "login", "lgname", "user",
+				"lgpassword", "password", "lgtoken", loginToken, "format", "json")
+				.get("login").get("result").asText());
+		String csrfToken = post("action", "query", "meta", "tokens", "format", "json")
+				.get("query").get("tokens").get("csrftoken").asText();
+
+		JsonNode response = post("action", "wbeditentity", "format", "json", "new", "item",
+				"token", csrfToken, "assert", "user", "data",
+				"{\"labels\":{\"en\":{\"language\":\"en\",\"value\":\"new item\"}},"
+				+ "\"claims\":[{\"mainsnak\":{\"snaktype\":\"novalue\",\"property\":\"P31\"}}]}");
+		JsonNode entity = response.get("entity");
+		assertEquals("Q43", entity.get("id").asText());
+		assertEquals(1003, entity.get("lastrevid").asLong());
+		String statementId = entity.get("claims").get("P31").get(0).get("id").asText();
+		assertTrue(statementId.startsWith("Q43$"));
+
+		response = post("action", "wbremoveclaims", "format", "json", "claim", statementId,
+				"token", csrfToken);
+		assertEquals(1004, response.get("pageinfo").get("lastrevid").asLong());
+		assertFalse(server.getEntity("Q43").get("claims").has("P31"));
+
+		response = post("action", "wbeditentity", "format", "json", "id", "Q43",
+				"token", csrfToken, "baserevid", "1003", "data", "{}");
+		assertEquals("editconflict", response.get("error").get("code").asText());
+
+		response = post("action", "wbsetlabel", "format", "json", "id", "Q43",
+				"language", "en", "value", "new item", "token", csrfToken);
+		assertTrue(response.get("entity").has("nochange"));
+		assertEquals(1, server.getRequestCount("wbsetlabel"));
+	}
+
+	@Test
+	public void testEditAliases() throws IOException {
+		post("action", "wbeditentity", "format", "json", "id", "Q42",
+				"token", MockWikibaseApiServer.CSRF_TOKEN, "data",
+				"{\"aliases\":[{\"language\":\"en\",\"value\":\"DNA\",\"remove\":\"\"},"
+				+ "{\"language\":\"en\",\"value\":\"Bop Ad\",\"add\":\"\"}]}");
+		ObjectNode entity = server.getEntity("Q42");
+		assertEquals(2, entity.get("aliases").get("en").size());
+		assertEquals("Bop Ad", entity.get("aliases").get("en").get(1).get("value").asText());
+	}
+
+	@Test
+	public void testErrors() throws IOException {
+		assertEquals("badtoken", post("action", "wbeditentity", "id", "Q42",
+				"token", "+\\", "data", "{}").get("error").get("code").asText());
+		assertEquals("assertuserfailed", post("action", "wbgetentities", "ids", "Q42",
+				"assert", "user").get("error").get("code").asText());
+		assertEquals("badvalue", post("action", "unknown").get("error").get("code").asText());
+
+		server.setLag(7);
+		JsonNode error = post("action", "wbgetentities", "ids", "Q42", "maxlag", "5").get("error");
+		assertEquals("maxlag", error.get("code").asText());
+		assertEquals(7.0, error.get("lag").asDouble());
+		server.setLag(0);
+
+		server.failNextRequests(1, "readonly");
+		assertEquals("readonly", post("action", "wbgetentities", "ids", "Q42")
+				.get("error").get("code").asText());
+		assertTrue(post("action", "wbgetentities", "ids", "Q42").has("entities"));
+
+		server.setErrorRate(1.0, "internal_api_error");
+		assertEquals("internal_api_error", post("action", "wbgetentities", "ids", "Q42")
+				.get("error").get("code").asText());
+		server.setErrorRate(0, "internal_api_error");
+
+		assertEquals(7, server.getRequestCount());
+	}
+
+	@Test
+	public void testPutEntity() throws IOException {
+		server.putEntity("{\"type\":\"item\",\"id\":\"Q100\",\"labels\":{}}");
+		assertEquals(4, server.getEntityCount());
+		assertEquals(1003, server.getEntity("Q100").get("lastrevid").asLong());
+		Map<String, String> parameters = new HashMap<>();
+		MockWikibaseApiServer.parseQueryString("a=b%7Cc&d", parameters);
+		assertEquals("b|c", parameters.get("a"));
+		assertEquals("", parameters.get("d"));
+	}
+}
@@ -21,6 +21,7 @@
 package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -43,14 +44,17 @@ import org.wikidata.wdtk.wikibaseapi.apierrors.MaxlagErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorHandler;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import okhttp3.ConnectionPool;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -99,6 +103,28 @@ public abstract class ApiConnection {
 
 	protected static final MediaType URLENCODED_MEDIA_TYPE = MediaType.parse("application/x-www-form-urlencoded");
 
+	/**
+	 * Default number of idle connections kept open in the shared connection
+	 * pool.
+	 */
+	public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 16;
+
+	/**
+	 * Default time in milliseconds for which idle connections are kept open in
+	 * the shared connection pool.
+	 */
+	public static final long DEFAULT_KEEP_ALIVE_MILLIS = 5 * 60 * 1000;
+
+	/**
+	 * Connection pool used by all connections that do not have their own
+	 * pool. Sharing the pool allows connections to the same site, e.g., one
+	 * for reading and one for editing, to reuse each other's (possibly
+	 * multiplexed HTTP/2) connections.
+	 */
+	private static ConnectionPool sharedConnectionPool = new ConnectionPool(
+			DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_KEEP_ALIVE_MILLIS,
+			TimeUnit.MILLISECONDS);
+
 	/**
 	 * URL to access the Wikibase API.
 	 */
@@ -131,6 +157,21 @@ public abstract class ApiConnection {
 	 */
 	protected int readTimeout = -1;
 
+	/**
+	 * Connection pool of this connection, or null to use the shared pool.
+	 */
+	private ConnectionPool connectionPool = null;
+
+	/**
+	 * If true, only HTTP/1.1 is used, even for servers that support HTTP/2.
+	 */
+	private boolean http1Only = false;
+
+	/**
+	 * Metrics that record the requests made over this connection.
+	 */
+	private ApiMetrics metrics = ApiMetrics.NO_OP;
+
 	/**
 	 * Http client used for making requests.
 	 */
@@ -245,7 +286,7 @@ public abstract class ApiConnection {
 	 *
 	 * @see HttpURLConnection#setConnectTimeout
 	 */
-	public void setConnectTimeout(int timeout) {
+	public synchronized void setConnectTimeout(int timeout) {
 		connectTimeout = timeout;
 		client = null;
 	}
@@ -256,7 +297,7 @@ public abstract class ApiConnection {
 	 *
 	 * @see HttpURLConnection#setReadTimeout
 	 */
-	public void setReadTimeout(int timeout) {
+	public synchronized void setReadTimeout(int timeout) {
 		readTimeout = timeout;
 		client = null;
 	}
@@ -285,6 +326,109 @@ public abstract class ApiConnection {
 		return readTimeout;
 	}
 
+	/**
+	 * Returns the connection pool used by this connection. Unless another pool
+	 * was set with {@link #setConnectionPool(ConnectionPool)}, this is the pool
+	 * shared by all connections.
+	 *
+	 * @return the connection pool
+	 */
+	@JsonIgnore
+	public synchronized ConnectionPool getConnectionPool() {
+		return connectionPool != null ? connectionPool : getSharedConnectionPool();
+	}
+
+	/**
+	 * Sets the pool from which this connection takes its HTTP connections.
+	 * Idle connections in the pool are kept alive and reused for later
+	 * requests to the same host. Use null to go back to the shared pool.
+	 *
+	 * @param connectionPool
+	 *            the connection pool, or null for the shared pool
+	 */
+	public synchronized void setConnectionPool(ConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+		client = null;
+	}
+
+	/**
+	 * Returns true if only HTTP/1.1 is used. See
+	 * {@link #setHttp1Only(boolean)}.
+	 *
+	 * @return whether HTTP/2 is turned off
+	 */
+	@JsonIgnore
+	public boolean isHttp1Only() {
+		return http1Only;
+	}
+
+	/**
+	 * Turns off HTTP/2 for this connection. By default, the HTTP client uses
+	 * HTTP/2 for HTTPS servers that announce support for it, so that
+	 * concurrent requests to the same server are multiplexed over a single
+	 * connection. Some proxies and test servers do not handle this well;
+	 * restricting the connection to HTTP/1.1 uses one connection per
+	 * concurrent request instead.
+	 *
+	 * @param http1Only
+	 *            whether to use HTTP/1.1 only; false by default
+	 */
+	public synchronized void setHttp1Only(boolean http1Only) {
+		this.http1Only = http1Only;
+		client = null;
+	}
+
+	/**
+	 * Returns the metrics that record the requests made over this connection
+	 * and the actions using it. By default, nothing is recorded.
+	 *
+	 * @return the metrics of this connection
+	 */
+	@JsonIgnore
+	public ApiMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics that record the requests made over this connection and
+	 * the actions using it, such as {@link WbGetEntitiesAction} and
+	 * {@link WbEditingAction}. One {@link InMemoryApiMetrics} object can be
+	 * shared by several connections.
+	 *
+	 * @param metrics
+	 *            the metrics, or null to record nothing
+	 */
+	public void setMetrics(ApiMetrics metrics) {
+		this.metrics = metrics != null ? metrics : ApiMetrics.NO_OP;
+	}
+
+	/**
+	 * Returns the connection pool shared by all connections that do not have
+	 * their own pool.
+	 *
+	 * @return the shared connection pool
+	 */
+	public static synchronized ConnectionPool getSharedConnectionPool() {
+		return sharedConnectionPool;
+	}
+
+	/**
+	 * Replaces the connection pool shared by all connections that do not have
+	 * their own pool. Connections that already sent requests keep using the
+	 * previous pool until their client is rebuilt (e.g., after changing a
+	 * timeout).
+	 *
+	 * @param maxIdleConnections
+	 *            number of idle connections to keep open
+	 * @param keepAliveMillis
+	 *            time in milliseconds for which idle connections are kept open
+	 */
+	public static synchronized void configureSharedConnectionPool(
+			int maxIdleConnections, long keepAliveMillis) {
+		sharedConnectionPool = new ConnectionPool(maxIdleConnections,
+				keepAliveMillis, TimeUnit.MILLISECONDS);
+	}
+
 	/**
 	 * Logs the current user out.
 	 *
@@ -302,7 +446,7 @@ public abstract class ApiConnection {
 	 * @throws IOException
 	 *     if a network error occurred
 	 */
-	String getOrFetchToken(String tokenType) throws IOException, MediaWikiApiErrorException {
+	synchronized String getOrFetchToken(String tokenType) throws IOException, MediaWikiApiErrorException {
 		if (tokens.containsKey(tokenType)) {
 			return tokens.get(tokenType);
 		}
@@ -317,7 +461,7 @@ public abstract class ApiConnection {
 	/**
 	 * Remove fetched value of given token.
 	 */
-	void clearToken(String tokenType) {
+	synchronized void clearToken(String tokenType) {
 		tokens.remove(tokenType);
 	}
 
@@ -445,21 +589,99 @@ public abstract class ApiConnection {
 				body = builder.build();
 			} else {
 				body = RequestBody.create(queryString, URLENCODED_MEDIA_TYPE);
+				metrics.record(ApiMetrics.REQUEST_BYTES, body.contentLength());
 			}
 			request = new Request.Builder().url(apiBaseUrl).post(body).build();
 		} else {
 			throw new IllegalArgumentException("Expected the requestMethod to be either GET or POST, but got " + requestMethod);
 		}
 
+		metrics.increment(ApiMetrics.REQUESTS);
+		long startTime = System.nanoTime();
+		Response response;
+		try {
+			response = getClient().newCall(request).execute();
+		} catch (IOException e) {
+			metrics.increment(ApiMetrics.REQUEST_ERRORS);
+			throw e;
+		}
+		metrics.recordTime(ApiMetrics.REQUEST_TIME, System.nanoTime() - startTime);
+		InputStream stream = Objects.requireNonNull(response.body()).byteStream();
+		return metrics == ApiMetrics.NO_OP ? stream : new CountingInputStream(stream, metrics);
+	}
+
+	/**
+	 * Stream that records the number of bytes read from a response body when
+	 * it is closed.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		final ApiMetrics metrics;
+		long count = 0;
+		boolean closed = false;
+
+		CountingInputStream(InputStream in, ApiMetrics metrics) {
+			super(in);
+			this.metrics = metrics;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result = super.read();
+			if (result >= 0) {
+				count++;
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result = super.read(b, off, len);
+			if (result > 0) {
+				count += result;
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long result = super.skip(n);
+			count += result;
+			return result;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				metrics.record(ApiMetrics.RESPONSE_BYTES, count);
+			}
+			super.close();
+		}
+	}
+
+	/**
+	 * Returns the HTTP client, building it on first use. The client is shared
+	 * by all threads that send requests over this connection.
+	 */
+	private synchronized OkHttpClient getClient() {
 		if (client == null) {
 			buildClient();
 		}
-		Response response = client.newCall(request).execute();
-		return Objects.requireNonNull(response.body()).byteStream();
+		return client;
 	}
 
+	/**
+	 * Builds the HTTP client from the builder of the subclass. Responses are
+	 * requested with gzip compression and decompressed transparently by the
+	 * client, as long as no Accept-Encoding header is set explicitly.
+	 */
 	private void buildClient() {
 		OkHttpClient.Builder builder = getClientBuilder();
+		builder.connectionPool(getConnectionPool());
+		if (http1Only) {
+			builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+		}
 		if (connectTimeout >= 0) {
 			builder.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
 		}
@@ -482,6 +704,10 @@ public abstract class ApiConnection {
 			JsonNode errorNode = root.path("error");
 			String code = errorNode.path("code").asText("UNKNOWN");
 			String info = errorNode.path("info").asText("No details provided");
+			metrics.increment(ApiMetrics.API_ERRORS);
+			if (MediaWikiApiErrorHandler.ERROR_MAXLAG.equals(code)) {
+				metrics.increment(ApiMetrics.MAXLAG_ERRORS);
+			}
 			// Special case for the maxlag error since we also want to return
 			// the lag value in the exception thrown
 			if (errorNode.has("lag") && MediaWikiApiErrorHandler.ERROR_MAXLAG.equals(code)) {
@@ -0,0 +1,148 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Receiver of measurements about the requests made to a Wikibase API, such as
+ * the number of requests, their latency, the amount of data transferred, and
+ * the time spent waiting because of maxlag errors or edit throttling. The
+ * metrics of a connection are set with
+ * {@link ApiConnection#setMetrics(ApiMetrics)} and are also used by the
+ * actions that use the connection.
+ * <p>
+ * Counters are increased by a given amount. Histograms record individual
+ * values, where timers are histograms of durations in nanoseconds. All
+ * methods do nothing by default, and {@link #NO_OP} is used if no metrics are
+ * configured. {@link InMemoryApiMetrics} collects the measurements in memory.
+ * Implementations must be thread-safe.
+ */
+public interface ApiMetrics {
+
+	/**
+	 * Counter of HTTP requests sent to the API.
+	 */
+	String REQUESTS = "requests";
+	/**
+	 * Counter of HTTP requests that failed with an I/O error.
+	 */
+	String REQUEST_ERRORS = "request.errors";
+	/**
+	 * Timer of the time until the response headers of a request arrive.
+	 */
+	String REQUEST_TIME = "request.time";
+	/**
+	 * Histogram of the sizes of (URL-encoded) request bodies in bytes.
+	 */
+	String REQUEST_BYTES = "request.bytes";
+	/**
+	 * Histogram of the sizes of response bodies in bytes, as read by the
+	 * client (after decompression).
+	 */
+	String RESPONSE_BYTES = "response.bytes";
+	/**
+	 * Counter of error responses of the API, including maxlag errors.
+	 */
+	String API_ERRORS = "api.errors";
+	/**
+	 * Counter of maxlag errors.
+	 */
+	String MAXLAG_ERRORS = "maxlag.errors";
+	/**
+	 * Timer of pauses made before retrying after a maxlag error.
+	 */
+	String MAXLAG_WAIT_TIME = "maxlag.wait.time";
+	/**
+	 * Counter of requests that were sent again after an error.
+	 */
+	String RETRIES = "retries";
+	/**
+	 * Counter of edits that were sent to the API.
+	 */
+	String EDITS = "edits";
+	/**
+	 * Timer of edits, from sending the first request to the final response,
+	 * including retries.
+	 */
+	String EDIT_TIME = "edit.time";
+	/**
+	 * Timer of pauses made to respect the edit rate.
+	 */
+	String THROTTLE_WAIT_TIME = "throttle.wait.time";
+	/**
+	 * Counter of entity documents received from wbgetentities.
+	 */
+	String ENTITIES_FETCHED = "entities.fetched";
+	/**
+	 * Histogram of the number of entities in one wbgetentities response.
+	 */
+	String ENTITIES_PER_REQUEST = "entities.per.request";
+
+	/**
+	 * Metrics that ignore all measurements.
+	 */
+	ApiMetrics NO_OP = new ApiMetrics() {
+	};
+
+	/**
+	 * Increases the counter of the given name by one.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 */
+	default void increment(String name) {
+		increment(name, 1);
+	}
+
+	/**
+	 * Increases the counter of the given name by the given amount.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 * @param delta
+	 *            the amount to add
+	 */
+	default void increment(String name, long delta) {
+	}
+
+	/**
+	 * Records a value in the histogram of the given name.
+	 *
+	 * @param name
+	 *            the name of the histogram
+	 * @param value
+	 *            the value to record
+	 */
+	default void record(String name, long value) {
+	}
+
+	/**
+	 * Records a duration in the timer of the given name. By default, timers
+	 * are histograms of nanoseconds.
+	 *
+	 * @param name
+	 *            the name of the timer
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	default void recordTime(String name, long nanos) {
+		record(name, nanos);
+	}
+}
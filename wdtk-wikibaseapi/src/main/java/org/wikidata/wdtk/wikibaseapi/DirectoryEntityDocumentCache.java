@@ -0,0 +1,160 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+/**
+ * {@link EntityDocumentCache} that stores documents as JSON files in a
+ * directory, so that they survive restarts. It is usually combined with a
+ * {@link LruEntityDocumentCache} in front of it. Problems with reading or
+ * writing files are logged and otherwise treated like cache misses.
+ */
+public class DirectoryEntityDocumentCache implements EntityDocumentCache {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(DirectoryEntityDocumentCache.class);
+
+	final Path directory;
+
+	final JsonDeserializer deserializer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directory
+	 *            the directory to store the files in; it is created if needed
+	 * @param siteIri
+	 *            the IRI of the site the documents belong to, e.g.,
+	 *            "http://www.wikidata.org/entity/"
+	 * @throws IOException
+	 *             if the directory could not be created
+	 */
+	public DirectoryEntityDocumentCache(Path directory, String siteIri)
+			throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.deserializer = new JsonDeserializer(siteIri);
+	}
+
+	@Override
+	public EntityDocument get(String key) {
+		Path file = getFile(key);
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try {
+			return this.deserializer.deserializeEntityDocument(Files
+					.readAllBytes(file));
+		} catch (IOException e) {
+			logger.warn("Could not read cached document " + file + ": "
+					+ e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String key, EntityDocument document) {
+		Path file = getFile(key);
+		Path tempFile = null;
+		try {
+			// write to a temporary file first so that readers never see
+			// partially written documents
+			tempFile = Files.createTempFile(this.directory, "entity", ".tmp");
+			Files.write(tempFile, JsonSerializer.getJsonString(document)
+					.getBytes(StandardCharsets.UTF_8));
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("Could not write cached document " + file + ": "
+					+ e.getMessage());
+			try {
+				if (tempFile != null) {
+					Files.deleteIfExists(tempFile);
+				}
+			} catch (IOException e1) {
+				// nothing else we can do
+			}
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		try {
+			Files.deleteIfExists(getFile(key));
+		} catch (IOException e) {
+			logger.warn("Could not remove cached document for " + key + ": "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the file for the given key. Keys consist of an entity id and,
+	 * after the first "#", the filter settings, which may contain long lists
+	 * of languages and sites. The file name therefore only contains the
+	 * entity id and a SHA-1 hash of the rest, which keeps it well below the
+	 * length limits of file systems.
+	 */
+	Path getFile(String key) {
+		int separator = key.indexOf('#');
+		String entityId = separator < 0 ? key : key.substring(0, separator);
+		String fileName;
+		try {
+			fileName = URLEncoder.encode(entityId, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(
+					"Your Java version does not support UTF-8 encoding.");
+		}
+		if (separator >= 0) {
+			fileName += "-" + sha1(key.substring(separator));
+		}
+		return this.directory.resolve(fileName + ".json");
+	}
+
+	static String sha1(String string) {
+		MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : messageDigest.digest(string
+				.getBytes(StandardCharsets.UTF_8))) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+}
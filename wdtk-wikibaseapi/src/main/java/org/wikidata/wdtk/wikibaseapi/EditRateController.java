@@ -0,0 +1,283 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Controls the rate at which edits are sent to a Wikibase site. Edits are
+ * started no faster than a configured average time per edit, but a small
+ * burst of edits is allowed after a pause. The rate adapts to the state of
+ * the site: when the site reports a replication lag above the maxlag
+ * threshold, the time between edits is increased multiplicatively (the more
+ * the lag exceeds the threshold, the stronger the increase) and all editing
+ * is paused for a while; every successful edit that was answered quickly
+ * then decreases the time between edits by a fixed step, until the
+ * configured average is reached again.
+ * <p>
+ * Objects of this class are thread-safe. One controller can be shared by
+ * several {@link WbEditingAction} objects (e.g. via
+ * {@link WikibaseDataEditor#setRateController(EditRateController)}), so that
+ * all of them respect one common edit rate for the same site.
+ */
+public class EditRateController {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(EditRateController.class);
+
+	/**
+	 * Number of edits that can be made in quick succession after a pause.
+	 * Wikidata.org seems to block fast editors after 9 edits, so this size
+	 * seems to make sense.
+	 */
+	public static final int DEFAULT_BURST_SIZE = 9;
+
+	/**
+	 * Time between edits that is used as a basis for slowing down and
+	 * speeding up if no average time per edit is set.
+	 */
+	static final long MIN_ADAPTIVE_INTERVAL_NANOS = 1000000000L;
+
+	/**
+	 * Number of successful edits needed to undo a slowdown by the basic
+	 * adaptive interval.
+	 */
+	static final int SPEEDUP_STEPS = 10;
+
+	/**
+	 * Largest factor by which the time between edits is increased after
+	 * one maxlag error.
+	 */
+	static final double MAX_SLOWDOWN_FACTOR = 4.0;
+
+	/**
+	 * Number of edits that can be made in quick succession.
+	 */
+	final int burstSize;
+
+	/**
+	 * Configured average time per edit in milliseconds.
+	 */
+	int averageMsecsPerEdit;
+
+	/**
+	 * Factor by which the current time between edits may exceed the
+	 * configured average time.
+	 */
+	double maxSlowdown = 16.0;
+
+	/**
+	 * Current time between edits in nanoseconds. Never below the configured
+	 * average time.
+	 */
+	long intervalNanos;
+
+	/**
+	 * Time (in the terms of {@link System#nanoTime()}) at which the edit
+	 * after the last reserved one would be due if edits were made at the
+	 * current rate without any bursts. An edit can start as soon as this
+	 * time is at most {@link #burstSize} intervals in the future.
+	 */
+	long nextEditNanos;
+
+	/**
+	 * Creates a controller with the given average time per edit and the
+	 * default burst size.
+	 *
+	 * @param averageMsecsPerEdit
+	 *            average time per edit in milliseconds, 0 for no limit
+	 */
+	public EditRateController(int averageMsecsPerEdit) {
+		this(averageMsecsPerEdit, DEFAULT_BURST_SIZE);
+	}
+
+	/**
+	 * Creates a controller with the given average time per edit and burst
+	 * size.
+	 *
+	 * @param averageMsecsPerEdit
+	 *            average time per edit in milliseconds, 0 for no limit
+	 * @param burstSize
+	 *            number of edits that can be made in quick succession after
+	 *            a pause
+	 */
+	public EditRateController(int averageMsecsPerEdit, int burstSize) {
+		if (burstSize < 1) {
+			throw new IllegalArgumentException(
+					"Burst size must be at least 1, but got " + burstSize);
+		}
+		this.burstSize = burstSize;
+		this.nextEditNanos = System.nanoTime();
+		setAverageTimePerEdit(averageMsecsPerEdit);
+	}
+
+	/**
+	 * Returns the configured average time per edit in milliseconds.
+	 *
+	 * @return average time per edit in milliseconds
+	 */
+	public synchronized int getAverageTimePerEdit() {
+		return this.averageMsecsPerEdit;
+	}
+
+	/**
+	 * Sets the average time per edit in milliseconds. Any slowdown caused by
+	 * earlier maxlag errors is forgotten.
+	 *
+	 * @param milliseconds
+	 *            the new value in milliseconds, 0 for no limit
+	 */
+	public synchronized void setAverageTimePerEdit(int milliseconds) {
+		if (milliseconds < 0) {
+			throw new IllegalArgumentException(
+					"Time per edit cannot be negative, but got " + milliseconds);
+		}
+		this.averageMsecsPerEdit = milliseconds;
+		this.intervalNanos = getBaseIntervalNanos();
+	}
+
+	/**
+	 * Returns the current time between edits in milliseconds. This is the
+	 * configured average time per edit, or more if the site was lagging
+	 * recently.
+	 *
+	 * @return current time per edit in milliseconds
+	 */
+	public synchronized long getCurrentTimePerEdit() {
+		return this.intervalNanos / 1000000;
+	}
+
+	/**
+	 * Returns the largest factor by which the time between edits may be
+	 * increased over the configured average time per edit.
+	 *
+	 * @return maximal slowdown factor
+	 */
+	public synchronized double getMaxSlowdown() {
+		return this.maxSlowdown;
+	}
+
+	/**
+	 * Sets the largest factor by which the time between edits may be
+	 * increased over the configured average time per edit. If no average
+	 * time is configured, the factor applies to one second.
+	 *
+	 * @param maxSlowdown
+	 *            maximal slowdown factor, at least 1
+	 */
+	public synchronized void setMaxSlowdown(double maxSlowdown) {
+		if (maxSlowdown < 1.0) {
+			throw new IllegalArgumentException(
+					"Slowdown factor must be at least 1, but got " + maxSlowdown);
+		}
+		this.maxSlowdown = maxSlowdown;
+		this.intervalNanos = Math.min(this.intervalNanos, getMaxIntervalNanos());
+	}
+
+	/**
+	 * Waits until the next edit may be made. The slot is reserved for the
+	 * calling thread, so that threads editing concurrently are released one
+	 * after the other at the current rate.
+	 */
+	public void acquire() {
+		long sleepNanos;
+		synchronized (this) {
+			long now = System.nanoTime();
+			long next = Math.max(this.nextEditNanos, now);
+			long start = Math.max(now, next - (this.burstSize - 1)
+					* this.intervalNanos);
+			this.nextEditNanos = next + this.intervalNanos;
+			sleepNanos = start - now;
+		}
+		if (sleepNanos > 0) {
+			logger.info("We are editing too fast. Pausing for "
+					+ sleepNanos / 1000000 + " milliseconds.");
+			sleep(sleepNanos);
+		}
+	}
+
+	/**
+	 * Records a successful edit. If the response came faster than the
+	 * current time between edits, the time between edits is decreased by a
+	 * fixed step towards the configured average time. Slow responses are
+	 * taken as a sign of a busy site and do not speed up editing.
+	 *
+	 * @param responseNanos
+	 *            time it took the site to answer the edit, in nanoseconds
+	 */
+	public synchronized void onSuccess(long responseNanos) {
+		long baseNanos = getBaseIntervalNanos();
+		if (this.intervalNanos > baseNanos
+				&& responseNanos <= this.intervalNanos) {
+			this.intervalNanos = Math.max(baseNanos, this.intervalNanos
+					- getAdaptiveNanos() / SPEEDUP_STEPS);
+		}
+	}
+
+	/**
+	 * Records a maxlag error. The time between edits is increased by a factor
+	 * that grows with the ratio of the reported lag and the maxlag threshold,
+	 * and all edits (also those of other threads sharing this controller)
+	 * are paused for the given time. Afterwards, editing resumes at the new
+	 * rate without a burst.
+	 *
+	 * @param lag
+	 *            the lag reported by the site in seconds, or 0 if unknown
+	 * @param maxLag
+	 *            the maxlag threshold that was used for the request
+	 * @param pauseMsecs
+	 *            the time for which edits should be paused, in milliseconds
+	 */
+	public synchronized void onMaxlag(double lag, int maxLag, long pauseMsecs) {
+		double factor = 2.0;
+		if (lag > 0 && maxLag > 0) {
+			factor = Math.min(MAX_SLOWDOWN_FACTOR, 1.0 + lag / maxLag);
+		}
+		long slowedNanos = (long) (Math.max(this.intervalNanos,
+				getAdaptiveNanos() / SPEEDUP_STEPS) * factor);
+		this.intervalNanos = Math.min(getMaxIntervalNanos(), slowedNanos);
+		this.nextEditNanos = Math.max(this.nextEditNanos, System.nanoTime()
+				+ pauseMsecs * 1000000 + (this.burstSize - 1)
+				* this.intervalNanos);
+	}
+
+	long getBaseIntervalNanos() {
+		return this.averageMsecsPerEdit * 1000000L;
+	}
+
+	long getAdaptiveNanos() {
+		return Math.max(getBaseIntervalNanos(), MIN_ADAPTIVE_INTERVAL_NANOS);
+	}
+
+	long getMaxIntervalNanos() {
+		return Math.max(getBaseIntervalNanos(),
+				(long) (getAdaptiveNanos() * this.maxSlowdown));
+	}
+
+	static void sleep(long nanos) {
+		try {
+			Thread.sleep(nanos / 1000000, (int) (nanos % 1000000));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+/**
+ * Cache for entity documents retrieved by {@link WikibaseDataFetcher}. Keys
+ * combine the entity id with the settings of the request, so that documents
+ * that were fetched with different filters are kept apart. Implementations
+ * must be safe to use from several threads.
+ *
+ * @see LruEntityDocumentCache
+ * @see DirectoryEntityDocumentCache
+ */
+public interface EntityDocumentCache {
+
+	/**
+	 * Returns the cached document for the given key.
+	 *
+	 * @param key
+	 *            the cache key
+	 * @return the document, or null if there is none
+	 */
+	EntityDocument get(String key);
+
+	/**
+	 * Stores a document for the given key, replacing any previous document.
+	 *
+	 * @param key
+	 *            the cache key
+	 * @param document
+	 *            the document to store
+	 */
+	void put(String key, EntityDocument document);
+
+	/**
+	 * Removes the document for the given key, if any.
+	 *
+	 * @param key
+	 *            the cache key
+	 */
+	void remove(String key);
+
+}
@@ -0,0 +1,256 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ApiMetrics} that keep all measurements in memory. Counters are
+ * exact. Histograms keep the exact count, sum, minimum and maximum of the
+ * recorded values, and approximate percentiles by counting values in buckets
+ * of powers of two, so that their size does not grow with the number of
+ * values. The current state can be read with {@link #getCounters()} and
+ * {@link #getHistograms()} for export, or logged with {@link #logSummary()}.
+ */
+public class InMemoryApiMetrics implements ApiMetrics {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(InMemoryApiMetrics.class);
+
+	/**
+	 * Immutable state of a histogram at one point in time.
+	 */
+	public static class Histogram {
+
+		final long count;
+		final long sum;
+		final long min;
+		final long max;
+		/**
+		 * Bucket 0 counts values up to 0, bucket i &gt; 0 counts values v with
+		 * 2^(i-1) &lt;= v &lt; 2^i.
+		 */
+		final long[] buckets;
+
+		Histogram(long count, long sum, long min, long max, long[] buckets) {
+			this.count = count;
+			this.sum = sum;
+			this.min = min;
+			this.max = max;
+			this.buckets = buckets;
+		}
+
+		/**
+		 * Returns the number of recorded values.
+		 *
+		 * @return number of values
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Returns the sum of all recorded values.
+		 *
+		 * @return sum of values
+		 */
+		public long getSum() {
+			return this.sum;
+		}
+
+		/**
+		 * Returns the smallest recorded value, or 0 if there are none.
+		 *
+		 * @return minimal value
+		 */
+		public long getMin() {
+			return this.count > 0 ? this.min : 0;
+		}
+
+		/**
+		 * Returns the largest recorded value, or 0 if there are none.
+		 *
+		 * @return maximal value
+		 */
+		public long getMax() {
+			return this.count > 0 ? this.max : 0;
+		}
+
+		/**
+		 * Returns the average of the recorded values, or 0 if there are none.
+		 *
+		 * @return mean value
+		 */
+		public double getMean() {
+			return this.count > 0 ? (double) this.sum / this.count : 0;
+		}
+
+		/**
+		 * Returns an upper bound for the given percentile of the recorded
+		 * values. The bound is at most twice the actual value, and never
+		 * larger than the maximal value.
+		 *
+		 * @param percentile
+		 *            the percentile, between 0 and 100
+		 * @return approximate percentile, or 0 if there are no values
+		 */
+		public long getPercentile(double percentile) {
+			if (this.count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile / 100 * this.count);
+			long seen = 0;
+			for (int i = 0; i < this.buckets.length; i++) {
+				seen += this.buckets[i];
+				if (seen >= rank && seen > 0) {
+					long bound = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+					return Math.max(getMin(), Math.min(bound, this.max));
+				}
+			}
+			return this.max;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + this.count + " mean=" + String.format("%.1f", getMean())
+					+ " min=" + getMin() + " p50=" + getPercentile(50)
+					+ " p99=" + getPercentile(99) + " max=" + getMax();
+		}
+	}
+
+	/**
+	 * Mutable histogram. Updates are synchronized on the object.
+	 */
+	static class HistogramRecorder {
+
+		long count = 0;
+		long sum = 0;
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		final long[] buckets = new long[64];
+
+		synchronized void record(long value) {
+			this.count++;
+			this.sum += value;
+			this.min = Math.min(this.min, value);
+			this.max = Math.max(this.max, value);
+			this.buckets[value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value)]++;
+		}
+
+		synchronized Histogram snapshot() {
+			return new Histogram(this.count, this.sum, this.min, this.max,
+					this.buckets.clone());
+		}
+	}
+
+	final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	final Map<String, HistogramRecorder> histograms = new ConcurrentHashMap<>();
+
+	@Override
+	public void increment(String name, long delta) {
+		this.counters.computeIfAbsent(name, n -> new LongAdder()).add(delta);
+	}
+
+	@Override
+	public void record(String name, long value) {
+		this.histograms.computeIfAbsent(name, n -> new HistogramRecorder())
+				.record(value);
+	}
+
+	/**
+	 * Returns the current value of the counter of the given name.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 * @return the value of the counter, 0 if it was never increased
+	 */
+	public long getCount(String name) {
+		LongAdder counter = this.counters.get(name);
+		return counter != null ? counter.sum() : 0;
+	}
+
+	/**
+	 * Returns the current state of the histogram or timer of the given name.
+	 *
+	 * @param name
+	 *            the name of the histogram
+	 * @return the state of the histogram, empty if nothing was recorded
+	 */
+	public Histogram getHistogram(String name) {
+		HistogramRecorder recorder = this.histograms.get(name);
+		return recorder != null ? recorder.snapshot()
+				: new HistogramRecorder().snapshot();
+	}
+
+	/**
+	 * Returns the current values of all counters, sorted by name.
+	 *
+	 * @return map from counter names to values
+	 */
+	public Map<String, Long> getCounters() {
+		Map<String, Long> result = new TreeMap<>();
+		this.counters.forEach((name, counter) -> result.put(name, counter.sum()));
+		return result;
+	}
+
+	/**
+	 * Returns the current state of all histograms and timers, sorted by name.
+	 *
+	 * @return map from histogram names to their states
+	 */
+	public Map<String, Histogram> getHistograms() {
+		Map<String, Histogram> result = new TreeMap<>();
+		this.histograms.forEach((name, recorder) -> result.put(name, recorder.snapshot()));
+		return result;
+	}
+
+	/**
+	 * Forgets all measurements.
+	 */
+	public void reset() {
+		this.counters.clear();
+		this.histograms.clear();
+	}
+
+	/**
+	 * Logs the current state of all metrics at info level.
+	 */
+	public void logSummary() {
+		logger.info("API metrics:\n" + this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		getCounters().forEach((name, value) -> builder.append(name)
+				.append(": ").append(value).append('\n'));
+		getHistograms().forEach((name, histogram) -> builder.append(name)
+				.append(": ").append(histogram).append('\n'));
+		return builder.toString();
+	}
+}
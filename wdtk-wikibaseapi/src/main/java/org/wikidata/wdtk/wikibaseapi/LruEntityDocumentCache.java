@@ -0,0 +1,127 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+/**
+ * In-memory {@link EntityDocumentCache} that keeps a bounded number of
+ * documents, dropping the least recently used ones first. Optionally, a second
+ * cache (such as a {@link DirectoryEntityDocumentCache}) can be given: it
+ * receives every document that is stored, and is asked for documents that are
+ * not in memory.
+ */
+public class LruEntityDocumentCache implements EntityDocumentCache {
+
+	final Map<String, EntityDocument> documents;
+
+	final EntityDocumentCache secondLevelCache;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxSize
+	 *            the maximal number of documents kept in memory
+	 */
+	public LruEntityDocumentCache(int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxSize
+	 *            the maximal number of documents kept in memory
+	 * @param secondLevelCache
+	 *            cache that is used for documents that are not in memory, or
+	 *            null if there is none
+	 */
+	public LruEntityDocumentCache(int maxSize,
+			EntityDocumentCache secondLevelCache) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException(
+					"The cache size must be positive, but was " + maxSize);
+		}
+		this.documents = new LinkedHashMap<String, EntityDocument>(16, 0.75f,
+				true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, EntityDocument> eldest) {
+				return size() > maxSize;
+			}
+		};
+		this.secondLevelCache = secondLevelCache;
+	}
+
+	@Override
+	public EntityDocument get(String key) {
+		synchronized (this.documents) {
+			EntityDocument document = this.documents.get(key);
+			if (document != null || this.secondLevelCache == null) {
+				return document;
+			}
+		}
+		EntityDocument document = this.secondLevelCache.get(key);
+		if (document != null) {
+			synchronized (this.documents) {
+				this.documents.put(key, document);
+			}
+		}
+		return document;
+	}
+
+	@Override
+	public void put(String key, EntityDocument document) {
+		synchronized (this.documents) {
+			this.documents.put(key, document);
+		}
+		if (this.secondLevelCache != null) {
+			this.secondLevelCache.put(key, document);
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		synchronized (this.documents) {
+			this.documents.remove(key);
+		}
+		if (this.secondLevelCache != null) {
+			this.secondLevelCache.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the number of documents that are currently kept in memory.
+	 *
+	 * @return number of documents in memory
+	 */
+	public int size() {
+		synchronized (this.documents) {
+			return this.documents.size();
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.wikidata.wdtk.wikibaseapi.WbSearchEntitiesAction.SearchPage;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+
+/**
+ * Iterator over all results of a search, following the continuation offsets
+ * of the API. The first page is fetched when the iterator is first used.
+ * Whenever a page arrives, the next one is requested in the background, so
+ * that it is usually available by the time the current page has been
+ * consumed.
+ * <p>
+ * Errors of requests are thrown as {@link CompletionException} wrapping the
+ * {@link MediaWikiApiErrorException} or {@link IOException}.
+ */
+class SearchResultIterator implements Iterator<WbSearchEntitiesResult>, AutoCloseable {
+
+	final WbSearchEntitiesAction action;
+
+	/**
+	 * Parameters of the search; the offset is set for each page.
+	 */
+	final WbGetEntitiesSearchData properties;
+
+	/**
+	 * Executor that fetches the next pages.
+	 */
+	final Executor executor;
+
+	/**
+	 * Results of the current page, or null before the first page.
+	 */
+	Iterator<WbSearchEntitiesResult> current = null;
+
+	/**
+	 * The request for the next page, or null if there is no further page.
+	 */
+	CompletableFuture<SearchPage> next = null;
+
+	boolean closed = false;
+
+	/**
+	 * Creates an iterator for the given search, starting at its offset.
+	 *
+	 * @param action
+	 *            action that runs the requests
+	 * @param properties
+	 *            parameters of the search, which are copied
+	 * @param executor
+	 *            executor that fetches pages in the background
+	 */
+	SearchResultIterator(WbSearchEntitiesAction action,
+			WbGetEntitiesSearchData properties, Executor executor) {
+		this.action = action;
+		this.properties = copy(properties);
+		this.executor = executor;
+	}
+
+	@Override
+	public synchronized boolean hasNext() {
+		if (this.closed) {
+			return false;
+		}
+		if (this.current == null) {
+			SearchPage page;
+			try {
+				page = fetch(this.properties.offset);
+			} catch (MediaWikiApiErrorException | IOException e) {
+				throw new CompletionException(e);
+			}
+			accept(page);
+		}
+		while (!this.current.hasNext() && this.next != null) {
+			CompletableFuture<SearchPage> request = this.next;
+			this.next = null;
+			accept(request.join());
+		}
+		return this.current.hasNext();
+	}
+
+	@Override
+	public synchronized WbSearchEntitiesResult next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return this.current.next();
+	}
+
+	/**
+	 * Stops the iteration and cancels the request for the next page, if any.
+	 */
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+		if (this.next != null) {
+			this.next.cancel(false);
+			this.next = null;
+		}
+		this.current = Collections.emptyIterator();
+	}
+
+	/**
+	 * Makes the results of the given page current and starts fetching the
+	 * page after it.
+	 */
+	void accept(SearchPage page) {
+		this.current = page.results.iterator();
+		// an empty page with a continuation would never end the search
+		if (page.nextOffset != null && !page.results.isEmpty()) {
+			Long offset = page.nextOffset;
+			this.next = CompletableFuture.supplyAsync(() -> {
+				try {
+					return fetch(offset);
+				} catch (MediaWikiApiErrorException | IOException e) {
+					throw new CompletionException(e);
+				}
+			}, this.executor);
+		}
+	}
+
+	SearchPage fetch(Long offset) throws MediaWikiApiErrorException, IOException {
+		WbGetEntitiesSearchData page = copy(this.properties);
+		page.offset = offset;
+		return this.action.wbSearchEntitiesPage(page);
+	}
+
+	static WbGetEntitiesSearchData copy(WbGetEntitiesSearchData properties) {
+		WbGetEntitiesSearchData copy = new WbGetEntitiesSearchData();
+		copy.search = properties.search;
+		copy.language = properties.language;
+		copy.strictlanguage = properties.strictlanguage;
+		copy.type = properties.type;
+		copy.limit = properties.limit;
+		copy.offset = properties.offset;
+		return copy;
+	}
+}
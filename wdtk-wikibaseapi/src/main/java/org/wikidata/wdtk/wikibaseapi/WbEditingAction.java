@@ -38,6 +38,7 @@ import org.wikidata.wdtk.wikibaseapi.apierrors.TokenErrorException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * Java implementation for the wbeditentity API action.
@@ -66,6 +67,11 @@ public class WbEditingAction {
 	 */
 	final ObjectMapper mapper;
 
+	/**
+	 * Reader for entity documents, created once since this is expensive.
+	 */
+	final ObjectReader documentReader;
+
 	/**
 	 * Value in seconds of MediaWiki's maxlag parameter. Shorter is nicer,
 	 * longer is more aggressive.
@@ -92,28 +98,12 @@ public class WbEditingAction {
 	double maxLagBackOffFactor = 1.5;
 	
 	/**
-	 * Number of recent editing times to monitor in order to avoid editing too
-	 * fast. Wikidata.org seems to block fast editors after 9 edits, so this
-	 * size seems to make sense.
-	 */
-	final static int editTimeWindow = 9;
-
-	/**
-	 * Average time to wait after each edit. Individual edits can be faster than
-	 * this, but it is ensured that this time will be taken per edit in the long
-	 * run.
+	 * Controller for the edit rate. Ensures that edits are not made faster
+	 * than the configured average time per edit, and slows down editing when
+	 * the site is lagging. Can be shared with other objects editing the same
+	 * site.
 	 */
-	int averageMsecsPerEdit = 2000;
-
-	/**
-	 * Times of the last {@link #editTimeWindow} edits. Used in a loop. Most
-	 * recent edit time is at {@link #curEditTimeSlot}.
-	 */
-	final long[] recentEditTimes = new long[editTimeWindow];
-	/**
-	 * @see #recentEditTimes
-	 */
-	int curEditTimeSlot = 0;
+	EditRateController rateController = new EditRateController(2000);
 
 	/**
 	 * Number of edits that will be performed before the object enters
@@ -138,6 +128,8 @@ public class WbEditingAction {
 		this.connection = connection;
 		this.siteIri = siteIri;
 		this.mapper = new DatamodelMapper(siteIri);
+		this.documentReader = this.mapper.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
 	}
 
 	/**
@@ -205,7 +197,7 @@ public class WbEditingAction {
 	 * @return average time per edit in milliseconds
 	 */
 	public int getAverageTimePerEdit() {
-		return this.averageMsecsPerEdit;
+		return this.rateController.getAverageTimePerEdit();
 	}
 
 	/**
@@ -216,7 +208,32 @@ public class WbEditingAction {
 	 *            the new value in milliseconds
 	 */
 	public void setAverageTimePerEdit(int milliseconds) {
-		this.averageMsecsPerEdit = milliseconds;
+		this.rateController.setAverageTimePerEdit(milliseconds);
+	}
+
+	/**
+	 * Returns the controller that determines how fast edits are made. See
+	 * {@link #setRateController(EditRateController)}.
+	 *
+	 * @return the edit rate controller
+	 */
+	public EditRateController getRateController() {
+		return this.rateController;
+	}
+
+	/**
+	 * Sets the controller that determines how fast edits are made. Objects
+	 * that edit the same site at the same time can share one controller, so
+	 * that they respect a common edit rate and all slow down when the site
+	 * is lagging. The average time per edit is a setting of the controller,
+	 * so it changes with the controller.
+	 *
+	 * @param rateController
+	 *            the new edit rate controller
+	 */
+	public void setRateController(EditRateController rateController) {
+		Validate.notNull(rateController, "Rate controller cannot be null");
+		this.rateController = rateController;
 	}
 
 	/**
@@ -728,33 +745,51 @@ public class WbEditingAction {
 		parameters.put("maxlag", Integer.toString(this.maxLag));
 		parameters.put("token", connection.getOrFetchToken("csrf"));
 
-		if (this.remainingEdits > 0) {
-			this.remainingEdits--;
-		} else if (this.remainingEdits == 0) {
-			logger.info("Not editing entity (simulation mode). Request parameters were: "
-					+ parameters.toString());
-			return null;
+		synchronized (this) {
+			if (this.remainingEdits > 0) {
+				this.remainingEdits--;
+			} else if (this.remainingEdits == 0) {
+				logger.info("Not editing entity (simulation mode). Request parameters were: "
+						+ parameters.toString());
+				return null;
+			}
 		}
 
-		checkEditSpeed();
+		ApiMetrics metrics = this.connection.getMetrics();
+		EditRateController controller = this.rateController;
+		long editStartTime = System.nanoTime();
+		controller.acquire();
+		metrics.recordTime(ApiMetrics.THROTTLE_WAIT_TIME, System.nanoTime() - editStartTime);
+		metrics.increment(ApiMetrics.EDITS);
+		editStartTime = System.nanoTime();
 		JsonNode result = null;
 		
 		int retry = getMaxLagMaxRetries();
-		int maxLagSleepTime = getMaxLagFirstWaitTime();
+		long maxLagSleepTime = getMaxLagFirstWaitTime();
 		MediaWikiApiErrorException lastException = null;
 		while (retry > 0) {
 			try {
+				long startTime = System.nanoTime();
 				result = this.connection.sendJsonRequest("POST", parameters);
+				controller.onSuccess(System.nanoTime() - startTime);
 				break;
 			} catch (TokenErrorException e) { // try again with a fresh token
 				lastException = e;
+				metrics.increment(ApiMetrics.RETRIES);
 				connection.clearToken("csrf");
 				parameters.put("token", connection.getOrFetchToken("csrf"));
-			} catch (MaxlagErrorException e) { // wait for 5 seconds
+			} catch (MaxlagErrorException e) {
 				lastException = e;
-				logger.warn(e.getMessage() + String.format(" -- pausing for %d milliseconds.", maxLagSleepTime));
+				// replication catches up roughly in real time, so do not
+				// retry before the lag could have dropped below the limit
+				long sleepTime = Math.max(maxLagSleepTime,
+						(long) ((e.getLag() - this.maxLag) * 1000));
+				logger.warn(e.getMessage() + String.format(" -- pausing for %d milliseconds.", sleepTime));
+				controller.onMaxlag(e.getLag(), this.maxLag, sleepTime);
+				metrics.increment(ApiMetrics.RETRIES);
+				metrics.recordTime(ApiMetrics.MAXLAG_WAIT_TIME, sleepTime * 1000000);
 				try {
-					Thread.sleep(maxLagSleepTime);
+					Thread.sleep(sleepTime);
 				} catch (InterruptedException ex) {
 					Thread.currentThread().interrupt();
 				}
@@ -769,6 +804,7 @@ public class WbEditingAction {
 			throw lastException;
 		}
 
+		metrics.recordTime(ApiMetrics.EDIT_TIME, System.nanoTime() - editStartTime);
 		return result;
 	}
 	
@@ -810,40 +846,9 @@ public class WbEditingAction {
 	 * @throws IOException
 	 */
 	private EntityDocument parseJsonResponse(JsonNode entityNode) throws IOException {
-		return mapper.readerFor(EntityDocumentImpl.class)
-				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
-				.readValue(entityNode);
+		return documentReader.readValue(entityNode);
 	}
 
-	/**
-	 * Makes sure that we are not editing too fast. The method stores the last
-	 * {@link WbEditingAction#editTimeWindow} time points when an edit was
-	 * made. If the time since the oldest edit in this window is shorter than
-	 * {@link #averageMsecsPerEdit} milliseconds, then the method will pause the
-	 * thread for the remaining time.
-	 */
-	private void checkEditSpeed() {
-		long currentTime = System.nanoTime();
-		int nextIndex = (this.curEditTimeSlot + 1) % editTimeWindow;
-		if (this.recentEditTimes[nextIndex] != 0
-				&& (currentTime - this.recentEditTimes[nextIndex]) / 1000000 < this.averageMsecsPerEdit
-						* editTimeWindow) {
-			long sleepTime = this.averageMsecsPerEdit * editTimeWindow
-					- (currentTime - this.recentEditTimes[nextIndex]) / 1000000;
-			logger.info("We are editing too fast. Pausing for " + sleepTime
-					+ " milliseconds.");
-			try {
-				Thread.sleep(sleepTime);
-			} catch (InterruptedException ex) {
-				Thread.currentThread().interrupt();
-			}
-			currentTime = System.nanoTime();
-		}
-
-		this.recentEditTimes[nextIndex] = currentTime;
-		this.curEditTimeSlot = nextIndex;
-	}
-	
 	/**
 	 * Number of times we should retry if an editing action fails because
 	 * the lag is too high.
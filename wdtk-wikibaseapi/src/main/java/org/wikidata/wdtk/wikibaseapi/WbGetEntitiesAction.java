@@ -21,13 +21,13 @@
 package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
@@ -39,12 +39,19 @@ import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MaxlagErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
  * Java implementation of the wbgetentities action.
@@ -54,6 +61,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class WbGetEntitiesAction {
 
+	static final Logger logger = LoggerFactory.getLogger(WbGetEntitiesAction.class);
+
 	/**
 	 * Connection to an Wikibase API.
 	 */
@@ -69,6 +78,37 @@ public class WbGetEntitiesAction {
 	 */
 	final ObjectMapper mapper;
 
+	/**
+	 * Reader for entity documents, created once since this is expensive.
+	 */
+	final ObjectReader documentReader;
+
+	/**
+	 * Value in seconds of MediaWiki's maxlag parameter, or 0 if the parameter
+	 * should not be sent. Reading data does not usually need this, but bulk
+	 * fetches may want to back off when the servers are lagged.
+	 */
+	int maxLag = 0;
+
+	/**
+	 * Number of times we should retry if a request fails because the lag is
+	 * too high.
+	 */
+	int maxLagMaxRetries = 14;
+
+	/**
+	 * Initial wait time in milliseconds, when a request fails for the first
+	 * time because of a high lag. This wait time is going to be multiplied
+	 * by maxLagBackOffFactor for the subsequent waits.
+	 */
+	int maxLagFirstWaitTime = 1000;
+
+	/**
+	 * Factor by which the wait time between two maxlag retries should be
+	 * multiplied at each attempt.
+	 */
+	double maxLagBackOffFactor = 1.5;
+
 	/**
 	 * Creates an object to fetch data from the given ApiConnection. The site
 	 * URI is necessary since it is not contained in the data retrieved from the
@@ -85,6 +125,30 @@ public class WbGetEntitiesAction {
 		this.connection = connection;
 		this.siteIri = siteIri;
 		this.mapper = new DatamodelMapper(siteIri);
+		this.documentReader = this.mapper.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+	}
+
+	/**
+	 * Returns the current value of the maxlag parameter, or 0 if it is not
+	 * sent with requests.
+	 *
+	 * @return current setting of the maxlag parameter
+	 */
+	public int getMaxLag() {
+		return this.maxLag;
+	}
+
+	/**
+	 * Sets the value of the maxlag parameter. If the servers report a higher
+	 * lag, the request is repeated after waiting for some time. Use 0 to not
+	 * send the parameter at all, which is the default.
+	 *
+	 * @param maxLag
+	 *            the new value in seconds
+	 */
+	public void setMaxLag(int maxLag) {
+		this.maxLag = maxLag;
 	}
 
 	/**
@@ -163,6 +227,50 @@ public class WbGetEntitiesAction {
 	public Map<String, EntityDocument> wbGetEntities(String ids, String sites,
 			String titles, String props, String languages, String sitefilter)
 			throws MediaWikiApiErrorException, IOException {
+		Map<String, EntityDocument> result = new HashMap<>();
+		wbGetEntities(ids, sites, titles, props, languages, sitefilter, result::put);
+		return result;
+	}
+
+	/**
+	 * Retrieves entity documents via the API like
+	 * {@link #wbGetEntities(WbGetEntitiesActionData)}, but hands every
+	 * document to the given consumer as soon as it has been read from the
+	 * response, instead of collecting them in a map. The response is parsed
+	 * while it is being received, without building a JSON tree of the whole
+	 * response first. The keys passed to the consumer are the same as the
+	 * keys of the map returned by
+	 * {@link #wbGetEntities(WbGetEntitiesActionData)}.
+	 *
+	 * @param properties
+	 *            parameter setting for wbgetentities
+	 * @param consumer
+	 *            receives the identifier or title and the document for each
+	 *            retrieved entity
+	 * @throws MediaWikiApiErrorException
+	 *             if the API returns an error
+	 * @throws IOException
+	 *             if we encounter network issues or HTTP 500 errors from Wikibase
+	 * @throws MalformedResponseException
+	 *             if one of the returned entities cannot be parsed
+	 */
+	public void wbGetEntities(WbGetEntitiesActionData properties,
+			BiConsumer<String, EntityDocument> consumer)
+			throws MediaWikiApiErrorException, IOException {
+		wbGetEntities(properties.ids, properties.sites, properties.titles,
+				properties.props, properties.languages, properties.sitefilter,
+				consumer);
+	}
+
+	/**
+	 * Builds the request parameters and passes the retrieved documents to the
+	 * consumer. See {@link #wbGetEntities(String, String, String, String, String, String)}
+	 * for the meaning of the parameters.
+	 */
+	void wbGetEntities(String ids, String sites, String titles, String props,
+			String languages, String sitefilter,
+			BiConsumer<String, EntityDocument> consumer)
+			throws MediaWikiApiErrorException, IOException {
 
 		Map<String, String> parameters = new HashMap<>();
 		parameters.put(ApiConnection.PARAM_ACTION, "wbgetentities");
@@ -197,63 +305,155 @@ public class WbGetEntitiesAction {
 			parameters.put("sitefilter", sitefilter);
 		}
 
-		Map<String, EntityDocument> result = new HashMap<>();
+		readEntities(parameters, sites, titles != null, titlesList, consumer);
+	}
 
-		JsonNode root = this.connection.sendJsonRequest("POST", parameters);
+	/**
+	 * Sends the request, setting the maxlag parameter if configured, and
+	 * passes the entities of the response to the consumer. Requests are
+	 * retried with increasing pauses while the servers are too lagged.
+	 */
+	void readEntities(Map<String, String> parameters, String sites,
+			boolean byTitles, List<String> titlesList,
+			BiConsumer<String, EntityDocument> consumer)
+			throws MediaWikiApiErrorException, IOException {
+		parameters.put(ApiConnection.PARAM_FORMAT, "json");
+		if (this.connection.isLoggedIn()) {
+			parameters.put(ApiConnection.ASSERT_PARAMETER, "user");
+		}
+		if (this.maxLag > 0) {
+			parameters.put("maxlag", Integer.toString(this.maxLag));
+		}
 
-		JsonNode entities = root.path("entities");
-		Iterator<Entry<String,JsonNode>> entitiesIterator = entities.fields();
-		int i = 0;
-		while(entitiesIterator.hasNext()) {
-			Entry<String,JsonNode> entry = entitiesIterator.next();
-			JsonNode entityNode = entry.getValue();
-			if(!entityNode.has("missing")) {
-				try {
-					EntityDocument ed = mapper.reader()
-							.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
-							.treeToValue(entityNode, EntityDocumentImpl.class);
-
-					if (titles == null) {
-						// We use the JSON key rather than the id of the value
-						// so that retrieving redirected entities works.
-						result.put(entry.getKey(), ed);
-					} else {
-						if (ed instanceof ItemDocument) {
-							SiteLink siteLink = ((ItemDocument) ed).getSiteLinks().get(sites);
-							if(siteLink != null) {
-								result.put(siteLink.getPageTitle(), ed);
-							}
-						} else if(ed instanceof MediaInfoDocument) {
-							result.put(entityNode.get("title").textValue(), ed);
-						}
+		int maxLagSleepTime = this.maxLagFirstWaitTime;
+		for (int retry = this.maxLagMaxRetries; ; retry--) {
+			try (InputStream response = this.connection.sendRequest("POST", parameters, null);
+					JsonParser parser = this.mapper.getFactory().createParser(response)) {
+				readResponse(parser, sites, byTitles, titlesList, consumer);
+				return;
+			} catch (MaxlagErrorException e) {
+				if (this.maxLag <= 0 || retry <= 1) {
+					if (this.maxLag > 0) {
+						logger.error("Gave up after several retries. Last error was: "
+								+ e.toString());
 					}
-				} catch (JsonProcessingException e) {
-					throw new MalformedResponseException(
-							"Error when reading JSON for entity " + entityNode.path("id").asText("UNKNOWN"), e);
+					throw e;
 				}
-			} else if(entityNode.has("id")) {
+				logger.warn(e.getMessage() + String.format(" -- pausing for %d milliseconds.", maxLagSleepTime));
+				this.connection.getMetrics().increment(ApiMetrics.RETRIES);
+				this.connection.getMetrics().recordTime(ApiMetrics.MAXLAG_WAIT_TIME,
+						maxLagSleepTime * 1000000L);
 				try {
-					EntityIdValue entityIdValue = EntityIdValueImpl.fromId(entityNode.get("id").asText(), siteIri);
-					if(entityIdValue instanceof MediaInfoIdValue) {
-						//TODO: bad hack, it would be much nicer if the API would return the page title
-                                                MediaInfoDocument emptyDocument = Datamodel.makeMediaInfoDocument((MediaInfoIdValue) entityIdValue);
-                                                String key = null;
-                                                if (titles != null) {
-                                                        key = titlesList.get(i);
-                                                } else {
-                                                        key = entityIdValue.getId();
-                                                }
-                                                result.put(key, emptyDocument);
-					}
-				} catch (IllegalArgumentException e) {
-					throw new MalformedResponseException(
-							"Invalid entity id returned: " + entityNode.get("id").asText(), e);
+					Thread.sleep(maxLagSleepTime);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw e;
 				}
+				maxLagSleepTime *= this.maxLagBackOffFactor;
 			}
-			i++;
 		}
+	}
 
-		return result;
+	/**
+	 * Reads a wbgetentities response token by token. Errors and warnings are
+	 * handled as in {@link ApiConnection#sendJsonRequest(String, Map)}. Each
+	 * entity is buffered on its own, so that missing entities can be
+	 * recognized, and then deserialized directly from the buffered tokens.
+	 */
+	void readResponse(JsonParser parser, String sites, boolean byTitles,
+			List<String> titlesList, BiConsumer<String, EntityDocument> consumer)
+			throws MediaWikiApiErrorException, IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new MalformedResponseException("The API response is not a JSON object.");
+		}
+		ObjectNode messages = this.mapper.createObjectNode();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			parser.nextToken();
+			if ("entities".equals(fieldName) && parser.currentToken() == JsonToken.START_OBJECT) {
+				int i = 0;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String key = parser.getCurrentName();
+					parser.nextToken();
+					TokenBuffer entityBuffer = new TokenBuffer(parser);
+					entityBuffer.copyCurrentStructure(parser);
+					readEntity(key, entityBuffer, sites, byTitles, titlesList, i,
+							consumer);
+					i++;
+				}
+				this.connection.getMetrics().increment(ApiMetrics.ENTITIES_FETCHED, i);
+				this.connection.getMetrics().record(ApiMetrics.ENTITIES_PER_REQUEST, i);
+			} else if ("error".equals(fieldName) || "warnings".equals(fieldName)) {
+				messages.set(fieldName, this.mapper.readTree(parser));
+			} else {
+				parser.skipChildren();
+			}
+		}
+		this.connection.checkErrors(messages);
+		this.connection.logWarnings(messages);
+	}
+
+	/**
+	 * Converts a single buffered entity of a wbgetentities response and passes
+	 * it to the consumer under the appropriate key.
+	 */
+	void readEntity(String key, TokenBuffer entityBuffer, String sites,
+			boolean byTitles, List<String> titlesList, int index,
+			BiConsumer<String, EntityDocument> consumer) throws IOException {
+		// first look at the fields that decide how to handle the entity
+		boolean missing = false;
+		String id = null;
+		String title = null;
+		try (JsonParser fieldParser = entityBuffer.asParser()) {
+			fieldParser.nextToken();
+			while (fieldParser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = fieldParser.getCurrentName();
+				fieldParser.nextToken();
+				if ("missing".equals(fieldName)) {
+					missing = true;
+				} else if ("id".equals(fieldName)) {
+					id = fieldParser.getValueAsString();
+				} else if ("title".equals(fieldName)) {
+					title = fieldParser.getValueAsString();
+				}
+				fieldParser.skipChildren();
+			}
+		}
+
+		if (!missing) {
+			EntityDocument ed;
+			try (JsonParser entityParser = entityBuffer.asParser()) {
+				ed = this.documentReader.readValue(entityParser);
+			} catch (JsonProcessingException e) {
+				throw new MalformedResponseException(
+						"Error when reading JSON for entity " + (id == null ? "UNKNOWN" : id), e);
+			}
+			if (!byTitles) {
+				// We use the JSON key rather than the id of the value
+				// so that retrieving redirected entities works.
+				consumer.accept(key, ed);
+			} else if (ed instanceof ItemDocument) {
+				SiteLink siteLink = ((ItemDocument) ed).getSiteLinks().get(sites);
+				if (siteLink != null) {
+					consumer.accept(siteLink.getPageTitle(), ed);
+				}
+			} else if (ed instanceof MediaInfoDocument) {
+				consumer.accept(title, ed);
+			}
+		} else if (id != null) {
+			EntityIdValue entityIdValue;
+			try {
+				entityIdValue = EntityIdValueImpl.fromId(id, siteIri);
+			} catch (IllegalArgumentException e) {
+				throw new MalformedResponseException(
+						"Invalid entity id returned: " + id, e);
+			}
+			if (entityIdValue instanceof MediaInfoIdValue) {
+				//TODO: bad hack, it would be much nicer if the API would return the page title
+				MediaInfoDocument emptyDocument = Datamodel.makeMediaInfoDocument((MediaInfoIdValue) entityIdValue);
+				consumer.accept(byTitles ? titlesList.get(index) : entityIdValue.getId(), emptyDocument);
+			}
+		}
 	}
 
 }
@@ -50,6 +50,25 @@ public class WbSearchEntitiesAction {
 	 */
 	private final ObjectMapper mapper = new ObjectMapper();
 
+	/**
+	 * One page of search results, together with the offset of the next page.
+	 */
+	static class SearchPage {
+
+		final List<WbSearchEntitiesResult> results;
+
+		/**
+		 * Offset where the search continues, or null if there are no more
+		 * results.
+		 */
+		final Long nextOffset;
+
+		SearchPage(List<WbSearchEntitiesResult> results, Long nextOffset) {
+			this.results = results;
+			this.nextOffset = nextOffset;
+		}
+	}
+
 	/**
 	 * Creates an object to fetch data from the given ApiConnection. The site
 	 * URI is necessary since it is not contained in the data retrieved from the
@@ -115,6 +134,28 @@ public class WbSearchEntitiesAction {
 	public List<WbSearchEntitiesResult> wbSearchEntities(String search, String language,
 			Boolean strictLanguage, String type, Long limit, Long offset)
 					throws MediaWikiApiErrorException, IOException {
+		return wbSearchEntitiesPage(search, language, strictLanguage, type, limit,
+				offset).results;
+	}
+
+	/**
+	 * Executes the API action "wbsearchentity" like
+	 * {@link #wbSearchEntities(WbGetEntitiesSearchData)}, but also returns
+	 * where the search continues.
+	 *
+	 * @param properties
+	 *            parameters of the search
+	 * @return the results and the offset of the next page
+	 */
+	SearchPage wbSearchEntitiesPage(WbGetEntitiesSearchData properties)
+			throws MediaWikiApiErrorException, IOException {
+		return wbSearchEntitiesPage(properties.search, properties.language,
+				properties.strictlanguage, properties.type, properties.limit, properties.offset);
+	}
+
+	SearchPage wbSearchEntitiesPage(String search, String language,
+			Boolean strictLanguage, String type, Long limit, Long offset)
+					throws MediaWikiApiErrorException, IOException {
 
 		Map<String, String> parameters = new HashMap<>();
 		parameters.put(ApiConnection.PARAM_ACTION, "wbsearchentities");
@@ -163,7 +204,8 @@ public class WbSearchEntitiesAction {
 			}
 		}
 
-		return results;
+		JsonNode next = root.path("search-continue");
+		return new SearchPage(results, next.canConvertToLong() ? next.asLong() : null);
 	}
 
 }
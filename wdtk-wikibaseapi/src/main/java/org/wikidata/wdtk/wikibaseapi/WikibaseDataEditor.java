@@ -23,12 +23,27 @@ import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.helpers.EntityUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.FormUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.ItemUpdateBuilder;
 import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
 import org.wikidata.wdtk.datamodel.helpers.LabeledDocumentUpdateBuilder;
 import org.wikidata.wdtk.datamodel.helpers.LexemeUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.MediaInfoUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyUpdateBuilder;
+import org.wikidata.wdtk.datamodel.helpers.SenseUpdateBuilder;
 import org.wikidata.wdtk.datamodel.helpers.StatementDocumentUpdateBuilder;
 import org.wikidata.wdtk.datamodel.helpers.StatementUpdateBuilder;
 import org.wikidata.wdtk.datamodel.helpers.TermUpdateBuilder;
@@ -37,23 +52,29 @@ import org.wikidata.wdtk.datamodel.interfaces.AliasUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
 import org.wikidata.wdtk.datamodel.interfaces.FormUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.LabeledStatementDocumentUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
 import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.LexemeUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
 import org.wikidata.wdtk.datamodel.interfaces.SenseUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocumentUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocumentUpdate;
+import org.wikidata.wdtk.wikibaseapi.apierrors.EditConflictErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 
 /**
@@ -64,6 +85,11 @@ import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
  */
 public class WikibaseDataEditor {
 
+	/**
+	 * Number of documents fetched at once when planning batch edits.
+	 */
+	public static final int BATCH_CHUNK_SIZE = 50;
+
 	/**
 	 * API Action to edit data.
 	 */
@@ -92,6 +118,22 @@ public class WikibaseDataEditor {
 	 */
 	boolean editAsBot = false;
 
+	/**
+	 * Maximal number of asynchronous edits that are sent at the same time.
+	 */
+	int maxEditsInFlight = 1;
+
+	/**
+	 * Number of times an asynchronous edit is planned again after an edit
+	 * conflict.
+	 */
+	int maxEditConflictRetries = 3;
+
+	/**
+	 * Executor for asynchronous edits, created when first needed.
+	 */
+	ThreadPoolExecutor editExecutor = null;
+
 	/**
 	 * Creates an object to edit data via the Web API of the given
 	 * {@link ApiConnection} object. The site URI is necessary to create data
@@ -261,6 +303,29 @@ public class WikibaseDataEditor {
 		this.wbEditingAction.setAverageTimePerEdit(milliseconds);
 	}
 
+	/**
+	 * Returns the controller that determines how fast edits are made. See
+	 * {@link WbEditingAction#getRateController()} for details.
+	 *
+	 * @return the edit rate controller
+	 */
+	public EditRateController getRateController() {
+		return this.wbEditingAction.getRateController();
+	}
+
+	/**
+	 * Sets the controller that determines how fast edits are made. Editors
+	 * that work on the same site can share one controller to respect a common
+	 * edit rate. See {@link WbEditingAction#setRateController(EditRateController)}
+	 * for details.
+	 *
+	 * @param rateController
+	 *            the new edit rate controller
+	 */
+	public void setRateController(EditRateController rateController) {
+		this.wbEditingAction.setRateController(rateController);
+	}
+
 	/**
 	 * Returns the number of edits that will be performed before entering
 	 * simulation mode, or -1 if there is no limit on the number of edits
@@ -293,6 +358,75 @@ public class WikibaseDataEditor {
 		this.wbEditingAction.setRemainingEdits(0);
 	}
 
+	/**
+	 * Returns the maximal number of asynchronous edits that are sent to the
+	 * API at the same time. See {@link #setMaxEditsInFlight(int)}.
+	 *
+	 * @return maximal number of concurrent edits
+	 */
+	public int getMaxEditsInFlight() {
+		return this.maxEditsInFlight;
+	}
+
+	/**
+	 * Sets the maximal number of asynchronous edits that are sent to the API at
+	 * the same time. Edits are still started no faster than the configured
+	 * {@link #setAverageTimePerEdit(int) edit rate}, but with more than one edit
+	 * in flight, the rate can be reached even if responses take longer than the
+	 * time between edits. The default is 1, so that edits are made one after
+	 * the other in the order they were submitted.
+	 *
+	 * @param maxEditsInFlight
+	 *            maximal number of concurrent edits, at least 1
+	 */
+	public synchronized void setMaxEditsInFlight(int maxEditsInFlight) {
+		if (maxEditsInFlight < 1) {
+			throw new IllegalArgumentException(
+					"At least one edit must be allowed, but got " + maxEditsInFlight);
+		}
+		this.maxEditsInFlight = maxEditsInFlight;
+		if (this.editExecutor != null) {
+			if (maxEditsInFlight > this.editExecutor.getMaximumPoolSize()) {
+				this.editExecutor.setMaximumPoolSize(maxEditsInFlight);
+				this.editExecutor.setCorePoolSize(maxEditsInFlight);
+			} else {
+				this.editExecutor.setCorePoolSize(maxEditsInFlight);
+				this.editExecutor.setMaximumPoolSize(maxEditsInFlight);
+			}
+		}
+	}
+
+	/**
+	 * Sets how often an edit submitted with
+	 * {@link #editEntityDocumentAsync(EntityIdValue, Function, String, List)}
+	 * is planned and sent again after an edit conflict. The default is 3.
+	 *
+	 * @param retries
+	 *            number of retries after edit conflicts
+	 */
+	public void setMaxEditConflictRetries(int retries) {
+		this.maxEditConflictRetries = retries;
+	}
+
+	/**
+	 * Returns the executor for asynchronous edits. Its threads are daemon
+	 * threads that end when no edits are waiting, so it does not need to be
+	 * shut down.
+	 */
+	synchronized ThreadPoolExecutor getEditExecutor() {
+		if (this.editExecutor == null) {
+			this.editExecutor = new ThreadPoolExecutor(this.maxEditsInFlight,
+					this.maxEditsInFlight, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "WikibaseDataEditor");
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.editExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this.editExecutor;
+	}
+
 	private EntityDocument createDocument(
 			String type, EntityDocument document, String summary, List<String> tags)
 			throws IOException, MediaWikiApiErrorException {
@@ -681,6 +815,314 @@ public class WikibaseDataEditor {
 				update.getEntityId().getId(), null, null, null, data, clear, editAsBot, revisionId, summary, tags);
 	}
 
+	/**
+	 * Submits the given update like
+	 * {@link #editEntityDocument(EntityUpdate, boolean, String, List)}, but
+	 * without waiting for the edit to be made. Edits are queued and sent in the
+	 * background, respecting the configured edit rate and maxlag settings, and
+	 * with up to {@link #getMaxEditsInFlight()} edits waiting for a response at
+	 * the same time.
+	 *
+	 * @param update
+	 *            collection of changes to be written
+	 * @param clear
+	 *            if set to {@code true}, existing entity data will be removed and
+	 *            the update will be applied to empty entity
+	 * @param summary
+	 *            summary for the edit
+	 * @param tags
+	 *            string identifiers of the tags to apply to the edit, {@code null}
+	 *            or empty for no tags
+	 * @return future that completes when the edit has been made; it completes
+	 *         exceptionally with a {@link CompletionException} wrapping the
+	 *         {@link IOException} or {@link MediaWikiApiErrorException} if the
+	 *         edit failed
+	 */
+	public CompletableFuture<Void> editEntityDocumentAsync(
+			EntityUpdate update, boolean clear, String summary, List<String> tags) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				editEntityDocument(update, clear, summary, tags);
+			} catch (IOException | MediaWikiApiErrorException e) {
+				throw new CompletionException(e);
+			}
+		}, getEditExecutor());
+	}
+
+	/**
+	 * Plans and makes an edit in the background. When the edit is due, the
+	 * current document of the given entity is fetched and passed to the
+	 * planner, which returns the update to make (using the document's revision
+	 * as base revision), or null if nothing is to be changed. Empty updates are
+	 * not sent. If the edit fails because of an edit conflict, the document is
+	 * fetched and the edit planned again, up to a configurable number of times.
+	 * Edits are sent as for
+	 * {@link #editEntityDocumentAsync(EntityUpdate, boolean, String, List)}.
+	 *
+	 * @param entityId
+	 *            the entity to edit
+	 * @param planner
+	 *            function that computes the update from the current document
+	 * @param summary
+	 *            summary for the edit
+	 * @param tags
+	 *            string identifiers of the tags to apply to the edit, {@code null}
+	 *            or empty for no tags
+	 * @return future update that was made, or null if there was nothing to do;
+	 *         it completes exceptionally with a {@link CompletionException}
+	 *         wrapping the {@link IOException} or
+	 *         {@link MediaWikiApiErrorException} if the edit failed
+	 */
+	public CompletableFuture<EntityUpdate> editEntityDocumentAsync(
+			EntityIdValue entityId, Function<EntityDocument, EntityUpdate> planner,
+			String summary, List<String> tags) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				for (int attempt = 0; ; attempt++) {
+					EntityDocument document = this.wikibaseDataFetcher
+							.getEntityDocument(entityId.getId());
+					EntityUpdate update = planner.apply(document);
+					if (update == null || update.isEmpty()) {
+						return null;
+					}
+					try {
+						editEntityDocument(update, false, summary, tags);
+						return update;
+					} catch (EditConflictErrorException e) {
+						if (attempt >= this.maxEditConflictRetries) {
+							throw e;
+						}
+					}
+				}
+			} catch (IOException | MediaWikiApiErrorException e) {
+				throw new CompletionException(e);
+			}
+		}, getEditExecutor());
+	}
+
+	/**
+	 * Makes a batch of edits in the background. The current documents of the
+	 * edited entities are fetched in chunks of {@link #BATCH_CHUNK_SIZE} ids
+	 * (the most the API serves in one request), and every update is checked
+	 * against the current document: changes that are already present in the
+	 * document are dropped, and updates that become empty are not sent at
+	 * all, which saves null edits. The remaining updates are sent as for
+	 * {@link #editEntityDocumentAsync(EntityUpdate, boolean, String, List)},
+	 * while the next chunk of documents is fetched.
+	 * <p>
+	 * Updates without base revision, or with the base revision of the current
+	 * document, are rebased on the current document, so that the API can
+	 * detect edit conflicts with changes made after the documents were
+	 * fetched. Updates for another base revision are sent unchanged, leaving
+	 * conflict handling to the API.
+	 *
+	 * @param updates
+	 *            the updates to make, at most one per entity
+	 * @param summary
+	 *            summary for the edits
+	 * @param tags
+	 *            string identifiers of the tags to apply to the edits,
+	 *            {@code null} or empty for no tags
+	 * @return one future per update, in the same order, with the update that
+	 *         was made, or null if there was nothing to do; a future completes
+	 *         exceptionally with a {@link CompletionException} wrapping the
+	 *         {@link IOException} or {@link MediaWikiApiErrorException} if the
+	 *         edit (or fetching the document) failed, and all futures that
+	 *         are not done yet complete exceptionally if planning the edits
+	 *         fails unexpectedly
+	 */
+	public List<CompletableFuture<EntityUpdate>> editEntityDocumentsAsync(
+			List<EntityUpdate> updates, String summary, List<String> tags) {
+		List<CompletableFuture<EntityUpdate>> results = new ArrayList<>(updates.size());
+		for (int i = 0; i < updates.size(); i++) {
+			results.add(new CompletableFuture<>());
+		}
+		Thread planner = new Thread(() -> {
+			try {
+				CompletableFuture<Void> previousChunk = CompletableFuture.completedFuture(null);
+				for (int start = 0; start < updates.size(); start += BATCH_CHUNK_SIZE) {
+					int end = Math.min(start + BATCH_CHUNK_SIZE, updates.size());
+					CompletableFuture<Void> chunk = editChunkAsync(
+							updates.subList(start, end), results.subList(start, end),
+							summary, tags);
+					// keep at most one chunk of planned edits waiting
+					previousChunk.exceptionally(e -> null).join();
+					previousChunk = chunk;
+				}
+			} catch (RuntimeException e) {
+				// no future may be left waiting for a planner that is gone
+				CompletionException failure = new CompletionException(e);
+				results.forEach(r -> r.completeExceptionally(failure));
+			}
+		}, "WikibaseDataEditor-batch");
+		planner.setDaemon(true);
+		planner.start();
+		return results;
+	}
+
+	/**
+	 * Fetches the documents for one chunk of a batch edit, rebases the updates
+	 * on them and submits the remaining edits.
+	 *
+	 * @return future that completes when all edits of the chunk are done
+	 */
+	CompletableFuture<Void> editChunkAsync(List<EntityUpdate> updates,
+			List<CompletableFuture<EntityUpdate>> results, String summary,
+			List<String> tags) {
+		Map<String, EntityDocument> documents;
+		try {
+			documents = this.wikibaseDataFetcher.getEntityDocuments(updates
+					.stream().map(u -> u.getEntityId().getId()).collect(toList()));
+		} catch (IOException | MediaWikiApiErrorException e) {
+			CompletionException failure = new CompletionException(e);
+			results.forEach(r -> r.completeExceptionally(failure));
+			return CompletableFuture.completedFuture(null);
+		}
+
+		List<EntityUpdate> rebased = updates.parallelStream()
+				.map(u -> rebaseUpdate(u, documents.get(u.getEntityId().getId())))
+				.collect(toList());
+
+		List<CompletableFuture<Void>> edits = new ArrayList<>(updates.size());
+		for (int i = 0; i < rebased.size(); i++) {
+			EntityUpdate update = rebased.get(i);
+			CompletableFuture<EntityUpdate> result = results.get(i);
+			if (update.isEmpty()) {
+				result.complete(null);
+				continue;
+			}
+			edits.add(editEntityDocumentAsync(update, false, summary, tags)
+					.handle((v, e) -> {
+						if (e != null) {
+							result.completeExceptionally(e);
+						} else {
+							result.complete(update);
+						}
+						return null;
+					}));
+		}
+		return CompletableFuture.allOf(edits.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Applies the given update to the given current document, dropping all
+	 * changes that would not modify it. This includes added statements that
+	 * are equal to a statement of the document, apart from the statement id.
+	 * The update is returned unchanged if there is no document, if the update
+	 * was made for another revision, or if it cannot be applied to the
+	 * document.
+	 *
+	 * @param update
+	 *            the update to rebase
+	 * @param document
+	 *            the current document of the entity, or null if unknown
+	 * @return the rebased update
+	 */
+	static EntityUpdate rebaseUpdate(EntityUpdate update, EntityDocument document) {
+		if (document == null || (update.getBaseRevisionId() != 0
+				&& update.getBaseRevisionId() != document.getRevisionId())) {
+			return update;
+		}
+		try {
+			if (update instanceof StatementDocumentUpdate
+					&& document instanceof StatementDocument) {
+				update = withoutExistingStatements((StatementDocumentUpdate) update,
+						(StatementDocument) document);
+			}
+			if (update instanceof ItemUpdate && document instanceof ItemDocument) {
+				return ItemUpdateBuilder.forBaseRevision((ItemDocument) document)
+						.append((ItemUpdate) update).build();
+			} else if (update instanceof PropertyUpdate && document instanceof PropertyDocument) {
+				return PropertyUpdateBuilder.forBaseRevision((PropertyDocument) document)
+						.append((PropertyUpdate) update).build();
+			} else if (update instanceof LexemeUpdate && document instanceof LexemeDocument) {
+				return LexemeUpdateBuilder.forBaseRevision((LexemeDocument) document)
+						.append((LexemeUpdate) update).build();
+			} else if (update instanceof FormUpdate && document instanceof FormDocument) {
+				return FormUpdateBuilder.forBaseRevision((FormDocument) document)
+						.append((FormUpdate) update).build();
+			} else if (update instanceof SenseUpdate && document instanceof SenseDocument) {
+				return SenseUpdateBuilder.forBaseRevision((SenseDocument) document)
+						.append((SenseUpdate) update).build();
+			} else if (update instanceof MediaInfoUpdate && document instanceof MediaInfoDocument) {
+				return MediaInfoUpdateBuilder.forBaseRevision((MediaInfoDocument) document)
+						.apply((MediaInfoUpdate) update).build();
+			}
+		} catch (IllegalArgumentException e) {
+			// not applicable to the current document; let the API report it
+		}
+		return update;
+	}
+
+	/**
+	 * Removes all added statements from the given update that the given
+	 * document already contains, ignoring statement ids. Update builders keep
+	 * such statements, and sending them would only duplicate them.
+	 *
+	 * @param update
+	 *            the update to filter
+	 * @param document
+	 *            the current document of the entity
+	 * @return the update without the redundant statements
+	 */
+	static EntityUpdate withoutExistingStatements(StatementDocumentUpdate update,
+			StatementDocument document) {
+		org.wikidata.wdtk.datamodel.interfaces.StatementUpdate statements = update
+				.getStatements();
+		if (statements.getAdded().isEmpty()) {
+			return update;
+		}
+		Set<Statement> existing = new HashSet<>();
+		document.getAllStatements().forEachRemaining(
+				statement -> existing.add(statement.withStatementId("")));
+		List<Statement> added = statements.getAdded().stream()
+				.filter(statement -> !existing.contains(statement.withStatementId("")))
+				.collect(toList());
+		if (added.size() == statements.getAdded().size()) {
+			return update;
+		}
+
+		org.wikidata.wdtk.datamodel.interfaces.StatementUpdate filtered = Datamodel
+				.makeStatementUpdate(added,
+				statements.getReplaced().values(), statements.getRemoved());
+		if (update instanceof ItemUpdate) {
+			ItemUpdate typed = (ItemUpdate) update;
+			return Datamodel.makeItemUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getLabels(),
+					typed.getDescriptions(), typed.getAliases(), filtered,
+					typed.getModifiedSiteLinks().values(),
+					typed.getRemovedSiteLinks());
+		} else if (update instanceof PropertyUpdate) {
+			PropertyUpdate typed = (PropertyUpdate) update;
+			return Datamodel.makePropertyUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getLabels(),
+					typed.getDescriptions(), typed.getAliases(), filtered);
+		} else if (update instanceof LexemeUpdate) {
+			LexemeUpdate typed = (LexemeUpdate) update;
+			return Datamodel.makeLexemeUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getLanguage().orElse(null),
+					typed.getLexicalCategory().orElse(null), typed.getLemmas(),
+					filtered, typed.getAddedSenses(),
+					typed.getUpdatedSenses().values(), typed.getRemovedSenses(),
+					typed.getAddedForms(), typed.getUpdatedForms().values(),
+					typed.getRemovedForms());
+		} else if (update instanceof FormUpdate) {
+			FormUpdate typed = (FormUpdate) update;
+			return Datamodel.makeFormUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getRepresentations(),
+					typed.getGrammaticalFeatures().orElse(null), filtered);
+		} else if (update instanceof SenseUpdate) {
+			SenseUpdate typed = (SenseUpdate) update;
+			return Datamodel.makeSenseUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getGlosses(), filtered);
+		} else if (update instanceof MediaInfoUpdate) {
+			MediaInfoUpdate typed = (MediaInfoUpdate) update;
+			return Datamodel.makeMediaInfoUpdate(typed.getEntityId(),
+					typed.getBaseRevisionId(), typed.getLabels(), filtered);
+		}
+		return update;
+	}
+
 	/**
 	 * @deprecated Use {@link #editEntityDocument(EntityUpdate, boolean, String, List)} instead.
 	 * Writes the data for the given property document with the summary message
@@ -22,6 +22,15 @@ package org.wikidata.wdtk.wikibaseapi;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
@@ -62,6 +71,36 @@ public class WikibaseDataFetcher {
 	 */
 	int maxListSize = 50;
 
+	/**
+	 * Maximal number of requests that are sent concurrently by the
+	 * asynchronous fetching methods.
+	 */
+	int maxRequestsInFlight = 4;
+
+	/**
+	 * Number of results per request when streaming search results without
+	 * a limit. This is the largest page size allowed for users without bot
+	 * rights.
+	 */
+	public static final long SEARCH_PAGE_SIZE = 50;
+
+	/**
+	 * Executor that runs all concurrent requests of this object, created when
+	 * first needed. Its size is the maximal number of requests in flight.
+	 */
+	ThreadPoolExecutor requestExecutor = null;
+
+	/**
+	 * Cache for retrieved documents, or null if documents are not cached.
+	 */
+	EntityDocumentCache cache = null;
+
+	/**
+	 * True if cached documents should be checked against the current revision
+	 * on the site before they are returned.
+	 */
+	boolean validateCachedDocuments = true;
+
 	/**
 	 * Creates an object to fetch data from wikidata.org. This convenience
 	 * method creates a default {@link ApiConnection} that is not logged in. To
@@ -123,6 +162,107 @@ public class WikibaseDataFetcher {
 		return this.filter;
 	}
 
+	/**
+	 * Returns the maximal number of requests that are sent at the same time
+	 * by {@link #getEntityDocumentsAsync(List)},
+	 * {@link #searchEntitiesAsync(List)}, and for prefetching pages of
+	 * {@link #streamSearchEntities(WbGetEntitiesSearchData)}.
+	 *
+	 * @return maximal number of concurrent requests
+	 */
+	public int getMaxRequestsInFlight() {
+		return this.maxRequestsInFlight;
+	}
+
+	/**
+	 * Sets the maximal number of requests that are sent at the same time by
+	 * {@link #getEntityDocumentsAsync(List)},
+	 * {@link #searchEntitiesAsync(List)}, and for prefetching pages of
+	 * {@link #streamSearchEntities(WbGetEntitiesSearchData)}. The limit holds
+	 * for all calls of these methods together, not for each call. Please be
+	 * nice to the servers and keep this value small; the default is 4.
+	 *
+	 * @param maxRequestsInFlight
+	 *            maximal number of concurrent requests, at least 1
+	 */
+	public synchronized void setMaxRequestsInFlight(int maxRequestsInFlight) {
+		if (maxRequestsInFlight < 1) {
+			throw new IllegalArgumentException(
+					"At least one request must be allowed, but got " + maxRequestsInFlight);
+		}
+		this.maxRequestsInFlight = maxRequestsInFlight;
+		if (this.requestExecutor != null) {
+			if (maxRequestsInFlight > this.requestExecutor.getMaximumPoolSize()) {
+				this.requestExecutor.setMaximumPoolSize(maxRequestsInFlight);
+				this.requestExecutor.setCorePoolSize(maxRequestsInFlight);
+			} else {
+				this.requestExecutor.setCorePoolSize(maxRequestsInFlight);
+				this.requestExecutor.setMaximumPoolSize(maxRequestsInFlight);
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of the maxlag parameter that is sent with requests,
+	 * or 0 if the parameter is not sent.
+	 *
+	 * @return current setting of the maxlag parameter
+	 */
+	public int getMaxLag() {
+		return this.wbGetEntitiesAction.getMaxLag();
+	}
+
+	/**
+	 * Sets the value of the maxlag parameter. If set, requests are delayed
+	 * and repeated while the servers report a higher lag. This is useful when
+	 * fetching many entities. Use 0 to not send the parameter, which is the
+	 * default.
+	 *
+	 * @param maxLag
+	 *            the new value in seconds
+	 */
+	public void setMaxLag(int maxLag) {
+		this.wbGetEntitiesAction.setMaxLag(maxLag);
+	}
+
+	/**
+	 * Returns the cache that is used for documents fetched by ID, or null if
+	 * no cache is used.
+	 *
+	 * @return the cache
+	 */
+	public EntityDocumentCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Sets a cache for documents fetched by ID, such as a
+	 * {@link LruEntityDocumentCache}. Documents are cached together with the
+	 * settings of the {@link #getFilter() filter}, so changing the filter does
+	 * not lead to wrong results. Use null to disable caching, which is the
+	 * default.
+	 *
+	 * @param cache
+	 *            the cache to use, or null
+	 */
+	public void setCache(EntityDocumentCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets whether cached documents are checked for being up to date before
+	 * they are returned. If enabled, which is the default, the current
+	 * revision ids of all cached entities are requested in bulk, which is much
+	 * cheaper than fetching the documents, and outdated documents are fetched
+	 * again. If disabled, cached documents are returned without any request.
+	 *
+	 * @param validateCachedDocuments
+	 *            true if cached documents should be validated
+	 */
+	public void setValidateCachedDocuments(boolean validateCachedDocuments) {
+		this.validateCachedDocuments = validateCachedDocuments;
+	}
+
 	/**
 	 * Fetches the documents for the entity of the given string IDs. The result
 	 * is an {@link EntityDocument} or null if the data could not be fetched.
@@ -171,6 +311,18 @@ public class WikibaseDataFetcher {
 	 */
 	public Map<String, EntityDocument> getEntityDocuments(List<String> entityIds)
 			throws MediaWikiApiErrorException, IOException {
+		if (this.cache != null) {
+			return getEntityDocumentsWithCache(entityIds);
+		}
+		return fetchEntityDocuments(entityIds);
+	}
+
+	/**
+	 * Fetches the documents for the given IDs from the API, without using the
+	 * cache.
+	 */
+	Map<String, EntityDocument> fetchEntityDocuments(List<String> entityIds)
+			throws MediaWikiApiErrorException, IOException {
 		Map<String, EntityDocument> result = new HashMap<>();
 		List<String> newEntityIds = new ArrayList<>(entityIds);
 		boolean moreItems = !newEntityIds.isEmpty();
@@ -190,6 +342,191 @@ public class WikibaseDataFetcher {
 		return result;
 	}
 
+	/**
+	 * Implements {@link #getEntityDocuments(List)} when a cache is set.
+	 * Cached documents are validated by comparing their revision ids with the
+	 * current ones, unless validation is disabled. Everything else is fetched
+	 * and added to the cache.
+	 */
+	Map<String, EntityDocument> getEntityDocumentsWithCache(List<String> entityIds)
+			throws MediaWikiApiErrorException, IOException {
+		String filterKey = getCacheFilterKey();
+		Map<String, EntityDocument> result = new HashMap<>();
+		Map<String, EntityDocument> cached = new HashMap<>();
+		List<String> toFetch = new ArrayList<>();
+		for (String entityId : new LinkedHashSet<>(entityIds)) {
+			EntityDocument document = this.cache.get(entityId + filterKey);
+			if (document != null) {
+				cached.put(entityId, document);
+			} else {
+				toFetch.add(entityId);
+			}
+		}
+
+		if (this.validateCachedDocuments && !cached.isEmpty()) {
+			Map<String, Long> revisionIds = fetchRevisionIds(new ArrayList<>(cached.keySet()));
+			for (Map.Entry<String, EntityDocument> entry : cached.entrySet()) {
+				Long revisionId = revisionIds.get(entry.getKey());
+				if (revisionId != null && revisionId == entry.getValue().getRevisionId()) {
+					result.put(entry.getKey(), entry.getValue());
+				} else {
+					this.cache.remove(entry.getKey() + filterKey);
+					if (revisionId != null) {
+						toFetch.add(entry.getKey());
+					}
+				}
+			}
+		} else {
+			result.putAll(cached);
+		}
+
+		Map<String, EntityDocument> fetched = fetchEntityDocuments(toFetch);
+		for (Map.Entry<String, EntityDocument> entry : fetched.entrySet()) {
+			this.cache.put(entry.getKey() + filterKey, entry.getValue());
+		}
+		result.putAll(fetched);
+		return result;
+	}
+
+	/**
+	 * Fetches the current revision ids of the given entities, requesting no
+	 * more data than needed for this. Entities that do not exist are not
+	 * contained in the result.
+	 */
+	Map<String, Long> fetchRevisionIds(List<String> entityIds)
+			throws MediaWikiApiErrorException, IOException {
+		Map<String, Long> result = new HashMap<>();
+		for (int i = 0; i < entityIds.size(); i += maxListSize) {
+			List<String> chunk = entityIds.subList(i, Math.min(i + maxListSize, entityIds.size()));
+			WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
+			properties.ids = ApiConnection.implodeObjects(chunk);
+			properties.props = "info|datatype";
+			this.wbGetEntitiesAction.wbGetEntities(properties,
+					(entityId, document) -> result.put(entityId, document.getRevisionId()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the part of cache keys that captures the current filter
+	 * settings.
+	 */
+	String getCacheFilterKey() {
+		WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
+		configureProperties(properties);
+		return "#" + properties.props + "#" + properties.languages + "#"
+				+ properties.sitefilter;
+	}
+
+	/**
+	 * Fetches the documents for the entities of the given string IDs
+	 * asynchronously. The IDs are split into chunks of the size allowed by
+	 * the API, and up to {@link #getMaxRequestsInFlight()} chunks are
+	 * requested at the same time. The resulting map is as for
+	 * {@link #getEntityDocuments(List)}, and the {@link #getCache() cache} is
+	 * used in the same way.
+	 *
+	 * @param entityIds
+	 *            list of string IDs (e.g., "P31", "Q42") of requested entities
+	 * @return future map from IDs for which data could be found to the
+	 *         documents that were retrieved; it completes exceptionally with
+	 *         a {@link CompletionException} wrapping the
+	 *         {@link MediaWikiApiErrorException} or {@link IOException} of
+	 *         the first request that failed
+	 */
+	public CompletableFuture<Map<String, EntityDocument>> getEntityDocumentsAsync(
+			List<String> entityIds) {
+		Map<String, EntityDocument> result = new HashMap<>();
+		return getEntityDocumentsAsync(entityIds, result::put)
+				.thenApply(v -> result);
+	}
+
+	/**
+	 * Fetches the documents for the entities of the given string IDs
+	 * asynchronously, handing every document to the given consumer as soon as
+	 * its chunk has been retrieved. The IDs are split into chunks of the size
+	 * allowed by the API, and up to {@link #getMaxRequestsInFlight()} chunks
+	 * are requested at the same time. The {@link #getCache() cache} is used as
+	 * for {@link #getEntityDocuments(List)}. The consumer is called from the
+	 * threads that run the requests, but never by two threads at once. It
+	 * should not wait for other asynchronous requests of this object, since
+	 * these may need the thread that it is using. IDs for which no data could
+	 * be found are not passed to the consumer.
+	 *
+	 * @param entityIds
+	 *            list of string IDs (e.g., "P31", "Q42") of requested entities
+	 * @param consumer
+	 *            receives the ID and the document for each retrieved entity
+	 * @return future that completes once all chunks have been processed; it
+	 *         completes exceptionally with a {@link CompletionException}
+	 *         wrapping the {@link MediaWikiApiErrorException} or
+	 *         {@link IOException} of the first request that failed
+	 */
+	public CompletableFuture<Void> getEntityDocumentsAsync(
+			List<String> entityIds,
+			BiConsumer<String, ? super EntityDocument> consumer) {
+		List<List<String>> chunks = new ArrayList<>();
+		for (int i = 0; i < entityIds.size(); i += maxListSize) {
+			chunks.add(new ArrayList<>(entityIds.subList(i,
+					Math.min(i + maxListSize, entityIds.size()))));
+		}
+		if (chunks.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		List<Runnable> tasks = new ArrayList<>(chunks.size());
+		for (List<String> chunk : chunks) {
+			tasks.add(() -> {
+				Map<String, EntityDocument> documents;
+				try {
+					documents = getEntityDocuments(chunk);
+				} catch (MediaWikiApiErrorException | IOException e) {
+					throw new CompletionException(e);
+				}
+				synchronized (consumer) {
+					documents.forEach(consumer);
+				}
+			});
+		}
+		return runConcurrently(tasks);
+	}
+
+	/**
+	 * Runs the given tasks on the shared request executor, so that no more
+	 * than {@link #getMaxRequestsInFlight()} requests of this object are sent
+	 * at the same time. The returned future completes when all tasks are
+	 * done, or exceptionally as soon as the first task fails, in which case
+	 * the remaining tasks are not started.
+	 */
+	CompletableFuture<Void> runConcurrently(List<Runnable> tasks) {
+		if (tasks.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		ThreadPoolExecutor executor = getRequestExecutor();
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		AtomicInteger remaining = new AtomicInteger(tasks.size());
+		for (Runnable task : tasks) {
+			executor.execute(() -> {
+				if (result.isDone()) {
+					// an earlier task failed or the caller cancelled
+					return;
+				}
+				try {
+					task.run();
+				} catch (Throwable e) {
+					result.completeExceptionally(e instanceof CompletionException
+							? e : new CompletionException(e));
+					return;
+				}
+				// only complete normally once every task has succeeded
+				if (remaining.decrementAndGet() == 0) {
+					result.complete(null);
+				}
+			});
+		}
+		return result;
+	}
+
 	/**
 	 * Fetches the document for the entity that has a page of the given title on
 	 * the given site. Site keys should be some site identifier known to the
@@ -443,6 +780,151 @@ public class WikibaseDataFetcher {
 		return this.wbSearchEntitiesAction.wbSearchEntities(properties);
 	}
 
+	/**
+	 * Returns all results of a search as a lazily evaluated stream. The
+	 * results are fetched page by page, following the continuation of the
+	 * API, starting at the offset of the given search (if any). While the
+	 * results of one page are consumed, the next page is already being
+	 * fetched in the background. The limit of the search is used as the
+	 * page size, or {@link #SEARCH_PAGE_SIZE} if no limit is set; use
+	 * {@link Stream#limit(long)} to restrict the number of results.
+	 * <p>
+	 * Nothing is requested before the stream is consumed. Failed requests
+	 * are thrown as {@link CompletionException} wrapping the
+	 * {@link MediaWikiApiErrorException} or {@link IOException}. Closing the
+	 * stream cancels a pending request.
+	 *
+	 * @param properties
+	 *            parameters of the search
+	 * @return stream of all results
+	 */
+	public Stream<WbSearchEntitiesResult> streamSearchEntities(WbGetEntitiesSearchData properties) {
+		WbGetEntitiesSearchData search = SearchResultIterator.copy(properties);
+		if (search.limit == null) {
+			search.limit = SEARCH_PAGE_SIZE;
+		}
+		SearchResultIterator iterator = new SearchResultIterator(
+				this.wbSearchEntitiesAction, search, getRequestExecutor());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * Returns all results of a search for the given text in the given
+	 * language as a lazily evaluated stream. See
+	 * {@link #streamSearchEntities(WbGetEntitiesSearchData)} for details.
+	 *
+	 * @param search
+	 *            the text to search for
+	 * @param language
+	 *            the language to search in, e.g., "en"
+	 * @return stream of all results
+	 */
+	public Stream<WbSearchEntitiesResult> streamSearchEntities(String search, String language) {
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = search;
+		properties.language = language;
+		return streamSearchEntities(properties);
+	}
+
+	/**
+	 * Runs many independent searches concurrently. Each search returns one
+	 * page of results, as {@link #searchEntities(WbGetEntitiesSearchData)}
+	 * does. Up to {@link #getMaxRequestsInFlight()} searches are sent at the
+	 * same time.
+	 *
+	 * @param searches
+	 *            parameters of the searches
+	 * @return future list of the results of each search, in the order of the
+	 *         searches; it completes exceptionally with a
+	 *         {@link CompletionException} wrapping the
+	 *         {@link MediaWikiApiErrorException} or {@link IOException} of
+	 *         the first search that failed
+	 */
+	public CompletableFuture<List<List<WbSearchEntitiesResult>>> searchEntitiesAsync(
+			List<WbGetEntitiesSearchData> searches) {
+		List<List<WbSearchEntitiesResult>> results = new ArrayList<>(
+				Collections.nCopies(searches.size(), null));
+		List<Runnable> tasks = new ArrayList<>(searches.size());
+		for (int i = 0; i < searches.size(); i++) {
+			int index = i;
+			WbGetEntitiesSearchData search = searches.get(i);
+			tasks.add(() -> {
+				try {
+					results.set(index, searchEntities(search));
+				} catch (MediaWikiApiErrorException | IOException e) {
+					throw new CompletionException(e);
+				}
+			});
+		}
+		return runConcurrently(tasks).thenApply(v -> results);
+	}
+
+	/**
+	 * Runs many independent searches concurrently, handing the results of
+	 * every search to the given consumer as soon as they have been retrieved.
+	 * Each search returns one page of results, as
+	 * {@link #searchEntities(WbGetEntitiesSearchData)} does. Up to
+	 * {@link #getMaxRequestsInFlight()} searches are sent at the same time.
+	 * The consumer is called from the threads that run the requests, but
+	 * never by two threads at once.
+	 * It should not wait for other asynchronous requests of this object,
+	 * since these may need the thread that it is using.
+	 *
+	 * @param searches
+	 *            parameters of the searches
+	 * @param consumer
+	 *            receives the parameters and the results of each search
+	 * @return future that completes once all searches have been processed; it
+	 *         completes exceptionally with a {@link CompletionException}
+	 *         wrapping the {@link MediaWikiApiErrorException} or
+	 *         {@link IOException} of the first search that failed
+	 */
+	public CompletableFuture<Void> searchEntitiesAsync(
+			List<WbGetEntitiesSearchData> searches,
+			BiConsumer<? super WbGetEntitiesSearchData, ? super List<WbSearchEntitiesResult>> consumer) {
+		if (searches.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		List<Runnable> tasks = new ArrayList<>(searches.size());
+		for (WbGetEntitiesSearchData search : searches) {
+			tasks.add(() -> {
+				List<WbSearchEntitiesResult> results;
+				try {
+					results = searchEntities(search);
+				} catch (MediaWikiApiErrorException | IOException e) {
+					throw new CompletionException(e);
+				}
+				synchronized (consumer) {
+					consumer.accept(search, results);
+				}
+			});
+		}
+		return runConcurrently(tasks);
+	}
+
+	/**
+	 * Returns the executor that runs the concurrent requests of all
+	 * asynchronous methods, so that together they never send more than
+	 * {@link #getMaxRequestsInFlight()} requests at the same time. Its threads
+	 * are daemon threads that end when no requests are waiting, so it does
+	 * not need to be shut down.
+	 */
+	synchronized ThreadPoolExecutor getRequestExecutor() {
+		if (this.requestExecutor == null) {
+			this.requestExecutor = new ThreadPoolExecutor(this.maxRequestsInFlight,
+					this.maxRequestsInFlight, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "WikibaseDataFetcher");
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.requestExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this.requestExecutor;
+	}
+
 	/**
 	 * Configures props, languages and sitefilter properties.
 	 *
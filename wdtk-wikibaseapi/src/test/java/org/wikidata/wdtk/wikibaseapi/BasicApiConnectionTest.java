@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +60,7 @@ import mockwebserver3.Dispatcher;
 import mockwebserver3.MockResponse;
 import mockwebserver3.MockWebServer;
 import mockwebserver3.RecordedRequest;
+import okhttp3.ConnectionPool;
 
 public class BasicApiConnectionTest {
 
@@ -174,6 +176,45 @@ public class BasicApiConnectionTest {
 	}
 
 
+	@Test
+	public void testConnectionPool() throws IOException, MediaWikiApiErrorException {
+		BasicApiConnection other = new BasicApiConnection(server.url("/w/api.php").toString());
+		assertSame(ApiConnection.getSharedConnectionPool(), connection.getConnectionPool());
+		assertSame(connection.getConnectionPool(), other.getConnectionPool());
+
+		ConnectionPool pool = new ConnectionPool();
+		connection.setConnectionPool(pool);
+		assertFalse(connection.isHttp1Only());
+		connection.setHttp1Only(true);
+		assertTrue(connection.isHttp1Only());
+		assertSame(pool, connection.getConnectionPool());
+		connection.getOrFetchToken("login");
+		connection.clearToken("login");
+		connection.getOrFetchToken("login");
+		// the second request reuses the kept-alive connection
+		assertEquals(1, pool.connectionCount());
+
+		connection.setConnectionPool(null);
+		assertSame(ApiConnection.getSharedConnectionPool(), connection.getConnectionPool());
+	}
+
+	@Test
+	public void testMetrics() throws LoginFailedException {
+		InMemoryApiMetrics metrics = new InMemoryApiMetrics();
+		connection.setMetrics(metrics);
+		// fetches a login token, then logs in
+		connection.login("username", "password");
+		assertThrows(AssertUserFailedException.class, () -> connection.checkCredentials());
+
+		assertEquals(3, metrics.getCount(ApiMetrics.REQUESTS));
+		assertEquals(1, metrics.getCount(ApiMetrics.API_ERRORS));
+		assertEquals(3, metrics.getHistogram(ApiMetrics.REQUEST_TIME).getCount());
+		assertTrue(metrics.getHistogram(ApiMetrics.RESPONSE_BYTES).getMin() > 0);
+
+		connection.setMetrics(null);
+		assertSame(ApiMetrics.NO_OP, connection.getMetrics());
+	}
+
 	@Test
 	public void testSerialize() throws LoginFailedException, IOException {
 		connection.login("username", "password");
@@ -0,0 +1,116 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+
+public class EditRateControllerTest {
+
+	@Test
+	public void testBurstDoesNotWait() {
+		EditRateController controller = new EditRateController(1000, 3);
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			controller.acquire();
+		}
+		assertTrue(System.nanoTime() - start < 500000000L);
+	}
+
+	@Test
+	public void testRateIsEnforcedAfterBurst() {
+		EditRateController controller = new EditRateController(50, 2);
+		long start = System.nanoTime();
+		for (int i = 0; i < 4; i++) {
+			controller.acquire();
+		}
+		// the two edits after the burst wait one interval each
+		assertTrue(System.nanoTime() - start >= 90000000L);
+	}
+
+	@Test
+	public void testMaxlagSlowsDownAndSuccessRecovers() {
+		EditRateController controller = new EditRateController(1000);
+		controller.onMaxlag(10, 5, 0);
+		assertEquals(3000, controller.getCurrentTimePerEdit());
+
+		// slow responses do not speed up editing
+		controller.onSuccess(5000000000L);
+		assertEquals(3000, controller.getCurrentTimePerEdit());
+
+		for (int i = 0; i < 25; i++) {
+			controller.onSuccess(0);
+		}
+		assertEquals(1000, controller.getCurrentTimePerEdit());
+	}
+
+	@Test
+	public void testSlowdownIsBounded() {
+		EditRateController controller = new EditRateController(1000);
+		controller.setMaxSlowdown(4);
+		for (int i = 0; i < 5; i++) {
+			controller.onMaxlag(0, 5, 0);
+		}
+		assertEquals(4000, controller.getCurrentTimePerEdit());
+
+		controller.setAverageTimePerEdit(500);
+		assertEquals(500, controller.getCurrentTimePerEdit());
+	}
+
+	@Test
+	public void testMaxlagWithoutRateLimit() {
+		EditRateController controller = new EditRateController(0);
+		controller.onMaxlag(0, 5, 0);
+		assertEquals(200, controller.getCurrentTimePerEdit());
+	}
+
+	@Test
+	public void testInvalidSettings() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new EditRateController(1000, 0));
+		EditRateController controller = new EditRateController(1000);
+		assertThrows(IllegalArgumentException.class,
+				() -> controller.setAverageTimePerEdit(-1));
+		assertThrows(IllegalArgumentException.class,
+				() -> controller.setMaxSlowdown(0.5));
+	}
+
+	@Test
+	public void testSharedController() {
+		EditRateController controller = new EditRateController(3000);
+		WbEditingAction first = new WbEditingAction(
+				new MockBasicApiConnection(), Datamodel.SITE_WIKIDATA);
+		WbEditingAction second = new WbEditingAction(
+				new MockBasicApiConnection(), Datamodel.SITE_WIKIDATA);
+		first.setRateController(controller);
+		second.setRateController(controller);
+
+		second.setAverageTimePerEdit(4000);
+		assertEquals(4000, first.getAverageTimePerEdit());
+		assertSame(first.getRateController(), second.getRateController());
+	}
+
+}
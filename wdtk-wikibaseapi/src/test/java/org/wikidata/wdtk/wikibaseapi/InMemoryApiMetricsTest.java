@@ -0,0 +1,74 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemoryApiMetricsTest {
+
+	@Test
+	public void testCounters() {
+		InMemoryApiMetrics metrics = new InMemoryApiMetrics();
+		metrics.increment(ApiMetrics.REQUESTS);
+		metrics.increment(ApiMetrics.REQUESTS, 2);
+		assertEquals(3, metrics.getCount(ApiMetrics.REQUESTS));
+		assertEquals(0, metrics.getCount(ApiMetrics.EDITS));
+		assertEquals(1, metrics.getCounters().size());
+	}
+
+	@Test
+	public void testHistogram() {
+		InMemoryApiMetrics metrics = new InMemoryApiMetrics();
+		for (int i = 1; i <= 100; i++) {
+			metrics.record(ApiMetrics.RESPONSE_BYTES, i);
+		}
+		InMemoryApiMetrics.Histogram histogram = metrics
+				.getHistogram(ApiMetrics.RESPONSE_BYTES);
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050, histogram.getSum());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 0.001);
+		// percentiles are bounded by the next power of two
+		long median = histogram.getPercentile(50);
+		assertTrue(median >= 50 && median <= 100);
+		assertEquals(100, histogram.getPercentile(100));
+		assertEquals(1, histogram.getPercentile(0));
+	}
+
+	@Test
+	public void testEmptyHistogramAndReset() {
+		InMemoryApiMetrics metrics = new InMemoryApiMetrics();
+		assertEquals(0, metrics.getHistogram(ApiMetrics.EDIT_TIME).getCount());
+		assertEquals(0, metrics.getHistogram(ApiMetrics.EDIT_TIME).getPercentile(50));
+
+		metrics.recordTime(ApiMetrics.EDIT_TIME, 1000);
+		metrics.increment(ApiMetrics.EDITS);
+		assertTrue(metrics.toString().contains("edits: 1"));
+		metrics.reset();
+		assertTrue(metrics.getCounters().isEmpty());
+		assertTrue(metrics.getHistograms().isEmpty());
+	}
+
+}
@@ -0,0 +1,181 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.testing.MockWikibaseApiServer;
+import org.wikidata.wdtk.wikibaseapi.apierrors.EditConflictErrorException;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MaxlagErrorException;
+import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+
+/**
+ * Runs the fetcher and the editor against a local stand-in of the API.
+ */
+public class LocalApiServerTest {
+
+	static final String SITE_IRI = Datamodel.SITE_WIKIDATA;
+
+	MockWikibaseApiServer server;
+	BasicApiConnection connection;
+
+	@BeforeEach
+	public void setUp() throws IOException, LoginFailedException {
+		server = new MockWikibaseApiServer().start();
+		server.putEntity("{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{\"en\":{\"language\":\"en\",\"value\":\"Douglas Adams\"}},"
+				+ "\"descriptions\":{},\"aliases\":{},\"claims\":{},\"sitelinks\":{}}");
+		server.putEntity("{\"type\":\"property\",\"id\":\"P31\",\"datatype\":\"wikibase-item\",\"labels\":{},"
+				+ "\"descriptions\":{},\"aliases\":{},\"claims\":{}}");
+		connection = new BasicApiConnection(server.getApiUrl());
+		connection.login("user", "password");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.close();
+	}
+
+	@Test
+	public void testFetchAndSearch() throws IOException, MediaWikiApiErrorException {
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(connection, SITE_IRI);
+		EntityDocument document = fetcher.getEntityDocument("Q42");
+		assertEquals(Datamodel.makeWikidataItemIdValue("Q42"), document.getEntityId());
+		assertEquals("Douglas Adams", ((ItemDocument) document).findLabel("en"));
+		assertEquals(null, fetcher.getEntityDocument("Q1"));
+
+		List<WbSearchEntitiesResult> results = fetcher.searchEntities("douglas", "en");
+		assertEquals(1, results.size());
+		assertEquals("Q42", results.get(0).getEntityId());
+	}
+
+	@Test
+	public void testCreateAndEdit() throws IOException, MediaWikiApiErrorException {
+		WikibaseDataEditor editor = new WikibaseDataEditor(connection, SITE_IRI);
+		editor.setEditAsBot(false);
+		editor.setAverageTimePerEdit(0);
+		ItemIdValue q42 = Datamodel.makeWikidataItemIdValue("Q42");
+		PropertyIdValue p31 = Datamodel.makeWikidataPropertyIdValue("P31");
+
+		ItemDocument created = editor.createItemDocument(ItemDocumentBuilder.forItemId(ItemIdValue.NULL)
+				.withLabel("novel", "en").build(), "create", Collections.emptyList());
+		assertEquals("Q43", created.getEntityId().getId());
+
+		ItemDocument current = (ItemDocument) new WikibaseDataFetcher(connection, SITE_IRI)
+				.getEntityDocument("Q42");
+		ItemDocument edited = editor.editItemDocument(current.withStatement(StatementBuilder
+				.forSubjectAndProperty(q42, p31).withValue(created.getEntityId()).build()),
+				false, "add statement", Collections.emptyList());
+		assertTrue(edited.getRevisionId() > current.getRevisionId());
+		assertEquals(1, edited.findStatementGroup("P31").size());
+
+		assertThrows(EditConflictErrorException.class, () -> editor.editItemDocument(
+				current.withLabel(Datamodel.makeMonolingualTextValue("Adams", "en")),
+				false, "stale edit", Collections.emptyList()));
+	}
+
+	@Test
+	public void testMaxlag() throws IOException, MediaWikiApiErrorException {
+		server.setLag(10);
+		WikibaseDataEditor editor = new WikibaseDataEditor(connection, SITE_IRI);
+		editor.setEditAsBot(false);
+		editor.setMaxLagMaxRetries(1);
+		editor.setMaxLagFirstWaitTime(10);
+		assertThrows(MaxlagErrorException.class, () -> editor.createItemDocument(
+				ItemDocumentBuilder.forItemId(ItemIdValue.NULL).build(), "create", null));
+		assertEquals(1, server.getRequestCount("wbeditentity"));
+	}
+
+	@Test
+	public void testStreamSearchEntities() throws IOException {
+		for (int i = 100; i < 220; i++) {
+			server.putEntity("{\"type\":\"item\",\"id\":\"Q" + i + "\",\"labels\":{\"en\":"
+					+ "{\"language\":\"en\",\"value\":\"Douglas " + i + "\"}}}");
+		}
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(connection, SITE_IRI);
+		try (Stream<WbSearchEntitiesResult> results = fetcher.streamSearchEntities("douglas", "en")) {
+			List<String> ids = results.map(WbSearchEntitiesResult::getEntityId)
+					.collect(Collectors.toList());
+			assertEquals(121, ids.size());
+			assertEquals("Q42", ids.get(0));
+			assertEquals("Q219", ids.get(120));
+		}
+		assertEquals(3, server.getRequestCount("wbsearchentities"));
+
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = "douglas";
+		properties.language = "en";
+		properties.limit = 10L;
+		properties.offset = 5L;
+		try (Stream<WbSearchEntitiesResult> results = fetcher.streamSearchEntities(properties)) {
+			assertEquals("Q104", results.findFirst().get().getEntityId());
+		}
+		// the first page and the prefetched second page
+		assertTrue(server.getRequestCount("wbsearchentities") <= 5);
+	}
+
+	@Test
+	public void testSearchEntitiesAsync() {
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(connection, SITE_IRI);
+		List<WbGetEntitiesSearchData> searches = new ArrayList<>();
+		for (String text : Arrays.asList("douglas", "nothing", "DOUG")) {
+			WbGetEntitiesSearchData search = new WbGetEntitiesSearchData();
+			search.search = text;
+			search.language = "en";
+			searches.add(search);
+		}
+		List<List<WbSearchEntitiesResult>> results = fetcher.searchEntitiesAsync(searches).join();
+		assertEquals(1, results.get(0).size());
+		assertEquals(0, results.get(1).size());
+		assertEquals("Q42", results.get(2).get(0).getEntityId());
+
+		// the same parameters may be given more than once
+		results = fetcher.searchEntitiesAsync(
+				Arrays.asList(searches.get(0), searches.get(0))).join();
+		assertEquals(results.get(0), results.get(1));
+		assertEquals(1, results.get(1).size());
+
+		server.failNextRequests(1, "permissiondenied");
+		CompletionException e = assertThrows(CompletionException.class,
+				() -> fetcher.searchEntitiesAsync(searches.subList(0, 1)).join());
+		assertTrue(e.getCause() instanceof MediaWikiApiErrorException);
+	}
+}
@@ -0,0 +1,108 @@
+package org.wikidata.wdtk.wikibaseapi;
+
+/*
+ * #%L
+ * Wikidata Toolkit Wikibase API
+ * %%
+ * Copyright (C) 2014 - 2015 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+public class LruEntityDocumentCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	EntityDocument makeDocument(String id) {
+		return Datamodel.makeItemDocument(
+				Datamodel.makeWikidataItemIdValue(id))
+				.withLabel(Datamodel.makeMonolingualTextValue("label", "en"))
+				.withRevisionId(1234);
+	}
+
+	@Test
+	public void testEviction() {
+		LruEntityDocumentCache cache = new LruEntityDocumentCache(2);
+		EntityDocument q1 = makeDocument("Q1");
+		cache.put("Q1", q1);
+		cache.put("Q2", makeDocument("Q2"));
+		// Q1 becomes the most recently used entry
+		assertSame(q1, cache.get("Q1"));
+		cache.put("Q3", makeDocument("Q3"));
+
+		assertEquals(2, cache.size());
+		assertSame(q1, cache.get("Q1"));
+		assertNull(cache.get("Q2"));
+	}
+
+	@Test
+	public void testRemove() {
+		LruEntityDocumentCache cache = new LruEntityDocumentCache(2);
+		cache.put("Q1", makeDocument("Q1"));
+		cache.remove("Q1");
+		assertNull(cache.get("Q1"));
+	}
+
+	@Test
+	public void testSecondLevelCache() throws IOException {
+		DirectoryEntityDocumentCache directoryCache = new DirectoryEntityDocumentCache(
+				this.tempDir.resolve("cache"), Datamodel.SITE_WIKIDATA);
+		LruEntityDocumentCache cache = new LruEntityDocumentCache(1, directoryCache);
+		EntityDocument q1 = makeDocument("Q1");
+		cache.put("Q1#labels", q1);
+		cache.put("Q2#labels", makeDocument("Q2"));
+
+		// evicted from memory, but still on disk
+		assertEquals(1, cache.size());
+		assertEquals(q1, cache.get("Q1#labels"));
+		assertEquals(q1, new DirectoryEntityDocumentCache(
+				this.tempDir.resolve("cache"), Datamodel.SITE_WIKIDATA)
+				.get("Q1#labels"));
+
+		cache.remove("Q1#labels");
+		assertNull(directoryCache.get("Q1#labels"));
+	}
+
+	@Test
+	public void testDirectoryCacheLongKey() throws IOException {
+		DirectoryEntityDocumentCache directoryCache = new DirectoryEntityDocumentCache(
+				this.tempDir.resolve("cache"), Datamodel.SITE_WIKIDATA);
+		StringBuilder key = new StringBuilder("Q1#info|labels#");
+		for (int i = 0; i < 200; i++) {
+			key.append("lang").append(i).append('|');
+		}
+		EntityDocument q1 = makeDocument("Q1");
+		directoryCache.put(key.toString(), q1);
+
+		assertEquals(q1, directoryCache.get(key.toString()));
+		assertNull(directoryCache.get("Q1#info|labels#en"));
+		assertTrue(directoryCache.getFile(key.toString()).getFileName()
+				.toString().length() < 64);
+	}
+
+}
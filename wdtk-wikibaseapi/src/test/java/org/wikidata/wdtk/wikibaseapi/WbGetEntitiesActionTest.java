@@ -25,7 +25,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +37,7 @@ import org.wikidata.wdtk.datamodel.helpers.Datamodel;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.util.CompressionType;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
+import org.wikidata.wdtk.wikibaseapi.apierrors.NoSuchEntityErrorException;
 
 public class WbGetEntitiesActionTest {
 
@@ -123,6 +127,31 @@ public class WbGetEntitiesActionTest {
 		assertEquals(result1, result2);
 	}
 
+	@Test
+	public void testWbGetEntitiesStreaming() throws MediaWikiApiErrorException, IOException {
+		WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
+		properties.ids = "Q6|Q42|P31";
+		Map<String, EntityDocument> streamed = new LinkedHashMap<>();
+		action.wbGetEntities(properties, streamed::put);
+
+		assertEquals(Arrays.asList("Q42", "P31"), new ArrayList<>(streamed.keySet()));
+		assertEquals(action.wbGetEntities(properties), streamed);
+	}
+
+	@Test
+	public void testWbGetEntitiesStreamingError() throws IOException {
+		Map<String, String> params = new HashMap<>();
+		params.put("action", "wbgetentities");
+		params.put("format", "json");
+		params.put("ids", "bogus");
+		this.con.setWebResourceFromPath(params, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
+		properties.ids = "bogus";
+		assertThrows(NoSuchEntityErrorException.class,
+				() -> action.wbGetEntities(properties, (key, document) -> {}));
+	}
+
 	@Test
 	public void testWbGetEntitiesIoError() throws MediaWikiApiErrorException, IOException {
 		WbGetEntitiesActionData properties = new WbGetEntitiesActionData();
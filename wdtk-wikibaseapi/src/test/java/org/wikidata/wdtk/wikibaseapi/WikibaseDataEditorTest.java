@@ -22,12 +22,14 @@ package org.wikidata.wdtk.wikibaseapi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 import static org.wikidata.wdtk.datamodel.helpers.Datamodel.makeStringValue;
 import static org.wikidata.wdtk.datamodel.helpers.Datamodel.makeWikidataFormIdValue;
 import static org.wikidata.wdtk.datamodel.helpers.Datamodel.makeWikidataItemIdValue;
@@ -41,6 +43,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -72,6 +76,7 @@ import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.SenseUpdate;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.util.CompressionType;
+import org.wikidata.wdtk.wikibaseapi.apierrors.EditConflictErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.MediaWikiApiErrorException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.TagsApplyNotAllowedException;
 import org.wikidata.wdtk.wikibaseapi.apierrors.TokenErrorException;
@@ -1045,4 +1050,161 @@ public class WikibaseDataEditorTest {
 				.build()));
 	}
 
+	@Test
+	public void testEditEntityDocumentAsync() throws Exception {
+		ItemUpdate update = ItemUpdateBuilder
+				.forBaseRevisionId(makeWikidataItemIdValue("Q1"), 123)
+				.updateLabels(TermUpdateBuilder.create().remove("en").build())
+				.build();
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = new WikibaseDataFetcher(con, Datamodel.SITE_WIKIDATA);
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+		wde.setMaxEditsInFlight(2);
+		assertEquals(2, wde.getMaxEditsInFlight());
+
+		wde.editEntityDocumentAsync(update, true, "test summary", Arrays.asList("tag1")).get();
+		verify(action, only()).wbEditEntity("Q1", null, null, null, JsonSerializer.getJsonString(update),
+				true, false, 123, "test summary", Arrays.asList("tag1"));
+	}
+
+	@Test
+	public void testEditEntityDocumentAsyncAfterConflict() throws Exception {
+		ItemIdValue subject = makeWikidataItemIdValue("Q1");
+		MonolingualTextValue label = Datamodel.makeMonolingualTextValue("label", "en");
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		when(fetcher.getEntityDocument("Q1")).thenReturn(
+				ItemDocumentBuilder.forItemId(subject).withRevisionId(1).build(),
+				ItemDocumentBuilder.forItemId(subject).withRevisionId(2).build());
+		when(action.wbSetLabel("Q1", null, null, null, "en", "label", false, 1, "test summary", null))
+				.thenThrow(new EditConflictErrorException("conflict"));
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		EntityUpdate update = wde.editEntityDocumentAsync(subject,
+				document -> ItemUpdateBuilder.forBaseRevisionId(subject, document.getRevisionId())
+						.updateLabels(TermUpdateBuilder.create().put(label).build())
+						.build(),
+				"test summary", null).get();
+
+		assertEquals(2, update.getBaseRevisionId());
+		verify(action).wbSetLabel("Q1", null, null, null, "en", "label", false, 2, "test summary", null);
+	}
+
+	@Test
+	public void testEditEntityDocumentAsyncNoChange() throws Exception {
+		ItemIdValue subject = makeWikidataItemIdValue("Q1");
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		when(fetcher.getEntityDocument("Q1")).thenReturn(
+				ItemDocumentBuilder.forItemId(subject).withRevisionId(1).build());
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		assertNull(wde.editEntityDocumentAsync(subject, document -> null, "test summary", null).get());
+		verifyNoInteractions(action);
+	}
+
+	@Test
+	public void testEditEntityDocumentsAsync() throws Exception {
+		ItemIdValue q1 = makeWikidataItemIdValue("Q1");
+		ItemIdValue q2 = makeWikidataItemIdValue("Q2");
+		MonolingualTextValue label = Datamodel.makeMonolingualTextValue("label", "en");
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		Map<String, EntityDocument> documents = new HashMap<>();
+		documents.put("Q1", ItemDocumentBuilder.forItemId(q1).withLabel(label).withRevisionId(5).build());
+		documents.put("Q2", ItemDocumentBuilder.forItemId(q2).withRevisionId(7).build());
+		when(fetcher.getEntityDocuments(Arrays.asList("Q1", "Q2"))).thenReturn(documents);
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		List<CompletableFuture<EntityUpdate>> results = wde.editEntityDocumentsAsync(Arrays.asList(
+				ItemUpdateBuilder.forEntityId(q1)
+						.updateLabels(TermUpdateBuilder.create().put(label).build()).build(),
+				ItemUpdateBuilder.forEntityId(q2)
+						.updateLabels(TermUpdateBuilder.create().put(label).build()).build()),
+				"test summary", null);
+
+		// the label of Q1 is already there, so no edit is made
+		assertNull(results.get(0).get());
+		assertEquals(7, results.get(1).get().getBaseRevisionId());
+		verify(action, only()).wbSetLabel("Q2", null, null, null, "en", "label", false, 7, "test summary", null);
+	}
+
+	@Test
+	public void testEditEntityDocumentsAsyncFetchError() throws Exception {
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		when(fetcher.getEntityDocuments(Arrays.asList("Q1")))
+				.thenThrow(new MediaWikiApiErrorException("failed", "test"));
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		List<CompletableFuture<EntityUpdate>> results = wde.editEntityDocumentsAsync(Arrays.asList(
+				ItemUpdateBuilder.forEntityId(makeWikidataItemIdValue("Q1"))
+						.updateLabels(TermUpdateBuilder.create().remove("en").build()).build()),
+				"test summary", null);
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> results.get(0).get());
+		assertTrue(e.getCause() instanceof MediaWikiApiErrorException);
+		verifyNoInteractions(action);
+	}
+
+	@Test
+	public void testEditEntityDocumentsAsyncUnexpectedError() throws Exception {
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		when(fetcher.getEntityDocuments(Arrays.asList("Q1")))
+				.thenThrow(new IllegalStateException("failed"));
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		List<CompletableFuture<EntityUpdate>> results = wde.editEntityDocumentsAsync(Arrays.asList(
+				ItemUpdateBuilder.forEntityId(makeWikidataItemIdValue("Q1"))
+						.updateLabels(TermUpdateBuilder.create().remove("en").build()).build()),
+				"test summary", null);
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> results.get(0).get());
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		verifyNoInteractions(action);
+	}
+
+	@Test
+	public void testEditEntityDocumentsAsyncExistingStatement() throws Exception {
+		ItemIdValue q1 = makeWikidataItemIdValue("Q1");
+		Statement statement = StatementBuilder
+				.forSubjectAndProperty(q1, makeWikidataPropertyIdValue("P1"))
+				.withValue(makeStringValue("value")).build();
+		WbEditingAction action = mock(WbEditingAction.class);
+		WikibaseDataFetcher fetcher = mock(WikibaseDataFetcher.class);
+		Map<String, EntityDocument> documents = new HashMap<>();
+		documents.put("Q1", ItemDocumentBuilder.forItemId(q1)
+				.withStatement(statement.withStatementId("Q1$existing"))
+				.withRevisionId(5).build());
+		when(fetcher.getEntityDocuments(Arrays.asList("Q1"))).thenReturn(documents);
+		WikibaseDataEditor wde = new WikibaseDataEditor(action, fetcher, Datamodel.SITE_WIKIDATA, guids);
+
+		List<CompletableFuture<EntityUpdate>> results = wde.editEntityDocumentsAsync(Arrays.asList(
+				ItemUpdateBuilder.forEntityId(q1)
+						.updateStatements(StatementUpdateBuilder.create().add(statement).build())
+						.build()),
+				"test summary", null);
+
+		// the statement is already there, so no edit is made
+		assertNull(results.get(0).get());
+		verifyNoInteractions(action);
+	}
+
+	@Test
+	public void testRebaseUpdate() {
+		ItemIdValue q1 = makeWikidataItemIdValue("Q1");
+		ItemDocument document = ItemDocumentBuilder.forItemId(q1).withRevisionId(5).build();
+		ItemUpdate current = ItemUpdateBuilder.forBaseRevisionId(q1, 5)
+				.updateLabels(TermUpdateBuilder.create().remove("en").build()).build();
+		ItemUpdate outdated = ItemUpdateBuilder.forBaseRevisionId(q1, 3)
+				.updateLabels(TermUpdateBuilder.create().remove("en").build()).build();
+
+		// removing a label that does not exist is a no-op
+		assertTrue(WikibaseDataEditor.rebaseUpdate(current, document).isEmpty());
+		// updates for other revisions or unknown documents are left alone
+		assertSame(outdated, WikibaseDataEditor.rebaseUpdate(outdated, document));
+		assertSame(current, WikibaseDataEditor.rebaseUpdate(current, null));
+	}
+
 }
@@ -23,7 +23,9 @@ package org.wikidata.wdtk.wikibaseapi;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -34,6 +36,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -102,6 +107,189 @@ public class WikibaseDataFetcherTest {
 		assertNull(result);
 	}
 
+	@Test
+	public void testGetEntityDocumentsAsync() throws Exception {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q6|Q42");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "P31|Q1");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-Q1.json", CompressionType.NONE);
+		wdf.maxListSize = 2;
+		wdf.setMaxRequestsInFlight(2);
+
+		Map<String, EntityDocument> results = wdf.getEntityDocumentsAsync(
+				Arrays.asList("Q6", "Q42", "P31", "Q1")).get();
+
+		assertFalse(results.containsKey("Q6"));
+		assertTrue(results.containsKey("Q42"));
+		assertTrue(results.containsKey("P31"));
+		assertTrue(results.containsKey("Q1"));
+	}
+
+	@Test
+	public void testGetEntityDocumentsAsyncError() throws IOException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "bogus");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q1");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-Q1.json", CompressionType.NONE);
+		wdf.maxListSize = 1;
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> wdf.getEntityDocumentsAsync(
+						Arrays.asList("bogus", "Q1")).get());
+		assertTrue(e.getCause() instanceof NoSuchEntityErrorException);
+	}
+
+	@Test
+	public void testGetEntityDocumentsAsyncLastChunkError() throws IOException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q6|Q42");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "bogus");
+		con.setWebResourceFromPath(parameters, getClass(),
+				"/wbgetentities-bogus.json", CompressionType.NONE);
+		wdf.maxListSize = 2;
+		wdf.setMaxRequestsInFlight(1);
+
+		// the failing chunk is the last one to finish
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> wdf.getEntityDocumentsAsync(
+						Arrays.asList("Q6", "Q42", "bogus")).get());
+		assertTrue(e.getCause() instanceof NoSuchEntityErrorException);
+	}
+
+	@Test
+	public void testRunConcurrentlySharesLimit() {
+		wdf.setMaxRequestsInFlight(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			tasks.add(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+			});
+		}
+
+		CompletableFuture<Void> first = wdf.runConcurrently(tasks);
+		CompletableFuture<Void> second = wdf.runConcurrently(tasks);
+		CompletableFuture.allOf(first, second).join();
+
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	public void testGetEntityDocumentsAsyncEmpty() throws Exception {
+		assertTrue(wdf.getEntityDocumentsAsync(Collections.emptyList()).get()
+				.isEmpty());
+	}
+
+	@Test
+	public void testMaxLag() throws IOException, MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q42");
+		parameters.put("maxlag", "5");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+
+		wdf.setMaxLag(5);
+		assertEquals(5, wdf.getMaxLag());
+		assertNotNull(wdf.getEntityDocument("Q42"));
+	}
+
+	@Test
+	public void testCacheWithoutValidation() throws IOException,
+			MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q42");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		LruEntityDocumentCache cache = new LruEntityDocumentCache(10);
+		wdf.setCache(cache);
+		wdf.setValidateCachedDocuments(false);
+
+		EntityDocument document = wdf.getEntityDocument("Q42");
+		// the mocked answer also contains P31
+		assertEquals(2, cache.size());
+		// no more requests are possible now
+		con.webResources.clear();
+		assertSame(document, wdf.getEntityDocument("Q42"));
+
+		// different filter settings must not use the cached document
+		wdf.getFilter().setLanguageFilter(Collections.singleton("en"));
+		assertThrows(IOException.class, () -> wdf.getEntityDocument("Q42"));
+	}
+
+	@Test
+	public void testCacheAsync() throws Exception {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q42");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		wdf.setCache(new LruEntityDocumentCache(10));
+		wdf.setValidateCachedDocuments(false);
+
+		EntityDocument document = wdf.getEntityDocumentsAsync(
+				Collections.singletonList("Q42")).get().get("Q42");
+		assertNotNull(document);
+		// no more requests are possible now
+		con.webResources.clear();
+		assertSame(document, wdf.getEntityDocumentsAsync(
+				Arrays.asList("Q42", "P31")).get().get("Q42"));
+	}
+
+	@Test
+	public void testCacheValidation() throws IOException,
+			MediaWikiApiErrorException {
+		Map<String, String> parameters = new HashMap<>();
+		setStandardParameters(parameters);
+		parameters.put("ids", "Q42");
+		con.setWebResourceFromPath(parameters, this.getClass(),
+				"/wbgetentities-Q6-Q42-P31.json", CompressionType.NONE);
+		Map<String, String> infoParameters = new HashMap<>();
+		infoParameters.put("action", "wbgetentities");
+		infoParameters.put("format", "json");
+		infoParameters.put("props", "info|datatype");
+		infoParameters.put("ids", "Q42");
+		con.setWebResource(infoParameters,
+				"{\"entities\":{\"Q42\":{\"id\":\"Q42\",\"type\":\"item\",\"lastrevid\":196015688}}}");
+		wdf.setCache(new LruEntityDocumentCache(10));
+
+		EntityDocument document = wdf.getEntityDocument("Q42");
+		// revision is unchanged
+		assertSame(document, wdf.getEntityDocument("Q42"));
+
+		// revision has changed
+		con.setWebResource(infoParameters,
+				"{\"entities\":{\"Q42\":{\"id\":\"Q42\",\"type\":\"item\",\"lastrevid\":196015689}}}");
+		EntityDocument refetched = wdf.getEntityDocument("Q42");
+		assertNotSame(document, refetched);
+		assertEquals(document, refetched);
+	}
+
 	@Test
 	public void testWbGetEntitiesError() throws IOException,
 			MediaWikiApiErrorException {